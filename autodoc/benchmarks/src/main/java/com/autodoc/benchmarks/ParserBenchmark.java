@@ -0,0 +1,61 @@
+package com.autodoc.benchmarks;
+
+import com.autodoc.Parser;
+import com.autodoc.ParserEngine;
+import com.autodoc.ParserOptions;
+import com.autodoc.model.ParsedProject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import spoon.reflect.CtModel;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@link Parser#parse(String)} on a generated project, plus the
+ * Spoon model build it starts with, and the same parse on the JavaParser
+ * engine.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ParserBenchmark {
+
+    @Benchmark
+    public CtModel buildModel(ProjectState state) {
+        return ProjectState.buildModel(state.sourceDir);
+    }
+
+    @Benchmark
+    public ParsedProject parse(ProjectState state) {
+        return new Parser().parse(state.sourceDir.toString());
+    }
+
+    @Benchmark
+    public ParsedProject parseParallel(ProjectState state) {
+        ParserOptions options = new ParserOptions();
+        options.setParallelism(Runtime.getRuntime().availableProcessors());
+        return new Parser(options).parse(state.sourceDir.toString());
+    }
+
+    @Benchmark
+    public ParsedProject parseJavaParser(ProjectState state) {
+        ParserOptions options = new ParserOptions();
+        options.setEngine(ParserEngine.JAVAPARSER);
+        return new Parser(options).parse(state.sourceDir.toString());
+    }
+
+    @Benchmark
+    public ParsedProject parseJavaParserParallel(ProjectState state) {
+        ParserOptions options = new ParserOptions();
+        options.setEngine(ParserEngine.JAVAPARSER);
+        options.setParallelism(Runtime.getRuntime().availableProcessors());
+        return new Parser(options).parse(state.sourceDir.toString());
+    }
+}
@@ -0,0 +1,63 @@
+package com.autodoc.benchmarks;
+
+import com.autodoc.Parser;
+import com.autodoc.model.ParsedProject;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import spoon.Launcher;
+import spoon.reflect.CtModel;
+
+import java.nio.file.Path;
+
+/**
+ * A generated project shared by all invocations of a trial, along with its
+ * Spoon model and IR so that each stage can be measured on its own. Sizes
+ * are overridable from the command line, e.g. {@code -p controllers=500}.
+ */
+@State(Scope.Benchmark)
+public class ProjectState {
+
+    @Param("100")
+    public int controllers;
+
+    @Param("200")
+    public int dtos;
+
+    @Param("50")
+    public int services;
+
+    @Param("2")
+    public int genericDepth;
+
+    public Path sourceDir;
+    public CtModel model;
+    public ParsedProject parsedProject;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sourceDir = new SyntheticProject(controllers, dtos, services, genericDepth).writeToTempDir();
+        model = buildModel(sourceDir);
+        parsedProject = new Parser().parse(sourceDir.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SyntheticProject.delete(sourceDir);
+    }
+
+    /**
+     * Builds the Spoon model with the same environment as {@link Parser}.
+     */
+    public static CtModel buildModel(Path dir) {
+        Launcher launcher = new Launcher();
+        launcher.getEnvironment().setComplianceLevel(11);
+        launcher.getEnvironment().setCommentEnabled(true);
+        launcher.getEnvironment().setAutoImports(true);
+        launcher.addInputResource(dir.toString());
+        return launcher.buildModel();
+    }
+}
@@ -0,0 +1,70 @@
+package com.autodoc.benchmarks;
+
+import com.autodoc.model.ParsedProject;
+import com.autodoc.model.Relationship;
+import com.autodoc.processor.ControllerProcessor;
+import com.autodoc.processor.ModelProcessor;
+import com.autodoc.processor.ModelScanner;
+import com.autodoc.processor.RelationshipExtractor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each extraction stage on its own, over a Spoon model built once per
+ * trial, and the IR serialization that follows them.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class StageBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Benchmark
+    public ParsedProject modelProcessor(ProjectState state) {
+        ParsedProject parsedProject = new ParsedProject();
+        new ModelProcessor().processModels(state.model, parsedProject);
+        return parsedProject;
+    }
+
+    @Benchmark
+    public ParsedProject controllerProcessor(ProjectState state) {
+        ParsedProject parsedProject = new ParsedProject();
+        new ControllerProcessor().processControllers(state.model, parsedProject);
+        return parsedProject;
+    }
+
+    @Benchmark
+    public List<Relationship> relationshipExtractor(ProjectState state) {
+        return new RelationshipExtractor().extractRelationships(state.model);
+    }
+
+    /**
+     * All three processors in the single scan {@code Parser} uses.
+     */
+    @Benchmark
+    public List<Relationship> singlePass(ProjectState state) {
+        RelationshipExtractor relationshipExtractor = new RelationshipExtractor();
+        new ModelScanner(new ModelProcessor(), new ControllerProcessor(), relationshipExtractor)
+                .scan(state.model, new ParsedProject());
+        return relationshipExtractor.getRelationships();
+    }
+
+    @Benchmark
+    public void serialize(ProjectState state) throws IOException {
+        MAPPER.writeValue(OutputStream.nullOutputStream(), state.parsedProject);
+    }
+}
@@ -0,0 +1,225 @@
+package com.autodoc.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Generates a Spring-style source tree to benchmark the parser on.
+ *
+ * Every controller exposes five CRUD endpoints over one DTO and gets a
+ * service injected through its constructor; every service has a field
+ * injected repository and the next service as a constructor dependency.
+ * DTOs carry validation annotations, an enum and a reference to the next
+ * DTO. Response and DTO field types are wrapped in {@code genericDepth}
+ * levels of generics, e.g. {@code ResponseEntity<Page<List<Dto3>>>}.
+ */
+public class SyntheticProject {
+
+    private static final String ROOT = "com/bench";
+    private static final String[] WRAPPERS = { "List", "Optional", "Page", "Set" };
+
+    private final int controllers;
+    private final int dtos;
+    private final int services;
+    private final int genericDepth;
+
+    public SyntheticProject(int controllers, int dtos, int services, int genericDepth) {
+        if (controllers < 0 || dtos < 1 || services < 1 || genericDepth < 0) {
+            throw new IllegalArgumentException("Need at least one DTO and one service");
+        }
+        this.controllers = controllers;
+        this.dtos = dtos;
+        this.services = services;
+        this.genericDepth = genericDepth;
+    }
+
+    public int getControllers() {
+        return controllers;
+    }
+
+    public int getDtos() {
+        return dtos;
+    }
+
+    public int getServices() {
+        return services;
+    }
+
+    public int getGenericDepth() {
+        return genericDepth;
+    }
+
+    private int enums() {
+        return Math.max(1, dtos / 4);
+    }
+
+    /**
+     * Writes the sources to a new temporary directory and returns it.
+     */
+    public Path writeToTempDir() {
+        try {
+            Path dir = Files.createTempDirectory("autodoc-bench-");
+            writeTo(dir);
+            return dir;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void writeTo(Path dir) throws IOException {
+        for (int i = 0; i < dtos; i++) {
+            write(dir, "dto", "Dto" + i, dto(i));
+        }
+        for (int i = 0; i < enums(); i++) {
+            write(dir, "dto", "Status" + i, statusEnum(i));
+        }
+        for (int i = 0; i < services; i++) {
+            write(dir, "repository", "Repository" + i, repository(i));
+            write(dir, "service", "Service" + i, service(i));
+        }
+        for (int i = 0; i < controllers; i++) {
+            write(dir, "controller", "Controller" + i, controller(i));
+        }
+    }
+
+    public static void delete(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void write(Path dir, String pkg, String name, String source) throws IOException {
+        Path pkgDir = dir.resolve(ROOT).resolve(pkg);
+        Files.createDirectories(pkgDir);
+        Files.writeString(pkgDir.resolve(name + ".java"), source);
+    }
+
+    /**
+     * Wraps a type in genericDepth levels of generic containers.
+     */
+    private String wrap(String type) {
+        for (int d = 0; d < genericDepth; d++) {
+            type = WRAPPERS[d % WRAPPERS.length] + "<" + type + ">";
+        }
+        return type;
+    }
+
+    private String dto(int i) {
+        String next = "Dto" + ((i + 1) % dtos);
+        return "package com.bench.dto;\n"
+                + "\n"
+                + "import java.util.*;\n"
+                + "\n"
+                + "/**\n"
+                + " * Synthetic DTO " + i + ".\n"
+                + " */\n"
+                + "@Data\n"
+                + "@Schema(description = \"DTO " + i + "\")\n"
+                + "public class Dto" + i + " {\n"
+                + "    /** Identifier. */\n"
+                + "    private Long id;\n"
+                + "    @NotNull @Size(min = 1, max = 64)\n"
+                + "    private String name;\n"
+                + "    @Email\n"
+                + "    private String email;\n"
+                + "    @Min(0) @Max(150)\n"
+                + "    private Integer age;\n"
+                + "    private List<String> tags;\n"
+                + "    private Status" + (i % enums()) + " status;\n"
+                + "    private " + wrap(next) + " related;\n"
+                + "}\n";
+    }
+
+    private String statusEnum(int i) {
+        return "package com.bench.dto;\n"
+                + "\n"
+                + "/** Synthetic status " + i + ". */\n"
+                + "public enum Status" + i + " {\n"
+                + "    /** Active. */\n"
+                + "    ACTIVE,\n"
+                + "    INACTIVE,\n"
+                + "    ARCHIVED\n"
+                + "}\n";
+    }
+
+    private String repository(int i) {
+        return "package com.bench.repository;\n"
+                + "\n"
+                + "@Repository\n"
+                + "public class Repository" + i + " {\n"
+                + "}\n";
+    }
+
+    private String service(int i) {
+        String next = "Service" + ((i + 1) % services);
+        return "package com.bench.service;\n"
+                + "\n"
+                + "import com.bench.repository.Repository" + i + ";\n"
+                + "\n"
+                + "@Service\n"
+                + "public class Service" + i + " {\n"
+                + "    @Autowired\n"
+                + "    private Repository" + i + " repository;\n"
+                + "    private final " + next + " next;\n"
+                + "\n"
+                + "    public Service" + i + "(" + next + " next) {\n"
+                + "        this.next = next;\n"
+                + "    }\n"
+                + "}\n";
+    }
+
+    private String controller(int i) {
+        String dto = "Dto" + (i % dtos);
+        String service = "Service" + (i % services);
+        return "package com.bench.controller;\n"
+                + "\n"
+                + "import com.bench.dto.*;\n"
+                + "import com.bench.service." + service + ";\n"
+                + "import java.util.*;\n"
+                + "\n"
+                + "@RestController\n"
+                + "@RequestMapping(\"/api/c" + i + "\")\n"
+                + "@Tag(name = \"c" + i + "\")\n"
+                + "public class Controller" + i + " {\n"
+                + "    private final " + service + " service;\n"
+                + "\n"
+                + "    public Controller" + i + "(" + service + " service) {\n"
+                + "        this.service = service;\n"
+                + "    }\n"
+                + "\n"
+                + "    /** Finds one item. */\n"
+                + "    @GetMapping(\"/{id}\")\n"
+                + "    public ResponseEntity<" + wrap(dto) + "> get(@PathVariable Long id) {\n"
+                + "        return null;\n"
+                + "    }\n"
+                + "\n"
+                + "    @GetMapping\n"
+                + "    @Operation(summary = \"List items\")\n"
+                + "    public List<" + dto + "> list(@RequestParam(required = false) String q,\n"
+                + "            @RequestParam int page) {\n"
+                + "        return null;\n"
+                + "    }\n"
+                + "\n"
+                + "    @PostMapping\n"
+                + "    public " + dto + " create(@RequestBody " + dto + " body) {\n"
+                + "        return body;\n"
+                + "    }\n"
+                + "\n"
+                + "    @PutMapping(\"/{id}\")\n"
+                + "    public " + dto + " update(@PathVariable Long id, @RequestBody " + dto + " body) {\n"
+                + "        return body;\n"
+                + "    }\n"
+                + "\n"
+                + "    @Deprecated\n"
+                + "    @DeleteMapping(\"/{id}\")\n"
+                + "    public void delete(@PathVariable Long id) {\n"
+                + "    }\n"
+                + "}\n";
+    }
+}
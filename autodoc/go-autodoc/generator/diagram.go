@@ -123,59 +123,8 @@ func sanitize(s string) string {
 
 // GenerateControllerServiceGraph generates a Mermaid class diagram showing controller-service dependencies
 func GenerateControllerServiceGraph(ir *parser.IR, outputPath string) error {
-	// Create maps for our analysis
-	controllerMap := make(map[string]*ControllerInfo)
-	serviceTypes := make(map[string]*ServiceInfo)
-
-	// Process all endpoints to build our data structures
-	for _, ep := range ir.Endpoints {
-		if ep.ControllerName == "" {
-			continue
-		}
-
-		// Get or create controller info
-		ctrl, exists := controllerMap[ep.ControllerName]
-		if !exists {
-			ctrl = &ControllerInfo{
-				Name:      ep.ControllerName,
-				Package:   ep.ControllerPackage,
-				Endpoints: make(map[string][]string),
-				Services:  make(map[string]DependencyDetail),
-			}
-			controllerMap[ep.ControllerName] = ctrl
-		}
-
-		// Add endpoint to controller
-		methodPath := fmt.Sprintf("%s %s", ep.Method, ep.Path)
-		ctrl.Endpoints[methodPath] = append(ctrl.Endpoints[methodPath], ep.Summary)
-
-		// Process dependencies
-		for _, dep := range ep.Dependencies {
-			// Add to controller's service list with detail
-			depDetail, exists := ctrl.Services[dep.Type]
-			if !exists {
-				depDetail = DependencyDetail{
-					Name:          dep.Name,
-					Type:          dep.Type,
-					InjectionType: dep.InjectionType,
-					Methods:       make(map[string]bool),
-				}
-			}
-			depDetail.Methods[methodPath] = true
-			ctrl.Services[dep.Type] = depDetail
-
-			// Add to services map
-			svc, exists := serviceTypes[dep.Type]
-			if !exists {
-				svc = &ServiceInfo{
-					Name:   dep.Type,
-					UsedBy: make(map[string]bool),
-				}
-				serviceTypes[dep.Type] = svc
-			}
-			svc.UsedBy[ep.ControllerName] = true
-		}
-	}
+	// Collect controllers and the services they use
+	controllerMap, serviceTypes, _ := controllerGraph(ir)
 
 	// Start building the Mermaid class diagram
 	var sb strings.Builder
@@ -296,65 +245,8 @@ func GenerateControllerServiceGraph(ir *parser.IR, outputPath string) error {
 
 // Enhanced implementation using a flowchart style with rich details
 func GenerateControllerServiceFlowchart(ir *parser.IR, outputPath string) error {
-	// Create maps for our analysis
-	controllerMap := make(map[string]*ControllerInfo)
-	serviceTypes := make(map[string]*ServiceInfo)
-
-	// Group by package/module
-	packages := make(map[string][]string)
-
-	// Process all endpoints to build our data structures
-	for _, ep := range ir.Endpoints {
-		if ep.ControllerName == "" {
-			continue
-		}
-
-		// Get or create controller info
-		ctrl, exists := controllerMap[ep.ControllerName]
-		if !exists {
-			ctrl = &ControllerInfo{
-				Name:      ep.ControllerName,
-				Package:   ep.ControllerPackage,
-				Endpoints: make(map[string][]string),
-				Services:  make(map[string]DependencyDetail),
-			}
-			controllerMap[ep.ControllerName] = ctrl
-
-			// Track by package
-			packages[ep.ControllerPackage] = append(packages[ep.ControllerPackage], ep.ControllerName)
-		}
-
-		// Add endpoint to controller
-		methodPath := fmt.Sprintf("%s %s", ep.Method, ep.Path)
-		ctrl.Endpoints[methodPath] = append(ctrl.Endpoints[methodPath], ep.Summary)
-
-		// Process dependencies
-		for _, dep := range ep.Dependencies {
-			// Add to controller's service list with detail
-			depDetail, exists := ctrl.Services[dep.Type]
-			if !exists {
-				depDetail = DependencyDetail{
-					Name:          dep.Name,
-					Type:          dep.Type,
-					InjectionType: dep.InjectionType,
-					Methods:       make(map[string]bool),
-				}
-			}
-			depDetail.Methods[methodPath] = true
-			ctrl.Services[dep.Type] = depDetail
-
-			// Add to services map
-			svc, exists := serviceTypes[dep.Type]
-			if !exists {
-				svc = &ServiceInfo{
-					Name:   dep.Type,
-					UsedBy: make(map[string]bool),
-				}
-				serviceTypes[dep.Type] = svc
-			}
-			svc.UsedBy[ep.ControllerName] = true
-		}
-	}
+	// Collect controllers, grouped by package/module, and the services they use
+	controllerMap, serviceTypes, packages := controllerGraph(ir)
 
 	// Start building the Mermaid flowchart
 	var sb strings.Builder
@@ -545,6 +437,83 @@ func GenerateControllerServiceFlowchart(ir *parser.IR, outputPath string) error
 	return nil
 }
 
+// controllerGraph collects the controllers of the IR, by simple name, and
+// the services they depend on. Controllers and their dependencies are read
+// from the controllers table; endpoints only add their method and path.
+// It also lists the controller names of each package.
+func controllerGraph(ir *parser.IR) (map[string]*ControllerInfo, map[string]*ServiceInfo, map[string][]string) {
+	controllerMap := make(map[string]*ControllerInfo)
+	serviceTypes := make(map[string]*ServiceInfo)
+	packages := make(map[string][]string)
+
+	endpointsByController := make(map[int][]parser.EndpointData)
+	for _, ep := range ir.Endpoints {
+		if ep.Controller != nil {
+			endpointsByController[*ep.Controller] = append(endpointsByController[*ep.Controller], ep)
+		}
+	}
+
+	for id, c := range ir.Controllers {
+		if c.Name == "" {
+			continue
+		}
+
+		// Get or create controller info
+		ctrl, exists := controllerMap[c.Name]
+		if !exists {
+			ctrl = &ControllerInfo{
+				Name:      c.Name,
+				Package:   c.Package,
+				Endpoints: make(map[string][]string),
+				Services:  make(map[string]DependencyDetail),
+			}
+			controllerMap[c.Name] = ctrl
+
+			// Track by package
+			packages[c.Package] = append(packages[c.Package], c.Name)
+		}
+
+		// Add endpoints to controller
+		var methodPaths []string
+		for _, ep := range endpointsByController[id] {
+			methodPath := fmt.Sprintf("%s %s", ep.Method, ep.Path)
+			ctrl.Endpoints[methodPath] = append(ctrl.Endpoints[methodPath], ep.Summary)
+			methodPaths = append(methodPaths, methodPath)
+		}
+
+		// Process dependencies, which every endpoint of the controller uses
+		for _, dep := range c.Dependencies {
+			// Add to controller's service list with detail
+			depDetail, exists := ctrl.Services[dep.Type]
+			if !exists {
+				depDetail = DependencyDetail{
+					Name:          dep.Name,
+					Type:          dep.Type,
+					InjectionType: dep.InjectionType,
+					Methods:       make(map[string]bool),
+				}
+			}
+			for _, methodPath := range methodPaths {
+				depDetail.Methods[methodPath] = true
+			}
+			ctrl.Services[dep.Type] = depDetail
+
+			// Add to services map
+			svc, exists := serviceTypes[dep.Type]
+			if !exists {
+				svc = &ServiceInfo{
+					Name:   dep.Type,
+					UsedBy: make(map[string]bool),
+				}
+				serviceTypes[dep.Type] = svc
+			}
+			svc.UsedBy[c.Name] = true
+		}
+	}
+
+	return controllerMap, serviceTypes, packages
+}
+
 // Helper structures for richer graph generation
 type ControllerInfo struct {
 	Name      string
@@ -11,10 +11,19 @@ import (
 
 // GenerateEndpointTable writes a Markdown table of endpoints to the given output path.
 func GenerateEndpointTable(ir *parser.IR, outputPath string) error {
-	// Collect rows as slices of strings: Controller, Method, Path, Params, Summary
-	type row struct{ controller, method, path, params, summary string }
+	// Collect rows as slices of strings: Controller, Method, Path, Params, Summary, Calls
+	type row struct{ controller, method, path, params, summary, calls string }
 	var rows []row
 
+	// IR parsed with --calls gets a column of the service methods each endpoint calls
+	withCalls := false
+	for _, ep := range ir.Endpoints {
+		if ep.Calls != nil {
+			withCalls = true
+			break
+		}
+	}
+
 	// Helper to derive controller/group key
 
 	// Break every path into segments
@@ -52,7 +61,12 @@ func GenerateEndpointTable(ir *parser.IR, outputPath string) error {
 		// Use ep.Summary if available
 		sum := ep.Summary
 
-		rows = append(rows, row{ctrl, ep.Method, ep.Path, paramStr, sum})
+		var callParts []string
+		for _, c := range ep.Calls {
+			callParts = append(callParts, "`"+callName(c)+"`")
+		}
+
+		rows = append(rows, row{ctrl, ep.Method, ep.Path, paramStr, sum, strings.Join(callParts, ", ")})
 	}
 
 	// Sort rows by controller then path
@@ -65,8 +79,13 @@ func GenerateEndpointTable(ir *parser.IR, outputPath string) error {
 
 	// Build Markdown table
 	var sb strings.Builder
-	sb.WriteString("| Controller | Method | Path | Params | Description |\n")
-	sb.WriteString("|------------|--------|------|--------|-------------|\n")
+	if withCalls {
+		sb.WriteString("| Controller | Method | Path | Params | Description | Calls |\n")
+		sb.WriteString("|------------|--------|------|--------|-------------|-------|\n")
+	} else {
+		sb.WriteString("| Controller | Method | Path | Params | Description |\n")
+		sb.WriteString("|------------|--------|------|--------|-------------|\n")
+	}
 	for _, r := range rows {
 		ctrl := r.controller
 		method := r.method
@@ -88,6 +107,14 @@ func GenerateEndpointTable(ir *parser.IR, outputPath string) error {
 		if summary == "" {
 			summary = "-"
 		}
+		if withCalls {
+			callList := r.calls
+			if callList == "" {
+				callList = "-"
+			}
+			sb.WriteString(fmt.Sprintf("| %s | %s | `%s` | %s | %s | %s |\n", ctrl, method, path, params, summary, callList))
+			continue
+		}
 		sb.WriteString(fmt.Sprintf("| %s | %s | `%s` | %s | %s |\n", ctrl, method, path, params, summary))
 	}
 
@@ -243,3 +270,17 @@ func GenerateModelTable(ir *parser.IR, outputPath string) error {
 	}
 	return nil
 }
+
+// callName renders a call as SimpleType.method, without the package and
+// parameter types.
+func callName(c parser.Call) string {
+	typeName := c.Type
+	if i := strings.LastIndex(typeName, "."); i >= 0 {
+		typeName = typeName[i+1:]
+	}
+	method := c.Method
+	if i := strings.Index(method, "("); i >= 0 {
+		method = method[:i]
+	}
+	return typeName + "." + method
+}
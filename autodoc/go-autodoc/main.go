@@ -24,6 +24,20 @@ var (
 	tables   string
 	diagrams string
 	graphStyle string
+	cacheDir   string
+	daemonSocket string
+	irFormat     string
+	metrics      string
+	engine       string
+	rules        string
+	javadocSources string
+	prefilter    bool
+	modules      int
+	batchHeap    int
+	dependencyClosure bool
+	calls        bool
+	pruneModels  bool
+	input        string
 )
 
 // rootCmd is the base command for go-autodoc
@@ -39,17 +53,28 @@ and emit OpenAPI specifications for your services.`,
 
 func init() {
 	// Persistent flags available to all subcommands
-	rootCmd.PersistentFlags().StringVarP(&source, "source", "s", "", "Path to source files (required)")
+	rootCmd.PersistentFlags().StringVarP(&source, "source", "s", "", "Path to source files (required unless --input is given)")
 	rootCmd.PersistentFlags().StringVarP(&info, "info", "i", "title=\"API\",version=\"1.0.0\"", "API metadata as key=\"value\" pairs, comma-separated")
 	rootCmd.PersistentFlags().StringVarP(&servers, "servers", "S", "url=\"https://api.example.com\"", "Server list as url=\"...\",description=\"...\" pairs, semicolon-separated")
 	rootCmd.PersistentFlags().StringVarP(&output, "output", "o", "openapi.yaml", "Output spec file path")
 	rootCmd.PersistentFlags().StringVarP(&lang, "lang", "l", "java", "Language parser to use (java|kotlin|python)")
+	rootCmd.PersistentFlags().StringVar(&input, "input", "", "IR file written earlier, e.g. by the parser's annotation processor during the javac build; skips parsing")
 	rootCmd.PersistentFlags().StringVar(&tables, "tables", "", "Comma-separated tables to generate (e.g., endpoint-table)")
 	rootCmd.PersistentFlags().StringVar(&diagrams, "diagrams", "", "Comma-separated diagrams to generate (e.g., endpoint-map,model-table,controller-service)")
 	rootCmd.PersistentFlags().StringVar(&graphStyle, "graph-style", "class", "Graph style for controller-service diagram (class|flowchart)")
-
-	// Mark required flags
-	rootCmd.MarkPersistentFlagRequired("source")
+	rootCmd.PersistentFlags().StringVar(&cacheDir, "cache-dir", "", "Directory for the incremental parser cache (disabled when empty)")
+	rootCmd.PersistentFlags().StringVar(&engine, "engine", "spoon", "Java parser front-end (spoon|javaparser|bytecode); javaparser skips symbol solving and is faster, bytecode reads compiled classes and jars given as --source")
+	rootCmd.PersistentFlags().StringVar(&javadocSources, "javadoc-sources", "", "Source directories, separated like a class path, to read Javadoc from with --engine=bytecode")
+	rootCmd.PersistentFlags().StringVar(&rules, "rules", "", "Properties file with classification rules for controllers, components and models")
+	rootCmd.PersistentFlags().BoolVar(&prefilter, "prefilter", false, "Only parse the Java files that can contribute to the IR, found by a quick byte scan")
+	rootCmd.PersistentFlags().IntVar(&modules, "modules", 0, "Model each Maven/Gradle module on its own, this many at a time, and merge their IR (0 models the tree as one)")
+	rootCmd.PersistentFlags().IntVar(&batchHeap, "batch-heap", 0, "Model the sources in batches of packages sized to this many MB of heap each (0 models them at once)")
+	rootCmd.PersistentFlags().BoolVar(&dependencyClosure, "dependency-closure", false, "Give each controller the full chain of components it depends on, not just its direct dependencies")
+	rootCmd.PersistentFlags().BoolVar(&calls, "calls", false, "Record which service methods each endpoint calls and list them in the endpoint table")
+	rootCmd.PersistentFlags().BoolVar(&pruneModels, "prune-models", false, "Only emit models that endpoints expose, directly or through fields and superclasses")
+	rootCmd.PersistentFlags().StringVar(&irFormat, "ir-format", "json", "IR encoding between parser and CLI (json|cbor)")
+	rootCmd.PersistentFlags().StringVar(&metrics, "metrics", "", "Parser stage metrics: \"-\" prints them to stderr, anything else is a file to write the JSON to")
+	rootCmd.PersistentFlags().StringVar(&daemonSocket, "daemon-socket", "", "Parse through a long-running parser daemon on this Unix socket, starting it if needed")
 
 	// You can add subcommands here (e.g., version)
 }
@@ -63,11 +88,87 @@ func main() {
 
 // runGenerate orchestrates parsing and spec generation
 func runGenerate() error {
+	if source == "" && input == "" {
+		return fmt.Errorf("either --source or --input is required")
+	}
+	if input != "" && metrics != "" {
+		// The metrics are the parser's, and it does not run
+		return fmt.Errorf("--metrics cannot be combined with --input")
+	}
+
 	// 1) Parse source into IR
-	ir, err := parser.ParseWithLang(source, lang)
+	var parserArgs []string
+	if cacheDir != "" {
+		// Absolute, since a daemon resolves paths against its own directory
+		absCacheDir, err := filepath.Abs(cacheDir)
+		if err != nil {
+			return fmt.Errorf("invalid cache dir: %w", err)
+		}
+		parserArgs = append(parserArgs, "--cache-dir="+absCacheDir)
+	}
+	if engine != "" && engine != "spoon" {
+		parserArgs = append(parserArgs, "--engine="+engine)
+	}
+	if javadocSources != "" {
+		absSources, err := absPathList(javadocSources)
+		if err != nil {
+			return fmt.Errorf("invalid javadoc sources: %w", err)
+		}
+		parserArgs = append(parserArgs, "--javadoc-sources="+absSources)
+	}
+	if rules != "" {
+		absRules, err := filepath.Abs(rules)
+		if err != nil {
+			return fmt.Errorf("invalid rules file: %w", err)
+		}
+		parserArgs = append(parserArgs, "--rules="+absRules)
+	}
+	if prefilter {
+		parserArgs = append(parserArgs, "--prefilter")
+	}
+	if modules > 0 {
+		parserArgs = append(parserArgs, fmt.Sprintf("--modules=%d", modules))
+	}
+	if batchHeap > 0 {
+		parserArgs = append(parserArgs, fmt.Sprintf("--batch=%d", batchHeap))
+	}
+	if dependencyClosure {
+		parserArgs = append(parserArgs, "--dependency-closure")
+	}
+	if calls {
+		parserArgs = append(parserArgs, "--calls")
+	}
+	if pruneModels {
+		parserArgs = append(parserArgs, "--prune-models")
+	}
+	if irFormat != "" && irFormat != "json" {
+		parserArgs = append(parserArgs, "--format="+irFormat)
+	}
+	metricsFile, err := metricsPath()
+	if err != nil {
+		return err
+	}
+	if metricsFile != "" {
+		parserArgs = append(parserArgs, "--metrics="+metricsFile)
+		if metrics == "-" {
+			defer os.Remove(metricsFile)
+		}
+	}
+
+	var ir *parser.IR
+	if input != "" {
+		ir, err = parser.ReadIR(input)
+	} else if daemonSocket != "" && lang == "java" {
+		ir, err = parser.ParseWithDaemon(daemonSocket, source, parserArgs...)
+	} else {
+		ir, err = parser.ParseWithLang(source, lang, parserArgs...)
+	}
 	if err != nil {
 		return fmt.Errorf("parsing failed: %w", err)
 	}
+	if err := reportMetrics(metricsFile); err != nil {
+		return err
+	}
 
 	// 2) Build OpenAPI spec
 	apiInfo := parseInfo(info)
@@ -144,3 +245,56 @@ func runGenerate() error {
 	}
 	return nil
 }
+
+// absPathList makes every entry of a path list absolute, keeping the
+// platform's separator.
+func absPathList(list string) (string, error) {
+	entries := filepath.SplitList(list)
+	for i, entry := range entries {
+		abs, err := filepath.Abs(entry)
+		if err != nil {
+			return "", err
+		}
+		entries[i] = abs
+	}
+	return strings.Join(entries, string(os.PathListSeparator)), nil
+}
+
+// metricsPath returns the file the parser should write its metrics to: the
+// --metrics path made absolute (a daemon has its own working directory), or
+// a temporary file when they are only printed.
+func metricsPath() (string, error) {
+	switch metrics {
+	case "":
+		return "", nil
+	case "-":
+		tmp, err := os.CreateTemp("", "autodoc-metrics-*.json")
+		if err != nil {
+			return "", fmt.Errorf("creating metrics file failed: %w", err)
+		}
+		tmp.Close()
+		return tmp.Name(), nil
+	default:
+		abs, err := filepath.Abs(metrics)
+		if err != nil {
+			return "", fmt.Errorf("invalid metrics path: %w", err)
+		}
+		return abs, nil
+	}
+}
+
+func reportMetrics(metricsFile string) error {
+	if metricsFile == "" {
+		return nil
+	}
+	if metrics != "-" {
+		fmt.Println("Parser metrics written to", metricsFile)
+		return nil
+	}
+
+	m, err := parser.ReadMetrics(metricsFile)
+	if err != nil {
+		return fmt.Errorf("reading parser metrics failed: %w", err)
+	}
+	return m.Print(os.Stderr)
+}
@@ -0,0 +1,492 @@
+package parser
+
+import (
+	"encoding/binary"
+	"errors"
+	"fmt"
+	"math"
+	"reflect"
+	"strings"
+	"sync"
+)
+
+// CBOR major types (RFC 8949, section 3.1).
+const (
+	cborUint   = 0
+	cborNegInt = 1
+	cborBytes  = 2
+	cborText   = 3
+	cborArray  = 4
+	cborMap    = 5
+	cborTag    = 6
+	cborSimple = 7
+
+	cborIndefinite = 31
+	cborBreak      = 0xff
+)
+
+var errCBORTruncated = errors.New("cbor: unexpected end of data")
+
+// decodeCBOR decodes one CBOR data item from data into v, which must be a
+// non-nil pointer. Maps are matched to struct fields by their json tags, and
+// numbers decoded into interface{} values become float64, so the result is
+// the same as decoding the equivalent JSON with encoding/json.
+//
+// Integers in place of a TypeRefData are type table ids, as in JSON.
+//
+// It covers what Jackson's CBOR generator emits: definite and indefinite
+// length strings, arrays and maps, integers, floats, booleans, null and tags.
+func decodeCBOR(data []byte, v interface{}) error {
+	rv := reflect.ValueOf(v)
+	if rv.Kind() != reflect.Ptr || rv.IsNil() {
+		return errors.New("cbor: decode target must be a non-nil pointer")
+	}
+
+	d := &cborDecoder{data: data}
+	if err := d.decode(rv.Elem()); err != nil {
+		return err
+	}
+	if d.pos != len(d.data) {
+		return fmt.Errorf("cbor: %d trailing bytes", len(d.data)-d.pos)
+	}
+	return nil
+}
+
+type cborDecoder struct {
+	data []byte
+	pos  int
+}
+
+// head reads the initial byte of an item and its argument. For floats the
+// argument holds the raw bits; for indefinite-length items it is 0.
+func (d *cborDecoder) head() (major byte, info byte, arg uint64, err error) {
+	if d.pos >= len(d.data) {
+		return 0, 0, 0, errCBORTruncated
+	}
+	b := d.data[d.pos]
+	d.pos++
+	major, info = b>>5, b&0x1f
+
+	size := 0
+	switch {
+	case info < 24:
+		return major, info, uint64(info), nil
+	case info == 24:
+		size = 1
+	case info == 25:
+		size = 2
+	case info == 26:
+		size = 4
+	case info == 27:
+		size = 8
+	case info == cborIndefinite:
+		return major, info, 0, nil
+	default:
+		return 0, 0, 0, fmt.Errorf("cbor: invalid additional info %d", info)
+	}
+
+	if len(d.data)-d.pos < size {
+		return 0, 0, 0, errCBORTruncated
+	}
+	raw := d.data[d.pos : d.pos+size]
+	d.pos += size
+	switch size {
+	case 1:
+		arg = uint64(raw[0])
+	case 2:
+		arg = uint64(binary.BigEndian.Uint16(raw))
+	case 4:
+		arg = uint64(binary.BigEndian.Uint32(raw))
+	case 8:
+		arg = binary.BigEndian.Uint64(raw)
+	}
+	return major, info, arg, nil
+}
+
+// atBreak consumes the break byte that ends an indefinite-length item.
+func (d *cborDecoder) atBreak() (bool, error) {
+	if d.pos >= len(d.data) {
+		return false, errCBORTruncated
+	}
+	if d.data[d.pos] == cborBreak {
+		d.pos++
+		return true, nil
+	}
+	return false, nil
+}
+
+// next reads the head of the next item, skipping any tags in front of it.
+func (d *cborDecoder) next() (major byte, info byte, arg uint64, err error) {
+	major, info, arg, err = d.head()
+	for err == nil && major == cborTag {
+		major, info, arg, err = d.head()
+	}
+	return major, info, arg, err
+}
+
+func (d *cborDecoder) decode(v reflect.Value) error {
+	major, info, arg, err := d.next()
+	if err != nil {
+		return err
+	}
+	return d.decodeItem(major, info, arg, v)
+}
+
+func (d *cborDecoder) decodeItem(major byte, info byte, arg uint64, v reflect.Value) error {
+	// null and undefined leave the zero value, like JSON null
+	if major == cborSimple && (info == 22 || info == 23) {
+		v.Set(reflect.Zero(v.Type()))
+		return nil
+	}
+
+	switch v.Kind() {
+	case reflect.Ptr:
+		if v.IsNil() {
+			v.Set(reflect.New(v.Type().Elem()))
+		}
+		return d.decodeItem(major, info, arg, v.Elem())
+	case reflect.Interface:
+		if v.NumMethod() != 0 {
+			return fmt.Errorf("cbor: cannot decode into %s", v.Type())
+		}
+		val, err := d.generic(major, info, arg)
+		if err != nil {
+			return err
+		}
+		if val == nil {
+			v.Set(reflect.Zero(v.Type()))
+		} else {
+			v.Set(reflect.ValueOf(val))
+		}
+		return nil
+	}
+
+	switch major {
+	case cborUint, cborNegInt:
+		if v.Kind() == reflect.Struct && v.CanAddr() {
+			if t, ok := v.Addr().Interface().(*TypeRefData); ok {
+				return t.setTypeID(cborInt(major, arg))
+			}
+		}
+		return setInt(v, cborInt(major, arg))
+	case cborSimple:
+		switch info {
+		case 20, 21:
+			if v.Kind() != reflect.Bool {
+				return fmt.Errorf("cbor: cannot decode boolean into %s", v.Type())
+			}
+			v.SetBool(info == 21)
+			return nil
+		case 25, 26, 27:
+			return setFloat(v, cborFloat(info, arg))
+		}
+		return fmt.Errorf("cbor: unsupported simple value %d", info)
+	case cborBytes, cborText:
+		s, err := d.text(major, info, arg)
+		if err != nil {
+			return err
+		}
+		if v.Kind() != reflect.String {
+			return fmt.Errorf("cbor: cannot decode string into %s", v.Type())
+		}
+		v.SetString(s)
+		return nil
+	case cborArray:
+		if v.Kind() != reflect.Slice {
+			return fmt.Errorf("cbor: cannot decode array into %s", v.Type())
+		}
+		slice := reflect.MakeSlice(v.Type(), 0, 0)
+		for i := uint64(0); info == cborIndefinite || i < arg; i++ {
+			if info == cborIndefinite {
+				done, err := d.atBreak()
+				if err != nil {
+					return err
+				}
+				if done {
+					break
+				}
+			}
+			elem := reflect.New(v.Type().Elem()).Elem()
+			if err := d.decode(elem); err != nil {
+				return err
+			}
+			slice = reflect.Append(slice, elem)
+		}
+		v.Set(slice)
+		return nil
+	case cborMap:
+		return d.decodeMap(info, arg, v)
+	}
+	return fmt.Errorf("cbor: unsupported major type %d", major)
+}
+
+func (d *cborDecoder) decodeMap(info byte, arg uint64, v reflect.Value) error {
+	var fields map[string]int
+	switch v.Kind() {
+	case reflect.Struct:
+		fields = cborFields(v.Type())
+	case reflect.Map:
+		if v.Type().Key().Kind() != reflect.String {
+			return fmt.Errorf("cbor: cannot decode map into %s", v.Type())
+		}
+		if v.IsNil() {
+			v.Set(reflect.MakeMap(v.Type()))
+		}
+	default:
+		return fmt.Errorf("cbor: cannot decode map into %s", v.Type())
+	}
+
+	for i := uint64(0); info == cborIndefinite || i < arg; i++ {
+		if info == cborIndefinite {
+			done, err := d.atBreak()
+			if err != nil {
+				return err
+			}
+			if done {
+				break
+			}
+		}
+
+		key, err := d.key()
+		if err != nil {
+			return err
+		}
+
+		if v.Kind() == reflect.Map {
+			elem := reflect.New(v.Type().Elem()).Elem()
+			if err := d.decode(elem); err != nil {
+				return err
+			}
+			v.SetMapIndex(reflect.ValueOf(key).Convert(v.Type().Key()), elem)
+			continue
+		}
+
+		idx, ok := fields[key]
+		if !ok {
+			// Unknown member: decode and drop it
+			if _, err := d.nextGeneric(); err != nil {
+				return err
+			}
+			continue
+		}
+		if err := d.decode(v.Field(idx)); err != nil {
+			return fmt.Errorf("cbor: field %q: %w", key, err)
+		}
+	}
+	return nil
+}
+
+func (d *cborDecoder) key() (string, error) {
+	major, info, arg, err := d.next()
+	if err != nil {
+		return "", err
+	}
+	if major != cborText && major != cborBytes {
+		return "", fmt.Errorf("cbor: unsupported map key type %d", major)
+	}
+	return d.text(major, info, arg)
+}
+
+// text reads a byte or text string, joining the chunks of an
+// indefinite-length string.
+func (d *cborDecoder) text(major byte, info byte, arg uint64) (string, error) {
+	if info != cborIndefinite {
+		if uint64(len(d.data)-d.pos) < arg {
+			return "", errCBORTruncated
+		}
+		s := string(d.data[d.pos : d.pos+int(arg)])
+		d.pos += int(arg)
+		return s, nil
+	}
+
+	var sb strings.Builder
+	for {
+		done, err := d.atBreak()
+		if err != nil {
+			return "", err
+		}
+		if done {
+			return sb.String(), nil
+		}
+		chunkMajor, chunkInfo, chunkArg, err := d.head()
+		if err != nil {
+			return "", err
+		}
+		if chunkMajor != major || chunkInfo == cborIndefinite {
+			return "", errors.New("cbor: invalid string chunk")
+		}
+		chunk, err := d.text(chunkMajor, chunkInfo, chunkArg)
+		if err != nil {
+			return "", err
+		}
+		sb.WriteString(chunk)
+	}
+}
+
+func (d *cborDecoder) nextGeneric() (interface{}, error) {
+	major, info, arg, err := d.next()
+	if err != nil {
+		return nil, err
+	}
+	return d.generic(major, info, arg)
+}
+
+// generic decodes an item into the types encoding/json would use for an
+// interface{}: float64, string, bool, nil, []interface{} and
+// map[string]interface{}.
+func (d *cborDecoder) generic(major byte, info byte, arg uint64) (interface{}, error) {
+	switch major {
+	case cborUint, cborNegInt:
+		return float64(cborInt(major, arg)), nil
+	case cborBytes, cborText:
+		return d.text(major, info, arg)
+	case cborSimple:
+		switch info {
+		case 20:
+			return false, nil
+		case 21:
+			return true, nil
+		case 22, 23:
+			return nil, nil
+		case 25, 26, 27:
+			return cborFloat(info, arg), nil
+		}
+		return nil, fmt.Errorf("cbor: unsupported simple value %d", info)
+	case cborArray:
+		list := []interface{}{}
+		for i := uint64(0); info == cborIndefinite || i < arg; i++ {
+			if info == cborIndefinite {
+				done, err := d.atBreak()
+				if err != nil {
+					return nil, err
+				}
+				if done {
+					break
+				}
+			}
+			elem, err := d.nextGeneric()
+			if err != nil {
+				return nil, err
+			}
+			list = append(list, elem)
+		}
+		return list, nil
+	case cborMap:
+		m := map[string]interface{}{}
+		for i := uint64(0); info == cborIndefinite || i < arg; i++ {
+			if info == cborIndefinite {
+				done, err := d.atBreak()
+				if err != nil {
+					return nil, err
+				}
+				if done {
+					break
+				}
+			}
+			key, err := d.key()
+			if err != nil {
+				return nil, err
+			}
+			if m[key], err = d.nextGeneric(); err != nil {
+				return nil, err
+			}
+		}
+		return m, nil
+	}
+	return nil, fmt.Errorf("cbor: unsupported major type %d", major)
+}
+
+func cborInt(major byte, arg uint64) int64 {
+	if major == cborNegInt {
+		return -1 - int64(arg)
+	}
+	return int64(arg)
+}
+
+func cborFloat(info byte, bits uint64) float64 {
+	switch info {
+	case 25:
+		return halfToFloat(uint16(bits))
+	case 26:
+		return float64(math.Float32frombits(uint32(bits)))
+	default:
+		return math.Float64frombits(bits)
+	}
+}
+
+// halfToFloat converts an IEEE 754 half-precision value.
+func halfToFloat(h uint16) float64 {
+	exp := int(h>>10) & 0x1f
+	frac := float64(h & 0x3ff)
+
+	var f float64
+	switch exp {
+	case 0:
+		f = math.Ldexp(frac, -24)
+	case 0x1f:
+		if frac == 0 {
+			f = math.Inf(1)
+		} else {
+			f = math.NaN()
+		}
+	default:
+		f = math.Ldexp(frac+1024, exp-25)
+	}
+	if h&0x8000 != 0 {
+		f = -f
+	}
+	return f
+}
+
+func setInt(v reflect.Value, n int64) error {
+	switch v.Kind() {
+	case reflect.Int, reflect.Int8, reflect.Int16, reflect.Int32, reflect.Int64:
+		v.SetInt(n)
+	case reflect.Uint, reflect.Uint8, reflect.Uint16, reflect.Uint32, reflect.Uint64:
+		if n < 0 {
+			return fmt.Errorf("cbor: cannot decode %d into %s", n, v.Type())
+		}
+		v.SetUint(uint64(n))
+	case reflect.Float32, reflect.Float64:
+		v.SetFloat(float64(n))
+	default:
+		return fmt.Errorf("cbor: cannot decode integer into %s", v.Type())
+	}
+	return nil
+}
+
+func setFloat(v reflect.Value, f float64) error {
+	switch v.Kind() {
+	case reflect.Float32, reflect.Float64:
+		v.SetFloat(f)
+		return nil
+	}
+	return fmt.Errorf("cbor: cannot decode float into %s", v.Type())
+}
+
+var cborFieldCache sync.Map // reflect.Type -> map[string]int
+
+// cborFields maps the json names of a struct's exported fields to their index.
+func cborFields(t reflect.Type) map[string]int {
+	if cached, ok := cborFieldCache.Load(t); ok {
+		return cached.(map[string]int)
+	}
+
+	fields := make(map[string]int, t.NumField())
+	for i := 0; i < t.NumField(); i++ {
+		f := t.Field(i)
+		if f.PkgPath != "" {
+			continue
+		}
+		name := strings.Split(f.Tag.Get("json"), ",")[0]
+		if name == "-" {
+			continue
+		}
+		if name == "" {
+			name = f.Name
+		}
+		fields[name] = i
+	}
+	cborFieldCache.Store(t, fields)
+	return fields
+}
@@ -0,0 +1,151 @@
+package parser
+
+import (
+	"encoding/hex"
+	"math"
+	"reflect"
+	"strings"
+	"testing"
+)
+
+// Items as Jackson's CBORGenerator (jackson-dataformat-cbor 2.19, the
+// encoder of the Java parser) writes them. Jackson never emits half floats
+// or chunked strings; those vectors are from RFC 8949, appendix A.
+var cborGenericTests = []struct {
+	name string
+	hex  string
+	want interface{}
+}{
+	{"uint in head", "17", float64(23)},
+	{"uint 1 byte", "1818", float64(24)},
+	{"uint 2 bytes", "1903e8", float64(1000)},
+	{"uint 4 bytes", "1a000f4240", float64(1000000)},
+	{"uint 8 bytes", "1b0000000100000000", float64(4294967296)},
+	{"negint in head", "20", float64(-1)},
+	{"negint 1 byte", "3818", float64(-25)},
+	{"negint 2 bytes", "3903e7", float64(-1000)},
+	{"negint 8 bytes", "3b7fffffffffffffff", float64(math.MinInt64)},
+	{"float16", "f93c00", 1.0},
+	{"float16 negative", "f9c400", -4.0},
+	{"float16 largest", "f97bff", 65504.0},
+	{"float16 subnormal", "f90001", 5.960464477539063e-08},
+	{"float16 infinity", "f97c00", math.Inf(1)},
+	{"float32", "fa3fc00000", 1.5},
+	{"float64", "fb3fb999999999999a", 0.1},
+	{"true", "f5", true},
+	{"false", "f4", false},
+	{"null", "f6", nil},
+	{"undefined", "f7", nil},
+	{"text", "6449455446", "IETF"},
+	{"text 1 byte length", "781f636f6d2e6578616d706c652e7765622e4f72646572436f6e74726f6c6c6572", "com.example.web.OrderController"},
+	{"text utf-8", "65c3bce6b0b4", "ü水"},
+	{"text indefinite", "7f657374726561646d696e67ff", "streaming"},
+	{"bytes", "426162", "ab"},
+	{"array", "82016161", []interface{}{float64(1), "a"}},
+	{"array indefinite", "9f016161ff", []interface{}{float64(1), "a"}},
+	{"map", "a16161f6", map[string]interface{}{"a": nil}},
+	{"map indefinite", "bf61610161629ff4ffff", map[string]interface{}{"a": float64(1), "b": []interface{}{false}}},
+	{"tag", "c11a514b67b0", float64(1363896240)},
+	{"tagged map value", "bf6161d8206178ff", map[string]interface{}{"a": "x"}},
+}
+
+func TestDecodeCBORGeneric(t *testing.T) {
+	for _, tt := range cborGenericTests {
+		t.Run(tt.name, func(t *testing.T) {
+			data := mustHex(t, tt.hex)
+			var got interface{}
+			if err := decodeCBOR(data, &got); err != nil {
+				t.Fatalf("decodeCBOR(%s): %v", tt.hex, err)
+			}
+			if !reflect.DeepEqual(got, tt.want) {
+				t.Errorf("decodeCBOR(%s) = %#v, want %#v", tt.hex, got, tt.want)
+			}
+
+			// Every shorter prefix is truncated and must fail, not panic
+			for n := 0; n < len(data); n++ {
+				var v interface{}
+				if err := decodeCBOR(data[:n], &v); err == nil {
+					t.Errorf("decodeCBOR(%x) = %#v, want error", data[:n], v)
+				}
+			}
+		})
+	}
+}
+
+func TestDecodeCBORStructs(t *testing.T) {
+	tests := []struct {
+		name string
+		hex  string
+		got  interface{}
+		want interface{}
+	}{
+		{
+			// {"name":"id","required":true,"typeRef":3,"unknown":[-7,{"x":null}],"description":"The id"}
+			name: "field with type id and unknown member",
+			hex:  "bf646e616d65626964687265717569726564f567747970655265660367756e6b6e6f776e9f26bf6178f6ffff6b6465736372697074696f6e66546865206964ff",
+			got:  new(FieldData),
+			want: &FieldData{Name: "id", Required: true, Description: "The id", TypeRef: TypeRefData{ref: 4}},
+		},
+		{
+			// {"path":"/orders","requestBodyType":{"base":"List","args":[{"base":"String","args":[]}]},"tags":["orders"]}
+			name: "endpoint with nested type reference",
+			hex:  "bf6470617468672f6f72646572736f72657175657374426f647954797065bf6462617365644c69737464617267739fbf646261736566537472696e6764617267739fffffffff64746167739f666f7264657273ffff",
+			got:  new(EndpointData),
+			want: &EndpointData{
+				Path: "/orders",
+				RequestBodyType: &TypeRefData{Base: "List", Args: []TypeRefData{
+					{Base: "String", Args: []TypeRefData{}},
+				}},
+				Tags: []string{"orders"},
+			},
+		},
+	}
+
+	for _, tt := range tests {
+		t.Run(tt.name, func(t *testing.T) {
+			if err := decodeCBOR(mustHex(t, tt.hex), tt.got); err != nil {
+				t.Fatalf("decodeCBOR: %v", err)
+			}
+			if !reflect.DeepEqual(tt.got, tt.want) {
+				t.Errorf("decodeCBOR = %+v, want %+v", tt.got, tt.want)
+			}
+		})
+	}
+}
+
+func TestDecodeCBORErrors(t *testing.T) {
+	tests := []struct {
+		name   string
+		hex    string
+		target interface{}
+		want   string
+	}{
+		{"non-pointer target", "17", 0, "non-nil pointer"},
+		{"trailing bytes", "1717", new(int), "1 trailing bytes"},
+		{"invalid additional info", "1c", new(interface{}), "invalid additional info 28"},
+		{"string into int", "6449455446", new(int), "cannot decode string into int"},
+		{"negative into uint", "20", new(uint), "cannot decode -1 into uint"},
+		{"array into struct", "80", new(FieldData), "cannot decode array"},
+		{"integer map key", "a10101", new(interface{}), "unsupported map key type 0"},
+		{"chunk of another type", "7f01ff", new(string), "invalid string chunk"},
+		{"negative type id", "bf677479706552656620ff", new(FieldData), "invalid type id -1"},
+	}
+
+	for _, tt := range tests {
+		t.Run(tt.name, func(t *testing.T) {
+			err := decodeCBOR(mustHex(t, tt.hex), tt.target)
+			if err == nil || !strings.Contains(err.Error(), tt.want) {
+				t.Errorf("decodeCBOR(%s) error = %v, want %q", tt.hex, err, tt.want)
+			}
+		})
+	}
+}
+
+func mustHex(t *testing.T, s string) []byte {
+	t.Helper()
+	data, err := hex.DecodeString(s)
+	if err != nil {
+		t.Fatalf("bad test vector %q: %v", s, err)
+	}
+	return data
+}
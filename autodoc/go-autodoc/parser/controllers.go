@@ -0,0 +1,53 @@
+package parser
+
+import "fmt"
+
+// resolveControllers links endpoints to their entry in IR.Controllers. IR
+// written with a controller table has endpoints refer to it by id, and
+// their controller name, package, tags, dependencies and downstream
+// components are filled in from it, shared rather than copied. Other IR
+// repeats them on every endpoint, and the table is built from them instead.
+func (ir *IR) resolveControllers() error {
+	if len(ir.Controllers) > 0 {
+		for i := range ir.Endpoints {
+			e := &ir.Endpoints[i]
+			if e.Controller == nil {
+				continue
+			}
+			id := *e.Controller
+			if id < 0 || id >= len(ir.Controllers) {
+				return fmt.Errorf("unknown controller id %d", id)
+			}
+			c := &ir.Controllers[id]
+			e.ControllerName = c.Name
+			e.ControllerPackage = c.Package
+			e.Tags = c.Tags
+			e.Dependencies = c.Dependencies
+			e.Downstream = c.Downstream
+		}
+		return nil
+	}
+
+	ids := make(map[string]int)
+	for i := range ir.Endpoints {
+		e := &ir.Endpoints[i]
+		if e.ControllerName == "" {
+			continue
+		}
+		key := e.ControllerPackage + "." + e.ControllerName
+		id, ok := ids[key]
+		if !ok {
+			id = len(ir.Controllers)
+			ids[key] = id
+			ir.Controllers = append(ir.Controllers, ControllerData{
+				Name:         e.ControllerName,
+				Package:      e.ControllerPackage,
+				Tags:         e.Tags,
+				Dependencies: e.Dependencies,
+				Downstream:   e.Downstream,
+			})
+		}
+		e.Controller = &id
+	}
+	return nil
+}
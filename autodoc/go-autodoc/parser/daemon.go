@@ -0,0 +1,139 @@
+package parser
+
+import (
+	"encoding/json"
+	"errors"
+	"fmt"
+	"net"
+	"os/exec"
+	"path/filepath"
+	"time"
+)
+
+// daemonRequest mirrors com.autodoc.server.ParseRequest.
+type daemonRequest struct {
+	ID      int64    `json:"id"`
+	Command string   `json:"command"`
+	Source  string   `json:"source,omitempty"`
+	Args    []string `json:"args,omitempty"`
+}
+
+// daemonResponse mirrors com.autodoc.server.ParseResponse.
+type daemonResponse struct {
+	ID    int64  `json:"id"`
+	IR    *IR    `json:"ir"`
+	Error string `json:"error"`
+}
+
+// DaemonClient talks to a Java parser started with --socket, which keeps a
+// warm JVM between parses. Requests and responses are newline-delimited JSON.
+type DaemonClient struct {
+	conn   net.Conn
+	enc    *json.Encoder
+	dec    *json.Decoder
+	nextID int64
+}
+
+// DialDaemon connects to a running parser daemon.
+func DialDaemon(socketPath string) (*DaemonClient, error) {
+	conn, err := net.Dial("unix", socketPath)
+	if err != nil {
+		return nil, err
+	}
+	return &DaemonClient{conn: conn, enc: json.NewEncoder(conn), dec: json.NewDecoder(conn)}, nil
+}
+
+// Parse asks the daemon to parse srcDir and returns the decoded IR.
+func (c *DaemonClient) Parse(srcDir string, args ...string) (*IR, error) {
+	// The daemon has its own working directory
+	absDir, err := filepath.Abs(srcDir)
+	if err != nil {
+		return nil, err
+	}
+
+	resp, err := c.roundTrip(daemonRequest{Command: "parse", Source: absDir, Args: args})
+	if err != nil {
+		return nil, err
+	}
+	if resp.Error != "" {
+		return nil, fmt.Errorf("parser daemon: %s", resp.Error)
+	}
+	if resp.IR == nil {
+		return nil, errors.New("parser daemon returned no IR")
+	}
+	return resp.IR, resp.IR.resolve()
+}
+
+// Shutdown stops the daemon after it has answered pending requests.
+func (c *DaemonClient) Shutdown() error {
+	_, err := c.roundTrip(daemonRequest{Command: "shutdown"})
+	return err
+}
+
+// Close closes the connection; the daemon keeps running.
+func (c *DaemonClient) Close() error {
+	return c.conn.Close()
+}
+
+func (c *DaemonClient) roundTrip(req daemonRequest) (*daemonResponse, error) {
+	c.nextID++
+	req.ID = c.nextID
+	if err := c.enc.Encode(req); err != nil {
+		return nil, err
+	}
+
+	var resp daemonResponse
+	if err := c.dec.Decode(&resp); err != nil {
+		return nil, err
+	}
+	if resp.ID != req.ID {
+		return nil, fmt.Errorf("parser daemon answered request %d, expected %d", resp.ID, req.ID)
+	}
+	return &resp, nil
+}
+
+// StartDaemon launches the embedded parser as a background daemon listening
+// on socketPath and waits until it accepts connections.
+func StartDaemon(socketPath string) error {
+	cmdArgs, err := javaArgs()
+	if err != nil {
+		return err
+	}
+
+	cmd := exec.Command("java", append(cmdArgs, "--socket="+socketPath)...)
+	if err := cmd.Start(); err != nil {
+		return err
+	}
+	// The daemon outlives this process, so don't wait for it
+	if err := cmd.Process.Release(); err != nil {
+		return err
+	}
+
+	deadline := time.Now().Add(30 * time.Second)
+	for time.Now().Before(deadline) {
+		conn, err := net.Dial("unix", socketPath)
+		if err == nil {
+			conn.Close()
+			return nil
+		}
+		time.Sleep(100 * time.Millisecond)
+	}
+	return fmt.Errorf("parser daemon did not start on %s", socketPath)
+}
+
+// ParseWithDaemon parses srcDir through the daemon on socketPath, starting
+// one first if nothing is listening there.
+func ParseWithDaemon(socketPath string, srcDir string, args ...string) (*IR, error) {
+	client, err := DialDaemon(socketPath)
+	if err != nil {
+		if err := StartDaemon(socketPath); err != nil {
+			return nil, fmt.Errorf("starting parser daemon failed: %w", err)
+		}
+		if client, err = DialDaemon(socketPath); err != nil {
+			return nil, err
+		}
+	}
+	defer client.Close()
+
+	return client.Parse(srcDir, args...)
+}
@@ -0,0 +1,72 @@
+package parser
+
+import (
+	"bytes"
+	"encoding/binary"
+	"encoding/json"
+	"errors"
+	"fmt"
+)
+
+// Binary IR header written by the Java parser (com.autodoc.output.IrFormat):
+// the magic "ADIR", the IR schema version as a big-endian uint16 and the
+// encoding id. Plain JSON output has no header; its version is the
+// schemaVersion member every IR document opens with.
+var irMagic = []byte("ADIR")
+
+const (
+	irHeaderSize    = 7
+	irSchemaVersion = 6
+	irEncodingCBOR  = 1
+)
+
+// decodeIR decodes parser output, either plain JSON or a binary IR.
+func decodeIR(data []byte) (*IR, error) {
+	var ir IR
+	if !bytes.HasPrefix(data, irMagic) {
+		if err := json.Unmarshal(data, &ir); err != nil {
+			return nil, err
+		}
+		if ir.SchemaVersion == 0 {
+			return nil, errors.New("IR has no schema version")
+		}
+		if err := checkSchemaVersion(ir.SchemaVersion); err != nil {
+			return nil, err
+		}
+		return &ir, ir.resolve()
+	}
+
+	if len(data) < irHeaderSize {
+		return nil, errors.New("truncated IR header")
+	}
+	if err := checkSchemaVersion(int(binary.BigEndian.Uint16(data[4:6]))); err != nil {
+		return nil, err
+	}
+
+	switch data[6] {
+	case irEncodingCBOR:
+		if err := decodeCBOR(data[irHeaderSize:], &ir); err != nil {
+			return nil, err
+		}
+	default:
+		return nil, fmt.Errorf("unsupported IR encoding %d", data[6])
+	}
+	return &ir, ir.resolve()
+}
+
+// checkSchemaVersion rejects IR written for a schema this package does not
+// understand.
+func checkSchemaVersion(version int) error {
+	if version < 1 || version > irSchemaVersion {
+		return fmt.Errorf("unsupported IR schema version %d (expected at most %d)", version, irSchemaVersion)
+	}
+	return nil
+}
+
+// resolve turns the tables of a decoded IR back into plain references.
+func (ir *IR) resolve() error {
+	if err := ir.resolveTypeTable(); err != nil {
+		return err
+	}
+	return ir.resolveControllers()
+}
@@ -0,0 +1,101 @@
+package parser
+
+import (
+	"fmt"
+	"os"
+	"reflect"
+	"strings"
+	"testing"
+)
+
+// testdata/sample-ir.json and testdata/sample-ir.cbor are the same IR, written
+// by the Java parser from autodoc/java-parser/src/cds/sample with
+//
+//	--stream --type-table --controller-table --dependency-closure --calls
+//
+// and --format=json or --format=cbor. Regenerate both when the IR schema
+// version changes.
+func TestDecodeIRCBORMatchesJSON(t *testing.T) {
+	fromJSON, err := ReadIR("testdata/sample-ir.json")
+	if err != nil {
+		t.Fatalf("ReadIR(json): %v", err)
+	}
+	fromCBOR, err := ReadIR("testdata/sample-ir.cbor")
+	if err != nil {
+		t.Fatalf("ReadIR(cbor): %v", err)
+	}
+	if len(fromJSON.Endpoints) == 0 || len(fromJSON.Models) == 0 {
+		t.Fatalf("sample IR has %d endpoints and %d models", len(fromJSON.Endpoints), len(fromJSON.Models))
+	}
+	if !reflect.DeepEqual(fromCBOR, fromJSON) {
+		t.Errorf("CBOR IR differs from JSON IR\ncbor: %+v\njson: %+v", fromCBOR, fromJSON)
+	}
+}
+
+func TestDecodeIRJSONVersion(t *testing.T) {
+	current := fmt.Sprintf(`{"schemaVersion":%d,"models":[],"endpoints":[]}`, irSchemaVersion)
+	if _, err := decodeIR([]byte(current)); err != nil {
+		t.Fatalf("decodeIR(current version): %v", err)
+	}
+
+	tests := []struct {
+		name string
+		data string
+		want string
+	}{
+		{"no version", `{"models":[],"endpoints":[]}`, "IR has no schema version"},
+		{"negative version", `{"schemaVersion":-1}`, "unsupported IR schema version -1"},
+		{"newer version", fmt.Sprintf(`{"schemaVersion":%d}`, irSchemaVersion+1), "unsupported IR schema version"},
+	}
+	for _, tt := range tests {
+		t.Run(tt.name, func(t *testing.T) {
+			_, err := decodeIR([]byte(tt.data))
+			if err == nil || !strings.Contains(err.Error(), tt.want) {
+				t.Errorf("decodeIR(%s) error = %v, want %q", tt.data, err, tt.want)
+			}
+		})
+	}
+}
+
+func TestDecodeIRTruncated(t *testing.T) {
+	data, err := os.ReadFile("testdata/sample-ir.cbor")
+	if err != nil {
+		t.Fatal(err)
+	}
+	for n := 0; n < len(data); n++ {
+		if _, err := decodeIR(data[:n]); err == nil {
+			t.Fatalf("decodeIR succeeded on the first %d of %d bytes", n, len(data))
+		}
+	}
+}
+
+func TestDecodeIRHeader(t *testing.T) {
+	// An empty CBOR map as the body
+	header := func(version uint16, encoding byte) []byte {
+		return []byte{'A', 'D', 'I', 'R', byte(version >> 8), byte(version), encoding, 0xa0}
+	}
+
+	if _, err := decodeIR(header(irSchemaVersion, irEncodingCBOR)); err != nil {
+		t.Fatalf("decodeIR(current version): %v", err)
+	}
+
+	tests := []struct {
+		name string
+		data []byte
+		want string
+	}{
+		{"magic only", []byte("ADIR"), "truncated IR header"},
+		{"version 0", header(0, irEncodingCBOR), "unsupported IR schema version 0"},
+		{"newer version", header(irSchemaVersion+1, irEncodingCBOR), "unsupported IR schema version"},
+		{"unknown encoding", header(irSchemaVersion, 2), "unsupported IR encoding 2"},
+		{"trailing bytes", append(header(irSchemaVersion, irEncodingCBOR), 0xf6), "trailing bytes"},
+	}
+	for _, tt := range tests {
+		t.Run(tt.name, func(t *testing.T) {
+			_, err := decodeIR(tt.data)
+			if err == nil || !strings.Contains(err.Error(), tt.want) {
+				t.Errorf("decodeIR(%x) error = %v, want %q", tt.data, err, tt.want)
+			}
+		})
+	}
+}
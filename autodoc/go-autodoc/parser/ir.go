@@ -1,8 +1,18 @@
 package parser
 
 type IR struct {
-	Models    []ModelData    `json:"models"`
-	Endpoints []EndpointData `json:"endpoints"`
+	// SchemaVersion is the IR schema version the parser wrote; decodeIR
+	// rejects versions newer than irSchemaVersion.
+	SchemaVersion int            `json:"schemaVersion"`
+	Models        []ModelData    `json:"models"`
+	Endpoints     []EndpointData `json:"endpoints"`
+	// Controllers holds what the endpoints of each controller share. IR
+	// written with --controller-table carries it and endpoints refer to it
+	// by id; otherwise decodeIR builds it from the endpoints.
+	Controllers []ControllerData `json:"controllers,omitempty"`
+	// Types is the shared type table of IR written with --type-table; it is
+	// resolved into the TypeRefData fields and cleared by decodeIR.
+	Types []TypeTableEntry `json:"types,omitempty"`
 }
 
 type ModelData struct {
@@ -34,6 +44,16 @@ type FieldData struct {
 type TypeRefData struct {
 	Base string        `json:"base"`
 	Args []TypeRefData `json:"args"`
+
+	// ref is 1 + the index in IR.Types while the reference is unresolved
+	ref int
+}
+
+// TypeTableEntry is a type of the shared type table; Args are indexes of
+// earlier entries.
+type TypeTableEntry struct {
+	Base string `json:"base"`
+	Args []int  `json:"args"`
 }
 
 type EndpointData struct {
@@ -49,6 +69,22 @@ type EndpointData struct {
 	ControllerPackage string      `json:"controllerPackage"`
 	Dependencies     []Dependency `json:"dependencies"`
 	Deprecated       bool         `json:"deprecated"`
+	// Downstream lists every component the controller depends on, directly
+	// or transitively; only set when parsing with --dependency-closure
+	Downstream []string `json:"downstream,omitempty"`
+	// Calls lists the methods of other components the handler invokes;
+	// only set when parsing with --calls
+	Calls []Call `json:"calls,omitempty"`
+	// Controller is the index of the endpoint's entry in IR.Controllers
+	Controller *int `json:"controller,omitempty"`
+}
+
+type ControllerData struct {
+	Name         string       `json:"name"`
+	Package      string       `json:"package"`
+	Tags         []string     `json:"tags"`
+	Dependencies []Dependency `json:"dependencies"`
+	Downstream   []string     `json:"downstream,omitempty"`
 }
 
 type Parameter struct {
@@ -63,4 +99,10 @@ type Dependency struct {
 	Name          string `json:"name"`
 	Type          string `json:"type"`
 	InjectionType string `json:"injectionType"`
+}
+
+// Call is a method of another component invoked by an endpoint's handler.
+type Call struct {
+	Type   string `json:"type"`
+	Method string `json:"method"` // signature, e.g. "findById(java.lang.Long)"
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+package parser
+
+import (
+	"crypto/sha256"
+	"encoding/hex"
+	"os"
+	"path/filepath"
+	"sync"
+)
+
+var (
+	cacheOnce sync.Once
+	cacheDir  string
+	cacheErr  error
+)
+
+// parserCacheDir returns the directory holding the embedded parser jar,
+// extracted on first use into the user cache directory under its content
+// hash, so later runs, and runs of other go-autodoc builds with the same
+// jar, start it without rewriting it. A new jar gets a new directory.
+func parserCacheDir() (string, error) {
+	cacheOnce.Do(func() {
+		base, err := os.UserCacheDir()
+		if err != nil {
+			base = os.TempDir()
+		}
+		sum := sha256.Sum256(parserJar)
+		cacheDir = filepath.Join(base, "autodoc", "parser-"+hex.EncodeToString(sum[:8]))
+		cacheErr = extractParserJar(filepath.Join(cacheDir, "parser.jar"))
+	})
+	return cacheDir, cacheErr
+}
+
+func extractParserJar(path string) error {
+	if info, err := os.Stat(path); err == nil && info.Size() == int64(len(parserJar)) {
+		return nil
+	}
+	if err := os.MkdirAll(filepath.Dir(path), 0755); err != nil {
+		return err
+	}
+
+	// Written aside and renamed, so a concurrent run never sees half a jar
+	tmp, err := os.CreateTemp(filepath.Dir(path), "parser-*.jar")
+	if err != nil {
+		return err
+	}
+	defer os.Remove(tmp.Name())
+	if _, err := tmp.Write(parserJar); err != nil {
+		tmp.Close()
+		return err
+	}
+	if err := tmp.Close(); err != nil {
+		return err
+	}
+	return os.Rename(tmp.Name(), path)
+}
+
+// javaArgs returns the JVM options that run the cached parser jar.
+//
+// The JVM keeps a dynamic CDS archive of the classes a parse loads next to
+// the jar: the first run writes it on exit, and later runs map Spoon, JDT,
+// Jackson and JavaParser from it instead of loading and verifying them
+// again. The JVM recreates the archive when it no longer matches, e.g.
+// after a JDK upgrade. This needs JDK 19 or newer; older JVMs ignore the
+// options and start as before.
+func javaArgs() ([]string, error) {
+	dir, err := parserCacheDir()
+	if err != nil {
+		return nil, err
+	}
+	return []string{
+		"-XX:+IgnoreUnrecognizedVMOptions",
+		"-XX:+AutoCreateSharedArchive",
+		"-XX:SharedArchiveFile=" + filepath.Join(dir, "parser.jsa"),
+		// JVM warnings, such as those while the archive is written, go to
+		// stdout by default, where they would corrupt the IR
+		"-Xlog:disable",
+		"-Xlog:all=warning:stderr",
+		"-jar", filepath.Join(dir, "parser.jar"),
+	}, nil
+}
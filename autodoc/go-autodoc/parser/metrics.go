@@ -0,0 +1,91 @@
+package parser
+
+import (
+	"encoding/json"
+	"fmt"
+	"io"
+	"os"
+	"sort"
+	"strings"
+	"text/tabwriter"
+	"time"
+)
+
+// Metrics mirrors the JSON the Java parser writes with --metrics.
+type Metrics struct {
+	Stages []StageMetrics `json:"stages"`
+}
+
+// StageMetrics holds the totals of one parser stage. "extract", timed once
+// per top-level type on the thread extracting it, adds up the threads' time
+// under --parallel.
+type StageMetrics struct {
+	Name           string           `json:"name"`
+	Invocations    int64            `json:"invocations"`
+	WallNanos      int64            `json:"wallNanos"`
+	CPUNanos       int64            `json:"cpuNanos"`
+	AllocatedBytes int64            `json:"allocatedBytes"`
+	HeapUsedBytes  int64            `json:"heapUsedBytes"`
+	Counts         map[string]int64 `json:"counts"`
+}
+
+// ReadMetrics loads a metrics file written by the Java parser.
+func ReadMetrics(path string) (*Metrics, error) {
+	data, err := os.ReadFile(path)
+	if err != nil {
+		return nil, err
+	}
+	var m Metrics
+	if err := json.Unmarshal(data, &m); err != nil {
+		return nil, fmt.Errorf("invalid metrics file %s: %w", path, err)
+	}
+	return &m, nil
+}
+
+// Print writes the metrics as an aligned table.
+func (m *Metrics) Print(w io.Writer) error {
+	tw := tabwriter.NewWriter(w, 0, 0, 2, ' ', tabwriter.AlignRight)
+	fmt.Fprintln(tw, "stage\tcalls\twall\tcpu\tallocated\theap\tcounts\t")
+	for _, s := range m.Stages {
+		fmt.Fprintf(tw, "%s\t%d\t%s\t%s\t%s\t%s\t%s\t\n",
+			s.Name,
+			s.Invocations,
+			formatNanos(s.WallNanos),
+			formatNanos(s.CPUNanos),
+			formatBytes(s.AllocatedBytes),
+			formatBytes(s.HeapUsedBytes),
+			formatCounts(s.Counts))
+	}
+	return tw.Flush()
+}
+
+func formatNanos(ns int64) string {
+	return time.Duration(ns).Round(10 * time.Microsecond).String()
+}
+
+func formatBytes(n int64) string {
+	const unit = 1024
+	if n < unit {
+		return fmt.Sprintf("%dB", n)
+	}
+	div, exp := int64(unit), 0
+	for m := n / unit; m >= unit; m /= unit {
+		div *= unit
+		exp++
+	}
+	return fmt.Sprintf("%.1f%ciB", float64(n)/float64(div), "KMGTPE"[exp])
+}
+
+func formatCounts(counts map[string]int64) string {
+	keys := make([]string, 0, len(counts))
+	for k := range counts {
+		keys = append(keys, k)
+	}
+	sort.Strings(keys)
+
+	parts := make([]string, len(keys))
+	for i, k := range keys {
+		parts[i] = fmt.Sprintf("%s=%d", k, counts[k])
+	}
+	return strings.Join(parts, " ")
+}
@@ -2,7 +2,6 @@ package parser
 
 import (
 	_ "embed"
-	"encoding/json"
 	"fmt"
 	"log"
 	"os"
@@ -12,56 +11,74 @@ import (
 //go:embed parser.jar
 var parserJar []byte
 
-// CallJavaParser runs the Java program and returns the JSON output
-func CallJavaParser(javaSrcDir string) (string, error) {
-	// 1) dump jar to a temp file
-	tmp, err := os.CreateTemp("", "java-parser-*.jar")
+// CallJavaParser runs the Java program, which writes the IR to outputPath.
+// Extra args (e.g. "--cache-dir=...") are passed through to the parser.
+func CallJavaParser(javaSrcDir string, outputPath string, args ...string) error {
+	// 1) the jar, extracted once into the user cache directory
+	cmdArgs, err := javaArgs()
 	if err != nil {
-		log.Printf("Error creating temp: %v", err)
-		return "", err
+		log.Printf("Error extracting parser jar: %v", err)
+		return err
 	}
-	defer os.Remove(tmp.Name())
-	if _, err := tmp.Write(parserJar); err != nil {
-		tmp.Close()
-		log.Printf("Error writing temp: %v", err)
-		return "", err
-	}
-	tmp.Close()
 
-	// 2) exec “java -jar /path/to/tmp.jar …”
-	cmd := exec.Command("java", "-jar", tmp.Name(), javaSrcDir)
-	out, err := cmd.CombinedOutput()
+	// 2) exec “java -jar /path/to/parser.jar …”
+	// --stream lets the parser write the IR as it extracts it instead of
+	// holding the whole project in memory first; --type-table writes each
+	// type reference once and refers to it by id, and --controller-table
+	// does the same for each controller's package, tags and dependencies
+	cmdArgs = append(cmdArgs, javaSrcDir, outputPath, "--stream", "--type-table", "--controller-table")
+	cmdArgs = append(cmdArgs, args...)
+	cmd := exec.Command("java", cmdArgs...)
+	// The IR goes to its file; stdout and stderr only carry logs and JVM
+	// warnings
+	output, err := cmd.CombinedOutput()
 	if err != nil {
 		log.Printf("Error running Java parser: %v", err)
-		log.Printf("Output: %s", out)
-		log.Printf("Error: %v", err)
+		log.Printf("Output: %s", output)
 	}
-	return string(out), err
+	return err
 
 }
 
 // Parse runs the Java parser on `srcDir`, then unmarshals the JSON into an IR.
-func ParseWithLang(srcDir string, lang string) (*IR, error) {
+func ParseWithLang(srcDir string, lang string, args ...string) (*IR, error) {
 	// 1) Invoke the Java JAR (existing)
 	parser, err := GetParser(lang)
 	if err != nil {
 		return nil, err
 	}
-	jsonStr, err := parser(srcDir)
+
+	// The IR is written to a file and decoded from a memory mapping of it,
+	// rather than piped through stdout and copied into Go buffers
+	irFile, err := os.CreateTemp("", "autodoc-ir-*")
 	if err != nil {
 		return nil, err
 	}
+	irFile.Close()
+	defer os.Remove(irFile.Name())
 
-	// 2) Unmarshal into your IR types
-	var ir IR
-	if err := json.Unmarshal([]byte(jsonStr), &ir); err != nil {
+	if err := parser(srcDir, irFile.Name(), args...); err != nil {
 		return nil, err
 	}
 
-	return &ir, nil
+	// 2) Decode JSON or binary IR into your IR types
+	return ReadIR(irFile.Name())
+}
+
+// ReadIR decodes an IR file written earlier instead of running a parser,
+// such as the one the Java parser's annotation processor writes during the
+// javac build. Plain JSON and binary IR are both accepted.
+func ReadIR(path string) (*IR, error) {
+	// Decoding copies every value out, so the file can be unmapped after
+	data, unmap, err := mapFile(path)
+	if err != nil {
+		return nil, err
+	}
+	defer unmap()
+	return decodeIR(data)
 }
 
-func GetParser(lang string) (func(string) (string, error), error) {
+func GetParser(lang string) (func(string, string, ...string) error, error) {
 	switch lang {
 	case "java":
 		return CallJavaParser, nil
@@ -0,0 +1,96 @@
+package parser
+
+import (
+	"bytes"
+	"encoding/json"
+	"fmt"
+)
+
+// UnmarshalJSON accepts either a full type reference or, in IR written with
+// a type table, the id of its entry in IR.Types.
+func (t *TypeRefData) UnmarshalJSON(data []byte) error {
+	trimmed := bytes.TrimSpace(data)
+	if len(trimmed) > 0 && (trimmed[0] == '-' || (trimmed[0] >= '0' && trimmed[0] <= '9')) {
+		var id int
+		if err := json.Unmarshal(trimmed, &id); err != nil {
+			return err
+		}
+		return t.setTypeID(int64(id))
+	}
+
+	// Decode through an alias type so this method is not called again
+	type plain TypeRefData
+	var p plain
+	if err := json.Unmarshal(data, &p); err != nil {
+		return err
+	}
+	*t = TypeRefData(p)
+	return nil
+}
+
+// setTypeID records a reference into the type table, to be replaced by
+// resolveTypeTable. The CBOR decoder calls it for integer type references.
+func (t *TypeRefData) setTypeID(id int64) error {
+	if id < 0 {
+		return fmt.Errorf("invalid type id %d", id)
+	}
+	*t = TypeRefData{ref: int(id) + 1}
+	return nil
+}
+
+// resolveTypeTable replaces type ids with the types they refer to and
+// drops the table. IR without a table is left as is.
+func (ir *IR) resolveTypeTable() error {
+	if len(ir.Types) == 0 {
+		return nil
+	}
+
+	// Arguments always precede the types using them
+	types := make([]TypeRefData, len(ir.Types))
+	for i, entry := range ir.Types {
+		args := make([]TypeRefData, len(entry.Args))
+		for j, arg := range entry.Args {
+			if arg < 0 || arg >= i {
+				return fmt.Errorf("type %d has invalid argument id %d", i, arg)
+			}
+			args[j] = types[arg]
+		}
+		types[i] = TypeRefData{Base: entry.Base, Args: args}
+	}
+
+	resolve := func(t *TypeRefData) error {
+		if t == nil || t.ref == 0 {
+			return nil
+		}
+		if t.ref > len(types) {
+			return fmt.Errorf("unknown type id %d", t.ref-1)
+		}
+		*t = types[t.ref-1]
+		return nil
+	}
+
+	for i := range ir.Endpoints {
+		e := &ir.Endpoints[i]
+		for j := range e.Parameters {
+			if err := resolve(&e.Parameters[j].TypeRef); err != nil {
+				return err
+			}
+		}
+		if err := resolve(e.RequestBodyType); err != nil {
+			return err
+		}
+		if err := resolve(&e.ResponseType); err != nil {
+			return err
+		}
+	}
+	for i := range ir.Models {
+		for j := range ir.Models[i].Fields {
+			if err := resolve(&ir.Models[i].Fields[j].TypeRef); err != nil {
+				return err
+			}
+		}
+	}
+
+	ir.Types = nil
+	return nil
+}
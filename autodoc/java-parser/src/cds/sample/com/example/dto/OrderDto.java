@@ -0,0 +1,16 @@
+package com.example.dto;
+
+import javax.validation.constraints.NotNull;
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * An order.
+ */
+public class OrderDto {
+    @NotNull
+    private Long id;
+    private OrderStatus status;
+    private BigDecimal total;
+    private Map<String, String> attributes;
+}
@@ -0,0 +1,22 @@
+package com.example.service;
+
+import com.example.dto.OrderDto;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+public class OrderService {
+
+    public List<OrderDto> find(String status) {
+        return List.of();
+    }
+
+    public OrderDto get(Long id) {
+        return new OrderDto();
+    }
+
+    public OrderDto save(OrderDto order) {
+        return order;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.web;
+
+import com.example.dto.OrderDto;
+import com.example.service.OrderService;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/orders")
+public class OrderController {
+
+    private final OrderService orderService;
+
+    public OrderController(OrderService orderService) {
+        this.orderService = orderService;
+    }
+
+    /**
+     * Lists orders.
+     */
+    @GetMapping
+    public List<OrderDto> list(@RequestParam(required = false) String status) {
+        return orderService.find(status);
+    }
+
+    @GetMapping("/{id}")
+    public OrderDto get(@PathVariable Long id) {
+        return orderService.get(id);
+    }
+
+    @PostMapping
+    public OrderDto create(@RequestBody OrderDto order) {
+        return orderService.save(order);
+    }
+}
@@ -1,66 +1,800 @@
 package com.autodoc;
 
+import com.autodoc.batch.BatchParser;
+import com.autodoc.bytecode.BytecodeEngine;
+import com.autodoc.bytecode.ClassFile;
+import com.autodoc.cache.CachedFile;
+import com.autodoc.cache.IrCache;
+import com.autodoc.discovery.SourceDiscovery;
+import com.autodoc.discovery.SourceModule;
+import com.autodoc.graph.DependencyGraph;
+import com.autodoc.graph.ModelPruner;
+import com.autodoc.javaparser.JavaParserEngine;
+import com.autodoc.metrics.CountingOutputStream;
+import com.autodoc.metrics.ParserMetrics;
 import com.autodoc.model.*;
+import com.autodoc.output.ControllerTable;
+import com.autodoc.output.IrFormat;
+import com.autodoc.output.StreamingIrWriter;
+import com.autodoc.output.TypeTable;
+import com.autodoc.processor.ClassificationRules;
 import com.autodoc.processor.ControllerProcessor;
 import com.autodoc.processor.ModelProcessor;
+import com.autodoc.processor.ModelScanner;
 import com.autodoc.processor.RelationshipExtractor;
+import com.autodoc.processor.TypeClassifier;
+import com.autodoc.processor.TypeFragment;
+import com.autodoc.server.ParserServer;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.javaparser.ast.body.TypeDeclaration;
 import spoon.Launcher;
 import spoon.reflect.CtModel;
+import spoon.reflect.declaration.CtModule;
+import spoon.reflect.declaration.CtPackage;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.reference.CtTypeReference;
+import spoon.reflect.visitor.filter.TypeFilter;
 
-import java.io.File;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class Parser {
 
+    private static final String STAGE_HASH_SOURCES = "hashSources";
+    private static final String STAGE_DISCOVER_SOURCES = "discoverSources";
+    private static final String STAGE_DISCOVER_MODULES = "discoverModules";
+    private static final String STAGE_DISCOVER_BATCHES = "discoverBatches";
+    private static final String STAGE_BUILD_MODEL = "buildModel";
+    private static final String STAGE_EXTRACT = "extract";
+    private static final String STAGE_SAVE_CACHE = "saveCache";
+    private static final String STAGE_MERGE = "mergeFragments";
+    private static final String STAGE_LINK = "linkRelationships";
+    private static final String STAGE_DEPENDENCY_GRAPH = "dependencyGraph";
+    private static final String STAGE_PRUNE_MODELS = "pruneModels";
+    private static final String STAGE_SERIALIZE = "serialize";
+
+    // Heap a Spoon model takes per byte of source, measured with comments
+    // enabled; used to turn a heap budget into a batch size
+    private static final long MODEL_BYTES_PER_SOURCE_BYTE = 64;
+
     private final Launcher spoon;
+    private final ParserEngine engine;
+    private final String javadocSources;
+    private final int parallelism;
+    private final String cacheDir;
+    private final boolean prefilter;
+    private final int moduleParallelism;
+    private final long maxBatchBytes;
+    private final boolean dependencyClosure;
+    private final boolean calls;
+    private final boolean pruneModels;
+    private final ClassificationRules rules;
+    private final ParserMetrics metrics;
 
     public Parser() {
+        this(new ParserOptions());
+    }
+
+    public Parser(ParserOptions options) {
         this.spoon = new Launcher();
-        configureSpoon();
+        this.engine = options.getEngine();
+        this.javadocSources = options.getJavadocSources();
+        this.parallelism = options.getParallelism();
+        this.cacheDir = options.getCacheDir();
+        this.prefilter = options.isPrefilter();
+        this.moduleParallelism = options.getModuleParallelism();
+        this.maxBatchBytes = options.getBatchHeapBytes() / MODEL_BYTES_PER_SOURCE_BYTE;
+        this.dependencyClosure = options.isDependencyClosure();
+        this.calls = options.isCalls();
+        this.pruneModels = options.isPruneModels();
+        this.rules = options.getRules();
+        this.metrics = options.isMetrics() ? new ParserMetrics() : ParserMetrics.disabled();
+        configureSpoon(spoon);
     }
 
-    private void configureSpoon() {
+    /**
+     * Stage metrics of this parser's runs; disabled unless
+     * {@code --metrics} was given.
+     */
+    public ParserMetrics getMetrics() {
+        return metrics;
+    }
+
+    private static void configureSpoon(Launcher spoon) {
         // Configure Spoon environment
         spoon.getEnvironment().setComplianceLevel(11); // Java 11 compliance
         spoon.getEnvironment().setCommentEnabled(true); // Process JavaDoc
         spoon.getEnvironment().setAutoImports(true);
+        spoon.getEnvironment().setNoClasspath(true); // Unresolved library types are fine
     }
 
     public ParsedProject parse(String sourcePath) {
-        // Build Spoon model
-        spoon.addInputResource(sourcePath);
-        spoon.buildModel();
+        ParsedProject parsedProject = extractProject(sourcePath);
+        return pruneModels ? pruneModels(parsedProject) : parsedProject;
+    }
+
+    /**
+     * Merges the fragments another front-end extracted, such as
+     * {@code com.autodoc.apt.IrProcessor}, and links them like
+     * {@link #parse(String)}. Fragments must be in the order
+     * {@link #parse(String)} would list their types.
+     */
+    public ParsedProject parse(List<TypeFragment> fragments) {
+        ParsedProject parsedProject = mergeAndLink(fragments);
+        return pruneModels ? pruneModels(parsedProject) : parsedProject;
+    }
+
+    private ParsedProject extractProject(String sourcePath) {
+        // Dependencies are linked once every fragment is extracted
+        List<TypeFragment> fragments = new ArrayList<>();
+        extractFragments(sourcePath, fragments::add);
+        return mergeAndLink(fragments);
+    }
+
+    /**
+     * Streams the IR one top-level type at a time instead of building a
+     * {@link ParsedProject}. Fragments reach {@code sink} in the same order
+     * {@link #parse(String)} would list them, with dependencies already
+     * attached to their endpoints.
+     *
+     * The dependency closure needs every relationship, so with
+     * {@code --dependency-closure} it is only set once all fragments were
+     * accepted, on the first endpoint of each controller.
+     */
+    public void parse(String sourcePath, Consumer<TypeFragment> sink) {
+        List<Relationship> relationships = new ArrayList<>();
+        Map<String, EndpointData> controllers = new LinkedHashMap<>();
+        Consumer<TypeFragment> withDependencies = fragment -> {
+            linkRelationships(fragment.getEndpoints(), fragment.getRelationships());
+            if (dependencyClosure) {
+                relationships.addAll(fragment.getRelationships());
+                for (EndpointData endpoint : fragment.getEndpoints()) {
+                    controllers.putIfAbsent(endpoint.getControllerPackage() + "." + endpoint.getControllerName(),
+                            endpoint);
+                }
+            }
+            try (ParserMetrics.Timer timer = metrics.startThread(STAGE_SERIALIZE)) {
+                sink.accept(fragment);
+            }
+        };
+
+        extractFragments(sourcePath, withDependencies);
+        if (dependencyClosure) {
+            linkDownstream(controllers.values(), relationships);
+        }
+    }
+
+    /**
+     * Hands {@code action} the fragment of every top-level type, in the
+     * order a single model lists them, from the front-end and mode the
+     * options select. Both the buffered and the streaming parse extract
+     * through here.
+     */
+    private void extractFragments(String sourcePath, Consumer<TypeFragment> action) {
+        // Types are classified once per parse, by every processor together
+        TypeClassifier classifier = new TypeClassifier(rules);
+
+        if (cacheDir != null) {
+            incrementalFragments(sourcePath, classifier).forEach(action);
+            return;
+        }
+        if (moduleParallelism > 0) {
+            moduleFragments(sourcePath, classifier).forEach(action);
+            return;
+        }
+        if (maxBatchBytes > 0) {
+            batchFragments(sourcePath, classifier, action);
+            return;
+        }
+        if (engine == ParserEngine.JAVAPARSER) {
+            JavaParserEngine javaParser = new JavaParserEngine(parallelism, classifier);
+            List<TypeDeclaration<?>> types = buildModel(javaParser, sourcePath, classifier);
+            extractTypes(types, javaParser::extractType, action);
+            return;
+        }
+        if (engine == ParserEngine.BYTECODE) {
+            BytecodeEngine bytecode = newBytecodeEngine(classifier);
+            List<ClassFile> classes = buildModel(bytecode, sourcePath);
+            extractTypes(classes, bytecode::extractType, action);
+            return;
+        }
+
+        addInputResources(sourcePath, classifier);
+        CtModel model = buildModel(spoon);
+        extractTypes(topLevelTypes(model), type -> extractType(type, classifier), action);
+    }
+
+    private void addInputResources(String sourcePath, TypeClassifier classifier) {
+        if (!prefilter) {
+            spoon.addInputResource(sourcePath);
+            return;
+        }
+        for (Path file : discoverSources(sourcePath, classifier)) {
+            spoon.addInputResource(file.toString());
+        }
+    }
+
+    /**
+     * Models each module of a multi-module tree with its own launcher, which
+     * is dropped as soon as the module's types are extracted, so only
+     * {@code moduleParallelism} models are in memory at a time; with
+     * {@code --batch}, each module is modeled in batches of packages as
+     * well. Fragments
+     * come back in the order a single model would list them; a type
+     * declared again by a later module, like a copied DTO, is kept once.
+     */
+    private List<TypeFragment> moduleFragments(String sourcePath, TypeClassifier classifier) {
+        SourceDiscovery discovery = new SourceDiscovery(classifier, parallelism);
+        List<SourceModule> modules;
+        try (ParserMetrics.Timer timer = metrics.start(STAGE_DISCOVER_MODULES)) {
+            modules = discovery.discoverModules(Paths.get(sourcePath), prefilter, maxBatchBytes);
+        }
+        metrics.count(STAGE_DISCOVER_MODULES, "files", discovery.getScannedCount());
+        metrics.count(STAGE_DISCOVER_MODULES, "modules", modules.size());
+
+        List<Map<Path, List<TypeFragment>>> moduleFragments;
+        if (moduleParallelism <= 1 || modules.size() <= 1) {
+            moduleFragments = new ArrayList<>();
+            for (SourceModule module : modules) {
+                moduleFragments.add(extractModule(module, classifier));
+            }
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(moduleParallelism);
+            try {
+                moduleFragments = pool.submit(() -> modules.parallelStream()
+                        .map(module -> extractModule(module, classifier))
+                        .collect(Collectors.toList()))
+                        .get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Module extraction interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Module extraction failed", e.getCause());
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        // A single model lists packages and files in path order
+        Map<String, List<TypeFragment>> fragmentsByFile = new TreeMap<>();
+        for (Map<Path, List<TypeFragment>> fragments : moduleFragments) {
+            fragments.forEach((file, fileFragments) -> fragmentsByFile.put(file.toString(), fileFragments));
+        }
+        PackageNode root = new PackageNode();
+        for (List<TypeFragment> fileFragments : fragmentsByFile.values()) {
+            fileFragments.forEach(root::add);
+        }
+        List<TypeFragment> fragments = new ArrayList<>();
+        root.collectFragments(fragments);
+        return fragments;
+    }
+
+    /**
+     * Models the source tree in batches of packages, each with its own
+     * launcher and the files its types reference, so the heap holds one
+     * batch's model at a time. Fragments reach {@code action} as each batch
+     * is extracted, in the order a single model would list them.
+     */
+    private void batchFragments(String sourcePath, TypeClassifier classifier, Consumer<TypeFragment> action) {
+        SourceDiscovery discovery = new SourceDiscovery(classifier, parallelism);
+        List<SourceModule> batches;
+        try (ParserMetrics.Timer timer = metrics.start(STAGE_DISCOVER_BATCHES)) {
+            batches = discovery.discoverBatches(Paths.get(sourcePath), prefilter, maxBatchBytes);
+        }
+        metrics.count(STAGE_DISCOVER_BATCHES, "files", discovery.getScannedCount());
+        metrics.count(STAGE_DISCOVER_BATCHES, "batches", batches.size());
+
+        for (SourceModule batch : batches) {
+            Map<Path, List<TypeFragment>> fragmentsByFile = extractModule(batch, classifier);
+            for (Path file : batch.getSources()) {
+                fragmentsByFile.getOrDefault(file, List.of()).forEach(action);
+            }
+        }
+    }
+
+    /**
+     * Extracts the types of one module's own files from a model of those
+     * files and the files they reference, by file.
+     */
+    private Map<Path, List<TypeFragment>> extractModule(SourceModule module, TypeClassifier classifier) {
+        Launcher launcher = new Launcher();
+        configureSpoon(launcher);
+        for (Path file : module.getSources()) {
+            launcher.addInputResource(file.toString());
+        }
+        for (Path file : module.getReferences()) {
+            launcher.addInputResource(file.toString());
+        }
+        CtModel model = buildModel(launcher);
+
+        Set<Path> sources = new HashSet<>(module.getSources());
+        List<Path> files = new ArrayList<>();
+        List<CtType<?>> types = new ArrayList<>();
+        for (CtType<?> type : topLevelTypes(model)) {
+            Path file = type.getPosition().getFile().toPath().toAbsolutePath().normalize();
+            if (sources.contains(file)) {
+                files.add(file);
+                types.add(type);
+            }
+        }
+
+        List<TypeFragment> fragments = extractTypes(types, classifier);
+        Map<Path, List<TypeFragment>> fragmentsByFile = new HashMap<>();
+        for (int i = 0; i < types.size(); i++) {
+            fragmentsByFile.computeIfAbsent(files.get(i), k -> new ArrayList<>()).add(fragments.get(i));
+        }
+        return fragmentsByFile;
+    }
+
+    /**
+     * Byte-scans the sources and keeps the files the IR can depend on, so
+     * the model is only built from those.
+     */
+    private List<Path> discoverSources(String sourcePath, TypeClassifier classifier) {
+        SourceDiscovery discovery = new SourceDiscovery(classifier, parallelism);
+        List<Path> files;
+        try (ParserMetrics.Timer timer = metrics.start(STAGE_DISCOVER_SOURCES)) {
+            files = discovery.discover(Paths.get(sourcePath));
+        }
+        metrics.count(STAGE_DISCOVER_SOURCES, "files", discovery.getScannedCount());
+        metrics.count(STAGE_DISCOVER_SOURCES, "selected", files.size());
+        return files;
+    }
+
+    private CtModel buildModel(Launcher spoon) {
+        try (ParserMetrics.Timer timer = metrics.start(STAGE_BUILD_MODEL)) {
+            spoon.buildModel();
+        }
         CtModel model = spoon.getModel();
+        if (metrics.isEnabled()) {
+            metrics.count(STAGE_BUILD_MODEL, "types", model.getAllTypes().size());
+        }
+        return model;
+    }
 
-        // Create parsed project
-        ParsedProject parsedProject = new ParsedProject();
+    private List<TypeDeclaration<?>> buildModel(JavaParserEngine javaParser, String sourcePath,
+            TypeClassifier classifier) {
+        List<Path> files = prefilter ? discoverSources(sourcePath, classifier) : null;
+        List<TypeDeclaration<?>> types;
+        try (ParserMetrics.Timer timer = metrics.start(STAGE_BUILD_MODEL)) {
+            types = files != null ? javaParser.buildModel(files) : javaParser.buildModel(sourcePath);
+        }
+        metrics.count(STAGE_BUILD_MODEL, "types", javaParser.getTypeCount());
+        return types;
+    }
+
+    private BytecodeEngine newBytecodeEngine(TypeClassifier classifier) {
+        return new BytecodeEngine(parallelism, classifier, javadocSources);
+    }
+
+    private List<ClassFile> buildModel(BytecodeEngine bytecode, String classPath) {
+        List<ClassFile> classes;
+        try (ParserMetrics.Timer timer = metrics.start(STAGE_BUILD_MODEL)) {
+            classes = bytecode.buildModel(classPath);
+        }
+        metrics.count(STAGE_BUILD_MODEL, "types", bytecode.getTypeCount());
+        return classes;
+    }
+
+    /**
+     * Parses only what changed since the last run. Files whose content hash
+     * matches the cache reuse their stored fragments; changed files and their
+     * dependents are re-modeled together with the files they reference.
+     */
+    private List<TypeFragment> incrementalFragments(String sourcePath, TypeClassifier classifier) {
+        try {
+            return parseIncremental(sourcePath, classifier);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<TypeFragment> parseIncremental(String sourcePath, TypeClassifier classifier) throws IOException {
+        Path root = Paths.get(sourcePath).toAbsolutePath().normalize();
+        Path baseDir = Files.isDirectory(root) ? root : root.getParent();
+
+        Map<String, Path> sources;
+        Map<String, String> hashes = new TreeMap<>();
+        try (ParserMetrics.Timer timer = metrics.start(STAGE_HASH_SOURCES)) {
+            sources = IrCache.listSources(root, baseDir);
+            for (Map.Entry<String, Path> entry : sources.entrySet()) {
+                hashes.put(entry.getKey(), IrCache.hash(entry.getValue()));
+            }
+        }
+        metrics.count(STAGE_HASH_SOURCES, "files", hashes.size());
 
-        // Process models
-        ModelProcessor modelProcessor = new ModelProcessor();
-        modelProcessor.processModels(model, parsedProject);
+        // Fragments extracted under other classification rules are stale
+        IrCache cache = new IrCache(Paths.get(cacheDir), rules.toString());
+        cache.load();
 
-        // Process controllers
-        ControllerProcessor controllerProcessor = new ControllerProcessor();
-        controllerProcessor.processControllers(model, parsedProject);
+        // Re-extract changed files and anything that referenced a changed or
+        // removed file
+        Set<String> changed = cache.changedFiles(hashes);
+        Set<String> removed = cache.removedFiles(hashes);
+        Set<String> affected = new TreeSet<>(changed);
+        affected.addAll(removed);
 
-        // Extract relationships between components
-        RelationshipExtractor relationshipExtractor = new RelationshipExtractor();
-        List<Relationship> relationships = relationshipExtractor.extractRelationships(model);
+        Set<String> dirty = new TreeSet<>(changed);
+        dirty.addAll(cache.dependentsOf(affected));
 
-        // Add relationships to endpoints
-        addRelationshipsToEndpoints(parsedProject, relationships);
+        // Types that appeared or disappeared may be mentioned by files that
+        // recorded no dependency on them
+        Set<String> typeNames = new HashSet<>();
+        for (String path : removed) {
+            typeNames.addAll(cache.get(path).getDeclaredTypes());
+        }
+        for (String path : changed) {
+            Set<String> declared = IrCache.declaredTypes(IrCache.read(sources.get(path)));
+            CachedFile cached = cache.get(path);
+            if (cached != null) {
+                declared.removeAll(cached.getDeclaredTypes());
+            }
+            typeNames.addAll(declared);
+        }
+        if (!typeNames.isEmpty()) {
+            dirty.addAll(cache.filesMentioning(typeNames, sources));
+        }
+        dirty.retainAll(hashes.keySet());
+        removed.forEach(cache::remove);
+
+        if (!dirty.isEmpty()) {
+            // Referenced files are modeled too so their annotations and
+            // qualified names resolve, but their cached fragments are kept
+            List<String> dirtySources = new ArrayList<>();
+            for (String path : dirty) {
+                dirtySources.add(IrCache.read(sources.get(path)));
+            }
+            Set<String> modeled = new TreeSet<>(dirty);
+            modeled.addAll(cache.referencedFiles(dirtySources));
+            modeled.retainAll(hashes.keySet());
+
+            for (String path : modeled) {
+                spoon.addInputResource(sources.get(path).toString());
+            }
+            CtModel model = buildModel(spoon);
 
+            // Map every modeled type, nested ones included, to its file
+            Map<String, String> fileByType = new HashMap<>();
+            List<CtType<?>> dirtyTypes = new ArrayList<>();
+            for (CtType<?> type : topLevelTypes(model)) {
+                String path = IrCache.relativePath(baseDir, type.getPosition().getFile().toPath());
+                for (CtType<?> declared : type.getElements(new TypeFilter<>(CtType.class))) {
+                    fileByType.put(declared.getQualifiedName(), path);
+                }
+                if (dirty.contains(path)) {
+                    dirtyTypes.add(type);
+                }
+            }
+
+            Map<String, CachedFile> updated = new TreeMap<>();
+            for (String path : dirty) {
+                updated.put(path, new CachedFile(path, hashes.get(path)));
+            }
+
+            List<TypeFragment> fragments = extractTypes(dirtyTypes, classifier);
+            for (int i = 0; i < dirtyTypes.size(); i++) {
+                CtType<?> type = dirtyTypes.get(i);
+                CachedFile entry = updated.get(fileByType.get(type.getQualifiedName()));
+                entry.getFragments().add(fragments.get(i));
+
+                for (CtType<?> declared : type.getElements(new TypeFilter<>(CtType.class))) {
+                    entry.getDeclaredTypes().add(declared.getSimpleName());
+                }
+
+                Set<String> dependencies = new TreeSet<>(entry.getDependencies());
+                for (CtTypeReference<?> reference : type.getReferencedTypes()) {
+                    String dependency = fileByType.get(reference.getQualifiedName());
+                    if (dependency != null && !dependency.equals(entry.getPath())) {
+                        dependencies.add(dependency);
+                    }
+                }
+                entry.setDependencies(new ArrayList<>(dependencies));
+            }
+            updated.values().forEach(cache::put);
+        }
+
+        try (ParserMetrics.Timer timer = metrics.start(STAGE_SAVE_CACHE)) {
+            cache.save();
+        }
+
+        // Merge every file's fragments, in path order, the way a full model
+        // lists them
+        PackageNode packages = new PackageNode();
+        for (CachedFile entry : cache.entries()) {
+            entry.getFragments().forEach(packages::add);
+        }
+        List<TypeFragment> fragments = new ArrayList<>();
+        packages.collectFragments(fragments);
+        return fragments;
+    }
+
+    /**
+     * Extracts each type into its own fragment, on a ForkJoinPool when
+     * parallelism is enabled. The result keeps the order of {@code types}.
+     */
+    private List<TypeFragment> extractTypes(List<CtType<?>> types, TypeClassifier classifier) {
+        return extractTypes(types, type -> extractType(type, classifier));
+    }
+
+    private <T> List<TypeFragment> extractTypes(List<T> types, Function<T, TypeFragment> extractor) {
+        List<TypeFragment> fragments = new ArrayList<>();
+        extractTypes(types, extractor, fragments::add);
+        return fragments;
+    }
+
+    /**
+     * Hands each type's fragment to {@code action} in the order of
+     * {@code types}, one at a time, as soon as it and its predecessors are
+     * extracted.
+     */
+    private <T> void extractTypes(List<T> types, Function<T, TypeFragment> extractor,
+            Consumer<TypeFragment> action) {
+        Consumer<TypeFragment> counted = fragment -> {
+            countExtracted(fragment.getModels().size(), fragment.getEndpoints().size(),
+                    fragment.getRelationships().size());
+            action.accept(fragment);
+        };
+
+        // Timed per type, on its thread, so time spent in action, such as
+        // writing the IR with --stream, is not counted as extraction
+        Function<T, TypeFragment> timed = type -> {
+            try (ParserMetrics.Timer timer = metrics.startThread(STAGE_EXTRACT)) {
+                return extractor.apply(type);
+            }
+        };
+
+        if (parallelism <= 1) {
+            for (T type : types) {
+                counted.accept(timed.apply(type));
+            }
+            return;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> types.parallelStream()
+                    .map(timed)
+                    .forEachOrdered(counted))
+                    .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Parallel extraction interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Parallel extraction failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Keeps only the models the endpoints expose, see {@link ModelPruner}.
+     */
+    private ParsedProject pruneModels(ParsedProject parsedProject) {
+        ParsedProject pruned = new ParsedProject();
+        try (ParserMetrics.Timer timer = metrics.start(STAGE_PRUNE_MODELS)) {
+            parsedProject.getEndpoints().forEach(pruned::addEndpoint);
+            ModelPruner.prune(parsedProject.getEndpoints(), parsedProject.getModels()).forEach(pruned::addModel);
+        }
+        metrics.count(STAGE_PRUNE_MODELS, "models", parsedProject.getModels().size());
+        metrics.count(STAGE_PRUNE_MODELS, "kept", pruned.getModels().size());
+        return pruned;
+    }
+
+    private ParsedProject mergeAndLink(List<TypeFragment> fragments) {
+        ParsedProject parsedProject = new ParsedProject();
+        List<Relationship> relationships;
+        try (ParserMetrics.Timer timer = metrics.start(STAGE_MERGE)) {
+            relationships = mergeFragments(fragments, parsedProject);
+        }
+        linkRelationships(parsedProject, relationships);
         return parsedProject;
     }
 
-    private void addRelationshipsToEndpoints(ParsedProject project, List<Relationship> relationships) {
+    private List<Relationship> mergeFragments(List<TypeFragment> fragments, ParsedProject parsedProject) {
+        // ModelProcessor emits class models before enum models, and only the
+        // enum pass marks a model as an enum, so merge in two rounds
+        List<Relationship> relationships = new ArrayList<>();
+        for (TypeFragment fragment : fragments) {
+            for (ModelData modelData : fragment.getModels()) {
+                if (!modelData.isEnum()) {
+                    parsedProject.addModel(modelData);
+                }
+            }
+            for (EndpointData endpoint : fragment.getEndpoints()) {
+                parsedProject.addEndpoint(endpoint);
+            }
+            relationships.addAll(fragment.getRelationships());
+        }
+        for (TypeFragment fragment : fragments) {
+            for (ModelData modelData : fragment.getModels()) {
+                if (modelData.isEnum()) {
+                    parsedProject.addModel(modelData);
+                }
+            }
+        }
+
+        return relationships;
+    }
+
+    private TypeFragment extractType(CtType<?> type, TypeClassifier classifier) {
+        ParsedProject fragment = new ParsedProject();
+        RelationshipExtractor relationshipExtractor = new RelationshipExtractor(classifier, calls);
+        newScanner(relationshipExtractor, classifier).scan(type, fragment);
+
+        return new TypeFragment(type.getQualifiedName(),
+                new ArrayList<>(fragment.getModels()),
+                new ArrayList<>(fragment.getEndpoints()),
+                relationshipExtractor.getRelationships());
+    }
+
+    /**
+     * Scans with every processor; with metrics, the elements visited are
+     * counted as well.
+     */
+    private ModelScanner newScanner(RelationshipExtractor relationshipExtractor, TypeClassifier classifier) {
+        ModelScanner scanner = new ModelScanner(new ModelProcessor(classifier), new ControllerProcessor(classifier),
+                relationshipExtractor);
+        if (metrics.isEnabled()) {
+            scanner.register(metrics.countElements(STAGE_EXTRACT));
+        }
+        return scanner;
+    }
+
+    private void countExtracted(int models, int endpoints, int relationships) {
+        metrics.count(STAGE_EXTRACT, "models", models);
+        metrics.count(STAGE_EXTRACT, "endpoints", endpoints);
+        metrics.count(STAGE_EXTRACT, "relationships", relationships);
+    }
+
+    private void linkRelationships(List<EndpointData> endpoints, List<Relationship> relationships) {
+        try (ParserMetrics.Timer timer = metrics.start(STAGE_LINK)) {
+            addRelationshipsToEndpoints(endpoints, relationships);
+            if (calls) {
+                addCallsToEndpoints(endpoints, relationships);
+            }
+        }
+        metrics.count(STAGE_LINK, "endpoints", endpoints.size());
+    }
+
+    private void linkRelationships(ParsedProject parsedProject, List<Relationship> relationships) {
+        try (ParserMetrics.Timer timer = metrics.start(STAGE_LINK)) {
+            // Look up each injecting class's endpoints instead of scanning them all
+            dependenciesByClass(relationships).forEach((sourceClass, dependencies) -> {
+                for (EndpointData endpoint : parsedProject.findEndpoints(sourceClass)) {
+                    endpoint.setDependencies(dependencies);
+                }
+            });
+            if (calls) {
+                addCallsToEndpoints(parsedProject.getEndpoints(), relationships);
+            }
+        }
+        metrics.count(STAGE_LINK, "endpoints", parsedProject.getEndpoints().size());
+
+        if (dependencyClosure) {
+            linkDownstream(parsedProject.getEndpoints(), relationships);
+        }
+    }
+
+    /**
+     * Sets each endpoint's downstream components, from a graph of all
+     * relationships queried once per controller; endpoints of a controller
+     * share the list.
+     */
+    private void linkDownstream(Collection<EndpointData> endpoints, List<Relationship> relationships) {
+        DependencyGraph graph;
+        Map<String, List<String>> downstreamByController = new HashMap<>();
+        try (ParserMetrics.Timer timer = metrics.start(STAGE_DEPENDENCY_GRAPH)) {
+            graph = DependencyGraph.of(relationships);
+            for (EndpointData endpoint : endpoints) {
+                endpoint.setDownstream(downstreamByController.computeIfAbsent(
+                        endpoint.getControllerPackage() + "." + endpoint.getControllerName(), graph::downstream));
+            }
+        }
+        metrics.count(STAGE_DEPENDENCY_GRAPH, "nodes", graph.size());
+        metrics.count(STAGE_DEPENDENCY_GRAPH, "edges", graph.edgeCount());
+        metrics.count(STAGE_DEPENDENCY_GRAPH, "controllers", downstreamByController.size());
+        if (metrics.isEnabled()) {
+            // Injection cycles only work through setters or lazy proxies, so
+            // they are worth knowing about
+            metrics.count(STAGE_DEPENDENCY_GRAPH, "injectionCycles", graph.cycles(DependencyGraph.INJECTS).size());
+        }
+    }
+
+    /**
+     * Lists top-level types in the same order {@link ModelScanner} visits them:
+     * sub-packages first, then the package's own types.
+     */
+    private static List<CtType<?>> topLevelTypes(CtModel model) {
+        List<CtType<?>> types = new ArrayList<>();
+        for (CtModule module : model.getAllModules()) {
+            collectTypes(module.getRootPackage(), types);
+        }
+        return types;
+    }
+
+    private static void collectTypes(CtPackage pkg, List<CtType<?>> types) {
+        for (CtPackage subPackage : pkg.getPackages()) {
+            collectTypes(subPackage, types);
+        }
+        types.addAll(pkg.getTypes());
+    }
+
+    /**
+     * Orders fragments of several models the way {@link #topLevelTypes}
+     * orders one model's types, given them in file order: sub-packages
+     * first. The first fragment of a qualified name wins.
+     */
+    private static final class PackageNode {
+        private final Map<String, PackageNode> packages = new LinkedHashMap<>();
+        private final Map<String, TypeFragment> fragments = new LinkedHashMap<>();
+
+        void add(TypeFragment fragment) {
+            String qualifiedName = fragment.getQualifiedName();
+            PackageNode node = this;
+            int start = 0;
+            for (int dot = qualifiedName.indexOf('.'); dot >= 0; dot = qualifiedName.indexOf('.', start)) {
+                node = node.packages.computeIfAbsent(qualifiedName.substring(start, dot), n -> new PackageNode());
+                start = dot + 1;
+            }
+            node.fragments.putIfAbsent(qualifiedName, fragment);
+        }
+
+        void collectFragments(List<TypeFragment> result) {
+            for (PackageNode subPackage : packages.values()) {
+                subPackage.collectFragments(result);
+            }
+            result.addAll(fragments.values());
+        }
+    }
+
+    private void addRelationshipsToEndpoints(List<EndpointData> endpoints, List<Relationship> relationships) {
+        Map<String, List<DependencyData>> dependenciesByClass = dependenciesByClass(relationships);
+
+        // Now update endpoints with dependencies
+        for (EndpointData endpoint : endpoints) {
+            String controllerName = endpoint.getControllerName();
+            String controllerPackage = endpoint.getControllerPackage();
+            String qualifiedName = controllerPackage + "." + controllerName;
+
+            if (dependenciesByClass.containsKey(qualifiedName)) {
+                endpoint.setDependencies(dependenciesByClass.get(qualifiedName));
+            }
+        }
+    }
+
+    /**
+     * Gives each endpoint the calls its handler method makes, found by
+     * controller and handler signature.
+     */
+    private static void addCallsToEndpoints(List<EndpointData> endpoints, List<Relationship> relationships) {
+        Map<String, List<CallData>> callsByMethod = new HashMap<>();
+        for (Relationship rel : relationships) {
+            if (rel.getType().equals(RelationshipExtractor.RELATIONSHIP_CALLS)) {
+                callsByMethod.computeIfAbsent(rel.getSourceClass() + "#" + rel.getSourceMethod(),
+                        k -> new ArrayList<>()).add(new CallData(rel.getTargetClass(), rel.getTargetMethod()));
+            }
+        }
+
+        for (EndpointData endpoint : endpoints) {
+            String handler = endpoint.getControllerPackage() + "." + endpoint.getControllerName()
+                    + "#" + endpoint.getHandler();
+            endpoint.setCalls(callsByMethod.getOrDefault(handler, List.of()));
+        }
+    }
+
+    private static Map<String, List<DependencyData>> dependenciesByClass(List<Relationship> relationships) {
         // Group dependency relationships by source class
-        Map<String, List<DependencyData>> dependenciesByClass = new HashMap<>();
+        Map<String, List<DependencyData>> dependenciesByClass = new LinkedHashMap<>();
 
         for (Relationship rel : relationships) {
             if (rel.getType().equals(RelationshipExtractor.RELATIONSHIP_INJECTS)) {
@@ -78,43 +812,185 @@ public class Parser {
                 dependenciesByClass.get(sourceClass).add(dependency);
             }
         }
-
-        // Now update endpoints with dependencies
-        for (EndpointData endpoint : project.getEndpoints()) {
-            String controllerName = endpoint.getControllerName();
-            String controllerPackage = endpoint.getControllerPackage();
-            String qualifiedName = controllerPackage + "." + controllerName;
-
-            if (dependenciesByClass.containsKey(qualifiedName)) {
-                endpoint.setDependencies(dependenciesByClass.get(qualifiedName));
-            }
-        }
+        return dependenciesByClass;
     }
 
     public static void main(String[] args) {
-        if (args.length < 1) {
-            System.out.println("Usage: java -jar autodoc.jar <source_directory>");
+        ParserOptions options;
+        try {
+            options = ParserOptions.fromArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage(System.err);
+            System.exit(1);
+            return;
+        }
+        if (options.isServer()) {
+            serve(options);
+            return;
+        }
+        if (options.getManifestPath() != null) {
+            batch(options, args);
+            return;
+        }
+        if (options.getSourcePath() == null) {
+            printUsage(System.out);
             System.exit(1);
         }
 
         try {
-            // Create parser
-            Parser parser = new Parser();
+            run(options);
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static void printUsage(PrintStream out) {
+        out.println("Usage: java -jar autodoc.jar <source_directory> [output_file] [--parallel[=threads]] [--engine=spoon|javaparser|bytecode] [--javadoc-sources=dir] [--rules=file] [--prefilter] [--modules[=n]] [--batch[=mb]] [--cache-dir=dir] [--stream] [--pretty] [--format=json|cbor] [--type-table] [--controller-table] [--dependency-closure] [--calls] [--prune-models] [--metrics[=file]]");
+        out.println("       java -jar autodoc.jar --server | --socket=path");
+        out.println("       java -jar autodoc.jar --manifest=file [--projects=n] [options]");
+    }
 
-            // Parse source directory
-            ParsedProject parsedProject = parser.parse(args[0]);
+    /**
+     * Parses {@code options}' source tree and writes its IR to the output
+     * file, or to stdout when there is none. When anything fails, the output
+     * file is deleted rather than left with part of the IR.
+     */
+    public static void run(ParserOptions options) throws IOException {
+        // Create parser
+        Parser parser = new Parser(options);
 
-            // Serialize IR as JSON (same as current implementation)
-            ObjectMapper mapper = new ObjectMapper()
-                    .enable(SerializationFeature.INDENT_OUTPUT);
-            if (args.length >= 2) {
-                mapper.writeValue(new File(args[1]), parsedProject);
+        ParserMetrics metrics = parser.getMetrics();
+        CountingOutputStream out = new CountingOutputStream(openOutput(options));
+
+        try {
+            if (options.isStream()) {
+                // Write the IR while it is being extracted
+                TypeTable typeTable = options.isTypeTable() ? new TypeTable() : null;
+                ControllerTable controllerTable = options.isControllerTable() ? new ControllerTable() : null;
+                // Models are pruned as they are copied from the spool
+                ModelPruner pruner = options.isPruneModels() ? new ModelPruner() : null;
+                StreamingIrWriter writer = new StreamingIrWriter(out, options.getFormat(), options.isPretty(),
+                        typeTable, controllerTable, pruner);
+                try {
+                    parser.parse(options.getSourcePath(), writer);
+                } catch (Throwable e) {
+                    // Closing the writer would finish a well-formed document
+                    writer.abort();
+                    throw e;
+                }
+
+                // Copying the spooled models is part of serialization
+                try (ParserMetrics.Timer timer = metrics.start(STAGE_SERIALIZE)) {
+                    writer.close();
+                }
             } else {
-                mapper.writeValue(System.out, parsedProject);
+                // Parse source directory
+                ParsedProject parsedProject = parser.parse(options.getSourcePath());
+
+                try (ParserMetrics.Timer timer = metrics.start(STAGE_SERIALIZE)) {
+                    write(parsedProject, options, out);
+                }
+            }
+            out.close();
+        } catch (Throwable e) {
+            // Leave no partial IR behind, also when JDT runs out of heap or
+            // stack
+            try {
+                out.close();
+            } catch (IOException closeFailure) {
+                e.addSuppressed(closeFailure);
             }
+            if (options.getOutputPath() != null) {
+                Files.deleteIfExists(Paths.get(options.getOutputPath()));
+            }
+            throw e;
+        }
+
+        if (metrics.isEnabled()) {
+            metrics.count(STAGE_SERIALIZE, "bytes", out.getCount());
+            metrics.report(options.getMetricsPath());
+        }
+    }
+
+    /**
+     * Serializes a project as the IR, in the encoding and with the tables
+     * {@code options} ask for; compact JSON unless {@code --pretty} or
+     * {@code --format} is given.
+     */
+    public static void write(ParsedProject parsedProject, ParserOptions options, OutputStream out)
+            throws IOException {
+        IrFormat format = options.getFormat();
+        ObjectMapper mapper = format.newMapper();
+        if (!format.isBinary()) {
+            mapper.configure(SerializationFeature.INDENT_OUTPUT, options.isPretty());
+        }
+        TypeTable typeTable = options.isTypeTable() ? new TypeTable() : null;
+        if (typeTable != null) {
+            typeTable.install(mapper);
+        }
+        ControllerTable controllerTable = options.isControllerTable() ? new ControllerTable() : null;
+        if (controllerTable != null) {
+            controllerTable.install(mapper);
+        }
+
+        format.writeHeader(out);
+        try (JsonGenerator generator = mapper.writer().createGenerator(out)) {
+            generator.writeStartObject();
+            IrFormat.writeSchemaVersion(generator);
+            generator.writeObjectField("endpoints", parsedProject.getEndpoints());
+            generator.writeObjectField("models", parsedProject.getModels());
+            if (controllerTable != null) {
+                controllerTable.write(generator);
+            }
+            if (typeTable != null) {
+                typeTable.write(generator);
+            }
+            generator.writeEndObject();
+        }
+    }
 
+    private static OutputStream openOutput(ParserOptions options) throws IOException {
+        if (options.getOutputPath() != null) {
+            return new BufferedOutputStream(new FileOutputStream(options.getOutputPath()));
+        }
+        return new BufferedOutputStream(new FileOutputStream(FileDescriptor.out));
+    }
+
+    /**
+     * Parses every project of the manifest, passing them the other options
+     * on the command line, and exits with 1 when any of them failed.
+     */
+    private static void batch(ParserOptions options, String[] args) {
+        List<String> sharedArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--manifest") && !arg.startsWith("--projects")) {
+                sharedArgs.add(arg);
+            }
+        }
+        try {
+            BatchParser batch = BatchParser.fromManifest(Paths.get(options.getManifestPath()), sharedArgs);
+            if (batch.run(options.getProjectParallelism()) > 0) {
+                System.exit(1);
+            }
         } catch (Exception e) {
             e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static void serve(ParserOptions options) {
+        try {
+            ParserServer server = new ParserServer();
+            if (options.getSocketPath() != null) {
+                server.serveSocket(Paths.get(options.getSocketPath()));
+            } else {
+                server.serveStdio();
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
         }
     }
 }
@@ -0,0 +1,27 @@
+package com.autodoc;
+
+import java.util.Locale;
+
+/**
+ * Front-ends that can build the IR.
+ *
+ * SPOON builds a full Spoon model and is the reference. JAVAPARSER works on
+ * JavaParser's syntax trees without symbol solving, parsing files in
+ * parallel; it produces the same IR for the annotations the processors
+ * understand, but does not support the incremental cache. BYTECODE reads
+ * compiled classes and jars instead of sources; it only sees annotations
+ * retained in class files, and Javadoc only from {@code --javadoc-sources}.
+ */
+public enum ParserEngine {
+    SPOON,
+    JAVAPARSER,
+    BYTECODE;
+
+    public static ParserEngine fromName(String name) {
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown parser engine: " + name);
+        }
+    }
+}
@@ -0,0 +1,526 @@
+package com.autodoc;
+
+import com.autodoc.output.IrFormat;
+import com.autodoc.processor.ClassificationRules;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command-line options for {@link Parser}. Positional arguments are the
+ * source directory and an optional output file; everything else is a
+ * {@code --flag} or {@code --flag=value}.
+ */
+public class ParserOptions {
+    private String sourcePath;
+    private String outputPath;
+    private int parallelism = 1;
+    private String cacheDir;
+    private boolean prefilter;
+    private int moduleParallelism;
+    private long batchHeapBytes;
+    private boolean server;
+    private boolean stream;
+    private boolean pretty;
+    private IrFormat format = IrFormat.JSON;
+    private boolean typeTable;
+    private boolean controllerTable;
+    private boolean dependencyClosure;
+    private boolean calls;
+    private boolean pruneModels;
+    private boolean metrics;
+    private String metricsPath;
+    private String socketPath;
+    private String manifestPath;
+    private int projectParallelism = 1;
+    private ParserEngine engine = ParserEngine.SPOON;
+    private String javadocSources;
+    private ClassificationRules rules = ClassificationRules.defaults();
+
+    public static ParserOptions fromArgs(String[] args) {
+        ParserOptions options = new ParserOptions();
+        List<String> positional = new ArrayList<>();
+
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                positional.add(arg);
+                continue;
+            }
+
+            String name = arg;
+            String value = null;
+            int eq = arg.indexOf('=');
+            if (eq >= 0) {
+                name = arg.substring(0, eq);
+                value = arg.substring(eq + 1);
+            }
+
+            switch (name) {
+                case "--parallel":
+                    // Without a value, use one thread per core
+                    options.setParallelism(value != null
+                            ? intValue(name, value)
+                            : Runtime.getRuntime().availableProcessors());
+                    break;
+                case "--cache-dir":
+                    if (value == null) {
+                        throw new IllegalArgumentException("--cache-dir requires a directory");
+                    }
+                    options.setCacheDir(value);
+                    break;
+                case "--prefilter":
+                    options.setPrefilter(true);
+                    break;
+                case "--modules":
+                    // Without a value, model one module at a time
+                    options.setModuleParallelism(value != null ? intValue(name, value) : 1);
+                    break;
+                case "--batch":
+                    // Without a budget, allow a quarter of the heap per batch
+                    options.setBatchHeapBytes(value != null
+                            ? longValue(name, value) * 1024 * 1024
+                            : Runtime.getRuntime().maxMemory() / 4);
+                    break;
+                case "--stream":
+                    options.setStream(true);
+                    break;
+                case "--pretty":
+                    options.setPretty(true);
+                    break;
+                case "--format":
+                    if (value == null) {
+                        throw new IllegalArgumentException("--format requires json or cbor");
+                    }
+                    options.setFormat(IrFormat.fromName(value));
+                    break;
+                case "--type-table":
+                    options.setTypeTable(true);
+                    break;
+                case "--controller-table":
+                    options.setControllerTable(true);
+                    break;
+                case "--dependency-closure":
+                    options.setDependencyClosure(true);
+                    break;
+                case "--calls":
+                    options.setCalls(true);
+                    break;
+                case "--prune-models":
+                    options.setPruneModels(true);
+                    break;
+                case "--metrics":
+                    // Without a file, metrics go to stderr
+                    options.setMetrics(true);
+                    options.setMetricsPath(value);
+                    break;
+                case "--engine":
+                    if (value == null) {
+                        throw new IllegalArgumentException("--engine requires spoon, javaparser or bytecode");
+                    }
+                    options.setEngine(ParserEngine.fromName(value));
+                    break;
+                case "--javadoc-sources":
+                    if (value == null) {
+                        throw new IllegalArgumentException("--javadoc-sources requires a list of source directories");
+                    }
+                    options.setJavadocSources(value);
+                    break;
+                case "--rules":
+                    if (value == null) {
+                        throw new IllegalArgumentException("--rules requires a properties file");
+                    }
+                    try {
+                        options.setRules(ClassificationRules.load(Paths.get(value)));
+                    } catch (IOException e) {
+                        throw new IllegalArgumentException("Cannot read rules file " + value + ": " + e.getMessage(), e);
+                    }
+                    break;
+                case "--server":
+                    options.setServer(true);
+                    break;
+                case "--socket":
+                    if (value == null) {
+                        throw new IllegalArgumentException("--socket requires a path");
+                    }
+                    options.setServer(true);
+                    options.setSocketPath(value);
+                    break;
+                case "--manifest":
+                    if (value == null) {
+                        throw new IllegalArgumentException("--manifest requires a file");
+                    }
+                    options.setManifestPath(value);
+                    break;
+                case "--projects":
+                    // Without a value, parse one project per core
+                    options.setProjectParallelism(value != null
+                            ? intValue(name, value)
+                            : Runtime.getRuntime().availableProcessors());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+
+        if (options.getEngine() != ParserEngine.SPOON && options.getCacheDir() != null) {
+            throw new IllegalArgumentException("--cache-dir is only supported by the spoon engine");
+        }
+        if (options.isPrefilter() && options.getCacheDir() != null) {
+            // The cache already limits the model to changed files and their references
+            throw new IllegalArgumentException("--prefilter cannot be combined with --cache-dir");
+        }
+        if (options.isModules() && options.getEngine() != ParserEngine.SPOON) {
+            throw new IllegalArgumentException("--modules is only supported by the spoon engine");
+        }
+        if (options.isModules() && options.getCacheDir() != null) {
+            throw new IllegalArgumentException("--modules cannot be combined with --cache-dir");
+        }
+        if (options.getBatchHeapBytes() > 0 && options.getEngine() != ParserEngine.SPOON) {
+            throw new IllegalArgumentException("--batch is only supported by the spoon engine");
+        }
+        if (options.getBatchHeapBytes() > 0 && options.getCacheDir() != null) {
+            throw new IllegalArgumentException("--batch cannot be combined with --cache-dir");
+        }
+        if (options.isCalls() && options.getEngine() != ParserEngine.SPOON) {
+            throw new IllegalArgumentException("--calls is only supported by the spoon engine");
+        }
+        if (options.isCalls() && options.getCacheDir() != null) {
+            // Cached endpoints do not keep their handler method
+            throw new IllegalArgumentException("--calls cannot be combined with --cache-dir");
+        }
+        if (options.getJavadocSources() != null && options.getEngine() != ParserEngine.BYTECODE) {
+            throw new IllegalArgumentException("--javadoc-sources is only supported by the bytecode engine");
+        }
+        if (options.isPrefilter() && options.getEngine() == ParserEngine.BYTECODE) {
+            // The prefilter scans sources, which the bytecode engine does not read
+            throw new IllegalArgumentException("--prefilter is not supported by the bytecode engine");
+        }
+        if (options.isDependencyClosure() && options.isStream() && !options.isControllerTable()) {
+            // Endpoints are written before the whole graph is known; only the
+            // controller table is written after it
+            throw new IllegalArgumentException("--dependency-closure with --stream requires --controller-table");
+        }
+
+        if (options.getManifestPath() != null) {
+            if (!positional.isEmpty()) {
+                throw new IllegalArgumentException("--manifest lists the sources and outputs; no other paths are allowed");
+            }
+            if (options.isServer()) {
+                throw new IllegalArgumentException("--manifest cannot be combined with --server or --socket");
+            }
+            if (options.getCacheDir() != null) {
+                // The cache is keyed by paths relative to one source root
+                throw new IllegalArgumentException("--cache-dir with --manifest must be given per project, in the manifest");
+            }
+            if (options.getMetricsPath() != null) {
+                throw new IllegalArgumentException("--metrics=file with --manifest must be given per project, in the manifest");
+            }
+        } else if (options.getProjectParallelism() > 1) {
+            throw new IllegalArgumentException("--projects requires --manifest");
+        }
+
+        if (!positional.isEmpty()) {
+            options.setSourcePath(positional.get(0));
+        }
+        if (positional.size() >= 2) {
+            options.setOutputPath(positional.get(1));
+        }
+
+        return options;
+    }
+
+    private static int intValue(String name, String value) {
+        long n = longValue(name, value);
+        if (n != (int) n) {
+            throw new IllegalArgumentException(name + " requires a number, got " + value);
+        }
+        return (int) n;
+    }
+
+    private static long longValue(String name, String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " requires a number, got " + value);
+        }
+    }
+
+    public String getSourcePath() {
+        return sourcePath;
+    }
+
+    public void setSourcePath(String sourcePath) {
+        this.sourcePath = sourcePath;
+    }
+
+    public String getOutputPath() {
+        return outputPath;
+    }
+
+    public void setOutputPath(String outputPath) {
+        this.outputPath = outputPath;
+    }
+
+    /**
+     * Directory of the incremental IR cache, or null to always parse the
+     * whole source tree.
+     */
+    public String getCacheDir() {
+        return cacheDir;
+    }
+
+    public void setCacheDir(String cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * Whether to byte-scan the sources first and model only the files the IR
+     * can depend on.
+     */
+    public boolean isPrefilter() {
+        return prefilter;
+    }
+
+    public void setPrefilter(boolean prefilter) {
+        this.prefilter = prefilter;
+    }
+
+    /**
+     * Whether to model each Maven or Gradle module with its own Spoon
+     * launcher and merge their fragments.
+     */
+    public boolean isModules() {
+        return moduleParallelism > 0;
+    }
+
+    /**
+     * Number of modules modeled at once, or 0 to model the source tree as
+     * one.
+     */
+    public int getModuleParallelism() {
+        return moduleParallelism;
+    }
+
+    public void setModuleParallelism(int moduleParallelism) {
+        this.moduleParallelism = Math.max(0, moduleParallelism);
+    }
+
+    /**
+     * Heap each model may take when the source tree is modeled in batches of
+     * packages, or 0 to model it at once.
+     */
+    public long getBatchHeapBytes() {
+        return batchHeapBytes;
+    }
+
+    public void setBatchHeapBytes(long batchHeapBytes) {
+        this.batchHeapBytes = Math.max(0, batchHeapBytes);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Whether to write the IR incrementally while it is extracted instead of
+     * building the whole {@code ParsedProject} first.
+     */
+    public boolean isStream() {
+        return stream;
+    }
+
+    public void setStream(boolean stream) {
+        this.stream = stream;
+    }
+
+    /**
+     * Whether to indent the IR JSON; it is compact by default.
+     */
+    public boolean isPretty() {
+        return pretty;
+    }
+
+    public void setPretty(boolean pretty) {
+        this.pretty = pretty;
+    }
+
+    public IrFormat getFormat() {
+        return format;
+    }
+
+    public void setFormat(IrFormat format) {
+        this.format = format;
+    }
+
+    /**
+     * Whether to write each distinct type reference once, in a top-level
+     * {@code types} table, and refer to it by id everywhere else.
+     */
+    public boolean isTypeTable() {
+        return typeTable;
+    }
+
+    public void setTypeTable(boolean typeTable) {
+        this.typeTable = typeTable;
+    }
+
+    /**
+     * Whether to write each controller's name, package, tags and
+     * dependencies once, in a top-level {@code controllers} table, and have
+     * its endpoints refer to it by id.
+     */
+    public boolean isControllerTable() {
+        return controllerTable;
+    }
+
+    public void setControllerTable(boolean controllerTable) {
+        this.controllerTable = controllerTable;
+    }
+
+    /**
+     * Whether to give each controller the full chain of components it
+     * depends on, as a {@code downstream} list next to its direct
+     * dependencies.
+     */
+    public boolean isDependencyClosure() {
+        return dependencyClosure;
+    }
+
+    public void setDependencyClosure(boolean dependencyClosure) {
+        this.dependencyClosure = dependencyClosure;
+    }
+
+    /**
+     * Whether to list, on each endpoint, the methods of other components its
+     * handler calls.
+     */
+    public boolean isCalls() {
+        return calls;
+    }
+
+    public void setCalls(boolean calls) {
+        this.calls = calls;
+    }
+
+    /**
+     * Whether to leave out models no endpoint exposes, directly or through
+     * the fields and superclasses of models it does.
+     */
+    public boolean isPruneModels() {
+        return pruneModels;
+    }
+
+    public void setPruneModels(boolean pruneModels) {
+        this.pruneModels = pruneModels;
+    }
+
+    /**
+     * Whether to record per-stage timing and memory metrics.
+     */
+    public boolean isMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(boolean metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * File the metrics JSON is written to, or null for stderr.
+     */
+    public String getMetricsPath() {
+        return metricsPath;
+    }
+
+    public void setMetricsPath(String metricsPath) {
+        this.metricsPath = metricsPath;
+    }
+
+    /**
+     * Whether to run as a long-lived parser daemon instead of parsing once.
+     */
+    public boolean isServer() {
+        return server;
+    }
+
+    public void setServer(boolean server) {
+        this.server = server;
+    }
+
+    /**
+     * Unix domain socket the daemon listens on, or null to serve on
+     * stdin/stdout.
+     */
+    public String getSocketPath() {
+        return socketPath;
+    }
+
+    public void setSocketPath(String socketPath) {
+        this.socketPath = socketPath;
+    }
+
+    /**
+     * Manifest of the projects to parse in this run, or null to parse the
+     * one source tree given on the command line.
+     */
+    public String getManifestPath() {
+        return manifestPath;
+    }
+
+    public void setManifestPath(String manifestPath) {
+        this.manifestPath = manifestPath;
+    }
+
+    /**
+     * Number of manifest projects parsed at once.
+     */
+    public int getProjectParallelism() {
+        return projectParallelism;
+    }
+
+    public void setProjectParallelism(int projectParallelism) {
+        this.projectParallelism = Math.max(1, projectParallelism);
+    }
+
+    /**
+     * Front-end that builds the IR; Spoon unless {@code --engine} says
+     * otherwise.
+     */
+    public ParserEngine getEngine() {
+        return engine;
+    }
+
+    public void setEngine(ParserEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Source roots the bytecode engine reads Javadoc from, separated like a
+     * class path, or null to leave descriptions empty.
+     */
+    public String getJavadocSources() {
+        return javadocSources;
+    }
+
+    public void setJavadocSources(String javadocSources) {
+        this.javadocSources = javadocSources;
+    }
+
+    /**
+     * Rules that decide which types are controllers, components and models;
+     * the Spring conventions unless {@code --rules} names a file.
+     */
+    public ClassificationRules getRules() {
+        return rules;
+    }
+
+    public void setRules(ClassificationRules rules) {
+        this.rules = rules;
+    }
+}
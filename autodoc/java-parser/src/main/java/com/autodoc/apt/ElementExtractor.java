@@ -0,0 +1,572 @@
+package com.autodoc.apt;
+
+import com.autodoc.javaparser.DocComments;
+import com.autodoc.model.*;
+import com.autodoc.processor.AnnotationIndex;
+import com.autodoc.processor.RelationshipExtractor;
+import com.autodoc.processor.SpringAnnotation;
+import com.autodoc.processor.SpringConventions;
+import com.autodoc.processor.TypeClassifier;
+import com.autodoc.processor.TypeFragment;
+import com.autodoc.processor.TypeRole;
+
+import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Extracts the IR of one top-level type from javac's element model, applying
+ * the same rules as {@code ModelProcessor}, {@code ControllerProcessor} and
+ * {@code RelationshipExtractor} do on a Spoon model, in the same order:
+ * types are visited in pre-order, members in declaration order, and a
+ * class's methods and constructors sorted by signature as in Spoon.
+ *
+ * Types outside the compilation, like the JDK's, are classified by name
+ * only, as Spoon classifies the types it has no source for. Annotation
+ * values are javac's constants printed as source, so a constant expression
+ * is read as its value.
+ */
+final class ElementExtractor {
+
+    private final Elements elements;
+    private final Types types;
+    private final TypeClassifier classifier;
+    private final Set<String> sourceTypes;
+
+    private final Map<Element, AnnotationIndex> annotationIndexes = new HashMap<>();
+
+    private final List<ModelData> models = new ArrayList<>();
+    private final List<ModelData> enumModels = new ArrayList<>();
+    private final List<EndpointData> endpoints = new ArrayList<>();
+    private final List<Relationship> fieldInjections = new ArrayList<>();
+    private final List<Relationship> constructorInjections = new ArrayList<>();
+    private final List<Relationship> classInheritance = new ArrayList<>();
+    private final List<Relationship> interfaceInheritance = new ArrayList<>();
+
+    /**
+     * @param sourceTypes binary names of the types being compiled
+     */
+    ElementExtractor(Elements elements, Types types, TypeClassifier classifier, Set<String> sourceTypes) {
+        this.elements = elements;
+        this.types = types;
+        this.classifier = classifier;
+        this.sourceTypes = sourceTypes;
+    }
+
+    TypeFragment extract(TypeElement type) {
+        scan(type);
+
+        // Enums are emitted after all classes
+        models.addAll(enumModels);
+
+        List<Relationship> relationships = new ArrayList<>();
+        relationships.addAll(fieldInjections);
+        relationships.addAll(constructorInjections);
+        relationships.addAll(classInheritance);
+        relationships.addAll(interfaceInheritance);
+
+        return new TypeFragment(qualifiedName(type), models, endpoints, relationships);
+    }
+
+    private void scan(TypeElement type) {
+        switch (type.getKind()) {
+            case ENUM:
+                visitClass(type);
+                visitEnum(type);
+                break;
+            case CLASS:
+            case RECORD:
+                visitClass(type);
+                break;
+            case INTERFACE:
+                visitInterface(type);
+                break;
+            default:
+                break;
+        }
+
+        for (Element member : type.getEnclosedElements()) {
+            switch (member.getKind()) {
+                case FIELD:
+                    visitField(type, (VariableElement) member);
+                    break;
+                case CONSTRUCTOR:
+                    visitConstructor(type, (ExecutableElement) member);
+                    break;
+                default:
+                    if (member instanceof TypeElement) {
+                        scan((TypeElement) member);
+                    }
+                    break;
+            }
+        }
+    }
+
+    private void visitClass(TypeElement cls) {
+        String superclass = superclass(cls);
+        Set<String> interfaces = qualifiedNames(cls.getInterfaces());
+
+        int roles = roles(cls);
+        if (TypeRole.MODEL.in(roles)) {
+            models.add(extractModelData(cls, superclass, interfaces));
+        }
+        if (TypeRole.CONTROLLER.in(roles)) {
+            processController(cls);
+        }
+
+        String qualifiedName = qualifiedName(cls);
+        if (superclass != null) {
+            classInheritance.add(inheritance(qualifiedName, superclass));
+        }
+        for (String iface : interfaces) {
+            Relationship relationship = inheritance(qualifiedName, iface);
+            relationship.setType(RelationshipExtractor.RELATIONSHIP_IMPLEMENTS);
+            classInheritance.add(relationship);
+        }
+    }
+
+    private void visitEnum(TypeElement enumCls) {
+        ModelData modelData = new ModelData(enumCls.getSimpleName().toString(), "", new ArrayList<>());
+        modelData.setEnum(true);
+        modelData.setDescription(docComment(enumCls));
+
+        List<FieldData> fields = new ArrayList<>();
+        for (Element value : enumCls.getEnclosedElements()) {
+            if (value.getKind() == ElementKind.ENUM_CONSTANT) {
+                FieldData fieldData = new FieldData();
+                fieldData.setName(value.getSimpleName().toString());
+                fieldData.setDescription(docComment(value));
+                fields.add(fieldData);
+            }
+        }
+
+        modelData.setFields(fields);
+        enumModels.add(modelData);
+    }
+
+    private void visitInterface(TypeElement iface) {
+        String qualifiedName = qualifiedName(iface);
+        for (String superIface : qualifiedNames(iface.getInterfaces())) {
+            interfaceInheritance.add(inheritance(qualifiedName, superIface));
+        }
+    }
+
+    private void visitField(TypeElement declaringType, VariableElement field) {
+        boolean isDependency = annotations(field).hasAny(SpringConventions.INJECTIONS);
+        if (!isDependency || !TypeRole.COMPONENT.in(roles(declaringType))) {
+            return;
+        }
+
+        TypeElement fieldType = declaration(field.asType());
+        if (isComponent(fieldType)) {
+            fieldInjections.add(injection(declaringType, fieldType, field.getSimpleName().toString(), "field"));
+        }
+    }
+
+    private void visitConstructor(TypeElement declaringType, ExecutableElement constructor) {
+        if (!TypeRole.COMPONENT.in(roles(declaringType))) {
+            return;
+        }
+
+        boolean isInjectionConstructor = annotations(constructor).has(SpringAnnotation.AUTOWIRED)
+                || !constructor.getParameters().isEmpty();
+        if (!isInjectionConstructor) {
+            return;
+        }
+
+        for (VariableElement param : constructor.getParameters()) {
+            // A varargs parameter is an array, never a component
+            TypeElement paramType = declaration(param.asType());
+            if (isComponent(paramType)) {
+                constructorInjections.add(injection(declaringType, paramType, param.getSimpleName().toString(),
+                        "constructor"));
+            }
+        }
+    }
+
+    private boolean isComponent(TypeElement type) {
+        return type != null && TypeRole.COMPONENT.in(roles(type));
+    }
+
+    private ModelData extractModelData(TypeElement cls, String superclass, Set<String> interfaces) {
+        ModelData modelData = new ModelData(cls.getSimpleName().toString(), "", new ArrayList<>());
+
+        for (AnnotationIndex.Entry annotation : annotations(cls).entries()) {
+            SpringConventions.applyModelAnnotation(modelData, annotation.getType(), annotation.getValues());
+        }
+
+        if (superclass != null) {
+            modelData.getExtendsList().add(superclass);
+        }
+        modelData.getImplementsList().addAll(interfaces);
+
+        modelData.setDescription(docComment(cls));
+
+        for (VariableElement field : fields(cls)) {
+            // Skip static and final fields
+            Set<Modifier> modifiers = field.getModifiers();
+            if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.FINAL)) {
+                continue;
+            }
+            modelData.addField(extractFieldData(field));
+        }
+
+        return modelData;
+    }
+
+    private FieldData extractFieldData(VariableElement field) {
+        FieldData fieldData = new FieldData();
+        fieldData.setName(field.getSimpleName().toString());
+        fieldData.setDescription(docComment(field));
+
+        boolean required = false;
+        for (AnnotationIndex.Entry annotation : annotations(field).entries()) {
+            if (SpringConventions.applyFieldAnnotation(fieldData, annotation.getType(), annotation.getValues())) {
+                required = true;
+            }
+        }
+        fieldData.setRequired(required);
+
+        fieldData.setTypeRef(typeRef(field.asType()));
+        return fieldData;
+    }
+
+    private void processController(TypeElement cls) {
+        AnnotationIndex classAnnotations = annotations(cls);
+        Map<String, ?> requestMapping = classAnnotations.values(SpringAnnotation.REQUEST_MAPPING);
+        String basePath = requestMapping != null ? SpringConventions.extractPath(requestMapping) : "";
+        Map<String, ?> tag = classAnnotations.values(SpringAnnotation.TAG);
+
+        String controllerName = cls.getSimpleName().toString();
+        String controllerPackage = elements.getPackageOf(cls).getQualifiedName().toString();
+        List<DependencyData> dependencies = extractDependencies(cls);
+
+        List<ExecutableElement> methods = ElementFilter.methodsIn(cls.getEnclosedElements());
+        for (ExecutableElement method : sortedBySignature(methods, this::signature)) {
+            AnnotationIndex methodAnnotations = annotations(method);
+            SpringAnnotation mapping = methodAnnotations.first(SpringConventions.MAPPINGS);
+            if (mapping == null) continue;
+
+            Map<String, ?> mappingValues = methodAnnotations.values(mapping);
+            String httpMethod = SpringConventions.deriveHttpMethod(mapping, mappingValues);
+            String fullPath = SpringConventions.combinePaths(basePath, SpringConventions.extractPath(mappingValues));
+
+            String javadoc = docComment(method);
+            Map<String, ?> operation = methodAnnotations.values(SpringAnnotation.OPERATION);
+            String summary = SpringConventions.operationMember(javadoc, operation, "summary");
+            String description = SpringConventions.operationMember(javadoc, operation, "description");
+
+            List<String> tags = new ArrayList<>();
+            if (tag != null) {
+                SpringConventions.addTags(tags, tag);
+            }
+
+            List<ParameterData> parameters = new ArrayList<>();
+            TypeRefData requestBodyType = null;
+            for (VariableElement param : method.getParameters()) {
+                AnnotationIndex paramAnnotations = annotations(param);
+                if (paramAnnotations.has(SpringAnnotation.PATH_VARIABLE)) {
+                    parameters.add(buildParam(param, "path", true));
+                } else if (paramAnnotations.has(SpringAnnotation.REQUEST_PARAM)) {
+                    boolean required = SpringConventions.isRequiredParam(
+                            paramAnnotations.values(SpringAnnotation.REQUEST_PARAM));
+                    parameters.add(buildParam(param, "query", required));
+                }
+                if (requestBodyType == null && paramAnnotations.has(SpringAnnotation.REQUEST_BODY)) {
+                    requestBodyType = typeRef(param.asType());
+                }
+            }
+
+            EndpointData endpoint = new EndpointData();
+            endpoint.setPath(fullPath);
+            endpoint.setMethod(httpMethod);
+            endpoint.setSummary(summary);
+            endpoint.setDescription(description);
+            endpoint.setTags(tags);
+            endpoint.setParameters(parameters);
+            endpoint.setRequestBodyType(requestBodyType);
+            endpoint.setResponseType(typeRef(method.getReturnType()));
+            endpoint.setControllerName(controllerName);
+            endpoint.setControllerPackage(controllerPackage);
+            endpoint.setDependencies(dependencies);
+            endpoint.setDeprecated(methodAnnotations.has(SpringAnnotation.DEPRECATED));
+
+            endpoints.add(endpoint);
+        }
+    }
+
+    private ParameterData buildParam(VariableElement param, String in, boolean required) {
+        ParameterData paramData = new ParameterData();
+        paramData.setName(param.getSimpleName().toString());
+        paramData.setIn(in);
+        paramData.setRequired(required);
+        // Parameters cannot carry Javadoc
+        paramData.setDescription("");
+        paramData.setType(typeRef(param.asType()));
+        return paramData;
+    }
+
+    private List<DependencyData> extractDependencies(TypeElement cls) {
+        List<DependencyData> dependencies = new ArrayList<>();
+
+        // Field injection
+        for (VariableElement field : fields(cls)) {
+            boolean isAnnotated = annotations(field).hasAny(SpringConventions.DEPENDENCIES);
+            String typeName = simpleName(field.asType());
+            String fieldName = field.getSimpleName().toString();
+            if (isAnnotated || classifier.isLikelyService(typeName) || classifier.isLikelyService(fieldName)) {
+                dependencies.add(dependency(fieldName, typeName, "field"));
+            }
+        }
+
+        // Constructor injection
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(cls.getEnclosedElements());
+        for (ExecutableElement constructor : sortedBySignature(constructors, this::signature)) {
+            for (VariableElement param : constructor.getParameters()) {
+                String typeName = simpleName(param.asType());
+                String paramName = param.getSimpleName().toString();
+                if (classifier.isLikelyService(typeName) || classifier.isLikelyService(paramName)) {
+                    dependencies.add(dependency(paramName, typeName, "constructor"));
+                }
+            }
+        }
+
+        return dependencies;
+    }
+
+    private static DependencyData dependency(String name, String type, String injectionType) {
+        DependencyData dependency = new DependencyData();
+        dependency.setName(name);
+        dependency.setType(type);
+        dependency.setInjectionType(injectionType);
+        return dependency;
+    }
+
+    private Relationship injection(TypeElement declaringType, TypeElement target, String name,
+            String injectionType) {
+        Relationship relationship = new Relationship();
+        relationship.setSourceClass(qualifiedName(declaringType));
+        relationship.setTargetClass(qualifiedName(target));
+        relationship.setType(RelationshipExtractor.RELATIONSHIP_INJECTS);
+        relationship.setName(name);
+        relationship.setInjectionType(injectionType);
+        return relationship;
+    }
+
+    private static Relationship inheritance(String sourceClass, String targetClass) {
+        Relationship relationship = new Relationship();
+        relationship.setSourceClass(sourceClass);
+        relationship.setTargetClass(targetClass);
+        relationship.setType(RelationshipExtractor.RELATIONSHIP_EXTENDS);
+        return relationship;
+    }
+
+    /**
+     * The roles of a type, classified once per qualified name.
+     */
+    private int roles(TypeElement type) {
+        String qualifiedName = qualifiedName(type);
+        return classifier.roles(qualifiedName, name -> {
+            if (!sourceTypes.contains(name)) {
+                return classifier.classify(type.getSimpleName().toString(), "", false, false,
+                        Collections.<String>emptyList(), Function.identity());
+            }
+
+            ElementKind kind = type.getKind();
+            boolean concreteClass = (kind == ElementKind.CLASS || kind == ElementKind.ENUM
+                    || kind == ElementKind.RECORD) && !type.getModifiers().contains(Modifier.ABSTRACT);
+            return classifier.classify(type.getSimpleName().toString(),
+                    elements.getPackageOf(type).getQualifiedName().toString(), concreteClass,
+                    kind == ElementKind.ENUM, type.getAnnotationMirrors(), ElementExtractor::annotationName);
+        });
+    }
+
+    /**
+     * The superclass Spoon reports: {@code java.lang.Enum} for enums, and
+     * none for a class without {@code extends}.
+     */
+    private String superclass(TypeElement cls) {
+        if (cls.getKind() == ElementKind.ENUM) {
+            return Enum.class.getName();
+        }
+        TypeElement superclass = declaration(cls.getSuperclass());
+        if (superclass == null || superclass.getQualifiedName().contentEquals(Object.class.getName())) {
+            return null;
+        }
+        return qualifiedName(superclass);
+    }
+
+    private Set<String> qualifiedNames(List<? extends TypeMirror> typeMirrors) {
+        // Spoon keeps super interfaces in a set
+        Set<String> names = new LinkedHashSet<>();
+        for (TypeMirror type : typeMirrors) {
+            names.add(erasure(type));
+        }
+        return names;
+    }
+
+    /**
+     * The binary name of a type, with {@code $} for nested types as Spoon
+     * writes them.
+     */
+    private String qualifiedName(TypeElement type) {
+        return elements.getBinaryName(type).toString();
+    }
+
+    private static TypeElement declaration(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        return (TypeElement) ((DeclaredType) type).asElement();
+    }
+
+    private static List<VariableElement> fields(TypeElement cls) {
+        List<VariableElement> fields = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(cls.getEnclosedElements())) {
+            // Enum constants are listed as fields too
+            if (field.getKind() == ElementKind.FIELD) {
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Orders methods or constructors the way Spoon's signature-based sets
+     * do.
+     */
+    private static <T> List<T> sortedBySignature(List<T> members, Function<T, String> signature) {
+        Map<String, T> sorted = new TreeMap<>();
+        for (T member : members) {
+            sorted.putIfAbsent(signature.apply(member), member);
+        }
+        return new ArrayList<>(sorted.values());
+    }
+
+    private String signature(ExecutableElement executable) {
+        StringBuilder signature = new StringBuilder();
+        if (executable.getKind() == ElementKind.CONSTRUCTOR) {
+            signature.append(qualifiedName((TypeElement) executable.getEnclosingElement()));
+        } else {
+            signature.append(executable.getSimpleName());
+        }
+
+        signature.append('(');
+        List<? extends VariableElement> params = executable.getParameters();
+        for (int i = 0; i < params.size(); i++) {
+            if (i > 0) {
+                signature.append(',');
+            }
+            signature.append(erasure(params.get(i).asType()));
+        }
+        return signature.append(')').toString();
+    }
+
+    /**
+     * The erasure of a type as it appears in Spoon's method signatures:
+     * binary names, {@code []} for arrays, varargs included.
+     */
+    private String erasure(TypeMirror type) {
+        switch (type.getKind()) {
+            case ARRAY:
+                return erasure(((ArrayType) type).getComponentType()) + "[]";
+            case DECLARED:
+                return qualifiedName(declaration(type));
+            case TYPEVAR:
+                return erasure(types.erasure(type));
+            default:
+                return simpleName(type);
+        }
+    }
+
+    /**
+     * The type reference of a field, parameter or return type, by simple
+     * name, with wildcard arguments left out.
+     */
+    private TypeRefData typeRef(TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return TypeRefData.of(simpleName(type));
+        }
+
+        List<? extends TypeMirror> typeArguments = ((DeclaredType) type).getTypeArguments();
+        if (typeArguments.isEmpty()) {
+            return TypeRefData.of(simpleName(type));
+        }
+
+        List<TypeRefData> args = new ArrayList<>(typeArguments.size());
+        for (TypeMirror argType : typeArguments) {
+            if (argType.getKind() != TypeKind.WILDCARD) {
+                args.add(typeRef(argType));
+            }
+        }
+        return TypeRefData.of(simpleName(type), args);
+    }
+
+    /**
+     * The simple name of a type without its type arguments, {@code []}
+     * included for arrays. Type-use annotations are left out.
+     */
+    private static String simpleName(TypeMirror type) {
+        switch (type.getKind()) {
+            case ARRAY:
+                return simpleName(((ArrayType) type).getComponentType()) + "[]";
+            case DECLARED:
+                return declaration(type).getSimpleName().toString();
+            case TYPEVAR:
+                return ((TypeVariable) type).asElement().getSimpleName().toString();
+            case WILDCARD:
+                return "?";
+            default:
+                return type.getKind().isPrimitive() || type.getKind() == TypeKind.VOID
+                        ? type.getKind().name().toLowerCase(Locale.ROOT)
+                        : type.toString();
+        }
+    }
+
+    private String docComment(Element element) {
+        String comment = elements.getDocComment(element);
+        return comment != null ? DocComments.render("/**" + comment + "*/") : "";
+    }
+
+    /**
+     * The annotation index of a declaration of this fragment, built once.
+     */
+    private AnnotationIndex annotations(Element element) {
+        return annotationIndexes.computeIfAbsent(element,
+                e -> AnnotationIndex.build(e.getAnnotationMirrors(), ElementExtractor::annotationName,
+                        ElementExtractor::values));
+    }
+
+    private static String annotationName(AnnotationMirror annotation) {
+        return annotation.getAnnotationType().asElement().getSimpleName().toString();
+    }
+
+    /**
+     * An annotation's explicit values by member name, printed as source;
+     * sorted by name as Spoon's {@code CtAnnotation.getValues()} are.
+     */
+    private static Map<String, String> values(AnnotationMirror annotation) {
+        Map<String, String> values = new TreeMap<>();
+        annotation.getElementValues().forEach((member, value) ->
+                values.put(member.getSimpleName().toString(), print(value)));
+        return values;
+    }
+
+    private static String print(AnnotationValue value) {
+        // An array of one element, like @GetMapping's path, is usually
+        // written without braces
+        Object array = value.getValue();
+        if (array instanceof List && ((List<?>) array).size() == 1) {
+            return ((List<?>) array).get(0).toString();
+        }
+        return value.toString();
+    }
+}
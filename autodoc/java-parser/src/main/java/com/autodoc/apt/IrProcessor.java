@@ -0,0 +1,201 @@
+package com.autodoc.apt;
+
+import com.autodoc.Parser;
+import com.autodoc.ParserOptions;
+import com.autodoc.model.ParsedProject;
+import com.autodoc.processor.TypeClassifier;
+import com.autodoc.processor.TypeFragment;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+
+/**
+ * Extracts the IR while javac compiles the sources, so a build gets it
+ * without a second front-end parsing them again. Registered as a service, it
+ * stays idle unless the IR file is given:
+ *
+ * <pre>
+ * javac -Aautodoc.ir=target/autodoc-ir.json -Aautodoc.args="--controller-table" ...
+ * </pre>
+ *
+ * {@code autodoc.args} takes the parser's output options: {@code --pretty},
+ * {@code --format}, {@code --type-table}, {@code --controller-table},
+ * {@code --dependency-closure}, {@code --prune-models} and {@code --rules}.
+ *
+ * Every type compiled in any round is extracted in the last round by
+ * {@link ElementExtractor}, in the order the Spoon engine lists types, and
+ * merged and linked by {@link Parser#parse(List)}. Nothing is written when
+ * the compilation has errors.
+ */
+public class IrProcessor extends AbstractProcessor {
+
+    public static final String OPTION_IR = "autodoc.ir";
+    public static final String OPTION_ARGS = "autodoc.args";
+
+    private static final Set<String> OUTPUT_OPTIONS = Set.of("--pretty", "--format", "--type-table",
+            "--controller-table", "--dependency-closure", "--prune-models", "--rules");
+
+    private String irPath;
+    private ParserOptions options;
+    private final List<TypeElement> rootTypes = new ArrayList<>();
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        irPath = processingEnv.getOptions().get(OPTION_IR);
+        if (irPath == null) {
+            return;
+        }
+
+        String args = processingEnv.getOptions().getOrDefault(OPTION_ARGS, "").trim();
+        try {
+            options = parseOptions(args.isEmpty() ? new String[0] : args.split("\\s+"));
+        } catch (IllegalArgumentException e) {
+            error(e.getMessage());
+            irPath = null;
+        }
+    }
+
+    /**
+     * The parser options {@code autodoc.args} gives; options that choose
+     * how sources are modeled have no meaning here and are rejected.
+     */
+    static ParserOptions parseOptions(String[] args) {
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            String name = eq >= 0 ? arg.substring(0, eq) : arg;
+            if (!OUTPUT_OPTIONS.contains(name)) {
+                throw new IllegalArgumentException(arg + " is not supported by the annotation processor");
+            }
+        }
+        return ParserOptions.fromArgs(args);
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        // Models need not be annotated, so every type is looked at
+        return Set.of("*");
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return Set.of(OPTION_IR, OPTION_ARGS);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (irPath == null) {
+            return false;
+        }
+
+        for (Element element : roundEnv.getRootElements()) {
+            if (element instanceof TypeElement) {
+                rootTypes.add((TypeElement) element);
+            }
+        }
+        if (roundEnv.processingOver() && !roundEnv.errorRaised()) {
+            try {
+                writeIr();
+            } catch (IOException | RuntimeException e) {
+                error("Cannot write the IR to " + irPath + ": " + e);
+            }
+        }
+        // Never claim annotations; other processors still see them
+        return false;
+    }
+
+    private void writeIr() throws IOException {
+        List<TypeElement> types = sourceOrder(rootTypes);
+        Set<String> sourceTypes = new HashSet<>();
+        for (TypeElement type : types) {
+            addBinaryNames(type, sourceTypes);
+        }
+
+        TypeClassifier classifier = new TypeClassifier(options.getRules());
+        List<TypeFragment> fragments = new ArrayList<>(types.size());
+        for (TypeElement type : types) {
+            fragments.add(new ElementExtractor(processingEnv.getElementUtils(), processingEnv.getTypeUtils(),
+                    classifier, sourceTypes).extract(type));
+        }
+
+        ParsedProject parsedProject = new Parser(options).parse(fragments);
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(irPath))) {
+            Parser.write(parsedProject, options, out);
+        }
+    }
+
+    private void addBinaryNames(TypeElement type, Set<String> names) {
+        names.add(processingEnv.getElementUtils().getBinaryName(type).toString());
+        for (Element member : type.getEnclosedElements()) {
+            if (member instanceof TypeElement) {
+                addBinaryNames((TypeElement) member, names);
+            }
+        }
+    }
+
+    /**
+     * Orders top-level types the way the Spoon engine lists them: files by
+     * path, then sub-packages before a package's own types, and a file's
+     * types in declaration order.
+     */
+    private List<TypeElement> sourceOrder(List<TypeElement> types) {
+        Map<String, List<TypeElement>> typesByFile = new TreeMap<>();
+        for (TypeElement type : types) {
+            JavaFileObject file = processingEnv.getElementUtils().getFileObjectOf(type);
+            String path = file != null ? file.toUri().getPath() : "";
+            typesByFile.computeIfAbsent(path, k -> new ArrayList<>()).add(type);
+        }
+
+        PackageNode root = new PackageNode();
+        for (List<TypeElement> fileTypes : typesByFile.values()) {
+            for (TypeElement type : fileTypes) {
+                root.add(processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString(), type);
+            }
+        }
+        List<TypeElement> ordered = new ArrayList<>(types.size());
+        root.collectTypes(ordered);
+        return ordered;
+    }
+
+    private void error(String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "autodoc: " + message);
+    }
+
+    private static final class PackageNode {
+        private final Map<String, PackageNode> packages = new LinkedHashMap<>();
+        private final List<TypeElement> types = new ArrayList<>();
+
+        void add(String packageName, TypeElement type) {
+            PackageNode node = this;
+            if (!packageName.isEmpty()) {
+                for (String name : packageName.split("\\.")) {
+                    node = node.packages.computeIfAbsent(name, n -> new PackageNode());
+                }
+            }
+            node.types.add(type);
+        }
+
+        void collectTypes(List<TypeElement> result) {
+            for (PackageNode subPackage : packages.values()) {
+                subPackage.collectTypes(result);
+            }
+            result.addAll(types);
+        }
+    }
+}
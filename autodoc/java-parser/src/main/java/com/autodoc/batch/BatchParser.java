@@ -0,0 +1,137 @@
+package com.autodoc.batch;
+
+import com.autodoc.Parser;
+import com.autodoc.ParserOptions;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Parses many projects in one JVM, so start-up, class loading and JIT
+ * compilation are paid once per run instead of once per project. Only
+ * caches of the JDK itself outlive a project: the JDK classes the
+ * JavaParser engine resolves and the JDK image JDT reads. Each project's
+ * model and IR are released once its file is written.
+ *
+ * Each project is parsed with its own {@link Parser} and its IR file is
+ * written as soon as it is done. A project that fails is reported and its
+ * output removed; the others are still parsed.
+ */
+public class BatchParser {
+
+    private static final Set<String> BATCH_OPTIONS = Set.of("--manifest", "--projects", "--server", "--socket");
+
+    private final List<ParserOptions> projects;
+
+    public BatchParser(List<ParserOptions> projects) {
+        this.projects = projects;
+    }
+
+    /**
+     * Reads a manifest with one project per line: its source directory, its
+     * output file, then options for that project only, separated by
+     * whitespace. Blank lines and lines starting with {@code #} are
+     * skipped, and the source and output are relative to the manifest.
+     * {@code sharedArgs} are options for every project; a project's own
+     * options come after them. Every line is checked before any project is
+     * parsed.
+     */
+    public static BatchParser fromManifest(Path manifest, List<String> sharedArgs) throws IOException {
+        Path base = manifest.toAbsolutePath().getParent();
+        List<ParserOptions> projects = new ArrayList<>();
+        Set<Path> outputs = new HashSet<>();
+
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(manifest)) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+
+            String location = manifest + ":" + lineNumber + ": ";
+            String[] tokens = trimmed.split("\\s+");
+            if (tokens.length < 2 || tokens[0].startsWith("--") || tokens[1].startsWith("--")) {
+                throw new IllegalArgumentException(location + "expected a source directory and an output file");
+            }
+
+            Path source = base.resolve(tokens[0]).normalize();
+            if (!Files.exists(source)) {
+                throw new IllegalArgumentException(location + "source not found: " + source);
+            }
+            Path output = base.resolve(tokens[1]).normalize();
+            if (!outputs.add(output)) {
+                throw new IllegalArgumentException(location + "output " + output + " is written by an earlier project");
+            }
+
+            List<String> args = new ArrayList<>(sharedArgs);
+            args.add(source.toString());
+            args.add(output.toString());
+            for (int i = 2; i < tokens.length; i++) {
+                String name = tokens[i].split("=", 2)[0];
+                if (BATCH_OPTIONS.contains(name)) {
+                    throw new IllegalArgumentException(location + name + " is not allowed in a manifest");
+                }
+                args.add(tokens[i]);
+            }
+
+            try {
+                projects.add(ParserOptions.fromArgs(args.toArray(new String[0])));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(location + e.getMessage(), e);
+            }
+        }
+
+        return new BatchParser(projects);
+    }
+
+    public List<ParserOptions> getProjects() {
+        return projects;
+    }
+
+    /**
+     * Parses the projects, {@code parallelism} at a time, in manifest order.
+     * Projects parsed at once each hold their model on the heap.
+     *
+     * @return the number of projects that failed
+     */
+    public int run(int parallelism) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (ParserOptions project : projects) {
+                results.add(executor.submit(() -> {
+                    Parser.run(project);
+                    return null;
+                }));
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        int failed = 0;
+        for (int i = 0; i < results.size(); i++) {
+            try {
+                results.get(i).get();
+            } catch (ExecutionException e) {
+                failed++;
+                System.err.println("Failed to parse " + projects.get(i).getSourcePath() + ": " + e.getCause());
+                e.getCause().printStackTrace();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                executor.shutdownNow();
+                throw new IllegalStateException("Batch parsing interrupted", e);
+            }
+        }
+        return failed;
+    }
+}
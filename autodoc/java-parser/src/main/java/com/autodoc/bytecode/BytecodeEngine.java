@@ -0,0 +1,261 @@
+package com.autodoc.bytecode;
+
+import com.autodoc.processor.TypeClassifier;
+import com.autodoc.processor.TypeFragment;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Front-end that builds the IR from compiled classes instead of sources, so
+ * controllers shipped in a jar can be documented without their sources.
+ * Class files are read directly: files in directories are memory-mapped,
+ * jar entries are inflated into a buffer, and only declarations, generic
+ * signatures and annotations retained in the class file are decoded.
+ *
+ * Annotations with source retention, like Lombok's, and Javadoc are not in
+ * class files. Descriptions are read from sources only when a directory of
+ * them is given, and only for the classes the IR describes.
+ */
+public class BytecodeEngine {
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    private final int parallelism;
+    private final TypeClassifier classifier;
+    private final SourceDocs docs;
+    private final Map<String, ClassFile> classes = new LinkedHashMap<>();
+
+    /**
+     * @param javadocSources source roots to read Javadoc from, separated
+     *                       like a class path, or null
+     */
+    public BytecodeEngine(int parallelism, TypeClassifier classifier, String javadocSources) {
+        this.parallelism = Math.max(1, parallelism);
+        this.classifier = classifier;
+        this.docs = javadocSources != null ? new SourceDocs(paths(javadocSources)) : null;
+    }
+
+    /**
+     * Reads every class in {@code classPath}, a list of directories, jars
+     * and class files separated like a class path, and returns the
+     * top-level classes in the order the Spoon engine lists types: packages
+     * as a tree, sub-packages first, and a package's classes by source file
+     * then name. When a class is found twice, the first one on the path is
+     * kept, as a class loader would.
+     */
+    public List<ClassFile> buildModel(String classPath) {
+        for (Path entry : paths(classPath)) {
+            for (ClassFile cls : read(entry)) {
+                classes.putIfAbsent(cls.name, cls);
+            }
+        }
+
+        List<ClassFile> topLevel = new ArrayList<>();
+        for (ClassFile cls : classes.values()) {
+            if (cls.self() == null) {
+                topLevel.add(cls);
+            }
+        }
+        topLevel.sort(Comparator.comparing((ClassFile cls) -> cls.packageName().replace('.', '/'))
+                .thenComparing(cls -> cls.sourceFile != null ? cls.sourceFile : "")
+                .thenComparing(ClassFile::getName));
+
+        PackageNode root = new PackageNode();
+        for (ClassFile cls : topLevel) {
+            PackageNode node = root;
+            String packageName = cls.packageName();
+            if (!packageName.isEmpty()) {
+                for (String name : packageName.split("\\.")) {
+                    node = node.packages.computeIfAbsent(name, n -> new PackageNode());
+                }
+            }
+            node.types.add(cls);
+        }
+
+        List<ClassFile> types = new ArrayList<>();
+        root.collectTypes(types);
+        return types;
+    }
+
+    /**
+     * Number of classes read, nested ones included.
+     */
+    public int getTypeCount() {
+        return classes.size();
+    }
+
+    /**
+     * Extracts one top-level class returned by {@link #buildModel}. Safe to
+     * call from several threads at once.
+     */
+    public TypeFragment extractType(ClassFile cls) {
+        return new ClassExtractor(classes, classifier, docs).extract(cls);
+    }
+
+    private List<ClassFile> read(Path path) {
+        if (Files.isDirectory(path)) {
+            List<Path> files;
+            try (Stream<Path> paths = Files.walk(path)) {
+                files = paths.filter(Files::isRegularFile)
+                        .filter(file -> file.toString().endsWith(CLASS_SUFFIX) || isJar(file))
+                        .sorted(Comparator.comparing(Path::toString))
+                        .collect(Collectors.toList());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            List<ClassFile> result = new ArrayList<>();
+            List<Path> classFiles = new ArrayList<>();
+            for (Path file : files) {
+                if (isJar(file)) {
+                    result.addAll(readJar(file));
+                } else {
+                    classFiles.add(file);
+                }
+            }
+            result.addAll(0, readAll(classFiles, BytecodeEngine::readMapped));
+            return result;
+        }
+        if (isJar(path)) {
+            return readJar(path);
+        }
+        return readAll(List.of(path), BytecodeEngine::readMapped);
+    }
+
+    private List<ClassFile> readJar(Path jar) {
+        try (ZipFile zip = new ZipFile(jar.toFile())) {
+            List<ZipEntry> entries = new ArrayList<>();
+            for (Enumeration<? extends ZipEntry> e = zip.entries(); e.hasMoreElements(); ) {
+                ZipEntry entry = e.nextElement();
+                // Versioned entries of a multi-release jar duplicate the base ones
+                if (!entry.isDirectory() && entry.getName().endsWith(CLASS_SUFFIX)
+                        && !entry.getName().startsWith("META-INF/")) {
+                    entries.add(entry);
+                }
+            }
+            return readAll(entries, entry -> {
+                // Entries are usually compressed, so they cannot be mapped
+                try (InputStream in = zip.getInputStream(entry)) {
+                    return read(ByteBuffer.wrap(in.readAllBytes()), jar + "!/" + entry.getName());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ClassFile readMapped(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), file.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads a class file, or returns null for the ones that declare no type
+     * the IR can describe: module and package descriptors, synthetic,
+     * local and anonymous classes.
+     */
+    private static ClassFile read(ByteBuffer bytes, String location) {
+        ClassFile cls;
+        try {
+            cls = ClassFileReader.read(bytes);
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Cannot read " + location, e);
+        }
+        if (cls.name.equals("module-info") || cls.name.endsWith(".package-info")
+                || cls.is(ClassFile.ACC_SYNTHETIC)) {
+            return null;
+        }
+        ClassFile.InnerClass self = cls.self();
+        if (self != null && (self.outerName == null || self.simpleName == null)) {
+            return null;
+        }
+        return cls;
+    }
+
+    /**
+     * Reads on a ForkJoinPool when parallelism is enabled. The result keeps
+     * the order of {@code sources}.
+     */
+    private <S> List<ClassFile> readAll(List<S> sources, Function<S, ClassFile> reader) {
+        List<ClassFile> result;
+        if (parallelism <= 1 || sources.size() < 2) {
+            result = new ArrayList<>(sources.size());
+            for (S source : sources) {
+                result.add(reader.apply(source));
+            }
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                result = pool.submit(() -> sources.parallelStream()
+                        .map(reader)
+                        .collect(Collectors.toList()))
+                        .get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Parallel reading interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Parallel reading failed", e.getCause());
+            } finally {
+                pool.shutdown();
+            }
+        }
+        result.removeIf(cls -> cls == null);
+        return result;
+    }
+
+    private static List<Path> paths(String pathList) {
+        List<Path> paths = new ArrayList<>();
+        for (String entry : pathList.split(File.pathSeparator)) {
+            if (!entry.isEmpty()) {
+                paths.add(Paths.get(entry));
+            }
+        }
+        return paths;
+    }
+
+    private static boolean isJar(Path file) {
+        return file.getFileName().toString().endsWith(".jar");
+    }
+
+    /**
+     * A package of Spoon's package tree: sub-packages and classes in the
+     * order they were first seen.
+     */
+    private static final class PackageNode {
+        private final Map<String, PackageNode> packages = new LinkedHashMap<>();
+        private final List<ClassFile> types = new ArrayList<>();
+
+        void collectTypes(List<ClassFile> result) {
+            for (PackageNode subPackage : packages.values()) {
+                subPackage.collectTypes(result);
+            }
+            result.addAll(types);
+        }
+    }
+}
@@ -0,0 +1,508 @@
+package com.autodoc.bytecode;
+
+import com.autodoc.model.*;
+import com.autodoc.processor.AnnotationIndex;
+import com.autodoc.processor.RelationshipExtractor;
+import com.autodoc.processor.SpringAnnotation;
+import com.autodoc.processor.SpringConventions;
+import com.autodoc.processor.TypeClassifier;
+import com.autodoc.processor.TypeFragment;
+import com.autodoc.processor.TypeRole;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Extracts the IR of one top-level class file, applying the same rules as
+ * {@code ModelProcessor}, {@code ControllerProcessor} and
+ * {@code RelationshipExtractor} do on a Spoon model: types are visited in
+ * pre-order, members in the order the compiler wrote them, and a class's
+ * methods and constructors sorted by signature as in Spoon.
+ *
+ * Only annotations kept in class files are seen, and descriptions come
+ * from {@link SourceDocs} when sources are given. Classes that were not
+ * read are classified by name only, as Spoon classifies the types it has
+ * no source for.
+ */
+final class ClassExtractor {
+
+    private static final String OBJECT = "java.lang.Object";
+    private static final String ENUM = "java.lang.Enum";
+    private static final String CONSTRUCTOR = "<init>";
+
+    private final Map<String, ClassFile> classes;
+    private final TypeClassifier classifier;
+    private final SourceDocs docs;
+
+    private final List<ModelData> models = new ArrayList<>();
+    private final List<ModelData> enumModels = new ArrayList<>();
+    private final List<EndpointData> endpoints = new ArrayList<>();
+    private final List<Relationship> fieldInjections = new ArrayList<>();
+    private final List<Relationship> constructorInjections = new ArrayList<>();
+    private final List<Relationship> classInheritance = new ArrayList<>();
+    private final List<Relationship> interfaceInheritance = new ArrayList<>();
+
+    /**
+     * @param classes every class read, by binary name
+     * @param docs    sources to read Javadoc from, or null
+     */
+    ClassExtractor(Map<String, ClassFile> classes, TypeClassifier classifier, SourceDocs docs) {
+        this.classes = classes;
+        this.classifier = classifier;
+        this.docs = docs;
+    }
+
+    TypeFragment extract(ClassFile cls) {
+        scan(cls);
+
+        // Enums are emitted after all classes
+        models.addAll(enumModels);
+
+        List<Relationship> relationships = new ArrayList<>();
+        relationships.addAll(fieldInjections);
+        relationships.addAll(constructorInjections);
+        relationships.addAll(classInheritance);
+        relationships.addAll(interfaceInheritance);
+
+        return new TypeFragment(cls.name, models, endpoints, relationships);
+    }
+
+    private void scan(ClassFile cls) {
+        if (cls.is(ClassFile.ACC_ENUM)) {
+            visitClass(cls);
+            visitEnum(cls);
+        } else if (!cls.is(ClassFile.ACC_INTERFACE)) {
+            visitClass(cls);
+        } else if (!cls.is(ClassFile.ACC_ANNOTATION)) {
+            visitInterface(cls);
+        }
+
+        for (ClassFile.Member field : fields(cls)) {
+            visitField(cls, field);
+        }
+        for (ClassFile.Member method : cls.methods) {
+            if (method.name.equals(CONSTRUCTOR) && !isSynthetic(method)) {
+                visitConstructor(cls, method);
+            }
+        }
+
+        for (ClassFile.InnerClass inner : cls.innerClasses) {
+            ClassFile nested = classes.get(inner.name);
+            if (cls.name.equals(inner.outerName) && nested != null && !nested.is(ClassFile.ACC_SYNTHETIC)) {
+                scan(nested);
+            }
+        }
+    }
+
+    private void visitClass(ClassFile cls) {
+        String superclass = superclass(cls);
+        Set<String> interfaces = new LinkedHashSet<>(cls.interfaces);
+
+        int roles = roles(cls.name);
+        if (TypeRole.MODEL.in(roles)) {
+            models.add(extractModelData(cls, superclass, interfaces));
+        }
+        if (TypeRole.CONTROLLER.in(roles)) {
+            processController(cls);
+        }
+
+        if (superclass != null) {
+            classInheritance.add(inheritance(cls.name, superclass));
+        }
+        for (String iface : interfaces) {
+            Relationship relationship = inheritance(cls.name, iface);
+            relationship.setType(RelationshipExtractor.RELATIONSHIP_IMPLEMENTS);
+            classInheritance.add(relationship);
+        }
+    }
+
+    private void visitEnum(ClassFile enumCls) {
+        ModelData modelData = new ModelData(enumCls.simpleName(), "", new ArrayList<>());
+        modelData.setEnum(true);
+        modelData.setDescription(docs != null ? docs.type(enumCls) : "");
+
+        List<FieldData> fields = new ArrayList<>();
+        for (ClassFile.Member value : enumCls.fields) {
+            if (value.is(ClassFile.ACC_ENUM)) {
+                FieldData fieldData = new FieldData();
+                fieldData.setName(value.name);
+                fieldData.setDescription(docs != null ? docs.enumConstant(enumCls, value.name) : "");
+                fields.add(fieldData);
+            }
+        }
+
+        modelData.setFields(fields);
+        enumModels.add(modelData);
+    }
+
+    private void visitInterface(ClassFile iface) {
+        for (String superIface : new LinkedHashSet<>(iface.interfaces)) {
+            interfaceInheritance.add(inheritance(iface.name, superIface));
+        }
+    }
+
+    private void visitField(ClassFile declaringType, ClassFile.Member field) {
+        boolean isDependency = annotations(field.annotations).hasAny(SpringConventions.INJECTIONS);
+        if (!isDependency || !TypeRole.COMPONENT.in(roles(declaringType.name))) {
+            return;
+        }
+
+        String fieldType = declaration(field);
+        if (isComponent(fieldType)) {
+            fieldInjections.add(injection(declaringType, fieldType, field.name, "field"));
+        }
+    }
+
+    private void visitConstructor(ClassFile declaringType, ClassFile.Member constructor) {
+        if (!TypeRole.COMPONENT.in(roles(declaringType.name))) {
+            return;
+        }
+
+        List<Parameter> params = parameters(declaringType, constructor);
+        boolean isInjectionConstructor = annotations(constructor.annotations).has(SpringAnnotation.AUTOWIRED)
+                || !params.isEmpty();
+        if (!isInjectionConstructor) {
+            return;
+        }
+
+        for (Parameter param : params) {
+            String paramType = param.declaration();
+            if (isComponent(paramType)) {
+                constructorInjections.add(injection(declaringType, paramType, param.name, "constructor"));
+            }
+        }
+    }
+
+    private boolean isComponent(String type) {
+        return type != null && TypeRole.COMPONENT.in(roles(type));
+    }
+
+    private ModelData extractModelData(ClassFile cls, String superclass, Set<String> interfaces) {
+        ModelData modelData = new ModelData(cls.simpleName(), "", new ArrayList<>());
+
+        for (AnnotationIndex.Entry annotation : annotations(cls.annotations).entries()) {
+            SpringConventions.applyModelAnnotation(modelData, annotation.getType(), annotation.getValues());
+        }
+
+        if (superclass != null) {
+            modelData.getExtendsList().add(superclass);
+        }
+        modelData.getImplementsList().addAll(interfaces);
+
+        modelData.setDescription(docs != null ? docs.type(cls) : "");
+
+        for (ClassFile.Member field : fields(cls)) {
+            // Skip static and final fields
+            if (field.is(ClassFile.ACC_STATIC) || field.is(ClassFile.ACC_FINAL)) {
+                continue;
+            }
+            modelData.addField(extractFieldData(cls, field));
+        }
+
+        return modelData;
+    }
+
+    private FieldData extractFieldData(ClassFile cls, ClassFile.Member field) {
+        FieldData fieldData = new FieldData();
+        fieldData.setName(field.name);
+        fieldData.setDescription(docs != null ? docs.field(cls, field.name) : "");
+
+        boolean required = false;
+        for (AnnotationIndex.Entry annotation : annotations(field.annotations).entries()) {
+            if (SpringConventions.applyFieldAnnotation(fieldData, annotation.getType(), annotation.getValues())) {
+                required = true;
+            }
+        }
+        fieldData.setRequired(required);
+
+        fieldData.setTypeRef(Signatures.typeRef(signature(field)));
+        return fieldData;
+    }
+
+    private void processController(ClassFile cls) {
+        AnnotationIndex classAnnotations = annotations(cls.annotations);
+        Map<String, ?> requestMapping = classAnnotations.values(SpringAnnotation.REQUEST_MAPPING);
+        String basePath = requestMapping != null ? SpringConventions.extractPath(requestMapping) : "";
+        Map<String, ?> tag = classAnnotations.values(SpringAnnotation.TAG);
+
+        String controllerName = cls.simpleName();
+        String controllerPackage = cls.packageName();
+        List<DependencyData> dependencies = extractDependencies(cls);
+
+        for (ClassFile.Member method : sortedBySignature(cls, false)) {
+            AnnotationIndex methodAnnotations = annotations(method.annotations);
+            SpringAnnotation mapping = methodAnnotations.first(SpringConventions.MAPPINGS);
+            if (mapping == null) continue;
+
+            Map<String, ?> mappingValues = methodAnnotations.values(mapping);
+            String httpMethod = SpringConventions.deriveHttpMethod(mapping, mappingValues);
+            String fullPath = SpringConventions.combinePaths(basePath, SpringConventions.extractPath(mappingValues));
+
+            List<Parameter> params = parameters(cls, method);
+            String javadoc = docs != null ? docs.method(cls, method.name, params.size()) : "";
+            Map<String, ?> operation = methodAnnotations.values(SpringAnnotation.OPERATION);
+            String summary = SpringConventions.operationMember(javadoc, operation, "summary");
+            String description = SpringConventions.operationMember(javadoc, operation, "description");
+
+            List<String> tags = new ArrayList<>();
+            if (tag != null) {
+                SpringConventions.addTags(tags, tag);
+            }
+
+            List<ParameterData> parameters = new ArrayList<>();
+            TypeRefData requestBodyType = null;
+            for (Parameter param : params) {
+                AnnotationIndex paramAnnotations = annotations(param.annotations);
+                if (paramAnnotations.has(SpringAnnotation.PATH_VARIABLE)) {
+                    parameters.add(buildParam(param, "path", true));
+                } else if (paramAnnotations.has(SpringAnnotation.REQUEST_PARAM)) {
+                    boolean required = SpringConventions.isRequiredParam(
+                            paramAnnotations.values(SpringAnnotation.REQUEST_PARAM));
+                    parameters.add(buildParam(param, "query", required));
+                }
+                if (requestBodyType == null && paramAnnotations.has(SpringAnnotation.REQUEST_BODY)) {
+                    requestBodyType = Signatures.typeRef(param.signature);
+                }
+            }
+
+            EndpointData endpoint = new EndpointData();
+            endpoint.setPath(fullPath);
+            endpoint.setMethod(httpMethod);
+            endpoint.setSummary(summary);
+            endpoint.setDescription(description);
+            endpoint.setTags(tags);
+            endpoint.setParameters(parameters);
+            endpoint.setRequestBodyType(requestBodyType);
+            endpoint.setResponseType(Signatures.typeRef(Signatures.returnType(signature(method))));
+            endpoint.setControllerName(controllerName);
+            endpoint.setControllerPackage(controllerPackage);
+            endpoint.setDependencies(dependencies);
+            endpoint.setDeprecated(methodAnnotations.has(SpringAnnotation.DEPRECATED));
+
+            endpoints.add(endpoint);
+        }
+    }
+
+    private static ParameterData buildParam(Parameter param, String in, boolean required) {
+        ParameterData paramData = new ParameterData();
+        paramData.setName(param.name);
+        paramData.setIn(in);
+        paramData.setRequired(required);
+        // Parameters cannot carry Javadoc
+        paramData.setDescription("");
+        paramData.setType(Signatures.typeRef(param.signature));
+        return paramData;
+    }
+
+    private List<DependencyData> extractDependencies(ClassFile cls) {
+        List<DependencyData> dependencies = new ArrayList<>();
+
+        // Field injection
+        for (ClassFile.Member field : fields(cls)) {
+            boolean isAnnotated = annotations(field.annotations).hasAny(SpringConventions.DEPENDENCIES);
+            String typeName = Signatures.typeRef(signature(field)).getBase();
+            if (isAnnotated || classifier.isLikelyService(typeName) || classifier.isLikelyService(field.name)) {
+                dependencies.add(dependency(field.name, typeName, "field"));
+            }
+        }
+
+        // Constructor injection
+        for (ClassFile.Member constructor : sortedBySignature(cls, true)) {
+            for (Parameter param : parameters(cls, constructor)) {
+                String typeName = Signatures.typeRef(param.signature).getBase();
+                if (classifier.isLikelyService(typeName) || classifier.isLikelyService(param.name)) {
+                    dependencies.add(dependency(param.name, typeName, "constructor"));
+                }
+            }
+        }
+
+        return dependencies;
+    }
+
+    private static DependencyData dependency(String name, String type, String injectionType) {
+        DependencyData dependency = new DependencyData();
+        dependency.setName(name);
+        dependency.setType(type);
+        dependency.setInjectionType(injectionType);
+        return dependency;
+    }
+
+    private static Relationship injection(ClassFile declaringType, String target, String name,
+            String injectionType) {
+        Relationship relationship = new Relationship();
+        relationship.setSourceClass(declaringType.name);
+        relationship.setTargetClass(target);
+        relationship.setType(RelationshipExtractor.RELATIONSHIP_INJECTS);
+        relationship.setName(name);
+        relationship.setInjectionType(injectionType);
+        return relationship;
+    }
+
+    private static Relationship inheritance(String sourceClass, String targetClass) {
+        Relationship relationship = new Relationship();
+        relationship.setSourceClass(sourceClass);
+        relationship.setTargetClass(targetClass);
+        relationship.setType(RelationshipExtractor.RELATIONSHIP_EXTENDS);
+        return relationship;
+    }
+
+    /**
+     * The roles of a class, classified once per binary name.
+     */
+    private int roles(String name) {
+        return classifier.roles(name, n -> {
+            ClassFile cls = classes.get(n);
+            if (cls == null) {
+                return classifier.classify(Signatures.simpleName(n), "", false, false,
+                        Collections.<String>emptyList(), Function.identity());
+            }
+
+            boolean isEnum = cls.is(ClassFile.ACC_ENUM);
+            boolean concreteClass = isEnum
+                    || !cls.is(ClassFile.ACC_INTERFACE) && !cls.is(ClassFile.ACC_ABSTRACT);
+            return classifier.classify(cls.simpleName(), cls.packageName(), concreteClass, isEnum,
+                    cls.annotations, ClassFile.Annotation::simpleName);
+        });
+    }
+
+    /**
+     * The superclass Spoon reports: {@code java.lang.Enum} for enums, and
+     * none for a class without {@code extends}.
+     */
+    private static String superclass(ClassFile cls) {
+        if (cls.is(ClassFile.ACC_ENUM)) {
+            return ENUM;
+        }
+        return cls.superName == null || cls.superName.equals(OBJECT) ? null : cls.superName;
+    }
+
+    /**
+     * The class a field is declared with, or null for primitives, arrays
+     * and type variables.
+     */
+    private static String declaration(ClassFile.Member field) {
+        return signature(field).startsWith("L") ? Signatures.className(field.descriptor) : null;
+    }
+
+    private static String signature(ClassFile.Member member) {
+        return member.signature != null ? member.signature : member.descriptor;
+    }
+
+    private static boolean isSynthetic(ClassFile.Member member) {
+        return member.is(ClassFile.ACC_SYNTHETIC) || member.is(ClassFile.ACC_BRIDGE);
+    }
+
+    /**
+     * Declared fields, without enum constants and the ones the compiler
+     * adds.
+     */
+    private static List<ClassFile.Member> fields(ClassFile cls) {
+        List<ClassFile.Member> fields = new ArrayList<>();
+        for (ClassFile.Member field : cls.fields) {
+            if (!field.is(ClassFile.ACC_ENUM) && !isSynthetic(field)) {
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * The declared methods or constructors of a class, ordered the way
+     * Spoon's signature-based sets do.
+     */
+    private List<ClassFile.Member> sortedBySignature(ClassFile cls, boolean constructors) {
+        Map<String, ClassFile.Member> sorted = new TreeMap<>();
+        for (ClassFile.Member method : cls.methods) {
+            if (isSynthetic(method) || method.name.equals("<clinit>")
+                    || method.name.equals(CONSTRUCTOR) != constructors) {
+                continue;
+            }
+            StringJoiner signature = new StringJoiner(",", (constructors ? cls.name : method.name) + "(", ")");
+            List<String> descriptors = Signatures.parameters(method.descriptor);
+            int count = parameters(cls, method).size();
+            for (String descriptor : descriptors.subList(descriptors.size() - count, descriptors.size())) {
+                signature.add(Signatures.erasure(descriptor));
+            }
+            sorted.putIfAbsent(signature.toString(), method);
+        }
+        return new ArrayList<>(sorted.values());
+    }
+
+    /**
+     * The parameters of a method as declared in source. The descriptor of a
+     * constructor also has the parameters the compiler adds: the outer
+     * instance of an inner class, and an enum constant's name and ordinal.
+     * These are left out, as the generic signature leaves them out.
+     */
+    private static List<Parameter> parameters(ClassFile cls, ClassFile.Member method) {
+        List<String> types = Signatures.parameters(signature(method));
+        if (method.signature == null && method.name.equals(CONSTRUCTOR)) {
+            ClassFile.InnerClass self = cls.self();
+            int added = cls.is(ClassFile.ACC_ENUM) ? 2
+                    : self != null && self.outerName != null && (self.access & ClassFile.ACC_STATIC) == 0 ? 1 : 0;
+            types = types.subList(Math.min(added, types.size()), types.size());
+        }
+
+        int count = types.size();
+        List<String> names = method.parameterNames;
+        List<List<ClassFile.Annotation>> annotations = method.parameterAnnotations;
+        List<Parameter> parameters = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int nameIndex = names.size() - count + i;
+            int annotationIndex = annotations.size() - count + i;
+            parameters.add(new Parameter(
+                    nameIndex >= 0 ? names.get(nameIndex) : "arg" + i,
+                    types.get(i),
+                    annotationIndex >= 0 ? annotations.get(annotationIndex) : List.of()));
+        }
+        return parameters;
+    }
+
+    private static AnnotationIndex annotations(List<ClassFile.Annotation> annotations) {
+        return AnnotationIndex.build(annotations, ClassFile.Annotation::simpleName, a -> a.values);
+    }
+
+    /**
+     * A method parameter: its name, generic signature and annotations.
+     */
+    private static final class Parameter {
+        final String name;
+        final String signature;
+        final List<ClassFile.Annotation> annotations;
+
+        Parameter(String name, String signature, List<ClassFile.Annotation> annotations) {
+            this.name = name;
+            this.signature = signature;
+            this.annotations = annotations;
+        }
+
+        /**
+         * The class the parameter is declared with, or null for primitives,
+         * arrays and type variables.
+         */
+        String declaration() {
+            return signature.startsWith("L") ? Signatures.className(erasedClass(signature)) : null;
+        }
+
+        private static String erasedClass(String signature) {
+            int end = signature.indexOf('<');
+            if (end < 0) {
+                return signature;
+            }
+            // Lcom/shop/Page<TT;>.Item; erases to com.shop.Page$Item
+            StringBuilder erased = new StringBuilder();
+            int depth = 0;
+            for (int i = 0; i < signature.length(); i++) {
+                char c = signature.charAt(i);
+                if (c == '<') {
+                    depth++;
+                } else if (c == '>') {
+                    depth--;
+                } else if (depth == 0) {
+                    erased.append(c == '.' ? '$' : c);
+                }
+            }
+            return erased.toString();
+        }
+    }
+}
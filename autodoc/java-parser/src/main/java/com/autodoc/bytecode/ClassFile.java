@@ -0,0 +1,124 @@
+package com.autodoc.bytecode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What the engine reads from one class file: the declaration, its fields
+ * and methods, their generic signatures and annotations, and the nesting
+ * recorded in {@code InnerClasses}. Names are binary names with dots, e.g.
+ * {@code com.shop.Outer$Inner}. Method bodies are skipped.
+ */
+public final class ClassFile {
+
+    static final int ACC_STATIC = 0x0008;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_VARARGS = 0x0080;
+    static final int ACC_BRIDGE = 0x0040;
+    static final int ACC_INTERFACE = 0x0200;
+    static final int ACC_ABSTRACT = 0x0400;
+    static final int ACC_SYNTHETIC = 0x1000;
+    static final int ACC_ANNOTATION = 0x2000;
+    static final int ACC_ENUM = 0x4000;
+
+    int access;
+    String name;
+    String superName;
+    List<String> interfaces = new ArrayList<>();
+    String signature;
+    String sourceFile;
+    List<Annotation> annotations = new ArrayList<>();
+    List<Member> fields = new ArrayList<>();
+    List<Member> methods = new ArrayList<>();
+    List<InnerClass> innerClasses = new ArrayList<>();
+
+    ClassFile() {
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    boolean is(int flag) {
+        return (access & flag) != 0;
+    }
+
+    String packageName() {
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 ? name.substring(0, dot) : "";
+    }
+
+    /**
+     * The entry {@code InnerClasses} has for this class itself, or null for
+     * a top-level class.
+     */
+    InnerClass self() {
+        for (InnerClass inner : innerClasses) {
+            if (inner.name.equals(name)) {
+                return inner;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The simple name as written in source.
+     */
+    String simpleName() {
+        InnerClass self = self();
+        if (self != null && self.simpleName != null) {
+            return self.simpleName;
+        }
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * A field, method or constructor.
+     */
+    static final class Member {
+        int access;
+        String name;
+        String descriptor;
+        String signature;
+        List<Annotation> annotations = new ArrayList<>();
+        // Per formal parameter, aligned to the last ones when the compiler
+        // left out synthetic parameters
+        List<List<Annotation>> parameterAnnotations = new ArrayList<>();
+        List<String> parameterNames;
+
+        boolean is(int flag) {
+            return (access & flag) != 0;
+        }
+    }
+
+    /**
+     * An entry of the {@code InnerClasses} attribute. {@code outerName} is
+     * null for local and anonymous classes, and {@code simpleName} for
+     * anonymous ones.
+     */
+    static final class InnerClass {
+        String name;
+        String outerName;
+        String simpleName;
+        int access;
+    }
+
+    /**
+     * An annotation with its explicit values printed as source, the way the
+     * processors read a Spoon or JavaParser annotation.
+     */
+    static final class Annotation {
+        final String type;
+        final Map<String, String> values;
+
+        Annotation(String type, Map<String, String> values) {
+            this.type = type;
+            this.values = values;
+        }
+
+        String simpleName() {
+            return Signatures.simpleName(type);
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package com.autodoc.bytecode;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * Reads the parts of a class file the engine needs straight from its bytes,
+ * typically a memory-mapped file. The constant pool is indexed in one pass
+ * and its strings decoded only when an attribute refers to them; code is
+ * skipped except for the local variable names of parameters.
+ */
+final class ClassFileReader {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    private static final int CONSTANT_DYNAMIC = 17;
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+
+    private final ByteBuffer buffer;
+    private final int[] offsets;
+    private final String[] strings;
+
+    private ClassFileReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a class file");
+        }
+
+        int count = u2(8);
+        offsets = new int[count];
+        strings = new String[count];
+        int position = 10;
+        for (int i = 1; i < count; i++) {
+            offsets[i] = position;
+            int tag = buffer.get(position) & 0xFF;
+            switch (tag) {
+                case CONSTANT_UTF8:
+                    position += 3 + u2(position + 1);
+                    break;
+                case CONSTANT_LONG:
+                case CONSTANT_DOUBLE:
+                    // Takes two entries
+                    position += 9;
+                    i++;
+                    break;
+                case CONSTANT_INTEGER:
+                case CONSTANT_FLOAT:
+                case CONSTANT_DYNAMIC:
+                case CONSTANT_INVOKE_DYNAMIC:
+                case 9:
+                case 10:
+                case 11:
+                case 12:
+                    position += 5;
+                    break;
+                case CONSTANT_METHOD_HANDLE:
+                    position += 4;
+                    break;
+                default:
+                    // Class, String, MethodType, Module and Package
+                    position += 3;
+                    break;
+            }
+        }
+        buffer.position(position);
+    }
+
+    static ClassFile read(ByteBuffer bytes) {
+        return new ClassFileReader(bytes.duplicate()).readClass();
+    }
+
+    private ClassFile readClass() {
+        ClassFile classFile = new ClassFile();
+        classFile.access = readU2();
+        classFile.name = className(readU2());
+        int superIndex = readU2();
+        classFile.superName = superIndex != 0 ? className(superIndex) : null;
+        int interfaceCount = readU2();
+        for (int i = 0; i < interfaceCount; i++) {
+            classFile.interfaces.add(className(readU2()));
+        }
+
+        int fieldCount = readU2();
+        for (int i = 0; i < fieldCount; i++) {
+            classFile.fields.add(readMember(false));
+        }
+        int methodCount = readU2();
+        for (int i = 0; i < methodCount; i++) {
+            classFile.methods.add(readMember(true));
+        }
+
+        int attributeCount = readU2();
+        for (int i = 0; i < attributeCount; i++) {
+            String attribute = utf8(readU2());
+            int length = buffer.getInt();
+            int end = buffer.position() + length;
+            switch (attribute) {
+                case "Signature":
+                    classFile.signature = utf8(readU2());
+                    break;
+                case "SourceFile":
+                    classFile.sourceFile = utf8(readU2());
+                    break;
+                case "RuntimeVisibleAnnotations":
+                case "RuntimeInvisibleAnnotations":
+                    readAnnotations(classFile.annotations);
+                    break;
+                case "InnerClasses":
+                    readInnerClasses(classFile.innerClasses);
+                    break;
+                default:
+                    break;
+            }
+            buffer.position(end);
+        }
+        return classFile;
+    }
+
+    private ClassFile.Member readMember(boolean method) {
+        ClassFile.Member member = new ClassFile.Member();
+        member.access = readU2();
+        member.name = utf8(readU2());
+        member.descriptor = utf8(readU2());
+        int parameterCount = method ? Signatures.parameterCount(member.descriptor) : 0;
+        String[] localNames = null;
+
+        int attributeCount = readU2();
+        for (int i = 0; i < attributeCount; i++) {
+            String attribute = utf8(readU2());
+            int length = buffer.getInt();
+            int end = buffer.position() + length;
+            switch (attribute) {
+                case "Signature":
+                    member.signature = utf8(readU2());
+                    break;
+                case "RuntimeVisibleAnnotations":
+                case "RuntimeInvisibleAnnotations":
+                    readAnnotations(member.annotations);
+                    break;
+                case "RuntimeVisibleParameterAnnotations":
+                case "RuntimeInvisibleParameterAnnotations":
+                    readParameterAnnotations(member, parameterCount);
+                    break;
+                case "MethodParameters":
+                    member.parameterNames = readMethodParameters(parameterCount);
+                    break;
+                case "Code":
+                    localNames = readLocalNames(member, parameterCount);
+                    break;
+                default:
+                    break;
+            }
+            buffer.position(end);
+        }
+
+        if (method && member.parameterNames == null) {
+            member.parameterNames = new ArrayList<>(parameterCount);
+            for (int i = 0; i < parameterCount; i++) {
+                // Without debug information, name them like reflection does
+                String name = localNames != null ? localNames[i] : null;
+                member.parameterNames.add(name != null ? name : "arg" + i);
+            }
+        }
+        return member;
+    }
+
+    private void readParameterAnnotations(ClassFile.Member member, int parameterCount) {
+        int count = buffer.get() & 0xFF;
+        while (member.parameterAnnotations.size() < parameterCount) {
+            member.parameterAnnotations.add(new ArrayList<>());
+        }
+        int first = Math.max(0, parameterCount - count);
+        for (int i = 0; i < count; i++) {
+            List<ClassFile.Annotation> annotations = first + i < parameterCount
+                    ? member.parameterAnnotations.get(first + i)
+                    : new ArrayList<>();
+            readAnnotations(annotations);
+        }
+    }
+
+    private List<String> readMethodParameters(int parameterCount) {
+        int count = buffer.get() & 0xFF;
+        List<String> names = new ArrayList<>(parameterCount);
+        for (int i = 0; i < count; i++) {
+            int nameIndex = readU2();
+            readU2(); // access flags
+            names.add(nameIndex != 0 ? utf8(nameIndex) : "arg" + names.size());
+        }
+        // Mandated and synthetic parameters are listed too; keep the last ones
+        return names.size() > parameterCount ? names.subList(names.size() - parameterCount, names.size()) : names;
+    }
+
+    /**
+     * Parameter names from the {@code LocalVariableTable} of a method's
+     * code, by parameter, or null when it was compiled without one.
+     */
+    private String[] readLocalNames(ClassFile.Member member, int parameterCount) {
+        buffer.position(buffer.position() + 4); // max_stack, max_locals
+        int codeLength = buffer.getInt();
+        buffer.position(buffer.position() + codeLength);
+        int exceptionCount = readU2();
+        buffer.position(buffer.position() + exceptionCount * 8);
+
+        int[] slots = Signatures.parameterSlots(member.descriptor, member.is(ClassFile.ACC_STATIC));
+        String[] names = null;
+        int attributeCount = readU2();
+        for (int i = 0; i < attributeCount; i++) {
+            String attribute = utf8(readU2());
+            int length = buffer.getInt();
+            int end = buffer.position() + length;
+            if (attribute.equals("LocalVariableTable")) {
+                int count = readU2();
+                for (int j = 0; j < count; j++) {
+                    int startPc = readU2();
+                    readU2(); // length
+                    int nameIndex = readU2();
+                    readU2(); // descriptor
+                    int slot = readU2();
+                    if (startPc != 0) {
+                        continue;
+                    }
+                    for (int p = 0; p < parameterCount; p++) {
+                        if (slots[p] == slot) {
+                            if (names == null) {
+                                names = new String[parameterCount];
+                            }
+                            names[p] = utf8(nameIndex);
+                        }
+                    }
+                }
+            }
+            buffer.position(end);
+        }
+        return names;
+    }
+
+    private void readInnerClasses(List<ClassFile.InnerClass> innerClasses) {
+        int count = readU2();
+        for (int i = 0; i < count; i++) {
+            ClassFile.InnerClass inner = new ClassFile.InnerClass();
+            inner.name = className(readU2());
+            int outerIndex = readU2();
+            inner.outerName = outerIndex != 0 ? className(outerIndex) : null;
+            int nameIndex = readU2();
+            inner.simpleName = nameIndex != 0 ? utf8(nameIndex) : null;
+            inner.access = readU2();
+            innerClasses.add(inner);
+        }
+    }
+
+    private void readAnnotations(List<ClassFile.Annotation> annotations) {
+        int count = readU2();
+        for (int i = 0; i < count; i++) {
+            annotations.add(readAnnotation());
+        }
+    }
+
+    private ClassFile.Annotation readAnnotation() {
+        String type = Signatures.className(utf8(readU2()));
+        Map<String, String> values = new TreeMap<>();
+        int count = readU2();
+        for (int i = 0; i < count; i++) {
+            String name = utf8(readU2());
+            values.put(name, readElementValue(true));
+        }
+        return new ClassFile.Annotation(type, values);
+    }
+
+    /**
+     * An element value printed as its source expression: literals as
+     * written, enum constants and class literals by simple name.
+     */
+    private String readElementValue(boolean unwrap) {
+        char tag = (char) (buffer.get() & 0xFF);
+        switch (tag) {
+            case 's':
+                return quote(utf8(readU2()), '"');
+            case 'Z':
+                return buffer.getInt(offsets[readU2()] + 1) != 0 ? "true" : "false";
+            case 'C':
+                return quote(String.valueOf((char) buffer.getInt(offsets[readU2()] + 1)), '\'');
+            case 'B':
+            case 'S':
+            case 'I':
+                return Integer.toString(buffer.getInt(offsets[readU2()] + 1));
+            case 'J':
+                return buffer.getLong(offsets[readU2()] + 1) + "L";
+            case 'F':
+                return buffer.getFloat(offsets[readU2()] + 1) + "f";
+            case 'D':
+                return Double.toString(buffer.getDouble(offsets[readU2()] + 1));
+            case 'e': {
+                String type = Signatures.className(utf8(readU2()));
+                return Signatures.simpleName(type) + "." + utf8(readU2());
+            }
+            case 'c':
+                return Signatures.typeRef(utf8(readU2())).getBase() + ".class";
+            case '@': {
+                ClassFile.Annotation annotation = readAnnotation();
+                StringBuilder printed = new StringBuilder("@").append(annotation.simpleName());
+                if (!annotation.values.isEmpty()) {
+                    StringJoiner members = new StringJoiner(", ", "(", ")");
+                    annotation.values.forEach((name, value) -> members.add(name + " = " + value));
+                    printed.append(members);
+                }
+                return printed.toString();
+            }
+            case '[': {
+                int count = readU2();
+                List<String> elements = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    elements.add(readElementValue(false));
+                }
+                // An array of one element, like @GetMapping's path, is
+                // usually written without braces
+                if (unwrap && elements.size() == 1) {
+                    return elements.get(0);
+                }
+                return "{" + String.join(", ", elements) + "}";
+            }
+            default:
+                throw new IllegalArgumentException("Unknown element value tag " + tag);
+        }
+    }
+
+    private static String quote(String value, char quote) {
+        StringBuilder quoted = new StringBuilder().append(quote);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\n':
+                    quoted.append("\\n");
+                    break;
+                case '\t':
+                    quoted.append("\\t");
+                    break;
+                case '\r':
+                    quoted.append("\\r");
+                    break;
+                case '\\':
+                    quoted.append("\\\\");
+                    break;
+                default:
+                    if (c == quote) {
+                        quoted.append('\\');
+                    }
+                    quoted.append(c);
+                    break;
+            }
+        }
+        return quoted.append(quote).toString();
+    }
+
+    private String className(int classIndex) {
+        return Signatures.className(utf8(u2(offsets[classIndex] + 1)));
+    }
+
+    /**
+     * Decodes a constant pool string, in the JVM's modified UTF-8, once.
+     */
+    private String utf8(int index) {
+        String value = strings[index];
+        if (value != null) {
+            return value;
+        }
+
+        int offset = offsets[index];
+        if ((buffer.get(offset) & 0xFF) != CONSTANT_UTF8) {
+            throw new IllegalArgumentException("Constant " + index + " is not a string");
+        }
+        int length = u2(offset + 1);
+        char[] chars = new char[length];
+        int count = 0;
+        int position = offset + 3;
+        int end = position + length;
+        while (position < end) {
+            int b = buffer.get(position++) & 0xFF;
+            if (b < 0x80) {
+                chars[count++] = (char) b;
+            } else if ((b & 0xE0) == 0xC0) {
+                chars[count++] = (char) (((b & 0x1F) << 6) | (buffer.get(position++) & 0x3F));
+            } else {
+                int b2 = buffer.get(position++) & 0x3F;
+                int b3 = buffer.get(position++) & 0x3F;
+                chars[count++] = (char) (((b & 0x0F) << 12) | (b2 << 6) | b3);
+            }
+        }
+        value = new String(chars, 0, count);
+        strings[index] = value;
+        return value;
+    }
+
+    private int readU2() {
+        return buffer.getShort() & 0xFFFF;
+    }
+
+    private int u2(int position) {
+        return buffer.getShort(position) & 0xFFFF;
+    }
+}
@@ -0,0 +1,234 @@
+package com.autodoc.bytecode;
+
+import com.autodoc.model.TypeRefData;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses the type descriptors and generic signatures of class files (JVMS
+ * 4.3 and 4.7.9.1) into the names the IR uses.
+ */
+final class Signatures {
+
+    private Signatures() {
+    }
+
+    /**
+     * The binary name, with dots, of an internal name like
+     * {@code com/shop/Outer$Inner} or a descriptor like
+     * {@code Lcom/shop/Item;}.
+     */
+    static String className(String internalName) {
+        if (internalName.startsWith("L") && internalName.endsWith(";")) {
+            internalName = internalName.substring(1, internalName.length() - 1);
+        }
+        return internalName.replace('/', '.');
+    }
+
+    /**
+     * The simple name of a top-level or member class from its binary name.
+     */
+    static String simpleName(String binaryName) {
+        String name = binaryName.substring(binaryName.lastIndexOf('.') + 1);
+        return name.substring(name.lastIndexOf('$') + 1);
+    }
+
+    /**
+     * The type reference of a field signature or descriptor, by simple name,
+     * with wildcard arguments left out.
+     */
+    static TypeRefData typeRef(String signature) {
+        return new Cursor(signature).typeRef();
+    }
+
+    /**
+     * The erasure of a field descriptor as it appears in Spoon's method
+     * signatures: binary names, {@code []} for arrays.
+     */
+    static String erasure(String descriptor) {
+        switch (descriptor.charAt(0)) {
+            case '[':
+                return erasure(descriptor.substring(1)) + "[]";
+            case 'L':
+                return className(descriptor);
+            default:
+                return primitive(descriptor.charAt(0));
+        }
+    }
+
+    /**
+     * The parameter types of a method signature or descriptor, each one a
+     * field signature or descriptor.
+     */
+    static List<String> parameters(String methodSignature) {
+        Cursor cursor = new Cursor(methodSignature);
+        cursor.skipTypeParameters();
+        cursor.expect('(');
+        List<String> parameters = new ArrayList<>();
+        while (cursor.peek() != ')') {
+            int start = cursor.position;
+            cursor.typeRef();
+            parameters.add(methodSignature.substring(start, cursor.position));
+        }
+        return parameters;
+    }
+
+    /**
+     * The return type of a method signature or descriptor.
+     */
+    static String returnType(String methodSignature) {
+        Cursor cursor = new Cursor(methodSignature);
+        cursor.skipTypeParameters();
+        int start = methodSignature.indexOf(')', cursor.position) + 1;
+        int end = methodSignature.indexOf('^', start);
+        return methodSignature.substring(start, end >= 0 ? end : methodSignature.length());
+    }
+
+    static int parameterCount(String methodDescriptor) {
+        return parameters(methodDescriptor).size();
+    }
+
+    /**
+     * The local variable slot of each parameter of a method; {@code long}
+     * and {@code double} take two slots, and {@code this} the first one.
+     */
+    static int[] parameterSlots(String methodDescriptor, boolean isStatic) {
+        List<String> parameters = parameters(methodDescriptor);
+        int[] slots = new int[parameters.size()];
+        int slot = isStatic ? 0 : 1;
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = slot;
+            char kind = parameters.get(i).charAt(0);
+            slot += kind == 'J' || kind == 'D' ? 2 : 1;
+        }
+        return slots;
+    }
+
+    private static String primitive(char descriptor) {
+        switch (descriptor) {
+            case 'B':
+                return "byte";
+            case 'C':
+                return "char";
+            case 'D':
+                return "double";
+            case 'F':
+                return "float";
+            case 'I':
+                return "int";
+            case 'J':
+                return "long";
+            case 'S':
+                return "short";
+            case 'Z':
+                return "boolean";
+            case 'V':
+                return "void";
+            default:
+                throw new IllegalArgumentException("Unknown descriptor " + descriptor);
+        }
+    }
+
+    /**
+     * A position in a signature, read by recursive descent.
+     */
+    private static final class Cursor {
+        private final String signature;
+        private int position;
+
+        Cursor(String signature) {
+            this.signature = signature;
+        }
+
+        char peek() {
+            return signature.charAt(position);
+        }
+
+        void expect(char c) {
+            if (signature.charAt(position) != c) {
+                throw new IllegalArgumentException("Malformed signature " + signature);
+            }
+            position++;
+        }
+
+        void skipTypeParameters() {
+            if (position < signature.length() && peek() == '<') {
+                int depth = 0;
+                do {
+                    char c = signature.charAt(position++);
+                    if (c == '<') {
+                        depth++;
+                    } else if (c == '>') {
+                        depth--;
+                    }
+                } while (depth > 0);
+            }
+        }
+
+        TypeRefData typeRef() {
+            char c = signature.charAt(position++);
+            switch (c) {
+                case '[':
+                    // Arrays are named by their element, without arguments
+                    return TypeRefData.of(typeRef().getBase() + "[]");
+                case 'T': {
+                    int end = signature.indexOf(';', position);
+                    String name = signature.substring(position, end);
+                    position = end + 1;
+                    return TypeRefData.of(name);
+                }
+                case 'L':
+                    return classType();
+                default:
+                    return TypeRefData.of(primitive(c));
+            }
+        }
+
+        /**
+         * A class type after its {@code L}; only the arguments of the
+         * innermost class are kept, as the source names it by that class.
+         */
+        private TypeRefData classType() {
+            String name = null;
+            List<TypeRefData> args = List.of();
+            int start = position;
+            while (true) {
+                char c = signature.charAt(position);
+                if (c == '<' || c == '.' || c == ';') {
+                    if (start < position) {
+                        name = simpleName(className(signature.substring(start, position)));
+                        args = List.of();
+                    }
+                    position++;
+                    if (c == ';') {
+                        return TypeRefData.of(name, args);
+                    }
+                    if (c == '<') {
+                        args = typeArguments();
+                    }
+                    start = position;
+                } else {
+                    position++;
+                }
+            }
+        }
+
+        private List<TypeRefData> typeArguments() {
+            List<TypeRefData> args = new ArrayList<>();
+            while (peek() != '>') {
+                char c = peek();
+                if (c == '*') {
+                    position++;
+                } else if (c == '+' || c == '-') {
+                    position++;
+                    typeRef();
+                } else {
+                    args.add(typeRef());
+                }
+            }
+            position++;
+            return args;
+        }
+    }
+}
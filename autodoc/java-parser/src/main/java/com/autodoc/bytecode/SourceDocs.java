@@ -0,0 +1,149 @@
+package com.autodoc.bytecode;
+
+import com.autodoc.javaparser.DocComments;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.EnumConstantDeclaration;
+import com.github.javaparser.ast.body.EnumDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.body.VariableDeclarator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Javadoc for compiled classes, read from their sources when these are
+ * available, e.g. from a {@code -sources.jar} unpacked into a directory.
+ * Class files keep no comments; a source file is only parsed when a model
+ * or a controller is extracted from one of its classes, and only the
+ * declarations the IR describes are looked up in it.
+ */
+final class SourceDocs {
+
+    private static final ParserConfiguration CONFIGURATION = new ParserConfiguration()
+            .setLanguageLevel(ParserConfiguration.LanguageLevel.JAVA_11)
+            .setDoNotAssignCommentsPrecedingEmptyLines(false);
+
+    private final List<Path> roots;
+    private final ConcurrentMap<Path, Optional<CompilationUnit>> units = new ConcurrentHashMap<>();
+
+    /**
+     * @param roots source roots, searched in order
+     */
+    SourceDocs(List<Path> roots) {
+        this.roots = roots;
+    }
+
+    /**
+     * The Javadoc of a class, or "" when its source is missing.
+     */
+    String type(ClassFile cls) {
+        return declaration(cls).map(DocComments::of).orElse("");
+    }
+
+    /**
+     * The Javadoc of a field; as in source, only the last variable of a
+     * declaration has it.
+     */
+    String field(ClassFile cls, String name) {
+        return declaration(cls).map(type -> {
+            for (FieldDeclaration field : type.getFields()) {
+                List<VariableDeclarator> variables = field.getVariables();
+                if (variables.get(variables.size() - 1).getNameAsString().equals(name)) {
+                    return DocComments.of(field);
+                }
+            }
+            return "";
+        }).orElse("");
+    }
+
+    String enumConstant(ClassFile cls, String name) {
+        return declaration(cls).filter(type -> type instanceof EnumDeclaration).map(type -> {
+            for (EnumConstantDeclaration constant : ((EnumDeclaration) type).getEntries()) {
+                if (constant.getNameAsString().equals(name)) {
+                    return DocComments.of(constant);
+                }
+            }
+            return "";
+        }).orElse("");
+    }
+
+    /**
+     * The Javadoc of a method, matched by name and parameter count; an
+     * overload with the same count is taken in declaration order.
+     */
+    String method(ClassFile cls, String name, int parameterCount) {
+        return declaration(cls).map(type -> {
+            for (MethodDeclaration method : type.getMethodsByName(name)) {
+                if (method.getParameters().size() == parameterCount) {
+                    return DocComments.of(method);
+                }
+            }
+            return "";
+        }).orElse("");
+    }
+
+    /**
+     * The declaration of a class in its source file, found through the
+     * {@code SourceFile} attribute and its binary name.
+     */
+    private Optional<TypeDeclaration<?>> declaration(ClassFile cls) {
+        if (cls.sourceFile == null) {
+            return Optional.empty();
+        }
+        String packageName = cls.packageName();
+        Optional<CompilationUnit> unit = Optional.empty();
+        for (Path root : roots) {
+            Path file = root.resolve(packageName.replace('.', '/')).resolve(cls.sourceFile);
+            unit = units.computeIfAbsent(file, SourceDocs::parse);
+            if (unit.isPresent()) {
+                break;
+            }
+        }
+        if (!unit.isPresent()) {
+            return Optional.empty();
+        }
+
+        String[] names = cls.name.substring(packageName.isEmpty() ? 0 : packageName.length() + 1).split("\\$");
+        List<? extends Node> members = unit.get().getTypes();
+        TypeDeclaration<?> type = null;
+        for (String name : names) {
+            type = null;
+            for (Node member : members) {
+                if (member instanceof TypeDeclaration
+                        && ((TypeDeclaration<?>) member).getNameAsString().equals(name)) {
+                    type = (TypeDeclaration<?>) member;
+                    break;
+                }
+            }
+            if (type == null) {
+                return Optional.empty();
+            }
+            members = type.getMembers();
+        }
+        return Optional.of(type);
+    }
+
+    private static Optional<CompilationUnit> parse(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try {
+            ParseResult<CompilationUnit> result = new JavaParser(CONFIGURATION).parse(file);
+            return result.getResult().filter(unit -> result.isSuccessful());
+        } catch (IOException e) {
+            // Docs are optional; a source that cannot be read has none
+            return Optional.empty();
+        }
+    }
+}
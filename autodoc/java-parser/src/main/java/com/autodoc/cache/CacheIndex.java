@@ -0,0 +1,47 @@
+package com.autodoc.cache;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * On-disk layout of the IR cache: a format version, the classification
+ * rules the fragments were extracted with, and one entry per source file,
+ * keyed by path relative to the source root.
+ */
+public class CacheIndex {
+    private int version;
+    private String rules;
+    private Map<String, CachedFile> files = new TreeMap<>();
+
+    public CacheIndex() {
+    }
+
+    public CacheIndex(int version, String rules) {
+        this.version = version;
+        this.rules = rules;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public String getRules() {
+        return rules;
+    }
+
+    public void setRules(String rules) {
+        this.rules = rules;
+    }
+
+    public Map<String, CachedFile> getFiles() {
+        return files;
+    }
+
+    public void setFiles(Map<String, CachedFile> files) {
+        this.files = new TreeMap<>(files);
+    }
+}
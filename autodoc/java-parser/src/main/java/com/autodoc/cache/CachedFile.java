@@ -0,0 +1,69 @@
+package com.autodoc.cache;
+
+import com.autodoc.processor.TypeFragment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cache entry for one source file: its content hash, the IR fragments of
+ * its top-level types and the other source files those types reference.
+ */
+public class CachedFile {
+    private String path;
+    private String hash;
+    private List<String> declaredTypes = new ArrayList<>();
+    private List<String> dependencies = new ArrayList<>();
+    private List<TypeFragment> fragments = new ArrayList<>();
+
+    public CachedFile() {
+    }
+
+    public CachedFile(String path, String hash) {
+        this.path = path;
+        this.hash = hash;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    /**
+     * Simple names of every type declared in the file, nested ones included.
+     */
+    public List<String> getDeclaredTypes() {
+        return declaredTypes;
+    }
+
+    public void setDeclaredTypes(List<String> declaredTypes) {
+        this.declaredTypes = declaredTypes;
+    }
+
+    public List<String> getDependencies() {
+        return dependencies;
+    }
+
+    public void setDependencies(List<String> dependencies) {
+        this.dependencies = dependencies;
+    }
+
+    public List<TypeFragment> getFragments() {
+        return fragments;
+    }
+
+    public void setFragments(List<TypeFragment> fragments) {
+        this.fragments = fragments;
+    }
+}
@@ -0,0 +1,223 @@
+package com.autodoc.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Persistent per-file IR cache. Each source file is keyed by its path
+ * relative to the source root and the SHA-256 of its content, so a run only
+ * needs to re-model files that changed and the files that depend on them.
+ */
+public class IrCache {
+
+    /**
+     * Bump whenever extraction rules change so that stale fragments are
+     * discarded instead of being merged into the IR.
+     */
+    public static final int VERSION = 2;
+
+    private static final String INDEX_FILE = "ir-cache.json";
+    private static final Pattern TYPE_NAME = Pattern.compile("\\b[A-Z][A-Za-z0-9_$]*");
+    private static final Pattern DECLARATION =
+            Pattern.compile("\\b(?:class|interface|enum|record)\\s+([A-Z][A-Za-z0-9_$]*)");
+
+    private final Path indexFile;
+    private final String rules;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private CacheIndex index;
+
+    public IrCache(Path cacheDir) {
+        this(cacheDir, null);
+    }
+
+    /**
+     * A cache whose fragments were extracted with {@code rules}; an index
+     * saved under other rules is discarded on load.
+     */
+    public IrCache(Path cacheDir, String rules) {
+        this.indexFile = cacheDir.resolve(INDEX_FILE);
+        this.rules = rules;
+        this.index = new CacheIndex(VERSION, rules);
+    }
+
+    public void load() throws IOException {
+        if (!Files.exists(indexFile)) {
+            return;
+        }
+
+        CacheIndex loaded = mapper.readValue(indexFile.toFile(), CacheIndex.class);
+        if (loaded.getVersion() == VERSION && Objects.equals(loaded.getRules(), rules)) {
+            index = loaded;
+        }
+    }
+
+    public void save() throws IOException {
+        Files.createDirectories(indexFile.getParent());
+
+        // Write next to the index and move it into place, so an interrupted
+        // run never leaves a truncated cache behind
+        Path tmp = indexFile.resolveSibling(INDEX_FILE + ".tmp");
+        mapper.writeValue(tmp.toFile(), index);
+        Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public CachedFile get(String path) {
+        return index.getFiles().get(path);
+    }
+
+    public void put(CachedFile file) {
+        index.getFiles().put(file.getPath(), file);
+    }
+
+    public void remove(String path) {
+        index.getFiles().remove(path);
+    }
+
+    public Collection<CachedFile> entries() {
+        return index.getFiles().values();
+    }
+
+    /**
+     * Files that are new or whose content hash differs from the cached one.
+     */
+    public Set<String> changedFiles(Map<String, String> hashes) {
+        Set<String> changed = new TreeSet<>();
+        for (Map.Entry<String, String> entry : hashes.entrySet()) {
+            CachedFile cached = index.getFiles().get(entry.getKey());
+            if (cached == null || !cached.getHash().equals(entry.getValue())) {
+                changed.add(entry.getKey());
+            }
+        }
+        return changed;
+    }
+
+    public Set<String> removedFiles(Map<String, String> hashes) {
+        Set<String> removed = new TreeSet<>(index.getFiles().keySet());
+        removed.removeAll(hashes.keySet());
+        return removed;
+    }
+
+    /**
+     * Cached files that reference any of the given files. The processors only
+     * look one hop into referenced types, so direct dependents are enough.
+     */
+    public Set<String> dependentsOf(Set<String> paths) {
+        Set<String> dependents = new TreeSet<>();
+        for (CachedFile cached : index.getFiles().values()) {
+            for (String dependency : cached.getDependencies()) {
+                if (paths.contains(dependency)) {
+                    dependents.add(cached.getPath());
+                    break;
+                }
+            }
+        }
+        return dependents;
+    }
+
+    /**
+     * Cached files declaring a type whose simple name occurs in one of the
+     * given sources. This over-approximates the real references but is cheap
+     * and works before the sources have been modeled.
+     */
+    public Set<String> referencedFiles(Collection<String> sources) {
+        Map<String, List<String>> filesByType = new HashMap<>();
+        for (CachedFile cached : index.getFiles().values()) {
+            for (String typeName : cached.getDeclaredTypes()) {
+                filesByType.computeIfAbsent(typeName, k -> new ArrayList<>()).add(cached.getPath());
+            }
+        }
+
+        Set<String> referenced = new TreeSet<>();
+        for (String source : sources) {
+            Matcher matcher = TYPE_NAME.matcher(source);
+            while (matcher.find()) {
+                List<String> files = filesByType.get(matcher.group());
+                if (files != null) {
+                    referenced.addAll(files);
+                }
+            }
+        }
+        return referenced;
+    }
+
+    /**
+     * Cached files whose source mentions one of {@code typeNames}.
+     * Dependencies are only recorded for references that resolved when a
+     * file was modeled, so none point at a type whose declaring file is new;
+     * the names declared by added and removed files are matched against the
+     * sources instead.
+     */
+    public Set<String> filesMentioning(Set<String> typeNames, Map<String, Path> sources) throws IOException {
+        Set<String> mentioning = new TreeSet<>();
+        for (CachedFile cached : index.getFiles().values()) {
+            Path source = sources.get(cached.getPath());
+            if (source == null) {
+                continue;
+            }
+            Matcher matcher = TYPE_NAME.matcher(read(source));
+            while (matcher.find()) {
+                if (typeNames.contains(matcher.group())) {
+                    mentioning.add(cached.getPath());
+                    break;
+                }
+            }
+        }
+        return mentioning;
+    }
+
+    /**
+     * Simple names of the types a source declares, nested ones included.
+     * Like {@link #referencedFiles} it only scans the text, so a declaration
+     * in a comment is counted too.
+     */
+    public static Set<String> declaredTypes(String source) {
+        Set<String> names = new TreeSet<>();
+        Matcher matcher = DECLARATION.matcher(source);
+        while (matcher.find()) {
+            names.add(matcher.group(1));
+        }
+        return names;
+    }
+
+    /**
+     * Lists the Java sources under {@code root}, keyed by their path relative
+     * to {@code baseDir} with forward slashes.
+     */
+    public static Map<String, Path> listSources(Path root, Path baseDir) throws IOException {
+        Map<String, Path> sources = new TreeMap<>();
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.filter(p -> Files.isRegularFile(p) && p.toString().endsWith(".java"))
+                    .forEach(p -> sources.put(relativePath(baseDir, p), p));
+        }
+        return sources;
+    }
+
+    public static String relativePath(Path baseDir, Path file) {
+        return baseDir.relativize(file.toAbsolutePath().normalize()).toString().replace('\\', '/');
+    }
+
+    public static String hash(Path file) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(Files.readAllBytes(file));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+}
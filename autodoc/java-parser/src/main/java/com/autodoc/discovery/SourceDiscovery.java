@@ -0,0 +1,361 @@
+package com.autodoc.discovery;
+
+import com.autodoc.processor.TypeClassifier;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Picks the source files the IR can depend on before any of them is
+ * parsed. A file is a root if it may declare a controller or a model: it
+ * uses an annotation that makes a type one, its package makes its classes
+ * models, or it declares an enum. Roots are kept along with every file
+ * reachable from them through the type names files mention, so the chains
+ * of injected components and supertypes the relationships follow resolve
+ * as in a full model.
+ *
+ * It also splits a tree into {@link SourceModule}s, by Maven or Gradle
+ * module and optionally into batches of packages, so each can be modeled on
+ * its own.
+ *
+ * Files are only byte-scanned here, see {@link SourceScanner}, on a
+ * ForkJoinPool when parallelism is enabled.
+ */
+public class SourceDiscovery {
+
+    private static final List<String> BUILD_FILES = List.of("pom.xml", "build.gradle", "build.gradle.kts");
+
+    private final TypeClassifier classifier;
+    private final int parallelism;
+    private int scannedCount;
+
+    public SourceDiscovery(TypeClassifier classifier, int parallelism) {
+        this.classifier = classifier;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * The Java files under {@code root} the IR can depend on, sorted by
+     * path.
+     */
+    public List<Path> discover(Path root) {
+        List<SourceScanner.Summary> summaries = scan(listSources(root));
+        scannedCount = summaries.size();
+
+        Set<SourceScanner.Summary> selected = select(summaries, filesByType(summaries));
+        return summaries.stream()
+                .filter(selected::contains)
+                .map(summary -> summary.path)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Splits the Java files under {@code root} by module: each file belongs
+     * to the closest directory holding a {@code pom.xml} or
+     * {@code build.gradle}, or to {@code root} if there is none. With
+     * {@code prefilter}, a module keeps only the files {@link #discover}
+     * would, and modules left without files are dropped.
+     *
+     * A module's references are the other modules' files declaring a type
+     * name its files mention, unless they declare one of its own types
+     * again, like a DTO copied between modules.
+     */
+    public List<SourceModule> discoverModules(Path root, boolean prefilter) {
+        return partition(root, prefilter, true, 0);
+    }
+
+    /**
+     * Like {@link #discoverModules(Path, boolean)}, but with
+     * {@code maxBatchBytes} above 0 each module is further split into
+     * batches of whole packages holding at most that many bytes of source,
+     * unless a single package is larger.
+     */
+    public List<SourceModule> discoverModules(Path root, boolean prefilter, long maxBatchBytes) {
+        return partition(root, prefilter, true, maxBatchBytes);
+    }
+
+    /**
+     * Splits the Java files under {@code root} into batches of whole
+     * packages holding at most {@code maxBatchBytes} bytes of source, unless
+     * a single package is larger, regardless of modules. Batches and their
+     * files come in the order a model of the whole tree lists their types:
+     * sub-packages first, then a package's files by path.
+     */
+    public List<SourceModule> discoverBatches(Path root, boolean prefilter, long maxBatchBytes) {
+        return partition(root, prefilter, false, maxBatchBytes);
+    }
+
+    /**
+     * Number of files the last {@link #discover} or
+     * {@link #discoverModules} scanned.
+     */
+    public int getScannedCount() {
+        return scannedCount;
+    }
+
+    private List<SourceModule> partition(Path root, boolean prefilter, boolean byModule, long maxBatchBytes) {
+        Path rootDirectory = Files.isDirectory(root) ? root.toAbsolutePath().normalize() : null;
+        List<SourceScanner.Summary> summaries = scan(listSources(root));
+        scannedCount = summaries.size();
+
+        Map<String, List<SourceScanner.Summary>> filesByType = filesByType(summaries);
+        Set<SourceScanner.Summary> selected = prefilter ? select(summaries, filesByType) : null;
+
+        Map<Path, List<SourceScanner.Summary>> filesByModule = new LinkedHashMap<>();
+        Map<Path, Path> moduleByDirectory = new HashMap<>();
+        for (SourceScanner.Summary summary : summaries) {
+            if (selected == null || selected.contains(summary)) {
+                Path module;
+                if (rootDirectory == null) {
+                    module = summary.path.getParent();
+                } else if (byModule) {
+                    module = moduleOf(summary.path.getParent(), rootDirectory, moduleByDirectory);
+                } else {
+                    module = rootDirectory;
+                }
+                filesByModule.computeIfAbsent(module, k -> new ArrayList<>()).add(summary);
+            }
+        }
+
+        List<SourceModule> modules = new ArrayList<>();
+        filesByModule.keySet().stream().sorted(Comparator.comparing(Path::toString)).forEach(directory -> {
+            List<SourceScanner.Summary> own = filesByModule.get(directory);
+            for (List<SourceScanner.Summary> batch : maxBatchBytes > 0 ? batches(own, maxBatchBytes) : List.of(own)) {
+                modules.add(new SourceModule(directory, paths(batch), paths(references(batch, filesByType))));
+            }
+        });
+        return modules;
+    }
+
+    /**
+     * Packs whole packages, in the order a model lists them, into batches
+     * of at most {@code maxBatchBytes} bytes of source.
+     */
+    private static List<List<SourceScanner.Summary>> batches(List<SourceScanner.Summary> files,
+            long maxBatchBytes) {
+        PackageNode root = new PackageNode();
+        for (SourceScanner.Summary file : files) {
+            PackageNode node = root;
+            if (!file.packageName.isEmpty()) {
+                for (String name : file.packageName.split("\\.")) {
+                    node = node.packages.computeIfAbsent(name, n -> new PackageNode());
+                }
+            }
+            node.files.add(file);
+        }
+        List<List<SourceScanner.Summary>> packages = new ArrayList<>();
+        root.collectPackages(packages);
+
+        List<List<SourceScanner.Summary>> batches = new ArrayList<>();
+        List<SourceScanner.Summary> batch = new ArrayList<>();
+        long batchBytes = 0;
+        for (List<SourceScanner.Summary> packageFiles : packages) {
+            long packageBytes = 0;
+            for (SourceScanner.Summary file : packageFiles) {
+                packageBytes += file.size;
+            }
+            if (!batch.isEmpty() && batchBytes + packageBytes > maxBatchBytes) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+                batchBytes = 0;
+            }
+            batch.addAll(packageFiles);
+            batchBytes += packageBytes;
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    /**
+     * The roots and the closure of the files declaring a type they mention.
+     * Components a kept component injects, and the supertypes of kept
+     * types, are classified only when their files are modeled, so every hop
+     * is followed.
+     */
+    private Set<SourceScanner.Summary> select(List<SourceScanner.Summary> summaries,
+            Map<String, List<SourceScanner.Summary>> filesByType) {
+        Set<SourceScanner.Summary> selected = new HashSet<>();
+        Deque<SourceScanner.Summary> pending = new ArrayDeque<>();
+        for (SourceScanner.Summary summary : summaries) {
+            if (isRoot(summary) && selected.add(summary)) {
+                pending.add(summary);
+            }
+        }
+        while (!pending.isEmpty()) {
+            for (String typeName : pending.poll().typeNames) {
+                for (SourceScanner.Summary file : filesByType.getOrDefault(typeName, List.of())) {
+                    if (selected.add(file)) {
+                        pending.add(file);
+                    }
+                }
+            }
+        }
+        return selected;
+    }
+
+    private static List<SourceScanner.Summary> references(List<SourceScanner.Summary> own,
+            Map<String, List<SourceScanner.Summary>> filesByType) {
+        Set<SourceScanner.Summary> ownFiles = new HashSet<>(own);
+        Set<String> ownTypes = new HashSet<>();
+        for (SourceScanner.Summary summary : own) {
+            ownTypes.addAll(qualifiedTypes(summary));
+        }
+
+        Set<SourceScanner.Summary> references = new LinkedHashSet<>();
+        for (SourceScanner.Summary summary : own) {
+            for (String typeName : summary.typeNames) {
+                for (SourceScanner.Summary file : filesByType.getOrDefault(typeName, List.of())) {
+                    if (!ownFiles.contains(file) && qualifiedTypes(file).stream().noneMatch(ownTypes::contains)) {
+                        references.add(file);
+                    }
+                }
+            }
+        }
+
+        List<SourceScanner.Summary> sorted = new ArrayList<>(references);
+        sorted.sort(Comparator.comparing(summary -> summary.path.toString()));
+        return sorted;
+    }
+
+    private static List<String> qualifiedTypes(SourceScanner.Summary summary) {
+        List<String> names = new ArrayList<>();
+        for (String typeName : summary.declaredTypes) {
+            names.add(summary.packageName + "." + typeName);
+        }
+        return names;
+    }
+
+    /**
+     * The closest directory from {@code directory} up to {@code root} that
+     * holds a build file, or {@code root}.
+     */
+    private static Path moduleOf(Path directory, Path root, Map<Path, Path> moduleByDirectory) {
+        Path module = moduleByDirectory.get(directory);
+        if (module != null) {
+            return module;
+        }
+        if (directory.equals(root) || !directory.startsWith(root)) {
+            module = root;
+        } else if (BUILD_FILES.stream().anyMatch(name -> Files.isRegularFile(directory.resolve(name)))) {
+            module = directory;
+        } else {
+            module = moduleOf(directory.getParent(), root, moduleByDirectory);
+        }
+        moduleByDirectory.put(directory, module);
+        return module;
+    }
+
+    private static Map<String, List<SourceScanner.Summary>> filesByType(List<SourceScanner.Summary> summaries) {
+        Map<String, List<SourceScanner.Summary>> filesByType = new HashMap<>();
+        for (SourceScanner.Summary summary : summaries) {
+            for (String typeName : summary.declaredTypes) {
+                filesByType.computeIfAbsent(typeName, k -> new ArrayList<>()).add(summary);
+            }
+        }
+        return filesByType;
+    }
+
+    private static List<Path> paths(List<SourceScanner.Summary> summaries) {
+        List<Path> paths = new ArrayList<>(summaries.size());
+        for (SourceScanner.Summary summary : summaries) {
+            paths.add(summary.path);
+        }
+        return paths;
+    }
+
+    private boolean isRoot(SourceScanner.Summary summary) {
+        if (summary.declaresEnum || classifier.isModelPackage(summary.packageName)) {
+            return true;
+        }
+        for (String annotation : summary.annotations) {
+            if (classifier.isRootAnnotation(annotation)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<SourceScanner.Summary> scan(List<Path> files) {
+        if (parallelism <= 1) {
+            List<SourceScanner.Summary> summaries = new ArrayList<>();
+            for (Path file : files) {
+                summaries.add(scan(file));
+            }
+            return summaries;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.submit(() -> files.parallelStream()
+                    .map(SourceDiscovery::scan)
+                    .collect(Collectors.toList()))
+                    .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Source discovery interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Source discovery failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Package tree built from files in path order, which is how a model
+     * orders packages: sub-packages first, then the package's own files.
+     */
+    private static final class PackageNode {
+        private final Map<String, PackageNode> packages = new LinkedHashMap<>();
+        private final List<SourceScanner.Summary> files = new ArrayList<>();
+
+        void collectPackages(List<List<SourceScanner.Summary>> result) {
+            for (PackageNode subPackage : packages.values()) {
+                subPackage.collectPackages(result);
+            }
+            if (!files.isEmpty()) {
+                result.add(files);
+            }
+        }
+    }
+
+    private static SourceScanner.Summary scan(Path file) {
+        try {
+            return SourceScanner.scan(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<Path> listSources(Path root) {
+        if (!Files.isDirectory(root)) {
+            return List.of(root);
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths.filter(path -> Files.isRegularFile(path) && path.toString().endsWith(".java"))
+                    .map(path -> path.toAbsolutePath().normalize())
+                    .sorted(Comparator.comparing(Path::toString))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
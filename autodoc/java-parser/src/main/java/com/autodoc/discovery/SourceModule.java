@@ -0,0 +1,42 @@
+package com.autodoc.discovery;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The sources of one Maven or Gradle module, or of one batch of its
+ * packages: the files it owns, whose types are extracted, and other files
+ * they mention, which are only modeled so that references into them
+ * resolve.
+ */
+public class SourceModule {
+    private final Path directory;
+    private final List<Path> sources;
+    private final List<Path> references;
+
+    public SourceModule(Path directory, List<Path> sources, List<Path> references) {
+        this.directory = directory;
+        this.sources = sources;
+        this.references = references;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * The module's own Java files: sorted by path, or for a batch, in the
+     * order a model lists their types.
+     */
+    public List<Path> getSources() {
+        return sources;
+    }
+
+    /**
+     * Files outside the module or batch declaring a type its files mention,
+     * sorted by path.
+     */
+    public List<Path> getReferences() {
+        return references;
+    }
+}
@@ -0,0 +1,268 @@
+package com.autodoc.discovery;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Scans the bytes of a Java source file, memory-mapped, for what
+ * {@link SourceDiscovery} needs to know without parsing it: the package,
+ * the annotations used, the type names declared and referenced, and whether
+ * it declares an enum. Comments and literals are skipped.
+ *
+ * The scan is a tokenizer, not a parser, so it over-approximates: every
+ * capitalized identifier counts as a referenced type name, and an
+ * annotation is recorded wherever it appears.
+ */
+final class SourceScanner {
+
+    private static final byte[] PACKAGE = ascii("package");
+    private static final byte[] CLASS = ascii("class");
+    private static final byte[] INTERFACE = ascii("interface");
+    private static final byte[] ENUM = ascii("enum");
+    private static final byte[] RECORD = ascii("record");
+
+    private final ByteBuffer bytes;
+    private final int limit;
+    private int position;
+
+    private final Summary summary;
+
+    private SourceScanner(Path path, ByteBuffer bytes) {
+        this.bytes = bytes;
+        this.limit = bytes.limit();
+        this.summary = new Summary(path);
+    }
+
+    static Summary scan(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer bytes = size == 0
+                    ? ByteBuffer.allocate(0)
+                    : channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            Summary summary = new SourceScanner(path, bytes).scan();
+            summary.size = size;
+            return summary;
+        }
+    }
+
+    private Summary scan() {
+        boolean annotation = false;
+        boolean declaration = false;
+        boolean first = true;
+
+        while (position < limit) {
+            byte b = bytes.get(position);
+            if (b == '/' && peek(1) == '/') {
+                skipLineComment();
+            } else if (b == '/' && peek(1) == '*') {
+                skipBlockComment();
+            } else if (b == '"') {
+                skipString();
+            } else if (b == '\'') {
+                skipCharLiteral();
+            } else if (b == '@') {
+                annotation = true;
+                position++;
+            } else if (isIdentifierPart(b) && !isDigit(b)) {
+                int start = position;
+                int end = identifierEnd(start);
+                position = end;
+
+                if (annotation) {
+                    annotation = false;
+                    if (matches(start, end, INTERFACE)) {
+                        // @interface declares an annotation type
+                        declaration = true;
+                    } else {
+                        summary.annotations.add(lastSegment(start, end));
+                    }
+                } else if (declaration) {
+                    declaration = false;
+                    summary.declaredTypes.add(text(start, end));
+                } else if (first && matches(start, end, PACKAGE)) {
+                    summary.packageName = qualifiedName();
+                } else if (matches(start, end, CLASS) || matches(start, end, INTERFACE)
+                        || matches(start, end, RECORD)) {
+                    declaration = true;
+                } else if (matches(start, end, ENUM)) {
+                    summary.declaresEnum = true;
+                    declaration = true;
+                } else if (isUpperCase(b)) {
+                    summary.typeNames.add(text(start, end));
+                }
+                first = false;
+            } else {
+                if (!isWhitespace(b)) {
+                    // Only an identifier may directly follow these keywords,
+                    // e.g. not the dot of Foo.class.getName()
+                    annotation = false;
+                    declaration = false;
+                    first = false;
+                }
+                position++;
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * The dotted name following {@code package}, up to the semicolon.
+     */
+    private String qualifiedName() {
+        StringBuilder name = new StringBuilder();
+        while (position < limit) {
+            byte b = bytes.get(position);
+            if (b == ';') {
+                break;
+            }
+            if (b == '/' && peek(1) == '*') {
+                skipBlockComment();
+                continue;
+            }
+            if (b == '/' && peek(1) == '/') {
+                skipLineComment();
+                continue;
+            }
+            if (b == '.' || isIdentifierPart(b)) {
+                int end = position;
+                while (end < limit && (bytes.get(end) == '.' || isIdentifierPart(bytes.get(end)))) {
+                    end++;
+                }
+                name.append(text(position, end));
+                position = end;
+                continue;
+            }
+            position++;
+        }
+        return name.toString();
+    }
+
+    /**
+     * The simple name of a possibly qualified annotation name, consuming the
+     * qualified remainder, e.g. {@code Entity} for
+     * {@code @javax.persistence.Entity}.
+     */
+    private String lastSegment(int start, int end) {
+        while (position + 1 < limit && bytes.get(position) == '.' && isIdentifierPart(bytes.get(position + 1))) {
+            start = position + 1;
+            end = identifierEnd(start);
+            position = end;
+        }
+        return text(start, end);
+    }
+
+    private int identifierEnd(int start) {
+        int end = start;
+        while (end < limit && isIdentifierPart(bytes.get(end))) {
+            end++;
+        }
+        return end;
+    }
+
+    private void skipLineComment() {
+        while (position < limit && bytes.get(position) != '\n') {
+            position++;
+        }
+    }
+
+    private void skipBlockComment() {
+        position += 2;
+        while (position < limit && !(bytes.get(position) == '*' && peek(1) == '/')) {
+            position++;
+        }
+        position += 2;
+    }
+
+    private void skipString() {
+        if (peek(1) == '"' && peek(2) == '"') {
+            // Text block
+            position += 3;
+            while (position < limit && !(bytes.get(position) == '"' && peek(1) == '"' && peek(2) == '"')) {
+                position += bytes.get(position) == '\\' ? 2 : 1;
+            }
+            position += 3;
+            return;
+        }
+        position++;
+        while (position < limit && bytes.get(position) != '"' && bytes.get(position) != '\n') {
+            position += bytes.get(position) == '\\' ? 2 : 1;
+        }
+        position++;
+    }
+
+    private void skipCharLiteral() {
+        position++;
+        while (position < limit && bytes.get(position) != '\'' && bytes.get(position) != '\n') {
+            position += bytes.get(position) == '\\' ? 2 : 1;
+        }
+        position++;
+    }
+
+    private byte peek(int offset) {
+        int index = position + offset;
+        return index < limit ? bytes.get(index) : 0;
+    }
+
+    private boolean matches(int start, int end, byte[] keyword) {
+        if (end - start != keyword.length) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length; i++) {
+            if (bytes.get(start + i) != keyword[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String text(int start, int end) {
+        byte[] token = new byte[end - start];
+        bytes.get(start, token);
+        return new String(token, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isIdentifierPart(byte b) {
+        // Bytes of multi-byte UTF-8 characters are negative; treat them as
+        // letters so non-ASCII identifiers stay whole
+        return b < 0 || (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || isDigit(b) || b == '_' || b == '$';
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static boolean isUpperCase(byte b) {
+        return b >= 'A' && b <= 'Z';
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == '\f';
+    }
+
+    private static byte[] ascii(String keyword) {
+        return keyword.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * What the scan found in one file.
+     */
+    static final class Summary {
+        final Path path;
+        long size;
+        String packageName = "";
+        boolean declaresEnum;
+        final Set<String> annotations = new HashSet<>();
+        final Set<String> declaredTypes = new HashSet<>();
+        final Set<String> typeNames = new HashSet<>();
+
+        Summary(Path path) {
+            this.path = path;
+        }
+    }
+}
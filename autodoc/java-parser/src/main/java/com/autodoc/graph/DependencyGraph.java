@@ -0,0 +1,356 @@
+package com.autodoc.graph;
+
+import com.autodoc.model.Relationship;
+import com.autodoc.processor.RelationshipExtractor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The relationships between classes as a graph. Classes are numbered in the
+ * order they first appear, and edges are kept in compressed adjacency
+ * arrays in both directions: the edges leaving node {@code n} are
+ * {@code outTargets[outOffsets[n]]} to
+ * {@code outTargets[outOffsets[n + 1] - 1]}. Every query walks these arrays
+ * iteratively, in time linear in what it visits, so it stays fast for tens
+ * of thousands of components.
+ *
+ * Edge kinds are bit masks, so queries can follow any mix of them.
+ * Queries reuse per-graph scratch arrays, so a graph is not thread-safe.
+ */
+public final class DependencyGraph {
+
+    public static final int INJECTS = 1;
+    public static final int EXTENDS = 1 << 1;
+    public static final int IMPLEMENTS = 1 << 2;
+
+    private static final int INHERITS = EXTENDS | IMPLEMENTS;
+
+    private final String[] names;
+    private final Map<String, Integer> ids;
+
+    private final int[] outOffsets;
+    private final int[] outTargets;
+    private final byte[] outKinds;
+    private final int[] inOffsets;
+    private final int[] inSources;
+    private final byte[] inKinds;
+
+    // Scratch space for traversals; a node is marked when its mark equals
+    // the current epoch, so nothing needs clearing between queries
+    private final int[] visited;
+    private final int[] listed;
+    private final int[] queue;
+    private int epoch;
+
+    private DependencyGraph(String[] names, Map<String, Integer> ids, int[] sources, int[] targets, byte[] kinds) {
+        this.names = names;
+        this.ids = ids;
+        int n = names.length;
+
+        this.outOffsets = new int[n + 1];
+        this.inOffsets = new int[n + 1];
+        for (int i = 0; i < sources.length; i++) {
+            outOffsets[sources[i] + 1]++;
+            inOffsets[targets[i] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            outOffsets[i + 1] += outOffsets[i];
+            inOffsets[i + 1] += inOffsets[i];
+        }
+
+        this.outTargets = new int[sources.length];
+        this.outKinds = new byte[sources.length];
+        this.inSources = new int[sources.length];
+        this.inKinds = new byte[sources.length];
+        int[] outNext = Arrays.copyOf(outOffsets, n);
+        int[] inNext = Arrays.copyOf(inOffsets, n);
+        for (int i = 0; i < sources.length; i++) {
+            int out = outNext[sources[i]]++;
+            outTargets[out] = targets[i];
+            outKinds[out] = kinds[i];
+            int in = inNext[targets[i]]++;
+            inSources[in] = sources[i];
+            inKinds[in] = kinds[i];
+        }
+
+        this.visited = new int[n];
+        this.listed = new int[n];
+        // A node is queued at most twice, see downstream
+        this.queue = new int[2 * n + 1];
+    }
+
+    /**
+     * Builds the graph of the INJECTS, EXTENDS and IMPLEMENTS relationships;
+     * others are left out.
+     */
+    public static DependencyGraph of(List<Relationship> relationships) {
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        int[] sources = new int[relationships.size()];
+        int[] targets = new int[relationships.size()];
+        byte[] kinds = new byte[relationships.size()];
+
+        int edges = 0;
+        for (Relationship relationship : relationships) {
+            int kind = kindOf(relationship.getType());
+            if (kind == 0) {
+                continue;
+            }
+            sources[edges] = id(relationship.getSourceClass(), ids, names);
+            targets[edges] = id(relationship.getTargetClass(), ids, names);
+            kinds[edges] = (byte) kind;
+            edges++;
+        }
+
+        return new DependencyGraph(names.toArray(new String[0]), ids,
+                Arrays.copyOf(sources, edges), Arrays.copyOf(targets, edges), Arrays.copyOf(kinds, edges));
+    }
+
+    /**
+     * The edge kind of a {@link RelationshipExtractor} relationship type, or
+     * 0 if the graph does not track it.
+     */
+    public static int kindOf(String relationshipType) {
+        switch (relationshipType) {
+            case RelationshipExtractor.RELATIONSHIP_INJECTS:
+                return INJECTS;
+            case RelationshipExtractor.RELATIONSHIP_EXTENDS:
+                return EXTENDS;
+            case RelationshipExtractor.RELATIONSHIP_IMPLEMENTS:
+                return IMPLEMENTS;
+            default:
+                return 0;
+        }
+    }
+
+    private static int id(String name, Map<String, Integer> ids, List<String> names) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = names.size();
+            ids.put(name, id);
+            names.add(name);
+        }
+        return id;
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public int edgeCount() {
+        return outTargets.length;
+    }
+
+    /**
+     * The node of a qualified class name, or -1 if no relationship names it.
+     */
+    public int idOf(String name) {
+        Integer id = ids.get(name);
+        return id != null ? id : -1;
+    }
+
+    public String nameOf(int id) {
+        return names[id];
+    }
+
+    /**
+     * Nodes reachable from {@code from}, in breadth-first order and without
+     * {@code from} itself, following edges of the {@code forward} kinds from
+     * source to target and edges of the {@code reverse} kinds from target to
+     * source.
+     */
+    public int[] reachable(int from, int forward, int reverse) {
+        int mark = nextEpoch();
+        int head = 0;
+        int tail = 0;
+        visited[from] = mark;
+        queue[tail++] = from;
+
+        while (head < tail) {
+            int node = queue[head++];
+            for (int e = outOffsets[node]; e < outOffsets[node + 1]; e++) {
+                if ((outKinds[e] & forward) != 0 && visited[outTargets[e]] != mark) {
+                    visited[outTargets[e]] = mark;
+                    queue[tail++] = outTargets[e];
+                }
+            }
+            for (int e = inOffsets[node]; e < inOffsets[node + 1]; e++) {
+                if ((inKinds[e] & reverse) != 0 && visited[inSources[e]] != mark) {
+                    visited[inSources[e]] = mark;
+                    queue[tail++] = inSources[e];
+                }
+            }
+        }
+        return Arrays.copyOfRange(queue, 1, tail);
+    }
+
+    /**
+     * Every component {@code className} depends on, directly or not, in
+     * breadth-first order: what it injects, what that injects in turn, and
+     * so on. Injections declared by a supertype count for its subtypes, and
+     * an injected type brings in its implementations and subclasses, since
+     * one of them is what gets injected.
+     */
+    public List<String> downstream(String className) {
+        int start = idOf(className);
+        if (start < 0) {
+            return List.of();
+        }
+
+        int mark = nextEpoch();
+        int head = 0;
+        int tail = 0;
+        visited[start] = mark;
+        queue[tail++] = start;
+
+        List<String> dependencies = new ArrayList<>();
+        while (head < tail) {
+            int node = queue[head++];
+            boolean dependency = listed[node] == mark;
+
+            for (int e = outOffsets[node]; e < outOffsets[node + 1]; e++) {
+                int target = outTargets[e];
+                if (outKinds[e] == INJECTS) {
+                    tail = list(target, start, mark, tail, dependencies);
+                } else if (visited[target] != mark && listed[target] != mark) {
+                    // A supertype's injections are inherited; the supertype
+                    // itself is not a dependency
+                    visited[target] = mark;
+                    queue[tail++] = target;
+                }
+            }
+            if (dependency) {
+                for (int e = inOffsets[node]; e < inOffsets[node + 1]; e++) {
+                    if ((inKinds[e] & INHERITS) != 0) {
+                        tail = list(inSources[e], start, mark, tail, dependencies);
+                    }
+                }
+            }
+        }
+        return dependencies;
+    }
+
+    /**
+     * Marks a node as a dependency and queues it; a node first reached as a
+     * supertype is queued again so that its implementations are visited.
+     */
+    private int list(int node, int start, int mark, int tail, List<String> dependencies) {
+        if (listed[node] == mark || node == start) {
+            return tail;
+        }
+        listed[node] = mark;
+        visited[node] = mark;
+        dependencies.add(names[node]);
+        queue[tail++] = node;
+        return tail;
+    }
+
+    /**
+     * Groups of nodes that depend on each other through edges of the given
+     * kinds: strongly connected components with more than one node, or a
+     * node with an edge to itself. Components are listed in the order they
+     * are completed, their nodes by id.
+     */
+    public List<List<String>> cycles(int kinds) {
+        int n = names.length;
+        int[] index = new int[n];
+        int[] lowLink = new int[n];
+        int[] edge = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] stack = new int[n];
+        int[] callStack = new int[n];
+        Arrays.fill(index, -1);
+
+        List<List<String>> cycles = new ArrayList<>();
+        int nextIndex = 0;
+        int stackSize = 0;
+        for (int root = 0; root < n; root++) {
+            if (index[root] >= 0) {
+                continue;
+            }
+
+            // Tarjan's algorithm with an explicit call stack, so deep chains
+            // cannot overflow the thread stack
+            int depth = 0;
+            callStack[depth++] = root;
+            index[root] = lowLink[root] = nextIndex++;
+            edge[root] = outOffsets[root];
+            stack[stackSize++] = root;
+            onStack[root] = true;
+
+            while (depth > 0) {
+                int node = callStack[depth - 1];
+                if (edge[node] < outOffsets[node + 1]) {
+                    int e = edge[node]++;
+                    if ((outKinds[e] & kinds) == 0) {
+                        continue;
+                    }
+                    int target = outTargets[e];
+                    if (index[target] < 0) {
+                        index[target] = lowLink[target] = nextIndex++;
+                        edge[target] = outOffsets[target];
+                        stack[stackSize++] = target;
+                        onStack[target] = true;
+                        callStack[depth++] = target;
+                    } else if (onStack[target]) {
+                        lowLink[node] = Math.min(lowLink[node], index[target]);
+                    }
+                    continue;
+                }
+
+                depth--;
+                if (depth > 0) {
+                    int parent = callStack[depth - 1];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+                }
+                if (lowLink[node] != index[node]) {
+                    continue;
+                }
+
+                int size = 0;
+                while (stack[stackSize - 1 - size] != node) {
+                    size++;
+                }
+                size++;
+                int[] component = Arrays.copyOfRange(stack, stackSize - size, stackSize);
+                for (int member : component) {
+                    onStack[member] = false;
+                }
+                stackSize -= size;
+
+                if (size > 1 || hasEdge(node, node, kinds)) {
+                    Arrays.sort(component);
+                    List<String> cycle = new ArrayList<>(size);
+                    for (int member : component) {
+                        cycle.add(names[member]);
+                    }
+                    cycles.add(cycle);
+                }
+            }
+        }
+        return cycles;
+    }
+
+    private boolean hasEdge(int source, int target, int kinds) {
+        for (int e = outOffsets[source]; e < outOffsets[source + 1]; e++) {
+            if (outTargets[e] == target && (outKinds[e] & kinds) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int nextEpoch() {
+        if (++epoch == 0) {
+            // Wrapped around: stale marks could collide with new ones
+            Arrays.fill(visited, 0);
+            Arrays.fill(listed, 0);
+            epoch = 1;
+        }
+        return epoch;
+    }
+}
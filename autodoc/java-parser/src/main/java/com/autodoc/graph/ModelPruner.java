@@ -0,0 +1,109 @@
+package com.autodoc.graph;
+
+import com.autodoc.model.EndpointData;
+import com.autodoc.model.FieldData;
+import com.autodoc.model.ModelData;
+import com.autodoc.model.ParameterData;
+import com.autodoc.model.TypeRefData;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the models an API exposes. Endpoints are the roots: every type named
+ * by a request body, response or parameter, generic arguments included. A
+ * model is reachable if it has such a name, or is named by a field or
+ * superclass of a reachable model.
+ *
+ * Models are matched by simple name, the way type references name them, so
+ * every model sharing a reachable name is kept. Only names are retained, so
+ * endpoints and models can be added as they stream past and the models
+ * filtered once all of them are known.
+ */
+public class ModelPruner {
+
+    private final Set<String> roots = new LinkedHashSet<>();
+    private final Map<String, Set<String>> references = new HashMap<>();
+
+    public void addEndpoint(EndpointData endpoint) {
+        addNames(endpoint.getRequestBodyType(), roots);
+        addNames(endpoint.getResponseType(), roots);
+        if (endpoint.getParameters() != null) {
+            for (ParameterData parameter : endpoint.getParameters()) {
+                addNames(parameter.getType(), roots);
+            }
+        }
+    }
+
+    public void addModel(ModelData model) {
+        Set<String> names = references.computeIfAbsent(model.getName(), k -> new HashSet<>());
+        for (FieldData field : model.getFields()) {
+            addNames(field.getTypeRef(), names);
+        }
+        for (String superclass : model.getExtendsList()) {
+            names.add(simpleName(superclass));
+        }
+    }
+
+    /**
+     * Names of the models reachable from the endpoints added so far.
+     */
+    public Set<String> reachableNames() {
+        Set<String> reachable = new HashSet<>();
+        Deque<String> queue = new ArrayDeque<>();
+        for (String root : roots) {
+            if (references.containsKey(root) && reachable.add(root)) {
+                queue.add(root);
+            }
+        }
+        while (!queue.isEmpty()) {
+            for (String name : references.get(queue.poll())) {
+                if (references.containsKey(name) && reachable.add(name)) {
+                    queue.add(name);
+                }
+            }
+        }
+        return reachable;
+    }
+
+    /**
+     * The models reachable from {@code endpoints}, in their original order.
+     */
+    public static List<ModelData> prune(List<EndpointData> endpoints, List<ModelData> models) {
+        ModelPruner pruner = new ModelPruner();
+        endpoints.forEach(pruner::addEndpoint);
+        models.forEach(pruner::addModel);
+
+        Set<String> reachable = pruner.reachableNames();
+        List<ModelData> kept = new ArrayList<>();
+        for (ModelData model : models) {
+            if (reachable.contains(model.getName())) {
+                kept.add(model);
+            }
+        }
+        return kept;
+    }
+
+    private static void addNames(TypeRefData type, Set<String> names) {
+        if (type == null) {
+            return;
+        }
+        names.add(simpleName(type.getBase()));
+        if (type.getArgs() != null) {
+            for (TypeRefData arg : type.getArgs()) {
+                addNames(arg, names);
+            }
+        }
+    }
+
+    private static String simpleName(String name) {
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+}
@@ -0,0 +1,190 @@
+package com.autodoc.javaparser;
+
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.comments.Comment;
+import com.github.javaparser.ast.comments.JavadocComment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Renders Javadoc the way Spoon's {@code CtElement.getDocComment()} does, so
+ * descriptions do not depend on the engine: comment markers are stripped,
+ * the description is trimmed, inline tags are normalized to
+ * {@code {@tag content}}, and block tags follow after a blank line.
+ */
+public final class DocComments {
+
+    private static final Pattern START_COMMENT = Pattern.compile("^/\\*{1,2} ?");
+    private static final Pattern MIDDLE_COMMENT = Pattern.compile("^[ \t]*\\*? ?");
+    private static final Pattern END_COMMENT = Pattern.compile("\\*/$");
+    private static final Pattern BLOCK_TAG = Pattern.compile("^\\s*@", Pattern.MULTILINE);
+
+    /**
+     * Block tags Spoon knows by name; any other tag keeps the name it was
+     * written with.
+     */
+    private static final List<String> KNOWN_TAGS = Arrays.asList(
+            "author", "deprecated", "exception", "param", "return", "see", "serial",
+            "serialData", "serialField", "since", "throws", "version");
+
+    private DocComments() {
+    }
+
+    /**
+     * The rendered Javadoc of a declaration, or "" when it has none.
+     */
+    public static String of(Node node) {
+        Comment comment = node.getComment().orElse(null);
+        if (!(comment instanceof JavadocComment)) {
+            return "";
+        }
+        return render("/**" + comment.getContent() + "*/");
+    }
+
+    /**
+     * Renders the text of a comment, markers included; front-ends other than
+     * JavaParser can pass text they got otherwise, wrapped in markers.
+     */
+    public static String render(String comment) {
+        String cleaned = clean(comment);
+
+        List<String> lines = Arrays.asList(cleaned.split("\n"));
+        int firstBlockLine = -1;
+        for (int i = 0; i < lines.size(); i++) {
+            if (lines.get(i).trim().startsWith("@")) {
+                firstBlockLine = i;
+                break;
+            }
+        }
+
+        String description;
+        List<String> blockTags = new ArrayList<>();
+        if (firstBlockLine == -1) {
+            description = String.join("\n", lines).stripTrailing();
+        } else {
+            description = String.join("\n", lines.subList(0, firstBlockLine)).stripTrailing();
+            String blocks = String.join("\n", lines.subList(firstBlockLine, lines.size()));
+            BLOCK_TAG.splitAsStream(blocks)
+                    .filter(block -> !block.isEmpty())
+                    .forEach(block -> blockTags.add("@" + block));
+        }
+
+        StringBuilder out = new StringBuilder();
+        description = inlineTags(description).trim();
+        description.lines().forEach(line -> out.append(line).append('\n'));
+
+        if (!blockTags.isEmpty()) {
+            out.append('\n');
+            for (String blockTag : blockTags) {
+                appendBlockTag(out, blockTag);
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Strips the comment markers and the leading {@code *} of every line.
+     */
+    private static String clean(String comment) {
+        String[] lines = comment.split("\r\n|\r|\n", -1);
+        StringBuilder out = new StringBuilder();
+
+        String first = lines[0];
+        if (first.endsWith("*/") && first.length() > 3) {
+            first = END_COMMENT.matcher(first).replaceFirst("");
+        }
+        out.append(START_COMMENT.matcher(first).replaceFirst(""));
+
+        // A trailing line break does not start another line
+        int count = lines.length;
+        if (count > 1 && lines[count - 1].isEmpty()) {
+            count--;
+        }
+        for (int i = 1; i < count; i++) {
+            String line = lines[i];
+            if (line.endsWith("*/")) {
+                line = END_COMMENT.matcher(line).replaceFirst("");
+            }
+            out.append('\n').append(MIDDLE_COMMENT.matcher(line).replaceFirst(""));
+        }
+        return out.toString().trim();
+    }
+
+    private static void appendBlockTag(StringBuilder out, String blockTag) {
+        String text = blockTag.trim().substring(1);
+        String name = nextWord(text);
+        String content = inlineTags(text.substring(name.length()).trim());
+
+        boolean hasParam = name.equals("param") || name.equals("throws") || name.equals("exception");
+        out.append('@').append(KNOWN_TAGS.contains(name) ? name.toLowerCase() : name).append(' ');
+        if (hasParam) {
+            int end = content.indexOf(' ');
+            int newline = content.indexOf('\n');
+            if (newline >= 0 && newline < end) {
+                end = newline;
+            }
+            if (end == -1) {
+                end = content.length();
+            }
+            out.append(content, 0, end).append('\n');
+            content = content.substring(end);
+        }
+
+        content.trim().lines().forEach(line -> {
+            if (hasParam) {
+                out.append("\t\t");
+            }
+            out.append(line.trim()).append('\n');
+        });
+    }
+
+    /**
+     * Rewrites every {@code {@tag ...}} as {@code {@tag content}} with the
+     * content trimmed.
+     */
+    private static String inlineTags(String text) {
+        StringBuilder out = new StringBuilder();
+        int index = 0;
+        int start;
+        while ((start = text.indexOf("{@", index)) != -1) {
+            int end = closingBrace(text, start);
+            if (end == -1) {
+                break;
+            }
+            out.append(text, index, start);
+
+            String tag = text.substring(start + 2, end);
+            String name = nextWord(tag);
+            out.append("{@").append(name).append(' ').append(tag.substring(name.length()).trim()).append('}');
+            index = end + 1;
+        }
+        return out.append(text.substring(index)).toString();
+    }
+
+    private static int closingBrace(String text, int start) {
+        int depth = 1;
+        for (int i = start + 2; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                depth--;
+            }
+            if (depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String nextWord(String text) {
+        int i = 0;
+        while (i < text.length() && !Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return text.substring(0, i);
+    }
+}
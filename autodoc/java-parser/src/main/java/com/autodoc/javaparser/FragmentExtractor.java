@@ -0,0 +1,459 @@
+package com.autodoc.javaparser;
+
+import com.autodoc.model.*;
+import com.autodoc.processor.AnnotationIndex;
+import com.autodoc.processor.RelationshipExtractor;
+import com.autodoc.processor.SpringAnnotation;
+import com.autodoc.processor.SpringConventions;
+import com.autodoc.processor.TypeClassifier;
+import com.autodoc.processor.TypeFragment;
+import com.autodoc.processor.TypeRole;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.body.*;
+import com.github.javaparser.ast.expr.AnnotationExpr;
+import com.github.javaparser.ast.expr.MemberValuePair;
+import com.github.javaparser.ast.expr.NormalAnnotationExpr;
+import com.github.javaparser.ast.expr.SingleMemberAnnotationExpr;
+import com.github.javaparser.ast.nodeTypes.NodeWithAnnotations;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.printer.DefaultPrettyPrinter;
+import com.github.javaparser.printer.Printer;
+import com.github.javaparser.printer.configuration.DefaultConfigurationOption;
+import com.github.javaparser.printer.configuration.DefaultPrinterConfiguration;
+import com.github.javaparser.printer.configuration.DefaultPrinterConfiguration.ConfigOption;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Extracts the IR of one top-level type from its JavaParser AST, applying
+ * the same rules as {@code ModelProcessor}, {@code ControllerProcessor} and
+ * {@code RelationshipExtractor} do on a Spoon model, in the same order:
+ * types are visited in pre-order, members in declaration order, and a
+ * class's methods and constructors sorted by signature as in Spoon.
+ *
+ * Method bodies are never visited; the processors skip local and anonymous
+ * classes anyway.
+ */
+final class FragmentExtractor {
+
+    private final TypeIndex index;
+    private final TypeResolver resolver;
+    private final TypeClassifier classifier;
+    private final Printer printer = new DefaultPrettyPrinter(new DefaultPrinterConfiguration()
+            .removeOption(new DefaultConfigurationOption(ConfigOption.PRINT_COMMENTS)));
+
+    private final Map<Node, AnnotationIndex> annotationIndexes = new IdentityHashMap<>();
+
+    private final List<ModelData> models = new ArrayList<>();
+    private final List<ModelData> enumModels = new ArrayList<>();
+    private final List<EndpointData> endpoints = new ArrayList<>();
+    private final List<Relationship> fieldInjections = new ArrayList<>();
+    private final List<Relationship> constructorInjections = new ArrayList<>();
+    private final List<Relationship> classInheritance = new ArrayList<>();
+    private final List<Relationship> interfaceInheritance = new ArrayList<>();
+
+    FragmentExtractor(TypeIndex index, TypeResolver resolver, TypeClassifier classifier) {
+        this.index = index;
+        this.resolver = resolver;
+        this.classifier = classifier;
+    }
+
+    TypeFragment extract(TypeDeclaration<?> type) {
+        scan(type);
+
+        // Enums are emitted after all classes
+        models.addAll(enumModels);
+
+        List<Relationship> relationships = new ArrayList<>();
+        relationships.addAll(fieldInjections);
+        relationships.addAll(constructorInjections);
+        relationships.addAll(classInheritance);
+        relationships.addAll(interfaceInheritance);
+
+        return new TypeFragment(index.qualifiedName(type), models, endpoints, relationships);
+    }
+
+    private void scan(TypeDeclaration<?> type) {
+        if (type instanceof EnumDeclaration) {
+            visitClass(type);
+            visitEnum((EnumDeclaration) type);
+        } else if (type instanceof ClassOrInterfaceDeclaration) {
+            if (((ClassOrInterfaceDeclaration) type).isInterface()) {
+                visitInterface((ClassOrInterfaceDeclaration) type);
+            } else {
+                visitClass(type);
+            }
+        }
+
+        for (BodyDeclaration<?> member : type.getMembers()) {
+            if (member instanceof FieldDeclaration) {
+                FieldDeclaration field = (FieldDeclaration) member;
+                for (VariableDeclarator variable : field.getVariables()) {
+                    visitField(type, field, variable);
+                }
+            } else if (member instanceof ConstructorDeclaration) {
+                visitConstructor(type, (ConstructorDeclaration) member);
+            } else if (member instanceof TypeDeclaration) {
+                scan((TypeDeclaration<?>) member);
+            }
+        }
+    }
+
+    private void visitClass(TypeDeclaration<?> cls) {
+        String superclass = superclass(cls);
+        Set<String> interfaces = interfaces(cls);
+
+        int roles = index.source(cls).roles(classifier);
+        if (TypeRole.MODEL.in(roles)) {
+            models.add(extractModelData(cls, superclass, interfaces));
+        }
+        if (TypeRole.CONTROLLER.in(roles)) {
+            processController(cls);
+        }
+
+        String qualifiedName = index.qualifiedName(cls);
+        if (superclass != null) {
+            classInheritance.add(inheritance(qualifiedName, superclass));
+        }
+        for (String iface : interfaces) {
+            Relationship relationship = inheritance(qualifiedName, iface);
+            relationship.setType(RelationshipExtractor.RELATIONSHIP_IMPLEMENTS);
+            classInheritance.add(relationship);
+        }
+    }
+
+    private void visitEnum(EnumDeclaration enumCls) {
+        ModelData modelData = new ModelData(enumCls.getNameAsString(), "", new ArrayList<>());
+        modelData.setEnum(true);
+        modelData.setDescription(DocComments.of(enumCls));
+
+        List<FieldData> fields = new ArrayList<>();
+        for (EnumConstantDeclaration value : enumCls.getEntries()) {
+            FieldData fieldData = new FieldData();
+            fieldData.setName(value.getNameAsString());
+            fieldData.setDescription(DocComments.of(value));
+            fields.add(fieldData);
+        }
+
+        modelData.setFields(fields);
+        enumModels.add(modelData);
+    }
+
+    private void visitInterface(ClassOrInterfaceDeclaration iface) {
+        String qualifiedName = index.qualifiedName(iface);
+        for (String superIface : qualifiedNames(iface.getExtendedTypes())) {
+            interfaceInheritance.add(inheritance(qualifiedName, superIface));
+        }
+    }
+
+    private void visitField(TypeDeclaration<?> declaringType, FieldDeclaration field, VariableDeclarator variable) {
+        boolean isDependency = annotations(field).hasAny(SpringConventions.INJECTIONS);
+        if (!isDependency || !isComponent(index.source(declaringType))) {
+            return;
+        }
+
+        ResolvedType fieldType = resolver.resolve(variable.getType());
+        if (isComponent(fieldType)) {
+            fieldInjections.add(injection(declaringType, fieldType, variable.getNameAsString(), "field"));
+        }
+    }
+
+    private void visitConstructor(TypeDeclaration<?> declaringType, ConstructorDeclaration constructor) {
+        if (!isComponent(index.source(declaringType))) {
+            return;
+        }
+
+        boolean isInjectionConstructor = annotations(constructor).has(SpringAnnotation.AUTOWIRED)
+                || constructor.getParameters().size() > 0;
+        if (!isInjectionConstructor) {
+            return;
+        }
+
+        for (Parameter param : constructor.getParameters()) {
+            ResolvedType paramType = param.isVarArgs() ? null : resolver.resolve(param.getType());
+            if (isComponent(paramType)) {
+                constructorInjections.add(injection(declaringType, paramType, param.getNameAsString(), "constructor"));
+            }
+        }
+    }
+
+    private boolean isComponent(ResolvedType type) {
+        return type != null && TypeRole.COMPONENT.in(type.roles(classifier));
+    }
+
+    private ModelData extractModelData(TypeDeclaration<?> cls, String superclass, Set<String> interfaces) {
+        ModelData modelData = new ModelData(cls.getNameAsString(), "", new ArrayList<>());
+
+        for (AnnotationIndex.Entry annotation : annotations(cls).entries()) {
+            SpringConventions.applyModelAnnotation(modelData, annotation.getType(), annotation.getValues());
+        }
+
+        if (superclass != null) {
+            modelData.getExtendsList().add(superclass);
+        }
+        modelData.getImplementsList().addAll(interfaces);
+
+        modelData.setDescription(DocComments.of(cls));
+
+        for (FieldDeclaration field : cls.getFields()) {
+            // Skip static and final fields
+            if (field.isStatic() || field.isFinal()) {
+                continue;
+            }
+            for (VariableDeclarator variable : field.getVariables()) {
+                modelData.addField(extractFieldData(field, variable));
+            }
+        }
+
+        return modelData;
+    }
+
+    private FieldData extractFieldData(FieldDeclaration field, VariableDeclarator variable) {
+        FieldData fieldData = new FieldData();
+        fieldData.setName(variable.getNameAsString());
+
+        // Spoon attaches the Javadoc of `int a, b;` to the last variable only
+        NodeList<VariableDeclarator> variables = field.getVariables();
+        boolean last = variables.get(variables.size() - 1) == variable;
+        fieldData.setDescription(last ? DocComments.of(field) : "");
+
+        boolean required = false;
+        for (AnnotationIndex.Entry annotation : annotations(field).entries()) {
+            if (SpringConventions.applyFieldAnnotation(fieldData, annotation.getType(), annotation.getValues())) {
+                required = true;
+            }
+        }
+        fieldData.setRequired(required);
+
+        fieldData.setTypeRef(resolver.typeRef(variable.getType()));
+        return fieldData;
+    }
+
+    private void processController(TypeDeclaration<?> cls) {
+        AnnotationIndex classAnnotations = annotations(cls);
+        Map<String, ?> requestMapping = classAnnotations.values(SpringAnnotation.REQUEST_MAPPING);
+        String basePath = requestMapping != null ? SpringConventions.extractPath(requestMapping) : "";
+        Map<String, ?> tag = classAnnotations.values(SpringAnnotation.TAG);
+
+        String controllerName = cls.getNameAsString();
+        String controllerPackage = resolver.getPackageName();
+        List<DependencyData> dependencies = extractDependencies(cls);
+
+        for (MethodDeclaration method : sortedBySignature(cls.getMethods(), this::signature)) {
+            AnnotationIndex methodAnnotations = annotations(method);
+            SpringAnnotation mapping = methodAnnotations.first(SpringConventions.MAPPINGS);
+            if (mapping == null) continue;
+
+            Map<String, ?> mappingValues = methodAnnotations.values(mapping);
+            String httpMethod = SpringConventions.deriveHttpMethod(mapping, mappingValues);
+            String fullPath = SpringConventions.combinePaths(basePath, SpringConventions.extractPath(mappingValues));
+
+            String javadoc = DocComments.of(method);
+            Map<String, ?> operation = methodAnnotations.values(SpringAnnotation.OPERATION);
+            String summary = SpringConventions.operationMember(javadoc, operation, "summary");
+            String description = SpringConventions.operationMember(javadoc, operation, "description");
+
+            List<String> tags = new ArrayList<>();
+            if (tag != null) {
+                SpringConventions.addTags(tags, tag);
+            }
+
+            List<ParameterData> parameters = new ArrayList<>();
+            TypeRefData requestBodyType = null;
+            for (Parameter param : method.getParameters()) {
+                AnnotationIndex paramAnnotations = annotations(param);
+                if (paramAnnotations.has(SpringAnnotation.PATH_VARIABLE)) {
+                    parameters.add(buildParam(param, "path", true));
+                } else if (paramAnnotations.has(SpringAnnotation.REQUEST_PARAM)) {
+                    boolean required = SpringConventions.isRequiredParam(
+                            paramAnnotations.values(SpringAnnotation.REQUEST_PARAM));
+                    parameters.add(buildParam(param, "query", required));
+                }
+                if (requestBodyType == null && paramAnnotations.has(SpringAnnotation.REQUEST_BODY)) {
+                    requestBodyType = paramTypeRef(param);
+                }
+            }
+
+            EndpointData endpoint = new EndpointData();
+            endpoint.setPath(fullPath);
+            endpoint.setMethod(httpMethod);
+            endpoint.setSummary(summary);
+            endpoint.setDescription(description);
+            endpoint.setTags(tags);
+            endpoint.setParameters(parameters);
+            endpoint.setRequestBodyType(requestBodyType);
+            endpoint.setResponseType(resolver.typeRef(method.getType()));
+            endpoint.setControllerName(controllerName);
+            endpoint.setControllerPackage(controllerPackage);
+            endpoint.setDependencies(dependencies);
+            endpoint.setDeprecated(methodAnnotations.has(SpringAnnotation.DEPRECATED));
+
+            endpoints.add(endpoint);
+        }
+    }
+
+    private ParameterData buildParam(Parameter param, String in, boolean required) {
+        ParameterData paramData = new ParameterData();
+        paramData.setName(param.getNameAsString());
+        paramData.setIn(in);
+        paramData.setRequired(required);
+        // Parameters cannot carry Javadoc
+        paramData.setDescription("");
+        paramData.setType(paramTypeRef(param));
+        return paramData;
+    }
+
+    private List<DependencyData> extractDependencies(TypeDeclaration<?> cls) {
+        List<DependencyData> dependencies = new ArrayList<>();
+
+        // Field injection
+        for (FieldDeclaration field : cls.getFields()) {
+            boolean isAnnotated = annotations(field).hasAny(SpringConventions.DEPENDENCIES);
+            for (VariableDeclarator variable : field.getVariables()) {
+                String typeName = resolver.simpleName(variable.getType());
+                String fieldName = variable.getNameAsString();
+                if (isAnnotated || classifier.isLikelyService(typeName) || classifier.isLikelyService(fieldName)) {
+                    dependencies.add(dependency(fieldName, typeName, "field"));
+                }
+            }
+        }
+
+        // Constructor injection
+        for (ConstructorDeclaration constructor : sortedBySignature(cls.getConstructors(), this::signature)) {
+            for (Parameter param : constructor.getParameters()) {
+                String typeName = paramSimpleName(param);
+                String paramName = param.getNameAsString();
+                if (classifier.isLikelyService(typeName) || classifier.isLikelyService(paramName)) {
+                    dependencies.add(dependency(paramName, typeName, "constructor"));
+                }
+            }
+        }
+
+        return dependencies;
+    }
+
+    private static DependencyData dependency(String name, String type, String injectionType) {
+        DependencyData dependency = new DependencyData();
+        dependency.setName(name);
+        dependency.setType(type);
+        dependency.setInjectionType(injectionType);
+        return dependency;
+    }
+
+    private Relationship injection(TypeDeclaration<?> declaringType, ResolvedType target, String name,
+            String injectionType) {
+        Relationship relationship = new Relationship();
+        relationship.setSourceClass(index.qualifiedName(declaringType));
+        relationship.setTargetClass(target.getQualifiedName());
+        relationship.setType(RelationshipExtractor.RELATIONSHIP_INJECTS);
+        relationship.setName(name);
+        relationship.setInjectionType(injectionType);
+        return relationship;
+    }
+
+    private static Relationship inheritance(String sourceClass, String targetClass) {
+        Relationship relationship = new Relationship();
+        relationship.setSourceClass(sourceClass);
+        relationship.setTargetClass(targetClass);
+        relationship.setType(RelationshipExtractor.RELATIONSHIP_EXTENDS);
+        return relationship;
+    }
+
+    /**
+     * The superclass Spoon reports: {@code java.lang.Enum} for enums, and
+     * none for a class without {@code extends}.
+     */
+    private String superclass(TypeDeclaration<?> cls) {
+        if (cls instanceof EnumDeclaration) {
+            return Enum.class.getName();
+        }
+        NodeList<ClassOrInterfaceType> extendedTypes = ((ClassOrInterfaceDeclaration) cls).getExtendedTypes();
+        return extendedTypes.isEmpty() ? null : resolver.qualifiedName(extendedTypes.get(0));
+    }
+
+    private Set<String> interfaces(TypeDeclaration<?> cls) {
+        return qualifiedNames(cls instanceof EnumDeclaration
+                ? ((EnumDeclaration) cls).getImplementedTypes()
+                : ((ClassOrInterfaceDeclaration) cls).getImplementedTypes());
+    }
+
+    private Set<String> qualifiedNames(List<ClassOrInterfaceType> types) {
+        // Spoon keeps super interfaces in a set
+        Set<String> names = new LinkedHashSet<>();
+        for (ClassOrInterfaceType type : types) {
+            names.add(resolver.qualifiedName(type));
+        }
+        return names;
+    }
+
+    /**
+     * Orders methods or constructors the way Spoon's signature-based sets
+     * do; of two members with the same signature only the first is kept.
+     */
+    private static <T> List<T> sortedBySignature(List<T> members, Function<T, String> signature) {
+        Map<String, T> sorted = new TreeMap<>();
+        for (T member : members) {
+            sorted.putIfAbsent(signature.apply(member), member);
+        }
+        return new ArrayList<>(sorted.values());
+    }
+
+    private String signature(CallableDeclaration<?> callable) {
+        StringBuilder signature = new StringBuilder();
+        if (callable instanceof ConstructorDeclaration) {
+            signature.append(index.qualifiedName((TypeDeclaration<?>) callable.getParentNode().get()));
+        } else {
+            signature.append(callable.getNameAsString());
+        }
+
+        signature.append('(');
+        for (int i = 0; i < callable.getParameters().size(); i++) {
+            Parameter param = callable.getParameter(i);
+            if (i > 0) {
+                signature.append(',');
+            }
+            signature.append(resolver.erasure(param.getType()));
+            if (param.isVarArgs()) {
+                signature.append("[]");
+            }
+        }
+        return signature.append(')').toString();
+    }
+
+    private TypeRefData paramTypeRef(Parameter param) {
+        // A varargs parameter is an array, whose reference has no arguments
+        return param.isVarArgs() ? TypeRefData.of(paramSimpleName(param)) : resolver.typeRef(param.getType());
+    }
+
+    private String paramSimpleName(Parameter param) {
+        String simpleName = resolver.simpleName(param.getType());
+        return param.isVarArgs() ? simpleName + "[]" : simpleName;
+    }
+
+    /**
+     * The annotation index of a declaration of this fragment, built once.
+     */
+    private AnnotationIndex annotations(NodeWithAnnotations<?> node) {
+        return annotationIndexes.computeIfAbsent((Node) node,
+                n -> AnnotationIndex.build(node.getAnnotations(), a -> a.getName().getIdentifier(), this::values));
+    }
+
+    /**
+     * An annotation's values by member name, printed as source; sorted by
+     * name as Spoon's {@code CtAnnotation.getValues()} are.
+     */
+    private Map<String, String> values(AnnotationExpr annotation) {
+        Map<String, String> values = new TreeMap<>();
+        if (annotation instanceof SingleMemberAnnotationExpr) {
+            values.put("value", printer.print(((SingleMemberAnnotationExpr) annotation).getMemberValue()));
+        } else if (annotation instanceof NormalAnnotationExpr) {
+            for (MemberValuePair pair : ((NormalAnnotationExpr) annotation).getPairs()) {
+                values.put(pair.getNameAsString(), printer.print(pair.getValue()));
+            }
+        }
+        return values;
+    }
+}
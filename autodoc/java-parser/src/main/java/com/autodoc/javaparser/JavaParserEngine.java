@@ -0,0 +1,187 @@
+package com.autodoc.javaparser;
+
+import com.autodoc.processor.TypeClassifier;
+import com.autodoc.processor.TypeFragment;
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
+import com.github.javaparser.ParserConfiguration.LanguageLevel;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.PackageDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Front-end that builds the IR from JavaParser's syntax trees instead of a
+ * Spoon model. There is no symbol solving: type names are resolved against
+ * the parsed sources and the JDK only, which is all the processors need and
+ * lets every file be parsed independently, in parallel.
+ *
+ * The IR is the same as the Spoon engine's for the annotations the
+ * processors understand. Top-level types are listed in Spoon's order, and
+ * {@link #extractType} applies the processors' rules to one of them.
+ */
+public class JavaParserEngine {
+
+    private final int parallelism;
+    private final TypeClassifier classifier;
+    private final ParserConfiguration configuration = new ParserConfiguration()
+            // Same language level as the Spoon model; newer syntax is dropped
+            .setLanguageLevel(LanguageLevel.JAVA_11)
+            // Spoon attaches a Javadoc even when a blank line follows it
+            .setDoNotAssignCommentsPrecedingEmptyLines(false);
+    private final TypeIndex index = new TypeIndex();
+
+    public JavaParserEngine(int parallelism) {
+        this(parallelism, new TypeClassifier());
+    }
+
+    public JavaParserEngine(int parallelism, TypeClassifier classifier) {
+        this.parallelism = Math.max(1, parallelism);
+        this.classifier = classifier;
+    }
+
+    /**
+     * Parses every Java file under {@code sourcePath} and returns the
+     * top-level types in the order Spoon's model lists them: files sorted by
+     * path, sub-packages before a package's own types. Files that do not
+     * parse at the supported language level are skipped.
+     */
+    public List<TypeDeclaration<?>> buildModel(String sourcePath) {
+        return buildModel(listSources(Paths.get(sourcePath)));
+    }
+
+    /**
+     * Like {@link #buildModel(String)}, for a list of files sorted by path.
+     */
+    public List<TypeDeclaration<?>> buildModel(List<Path> files) {
+        List<CompilationUnit> units = parse(files);
+
+        PackageNode root = new PackageNode();
+        for (CompilationUnit unit : units) {
+            index.add(unit);
+
+            PackageNode node = root;
+            String packageName = unit.getPackageDeclaration().map(PackageDeclaration::getNameAsString).orElse("");
+            if (!packageName.isEmpty()) {
+                for (String name : packageName.split("\\.")) {
+                    node = node.packages.computeIfAbsent(name, n -> new PackageNode());
+                }
+            }
+            node.types.addAll(unit.getTypes());
+        }
+
+        List<TypeDeclaration<?>> types = new ArrayList<>();
+        root.collectTypes(types);
+        return types;
+    }
+
+    /**
+     * Number of types in the model, nested ones included.
+     */
+    public int getTypeCount() {
+        return index.size();
+    }
+
+    /**
+     * Extracts one top-level type returned by {@link #buildModel}. Safe to
+     * call from several threads at once.
+     */
+    public TypeFragment extractType(TypeDeclaration<?> type) {
+        CompilationUnit unit = type.findCompilationUnit()
+                .orElseThrow(() -> new IllegalArgumentException("Not a parsed type: " + type.getNameAsString()));
+        return new FragmentExtractor(index, new TypeResolver(index, unit), classifier).extract(type);
+    }
+
+    private static List<Path> listSources(Path root) {
+        if (!Files.isDirectory(root)) {
+            return List.of(root);
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths.filter(path -> Files.isRegularFile(path) && path.toString().endsWith(".java"))
+                    .map(path -> path.toAbsolutePath().normalize())
+                    .sorted(Comparator.comparing(Path::toString))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Parses the files on a ForkJoinPool when parallelism is enabled. The
+     * result keeps the order of {@code files}.
+     */
+    private List<CompilationUnit> parse(List<Path> files) {
+        if (parallelism <= 1) {
+            List<CompilationUnit> units = new ArrayList<>();
+            for (Path file : files) {
+                units.add(parse(file));
+            }
+            return withoutFailures(units);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return withoutFailures(pool.submit(() -> files.parallelStream()
+                    .map(this::parse)
+                    .collect(Collectors.toList()))
+                    .get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Parallel parsing interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Parallel parsing failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Parses one file, or returns null if it has syntax errors. A
+     * {@link JavaParser} is not thread-safe, so each file gets its own.
+     */
+    private CompilationUnit parse(Path file) {
+        ParseResult<CompilationUnit> result;
+        try {
+            result = new JavaParser(configuration).parse(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return result.isSuccessful() ? result.getResult().orElse(null) : null;
+    }
+
+    private static List<CompilationUnit> withoutFailures(List<CompilationUnit> units) {
+        units.removeIf(unit -> unit == null);
+        return units;
+    }
+
+    /**
+     * A package of Spoon's package tree: sub-packages and types in the order
+     * they were first seen.
+     */
+    private static final class PackageNode {
+        private final Map<String, PackageNode> packages = new LinkedHashMap<>();
+        private final List<TypeDeclaration<?>> types = new ArrayList<>();
+
+        void collectTypes(List<TypeDeclaration<?>> result) {
+            for (PackageNode subPackage : packages.values()) {
+                subPackage.collectTypes(result);
+            }
+            result.addAll(types);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.autodoc.javaparser;
+
+import com.autodoc.processor.TypeClassifier;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.PackageDeclaration;
+import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
+import com.github.javaparser.ast.body.EnumDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+
+import java.util.Collections;
+import java.util.function.Function;
+
+/**
+ * A type reference whose declaration was found, either in the sources or in
+ * the JDK.
+ */
+final class ResolvedType {
+
+    private final String qualifiedName;
+    private final String simpleName;
+    private final TypeDeclaration<?> declaration;
+
+    ResolvedType(String qualifiedName, String simpleName, TypeDeclaration<?> declaration) {
+        this.qualifiedName = qualifiedName;
+        this.simpleName = simpleName;
+        this.declaration = declaration;
+    }
+
+    String getQualifiedName() {
+        return qualifiedName;
+    }
+
+    /**
+     * The source declaration, or null for a JDK class.
+     */
+    TypeDeclaration<?> getDeclaration() {
+        return declaration;
+    }
+
+    /**
+     * The type's roles, classified once per qualified name. JDK classes
+     * carry no Spring annotations, so only their name can give them one.
+     */
+    int roles(TypeClassifier classifier) {
+        return classifier.roles(qualifiedName, name -> {
+            if (declaration == null) {
+                return classifier.classify(simpleName, "", false, false,
+                        Collections.<String>emptyList(), Function.identity());
+            }
+
+            String packageName = declaration.findCompilationUnit()
+                    .flatMap(CompilationUnit::getPackageDeclaration)
+                    .map(PackageDeclaration::getNameAsString)
+                    .orElse("");
+            boolean concreteClass = declaration instanceof EnumDeclaration
+                    || (declaration instanceof ClassOrInterfaceDeclaration
+                    && !((ClassOrInterfaceDeclaration) declaration).isInterface()
+                    && !((ClassOrInterfaceDeclaration) declaration).isAbstract());
+            return classifier.classify(simpleName, packageName, concreteClass, declaration instanceof EnumDeclaration,
+                    declaration.getAnnotations(), a -> a.getName().getIdentifier());
+        });
+    }
+}
@@ -0,0 +1,125 @@
+package com.autodoc.javaparser;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.PackageDeclaration;
+import com.github.javaparser.ast.body.BodyDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Every type declared in the parsed sources, by qualified name, plus the
+ * JDK classes they refer to. This is all the symbol information the engine
+ * has: there is no classpath, just like Spoon in no-classpath mode, so
+ * library types such as Spring's stay unresolved.
+ *
+ * Qualified names use {@code $} for nested types, as Spoon does. The index
+ * is built once and only read afterwards, so it is safe to share between
+ * extraction threads.
+ */
+final class TypeIndex {
+
+    private static final ConcurrentMap<String, Optional<Class<?>>> JDK_CLASSES = new ConcurrentHashMap<>();
+
+    private final Map<String, TypeDeclaration<?>> types = new HashMap<>();
+    private final Map<TypeDeclaration<?>, String> qualifiedNames = new IdentityHashMap<>();
+    private final Set<String> packages = new HashSet<>();
+
+    void add(CompilationUnit unit) {
+        String packageName = unit.getPackageDeclaration().map(PackageDeclaration::getNameAsString).orElse("");
+        if (!packageName.isEmpty()) {
+            // A package implies its parents, as in Spoon's package tree
+            String name = packageName;
+            while (packages.add(name) && name.lastIndexOf('.') > 0) {
+                name = name.substring(0, name.lastIndexOf('.'));
+            }
+        }
+
+        for (TypeDeclaration<?> type : unit.getTypes()) {
+            String name = type.getNameAsString();
+            add(type, packageName.isEmpty() ? name : packageName + "." + name);
+        }
+    }
+
+    private void add(TypeDeclaration<?> type, String qualifiedName) {
+        types.putIfAbsent(qualifiedName, type);
+        qualifiedNames.put(type, qualifiedName);
+
+        for (BodyDeclaration<?> member : type.getMembers()) {
+            if (member instanceof TypeDeclaration) {
+                TypeDeclaration<?> nested = (TypeDeclaration<?>) member;
+                add(nested, qualifiedName + "$" + nested.getNameAsString());
+            }
+        }
+    }
+
+    /**
+     * Number of declared types, nested ones included.
+     */
+    int size() {
+        return qualifiedNames.size();
+    }
+
+    boolean isPackage(String name) {
+        return packages.contains(name);
+    }
+
+    String qualifiedName(TypeDeclaration<?> type) {
+        return qualifiedNames.get(type);
+    }
+
+    ResolvedType source(TypeDeclaration<?> type) {
+        return new ResolvedType(qualifiedName(type), type.getNameAsString(), type);
+    }
+
+    /**
+     * A top-level type of a package, from the sources or the JDK.
+     */
+    ResolvedType find(String packageName, String simpleName) {
+        if (packageName.isEmpty()) {
+            TypeDeclaration<?> type = types.get(simpleName);
+            return type != null ? source(type) : null;
+        }
+        return find(packageName + "." + simpleName);
+    }
+
+    /**
+     * A type nested in {@code owner}. Member types inherited from a
+     * supertype are not considered.
+     */
+    ResolvedType member(ResolvedType owner, String simpleName) {
+        return find(owner.getQualifiedName() + "$" + simpleName);
+    }
+
+    private ResolvedType find(String qualifiedName) {
+        TypeDeclaration<?> type = types.get(qualifiedName);
+        if (type != null) {
+            return source(type);
+        }
+
+        Class<?> jdkClass = jdkClass(qualifiedName);
+        return jdkClass != null ? new ResolvedType(jdkClass.getName(), jdkClass.getSimpleName(), null) : null;
+    }
+
+    /**
+     * Looks a class up on the platform class loader without initializing
+     * it, so only the JDK is visible. Lookups, misses included, are cached
+     * for the life of the JVM.
+     */
+    private static Class<?> jdkClass(String binaryName) {
+        return JDK_CLASSES.computeIfAbsent(binaryName, name -> {
+            try {
+                return Optional.of(Class.forName(name, false, ClassLoader.getPlatformClassLoader()));
+            } catch (ClassNotFoundException | LinkageError e) {
+                return Optional.empty();
+            }
+        }).orElse(null);
+    }
+}
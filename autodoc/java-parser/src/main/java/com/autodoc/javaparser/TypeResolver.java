@@ -0,0 +1,274 @@
+package com.autodoc.javaparser;
+
+import com.autodoc.model.TypeRefData;
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.ImportDeclaration;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.PackageDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.nodeTypes.NodeWithTypeParameters;
+import com.github.javaparser.ast.type.ArrayType;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.ast.type.TypeParameter;
+import com.github.javaparser.ast.type.WildcardType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves the type names used in one compilation unit against a
+ * {@link TypeIndex}, following the Java scoping rules: member types of the
+ * enclosing types, types of the same file, single-type imports, the same
+ * package, on-demand imports and finally {@code java.lang}.
+ *
+ * Names that do not resolve are printed the way Spoon prints them in
+ * no-classpath mode, so the IR does not depend on the engine.
+ */
+final class TypeResolver {
+
+    private final TypeIndex index;
+    private final CompilationUnit unit;
+    private final String packageName;
+    private final Map<String, String> singleImports = new HashMap<>();
+    private final List<String> onDemandImports = new ArrayList<>();
+
+    TypeResolver(TypeIndex index, CompilationUnit unit) {
+        this.index = index;
+        this.unit = unit;
+        this.packageName = unit.getPackageDeclaration().map(PackageDeclaration::getNameAsString).orElse("");
+
+        for (ImportDeclaration importDeclaration : unit.getImports()) {
+            if (importDeclaration.isStatic()) {
+                continue;
+            }
+            String name = importDeclaration.getNameAsString();
+            if (importDeclaration.isAsterisk()) {
+                onDemandImports.add(name);
+            } else {
+                singleImports.putIfAbsent(importDeclaration.getName().getIdentifier(), name);
+            }
+        }
+    }
+
+    String getPackageName() {
+        return packageName;
+    }
+
+    /**
+     * The declaration a type refers to, or null for primitives, arrays,
+     * type variables and anything outside the sources and the JDK.
+     */
+    ResolvedType resolve(Type type) {
+        if (!(type instanceof ClassOrInterfaceType)) {
+            return null;
+        }
+
+        List<String> names = names((ClassOrInterfaceType) type);
+        if (names.size() == 1 && typeVariable(names.get(0), type) != null) {
+            return null;
+        }
+
+        ResolvedType first = resolveSimpleName(names.get(0), type);
+        if (first != null) {
+            return resolveMembers(first, names, 1);
+        }
+        return resolveQualifiedName(names);
+    }
+
+    /**
+     * The qualified name of a supertype, as Spoon prints it: resolved types
+     * by their binary name, unresolved ones by their import, or as written.
+     */
+    String qualifiedName(ClassOrInterfaceType type) {
+        ResolvedType resolved = resolve(type);
+        if (resolved != null) {
+            return resolved.getQualifiedName();
+        }
+
+        List<String> names = names(type);
+        if (names.size() == 1) {
+            return singleImports.getOrDefault(names.get(0), names.get(0));
+        }
+
+        String simpleName = names.get(names.size() - 1);
+        if (index.isPackage(String.join(".", names.subList(0, names.size() - 1)))) {
+            return simpleName;
+        }
+        if (Character.isUpperCase(names.get(0).charAt(0))) {
+            // Looks like a member type of an unknown class
+            return String.join("$", names);
+        }
+        return String.join(".", names);
+    }
+
+    /**
+     * The type reference of a field, parameter or return type, by simple
+     * name, with wildcard arguments left out.
+     */
+    TypeRefData typeRef(Type type) {
+        if (type instanceof ArrayType) {
+            return TypeRefData.of(simpleName(type));
+        }
+        if (!(type instanceof ClassOrInterfaceType)) {
+            return TypeRefData.of(type.asString());
+        }
+
+        ClassOrInterfaceType classType = (ClassOrInterfaceType) type;
+        NodeList<Type> typeArguments = classType.getTypeArguments().orElse(null);
+        if (typeArguments == null || typeArguments.isEmpty()) {
+            return TypeRefData.of(simpleName(classType));
+        }
+
+        List<TypeRefData> args = new ArrayList<>(typeArguments.size());
+        for (Type argType : typeArguments) {
+            if (!(argType instanceof WildcardType)) {
+                args.add(typeRef(argType));
+            }
+        }
+        return TypeRefData.of(simpleName(classType), args);
+    }
+
+    /**
+     * The simple name of a type without its type arguments, {@code []}
+     * included for arrays.
+     */
+    String simpleName(Type type) {
+        if (type instanceof ArrayType) {
+            return simpleName(((ArrayType) type).getComponentType()) + "[]";
+        }
+        if (type instanceof ClassOrInterfaceType) {
+            return simpleName((ClassOrInterfaceType) type);
+        }
+        return type.asString();
+    }
+
+    private String simpleName(ClassOrInterfaceType type) {
+        // Spoon keeps the qualifier of a member type it cannot find in a
+        // known type, e.g. Map.Missing
+        ClassOrInterfaceType scope = type.getScope().orElse(null);
+        if (scope != null && resolve(type) == null && resolve(scope) != null) {
+            return scope.getNameAsString() + "." + type.getNameAsString();
+        }
+        return type.getNameAsString();
+    }
+
+    /**
+     * The erasure of a parameter type as it appears in Spoon's method
+     * signatures: binary names for resolved types, the written name for
+     * unresolved ones.
+     */
+    String erasure(Type type) {
+        if (type instanceof ArrayType) {
+            return erasure(((ArrayType) type).getComponentType()) + "[]";
+        }
+        if (!(type instanceof ClassOrInterfaceType)) {
+            return type.asString();
+        }
+
+        ClassOrInterfaceType classType = (ClassOrInterfaceType) type;
+        if (classType.getScope().isEmpty()) {
+            TypeParameter typeVariable = typeVariable(classType.getNameAsString(), classType);
+            if (typeVariable != null) {
+                return typeVariable.getTypeBound().isEmpty()
+                        ? "java.lang.Object"
+                        : erasure(typeVariable.getTypeBound().get(0));
+            }
+        }
+
+        ResolvedType resolved = resolve(classType);
+        return resolved != null ? resolved.getQualifiedName() : String.join(".", names(classType));
+    }
+
+    private ResolvedType resolveSimpleName(String name, Node context) {
+        for (Node node = context; node != null; node = node.getParentNode().orElse(null)) {
+            // Local classes are not indexed
+            if (node instanceof TypeDeclaration && index.qualifiedName((TypeDeclaration<?>) node) != null) {
+                ResolvedType member = index.member(index.source((TypeDeclaration<?>) node), name);
+                if (member != null) {
+                    return member;
+                }
+            }
+        }
+
+        for (TypeDeclaration<?> type : unit.getTypes()) {
+            if (type.getNameAsString().equals(name)) {
+                return index.source(type);
+            }
+        }
+
+        String imported = singleImports.get(name);
+        if (imported != null) {
+            return resolveQualifiedName(List.of(imported.split("\\.")));
+        }
+
+        ResolvedType samePackage = index.find(packageName, name);
+        if (samePackage != null && samePackage.getDeclaration() != null) {
+            return samePackage;
+        }
+
+        for (String onDemand : onDemandImports) {
+            ResolvedType type = index.find(onDemand, name);
+            if (type == null) {
+                // The import may name a type rather than a package
+                ResolvedType owner = resolveQualifiedName(List.of(onDemand.split("\\.")));
+                type = owner != null ? index.member(owner, name) : null;
+            }
+            if (type != null) {
+                return type;
+            }
+        }
+
+        return index.find("java.lang", name);
+    }
+
+    /**
+     * Resolves a fully qualified name, trying each prefix as the package.
+     */
+    private ResolvedType resolveQualifiedName(List<String> names) {
+        for (int i = 1; i < names.size(); i++) {
+            ResolvedType type = index.find(String.join(".", names.subList(0, i)), names.get(i));
+            if (type != null) {
+                return resolveMembers(type, names, i + 1);
+            }
+        }
+        return null;
+    }
+
+    private ResolvedType resolveMembers(ResolvedType owner, List<String> names, int from) {
+        ResolvedType type = owner;
+        for (int i = from; i < names.size() && type != null; i++) {
+            type = index.member(type, names.get(i));
+        }
+        return type;
+    }
+
+    /**
+     * The type variable a simple name refers to at {@code context}, if any.
+     */
+    private static TypeParameter typeVariable(String name, Node context) {
+        for (Node node = context; node != null; node = node.getParentNode().orElse(null)) {
+            if (node instanceof NodeWithTypeParameters) {
+                for (TypeParameter typeParameter : ((NodeWithTypeParameters<?>) node).getTypeParameters()) {
+                    if (typeParameter.getNameAsString().equals(name)) {
+                        return typeParameter;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static List<String> names(ClassOrInterfaceType type) {
+        List<String> names = new ArrayList<>();
+        for (ClassOrInterfaceType t = type; t != null; t = t.getScope().orElse(null)) {
+            names.add(t.getNameAsString());
+        }
+        Collections.reverse(names);
+        return names;
+    }
+}
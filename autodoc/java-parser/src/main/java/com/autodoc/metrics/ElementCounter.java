@@ -0,0 +1,66 @@
+package com.autodoc.metrics;
+
+import com.autodoc.model.ParsedProject;
+import com.autodoc.processor.ElementHandler;
+import spoon.reflect.code.CtInvocation;
+import spoon.reflect.declaration.*;
+
+/**
+ * Counts the elements a scan visits, by kind, and adds them to a stage when
+ * the scan is over. A scan runs on one thread, so plain fields do.
+ */
+class ElementCounter implements ElementHandler {
+
+    private final StageMetrics stage;
+    private long classes;
+    private long enums;
+    private long interfaces;
+    private long fields;
+    private long constructors;
+    private long invocations;
+
+    ElementCounter(StageMetrics stage) {
+        this.stage = stage;
+    }
+
+    @Override
+    public void visitClass(CtClass<?> cls) {
+        classes++;
+    }
+
+    @Override
+    public void visitEnum(CtEnum<?> enumCls) {
+        enums++;
+    }
+
+    @Override
+    public void visitInterface(CtInterface<?> iface) {
+        interfaces++;
+    }
+
+    @Override
+    public void visitField(CtField<?> field) {
+        fields++;
+    }
+
+    @Override
+    public void visitConstructor(CtConstructor<?> constructor) {
+        constructors++;
+    }
+
+    @Override
+    public void visitInvocation(CtInvocation<?> invocation) {
+        invocations++;
+    }
+
+    @Override
+    public void afterScan(ParsedProject parsedProject) {
+        stage.count("classes", classes);
+        stage.count("enums", enums);
+        stage.count("interfaces", interfaces);
+        stage.count("fields", fields);
+        stage.count("constructors", constructors);
+        stage.count("invocations", invocations);
+        classes = enums = interfaces = fields = constructors = invocations = 0;
+    }
+}
@@ -0,0 +1,167 @@
+package com.autodoc.metrics;
+
+import com.autodoc.processor.ElementHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.management.OperatingSystemMXBean;
+import com.sun.management.ThreadMXBean;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wall time, CPU time, allocated bytes and element counts per parser stage,
+ * in the order the stages first ran.
+ *
+ * Stages timed with {@link #start} measure the whole process: CPU time and
+ * allocations of every thread, GC and JIT included. Stages timed with
+ * {@link #startThread} only measure the thread doing the work and add up
+ * over threads: {@code extract} is timed once per top-level type, and with
+ * {@code --stream} {@code serialize} once per type written, so neither
+ * includes the other. Per-element counts of the scan come from
+ * {@link #countElements}.
+ *
+ * A disabled instance records nothing and adds no overhead.
+ */
+public class ParserMetrics {
+
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final OperatingSystemMXBean OS =
+            (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+
+    private static final Timer NO_OP = () -> { };
+    private static final ElementHandler NO_OP_HANDLER = new ElementHandler() { };
+
+    private final boolean enabled;
+    private final Map<String, StageMetrics> stages = new LinkedHashMap<>();
+
+    public ParserMetrics() {
+        this(true);
+    }
+
+    private ParserMetrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public static ParserMetrics disabled() {
+        return new ParserMetrics(false);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized StageMetrics stage(String name) {
+        return stages.computeIfAbsent(name, StageMetrics::new);
+    }
+
+    public synchronized List<StageMetrics> getStages() {
+        return new ArrayList<>(stages.values());
+    }
+
+    /**
+     * Starts timing a stage until the returned timer is closed.
+     */
+    public Timer start(String name) {
+        if (!enabled) {
+            return NO_OP;
+        }
+
+        StageMetrics stage = stage(name);
+        long wall = System.nanoTime();
+        long cpu = OS.getProcessCpuTime();
+        long allocated = THREADS.getTotalThreadAllocatedBytes();
+        return () -> {
+            stage.record(System.nanoTime() - wall,
+                    OS.getProcessCpuTime() - cpu,
+                    THREADS.getTotalThreadAllocatedBytes() - allocated);
+            stage.setHeapUsedBytes(Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory());
+        };
+    }
+
+    /**
+     * Starts timing a stage on the current thread only, until the returned
+     * timer is closed: for work split over several threads, whose totals add
+     * up.
+     */
+    public Timer startThread(String name) {
+        if (!enabled) {
+            return NO_OP;
+        }
+
+        StageMetrics stage = stage(name);
+        long wall = System.nanoTime();
+        long cpu = THREADS.getCurrentThreadCpuTime();
+        long allocated = THREADS.getCurrentThreadAllocatedBytes();
+        return () -> stage.record(System.nanoTime() - wall,
+                THREADS.getCurrentThreadCpuTime() - cpu,
+                THREADS.getCurrentThreadAllocatedBytes() - allocated);
+    }
+
+    /**
+     * Adds to an element count of a stage; ignored when disabled.
+     */
+    public void count(String name, String key, long n) {
+        if (enabled) {
+            stage(name).count(key, n);
+        }
+    }
+
+    /**
+     * A handler counting, into a stage, the classes, fields, invocations and
+     * other elements each scan it is registered with visits. It is not
+     * timed: timing every callback would cost more than the callbacks.
+     */
+    public ElementHandler countElements(String name) {
+        return enabled ? new ElementCounter(stage(name)) : NO_OP_HANDLER;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("stages", getStages());
+        new ObjectMapper().writeValue(out, document);
+    }
+
+    /**
+     * Writes the metrics as JSON to {@code path}, or as a single line on
+     * stderr when it is null.
+     */
+    public void report(String path) throws IOException {
+        if (path != null) {
+            try (OutputStream out = Files.newOutputStream(Path.of(path))) {
+                writeTo(out);
+            }
+            return;
+        }
+
+        OutputStream err = new OutputStream() {
+            @Override
+            public void write(int b) {
+                System.err.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                System.err.write(b, off, len);
+            }
+
+            @Override
+            public void close() {
+                // Leave stderr open
+            }
+        };
+        writeTo(err);
+        System.err.println();
+    }
+
+    public interface Timer extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
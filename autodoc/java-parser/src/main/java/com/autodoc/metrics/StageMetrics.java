@@ -0,0 +1,79 @@
+package com.autodoc.metrics;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Totals for one pipeline stage over every time it ran. Safe to update from
+ * several extraction threads at once.
+ */
+@JsonPropertyOrder({ "name", "invocations", "wallNanos", "cpuNanos", "allocatedBytes", "heapUsedBytes", "counts" })
+public class StageMetrics {
+    private final String name;
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder wallNanos = new LongAdder();
+    private final LongAdder cpuNanos = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final ConcurrentMap<String, LongAdder> counts = new ConcurrentHashMap<>();
+    private volatile long heapUsedBytes;
+
+    StageMetrics(String name) {
+        this.name = name;
+    }
+
+    void record(long wall, long cpu, long allocated) {
+        invocations.increment();
+        wallNanos.add(wall);
+        cpuNanos.add(cpu);
+        allocatedBytes.add(allocated);
+    }
+
+    void setHeapUsedBytes(long heapUsedBytes) {
+        this.heapUsedBytes = heapUsedBytes;
+    }
+
+    /**
+     * Adds to a named element count, e.g. the endpoints a stage produced.
+     */
+    public void count(String key, long n) {
+        counts.computeIfAbsent(key, k -> new LongAdder()).add(n);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getInvocations() {
+        return invocations.sum();
+    }
+
+    public long getWallNanos() {
+        return wallNanos.sum();
+    }
+
+    public long getCpuNanos() {
+        return cpuNanos.sum();
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes.sum();
+    }
+
+    /**
+     * Heap in use when the stage last finished.
+     */
+    public long getHeapUsedBytes() {
+        return heapUsedBytes;
+    }
+
+    public Map<String, Long> getCounts() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        counts.forEach((key, value) -> snapshot.put(key, value.sum()));
+        return snapshot;
+    }
+}
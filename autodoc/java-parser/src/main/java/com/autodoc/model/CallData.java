@@ -0,0 +1,30 @@
+package com.autodoc.model;
+
+public class CallData {
+    private String type;
+    private String method; // signature, e.g. "findById(java.lang.Long)"
+
+    public CallData() {
+    }
+
+    public CallData(String type, String method) {
+        this.type = type;
+        this.method = method;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public void setMethod(String method) {
+        this.method = method;
+    }
+}
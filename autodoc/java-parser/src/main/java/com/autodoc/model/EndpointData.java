@@ -1,5 +1,8 @@
 package com.autodoc.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -15,6 +18,9 @@ public class EndpointData {
     private String controllerName;
     private String controllerPackage;
     private List<DependencyData> dependencies = new ArrayList<>();
+    private List<String> downstream;
+    private List<CallData> calls;
+    private String handler;
     private boolean deprecated;
 
     public EndpointData() {
@@ -133,6 +139,45 @@ public class EndpointData {
     public void setDependencies(List<DependencyData> dependencies) {
         this.dependencies = dependencies;
     }
+
+    /**
+     * Qualified names of every component the controller depends on,
+     * directly or transitively; only set with {@code --dependency-closure}.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public List<String> getDownstream() {
+        return downstream;
+    }
+
+    public void setDownstream(List<String> downstream) {
+        this.downstream = downstream;
+    }
+
+    /**
+     * Methods of other components the handler method invokes directly; only
+     * set with {@code --calls}.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public List<CallData> getCalls() {
+        return calls;
+    }
+
+    public void setCalls(List<CallData> calls) {
+        this.calls = calls;
+    }
+
+    /**
+     * Signature of the controller method handling the endpoint, used to link
+     * its calls; not part of the IR.
+     */
+    @JsonIgnore
+    public String getHandler() {
+        return handler;
+    }
+
+    public void setHandler(String handler) {
+        this.handler = handler;
+    }
     
     public boolean isDeprecated() {
         return deprecated;
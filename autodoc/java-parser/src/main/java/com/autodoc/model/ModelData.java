@@ -19,6 +19,9 @@ public class ModelData {
     private String since;
     private Map<String, Object> extensions = new HashMap<>();
 
+    public ModelData() {
+    }
+
     public ModelData(String name, String description, List<FieldData> fields) {
         this.name = name;
         this.description = description;
@@ -1,25 +1,122 @@
 package com.autodoc.model;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
 
+/**
+ * The IR of a whole project. Endpoints and models are only ever appended,
+ * from any thread, and indexed as they are when added: endpoints by
+ * controller and by method and path, models by name.
+ *
+ * Getters and lookups return live, unmodifiable views rather than copies;
+ * they see later additions and are safe to read while others are added.
+ *
+ * Type references of what is added are interned per project, see
+ * {@link TypeRefInterner}.
+ */
 public class ParsedProject {
     private final List<EndpointData> endpoints = new ArrayList<>();
     private final List<ModelData> models = new ArrayList<>();
 
-    public void addEndpoint(EndpointData endpoint) {
+    private final Map<String, List<EndpointData>> endpointsByController = new HashMap<>();
+    private final Map<String, EndpointData> endpointsByRoute = new HashMap<>();
+    private final Map<String, List<ModelData>> modelsByName = new HashMap<>();
+    private final TypeRefInterner typeRefs = new TypeRefInterner();
+
+    private final List<EndpointData> endpointsView = new View<>(endpoints);
+    private final List<ModelData> modelsView = new View<>(models);
+
+    public synchronized void addEndpoint(EndpointData endpoint) {
+        endpoint.setRequestBodyType(typeRefs.intern(endpoint.getRequestBodyType()));
+        endpoint.setResponseType(typeRefs.intern(endpoint.getResponseType()));
+        if (endpoint.getParameters() != null) {
+            for (ParameterData parameter : endpoint.getParameters()) {
+                parameter.setType(typeRefs.intern(parameter.getType()));
+            }
+        }
         endpoints.add(endpoint);
+        endpointsByController.computeIfAbsent(controllerKey(endpoint.getControllerPackage(),
+                endpoint.getControllerName()), k -> new ArrayList<>()).add(endpoint);
+        endpointsByRoute.putIfAbsent(routeKey(endpoint.getMethod(), endpoint.getPath()), endpoint);
     }
 
-    public void addModel(ModelData model) {
+    public synchronized void addModel(ModelData model) {
+        if (model.getFields() != null) {
+            for (FieldData field : model.getFields()) {
+                field.setTypeRef(typeRefs.intern(field.getTypeRef()));
+            }
+        }
         models.add(model);
+        modelsByName.computeIfAbsent(model.getName(), k -> new ArrayList<>()).add(model);
     }
 
     public List<EndpointData> getEndpoints() {
-        return List.copyOf(endpoints);
+        return endpointsView;
     }
 
     public List<ModelData> getModels() {
-        return List.copyOf(models);
+        return modelsView;
+    }
+
+    /**
+     * Endpoints of the controller with the given qualified name, in the
+     * order they were added.
+     */
+    public synchronized List<EndpointData> findEndpoints(String controllerQualifiedName) {
+        List<EndpointData> found = endpointsByController.get(controllerQualifiedName);
+        return found != null ? new View<>(found) : List.of();
+    }
+
+    /**
+     * The first endpoint added for an HTTP method and path, or null.
+     */
+    public synchronized EndpointData findEndpoint(String method, String path) {
+        return endpointsByRoute.get(routeKey(method, path));
+    }
+
+    /**
+     * Models with the given simple name, in the order they were added.
+     */
+    public synchronized List<ModelData> findModels(String name) {
+        List<ModelData> found = modelsByName.get(name);
+        return found != null ? new View<>(found) : List.of();
+    }
+
+    private static String controllerKey(String controllerPackage, String controllerName) {
+        return controllerPackage + "." + controllerName;
+    }
+
+    private static String routeKey(String method, String path) {
+        return method + " " + path;
+    }
+
+    /**
+     * Read-only view of an append-only list guarded by the project. Indexed
+     * reads stay valid while the list grows, so iterating needs no copy.
+     */
+    private final class View<T> extends AbstractList<T> implements RandomAccess {
+        private final List<T> list;
+
+        View(List<T> list) {
+            this.list = list;
+        }
+
+        @Override
+        public T get(int index) {
+            synchronized (ParsedProject.this) {
+                return list.get(index);
+            }
+        }
+
+        @Override
+        public int size() {
+            synchronized (ParsedProject.this) {
+                return list.size();
+            }
+        }
     }
 }
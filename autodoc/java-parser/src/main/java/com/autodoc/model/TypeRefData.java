@@ -1,25 +1,61 @@
 package com.autodoc.model;
 
-import java.util.ArrayList;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import java.util.List;
+import java.util.Objects;
 
-public class TypeRefData {
-    String base;
-    private List<TypeRefData> args = new ArrayList<>();
+/**
+ * A type reference such as {@code String} or {@code List<UserDto>}.
+ *
+ * Instances are immutable and compare by generic shape. {@link #of} does
+ * not cache them; a {@link ParsedProject} interns the ones it is given, so
+ * identical shapes share one instance for as long as the project lives.
+ */
+public final class TypeRefData {
+    private final String base;
+    private final List<TypeRefData> args;
+    private final int hash;
 
-    public String getBase() {
-        return base;
+    private TypeRefData(String base, List<TypeRefData> args) {
+        this.base = base;
+        this.args = args;
+        this.hash = Objects.hash(base, args);
     }
 
-    public void setBase(String base) {
-        this.base = base;
+    @JsonCreator
+    public static TypeRefData of(@JsonProperty("base") String base,
+            @JsonProperty("args") List<TypeRefData> args) {
+        return new TypeRefData(base, args != null ? List.copyOf(args) : List.of());
+    }
+
+    public static TypeRefData of(String base) {
+        return of(base, List.of());
+    }
+
+    public String getBase() {
+        return base;
     }
 
     public List<TypeRefData> getArgs() {
         return args;
     }
 
-    public void setArgs(List<TypeRefData> args) {
-        this.args = (args != null ? args : new ArrayList<>());
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TypeRefData)) {
+            return false;
+        }
+        TypeRefData other = (TypeRefData) o;
+        return hash == other.hash && Objects.equals(base, other.base) && args.equals(other.args);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
     }
-}
\ No newline at end of file
+}
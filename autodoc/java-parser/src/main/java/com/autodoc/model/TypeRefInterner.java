@@ -0,0 +1,37 @@
+package com.autodoc.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Canonical {@link TypeRefData} instances of one project, generic arguments
+ * included, so the thousands of {@code String} fields in a project share
+ * one instance. It lives as long as its {@link ParsedProject}; nothing is
+ * kept between parses. Not thread-safe.
+ */
+final class TypeRefInterner {
+    private final Map<TypeRefData, TypeRefData> interned = new HashMap<>();
+
+    TypeRefData intern(TypeRefData typeRef) {
+        if (typeRef == null) {
+            return null;
+        }
+        TypeRefData existing = interned.get(typeRef);
+        if (existing != null) {
+            return existing;
+        }
+
+        List<TypeRefData> args = typeRef.getArgs();
+        if (!args.isEmpty()) {
+            List<TypeRefData> internedArgs = new ArrayList<>(args.size());
+            for (TypeRefData arg : args) {
+                internedArgs.add(intern(arg));
+            }
+            typeRef = TypeRefData.of(typeRef.getBase(), internedArgs);
+        }
+        interned.put(typeRef, typeRef);
+        return typeRef;
+    }
+}
@@ -0,0 +1,142 @@
+package com.autodoc.output;
+
+import com.autodoc.model.EndpointData;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Emits what endpoints share with their controller once. Once
+ * {@link #install installed} on a mapper, each {@link EndpointData} is
+ * written with a {@code controller} id in place of its controller name,
+ * package, tags and dependencies, and the controllers themselves go into a
+ * {@code controllers} array at the end of the document, as
+ * {@code {"name": ..., "package": ..., "tags": [...], "dependencies": [...]}},
+ * plus {@code "downstream": [...]} when the dependency closure was computed.
+ *
+ * Tags and dependencies are taken from a controller's first endpoint; the
+ * processors give every endpoint of a controller the same ones. Since the
+ * table is written last, a closure set on that endpoint after it was
+ * written still makes it into the table.
+ *
+ * A table is meant for a single document and is not thread-safe.
+ */
+public class ControllerTable {
+
+    public static final String FIELD_NAME = "controllers";
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<EndpointData> controllers = new ArrayList<>();
+
+    public void install(ObjectMapper mapper) {
+        mapper.registerModule(new SimpleModule("ControllerTable").setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription beanDesc,
+                    JsonSerializer<?> serializer) {
+                if (beanDesc.getBeanClass() != EndpointData.class) {
+                    return serializer;
+                }
+                return new EndpointSerializer((JsonSerializer<Object>) serializer);
+            }
+        }));
+    }
+
+    public int idOf(EndpointData endpoint) {
+        String key = endpoint.getControllerPackage() + "." + endpoint.getControllerName();
+        Integer id = ids.get(key);
+        if (id == null) {
+            id = controllers.size();
+            ids.put(key, id);
+            controllers.add(endpoint);
+        }
+        return id;
+    }
+
+    public int size() {
+        return controllers.size();
+    }
+
+    /**
+     * Writes the {@code controllers} field of the enclosing object.
+     */
+    public void write(JsonGenerator generator) throws IOException {
+        generator.writeArrayFieldStart(FIELD_NAME);
+        for (EndpointData endpoint : controllers) {
+            generator.writeStartObject();
+            generator.writeStringField("name", endpoint.getControllerName());
+            generator.writeStringField("package", endpoint.getControllerPackage());
+            generator.writeObjectField("tags", endpoint.getTags());
+            generator.writeObjectField("dependencies", endpoint.getDependencies());
+            if (endpoint.getDownstream() != null) {
+                generator.writeObjectField("downstream", endpoint.getDownstream());
+            }
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * Writes an endpoint with Jackson's bean serializer, property by
+     * property, swapping the controller properties for the id.
+     */
+    private class EndpointSerializer extends StdSerializer<EndpointData> implements ResolvableSerializer {
+        private final JsonSerializer<Object> beanSerializer;
+
+        private EndpointSerializer(JsonSerializer<Object> beanSerializer) {
+            super(EndpointData.class);
+            this.beanSerializer = beanSerializer;
+        }
+
+        @Override
+        public void resolve(SerializerProvider provider) throws JsonMappingException {
+            if (beanSerializer instanceof ResolvableSerializer) {
+                ((ResolvableSerializer) beanSerializer).resolve(provider);
+            }
+        }
+
+        @Override
+        public void serialize(EndpointData value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(value);
+            Iterator<PropertyWriter> properties = beanSerializer.properties();
+            while (properties.hasNext()) {
+                PropertyWriter property = properties.next();
+                switch (property.getName()) {
+                    case "controllerName":
+                        gen.writeNumberField("controller", idOf(value));
+                        break;
+                    case "controllerPackage":
+                    case "tags":
+                    case "dependencies":
+                    case "downstream":
+                        break;
+                    default:
+                        try {
+                            property.serializeAsField(value, gen, provider);
+                        } catch (IOException | RuntimeException e) {
+                            throw e;
+                        } catch (Exception e) {
+                            throw JsonMappingException.from(gen, e.getMessage(), e);
+                        }
+                }
+            }
+            gen.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.autodoc.output;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+
+/**
+ * Encodings the IR can be written in.
+ *
+ * JSON is written as-is. Binary encodings start with a 7-byte header so
+ * consumers can recognize them and reject schemas they do not understand:
+ * the magic {@code ADIR}, the IR schema version as a big-endian unsigned
+ * 16-bit integer, and the encoding id. In every encoding the document itself
+ * opens with a {@code schemaVersion} member, the only version JSON carries.
+ */
+public enum IrFormat {
+    JSON(0),
+    CBOR(1);
+
+    public static final byte[] MAGIC = { 'A', 'D', 'I', 'R' };
+
+    /**
+     * Bump whenever the shape of the serialized {@code ParsedProject} changes.
+     */
+    public static final int SCHEMA_VERSION = 6;
+
+    private final int id;
+
+    IrFormat(int id) {
+        this.id = id;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public boolean isBinary() {
+        return this != JSON;
+    }
+
+    public ObjectMapper newMapper() {
+        switch (this) {
+            case CBOR:
+                return new CBORMapper();
+            default:
+                return new ObjectMapper();
+        }
+    }
+
+    public void writeHeader(OutputStream out) throws IOException {
+        if (!isBinary()) {
+            return;
+        }
+
+        out.write(MAGIC);
+        out.write((SCHEMA_VERSION >>> 8) & 0xFF);
+        out.write(SCHEMA_VERSION & 0xFF);
+        out.write(id);
+    }
+
+    /**
+     * Writes the {@code schemaVersion} member; call it right after starting
+     * the document object.
+     */
+    public static void writeSchemaVersion(JsonGenerator generator) throws IOException {
+        generator.writeNumberField("schemaVersion", SCHEMA_VERSION);
+    }
+
+    public static IrFormat fromName(String name) {
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown IR format: " + name);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.autodoc.output;
+
+import com.autodoc.graph.ModelPruner;
+import com.autodoc.model.EndpointData;
+import com.autodoc.model.ModelData;
+import com.autodoc.processor.TypeFragment;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Writes the IR document incrementally with a {@link JsonGenerator}, in the
+ * same shape as a serialized {@code ParsedProject}, in any {@link IrFormat}.
+ *
+ * Endpoints go straight to the output as each fragment arrives. Models
+ * belong to the second array, so they are serialized right away into
+ * temporary spool files and copied over when the writer is closed; class
+ * models are spooled apart from enums to keep the usual model order.
+ * With a {@link TypeTable} the type references are written as ids and the
+ * table follows the models; likewise with a {@link ControllerTable} for the
+ * controller of each endpoint. Type ids are numbered in the order references
+ * are written, spooled models included, so they can differ from those of a
+ * serialized {@code ParsedProject} while standing for the same types. With a
+ * {@link ModelPruner}, spooled models no endpoint reaches are skipped when
+ * they are copied.
+ */
+public class StreamingIrWriter implements Consumer<TypeFragment>, Closeable {
+
+    private final ObjectMapper mapper;
+    private final ObjectMapper spoolMapper = new ObjectMapper();
+    private final JsonGenerator generator;
+    private final Spool classModels;
+    private final Spool enumModels;
+    private final TypeTable typeTable;
+    private final ControllerTable controllerTable;
+    private final ModelPruner pruner;
+    private boolean closed;
+
+    public StreamingIrWriter(OutputStream out, boolean pretty) throws IOException {
+        this(out, IrFormat.JSON, pretty);
+    }
+
+    public StreamingIrWriter(OutputStream out, IrFormat format, boolean pretty) throws IOException {
+        this(out, format, pretty, null);
+    }
+
+    public StreamingIrWriter(OutputStream out, IrFormat format, boolean pretty, TypeTable typeTable)
+            throws IOException {
+        this(out, format, pretty, typeTable, null);
+    }
+
+    public StreamingIrWriter(OutputStream out, IrFormat format, boolean pretty, TypeTable typeTable,
+            ControllerTable controllerTable) throws IOException {
+        this(out, format, pretty, typeTable, controllerTable, null);
+    }
+
+    public StreamingIrWriter(OutputStream out, IrFormat format, boolean pretty, TypeTable typeTable,
+            ControllerTable controllerTable, ModelPruner pruner) throws IOException {
+        format.writeHeader(out);
+        this.mapper = format.newMapper();
+        this.typeTable = typeTable;
+        this.controllerTable = controllerTable;
+        this.pruner = pruner;
+        if (typeTable != null) {
+            typeTable.install(mapper);
+            typeTable.install(spoolMapper);
+        }
+        if (controllerTable != null) {
+            // Only endpoints refer to controllers, and they are not spooled
+            controllerTable.install(mapper);
+        }
+        this.generator = mapper.getFactory().createGenerator(out);
+        if (pretty && !format.isBinary()) {
+            generator.useDefaultPrettyPrinter();
+        }
+        this.classModels = new Spool();
+        this.enumModels = new Spool();
+
+        generator.writeStartObject();
+        IrFormat.writeSchemaVersion(generator);
+        generator.writeArrayFieldStart("endpoints");
+    }
+
+    @Override
+    public void accept(TypeFragment fragment) {
+        try {
+            for (EndpointData endpoint : fragment.getEndpoints()) {
+                mapper.writeValue(generator, endpoint);
+                if (pruner != null) {
+                    pruner.addEndpoint(endpoint);
+                }
+            }
+            for (ModelData model : fragment.getModels()) {
+                (model.isEnum() ? enumModels : classModels).write(model);
+                if (pruner != null) {
+                    pruner.addModel(model);
+                }
+            }
+
+            // Let the consumer start decoding what we have so far
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Finishes the document; calling it again has no effect.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            generator.writeEndArray();
+
+            Set<String> reachable = pruner != null ? pruner.reachableNames() : null;
+            generator.writeArrayFieldStart("models");
+            classModels.copyTo(generator, reachable);
+            enumModels.copyTo(generator, reachable);
+            generator.writeEndArray();
+
+            if (controllerTable != null) {
+                controllerTable.write(generator);
+            }
+            if (typeTable != null) {
+                typeTable.write(generator);
+            }
+
+            generator.writeEndObject();
+            generator.close();
+        } finally {
+            classModels.delete();
+            enumModels.delete();
+        }
+    }
+
+    /**
+     * Gives up on the document after a failure: nothing more is written, so
+     * the output cannot pass for a complete IR, and the spool files are
+     * deleted. Closing the writer afterwards has no effect.
+     */
+    public void abort() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            classModels.delete();
+        } finally {
+            enumModels.delete();
+        }
+    }
+
+    /**
+     * Temporary file holding compact root-level JSON values. They are copied
+     * token by token, so the output may use a different format. The name of
+     * each model is kept in memory to decide whether to copy it.
+     */
+    private class Spool {
+        private final Path file;
+        private final JsonGenerator generator;
+        private final List<String> names = new ArrayList<>();
+
+        private Spool() throws IOException {
+            this.file = Files.createTempFile("autodoc-ir-", ".json");
+            this.generator = spoolMapper.getFactory().createGenerator(file.toFile(), JsonEncoding.UTF8);
+        }
+
+        private void write(ModelData model) throws IOException {
+            spoolMapper.writeValue(generator, model);
+            names.add(model.getName());
+        }
+
+        /**
+         * Copies the spooled models, or only those named in {@code keep}
+         * unless it is null.
+         */
+        private void copyTo(JsonGenerator target, Set<String> keep) throws IOException {
+            generator.close();
+            try (JsonParser parser = spoolMapper.getFactory().createParser(file.toFile())) {
+                for (int i = 0; parser.nextToken() != null; i++) {
+                    if (keep == null || keep.contains(names.get(i))) {
+                        target.copyCurrentStructure(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        }
+
+        private void delete() throws IOException {
+            generator.close();
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.autodoc.output;
+
+import com.autodoc.model.TypeRefData;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Emits every distinct type reference once. Once {@link #install installed}
+ * on a mapper, each {@link TypeRefData} is written as an integer id and the
+ * shapes themselves go into a {@code types} array at the end of the
+ * document, as {@code {"base": ..., "args": [ids]}}. Arguments always get
+ * a lower id than the type using them.
+ *
+ * A table is meant for a single document and is not thread-safe.
+ */
+public class TypeTable {
+
+    public static final String FIELD_NAME = "types";
+
+    private final Map<TypeRefData, Integer> ids = new HashMap<>();
+    private final List<TypeRefData> types = new ArrayList<>();
+
+    public void install(ObjectMapper mapper) {
+        mapper.registerModule(new SimpleModule("TypeTable")
+                .addSerializer(TypeRefData.class, new IdSerializer()));
+    }
+
+    public int idOf(TypeRefData typeRef) {
+        Integer id = ids.get(typeRef);
+        if (id != null) {
+            return id;
+        }
+
+        for (TypeRefData arg : typeRef.getArgs()) {
+            idOf(arg);
+        }
+        id = types.size();
+        ids.put(typeRef, id);
+        types.add(typeRef);
+        return id;
+    }
+
+    public int size() {
+        return types.size();
+    }
+
+    /**
+     * Writes the {@code types} field of the enclosing object.
+     */
+    public void write(JsonGenerator generator) throws IOException {
+        generator.writeArrayFieldStart(FIELD_NAME);
+        for (TypeRefData typeRef : types) {
+            generator.writeStartObject();
+            generator.writeStringField("base", typeRef.getBase());
+            generator.writeArrayFieldStart("args");
+            for (TypeRefData arg : typeRef.getArgs()) {
+                generator.writeNumber(ids.get(arg));
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+
+    private class IdSerializer extends StdSerializer<TypeRefData> {
+        private IdSerializer() {
+            super(TypeRefData.class);
+        }
+
+        @Override
+        public void serialize(TypeRefData value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(idOf(value));
+        }
+    }
+}
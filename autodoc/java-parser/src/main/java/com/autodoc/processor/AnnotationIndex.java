@@ -0,0 +1,154 @@
+package com.autodoc.processor;
+
+import spoon.reflect.declaration.CtAnnotation;
+import spoon.reflect.declaration.CtElement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * An element's annotations, resolved once into a bitmask of the
+ * {@link SpringAnnotation}s it carries plus those annotations in declaration
+ * order. Unknown annotations are dropped. Values are read on first use, as
+ * most checks only need the mask.
+ *
+ * Spoon elements keep their index in their metadata, so every processor
+ * visiting the element shares it.
+ */
+public final class AnnotationIndex {
+
+    private static final String METADATA_KEY = AnnotationIndex.class.getName();
+
+    private static final AnnotationIndex EMPTY = new AnnotationIndex(0, Collections.emptyList());
+
+    private final long mask;
+    private final List<Entry> entries;
+
+    private AnnotationIndex(long mask, List<Entry> entries) {
+        this.mask = mask;
+        this.entries = entries;
+    }
+
+    /**
+     * The index of a Spoon element, built on the first call and then kept
+     * with the element. Only the thread extracting the element may call
+     * this; use {@link #compute} for elements owned by another fragment.
+     */
+    public static AnnotationIndex of(CtElement element) {
+        AnnotationIndex index = (AnnotationIndex) element.getMetadata(METADATA_KEY);
+        if (index == null) {
+            index = compute(element);
+            element.putMetadata(METADATA_KEY, index);
+        }
+        return index;
+    }
+
+    /**
+     * Builds the index of a Spoon element without storing it.
+     */
+    public static AnnotationIndex compute(CtElement element) {
+        return build(element.getAnnotations(),
+                a -> a.getAnnotationType().getSimpleName(),
+                CtAnnotation::getValues);
+    }
+
+    /**
+     * Builds an index from any front-end's annotations. {@code values} is
+     * only called for known annotations, and only when their values are
+     * asked for.
+     */
+    public static <A> AnnotationIndex build(List<A> annotations, Function<A, String> simpleName,
+            Function<A, ? extends Map<String, ?>> values) {
+        if (annotations.isEmpty()) {
+            return EMPTY;
+        }
+
+        long mask = 0;
+        List<Entry> entries = null;
+        for (A annotation : annotations) {
+            SpringAnnotation type = SpringAnnotation.fromSimpleName(simpleName.apply(annotation));
+            if (type == null) {
+                continue;
+            }
+            if (entries == null) {
+                entries = new ArrayList<>(annotations.size());
+            }
+            mask |= type.bit();
+            entries.add(new Entry(type, () -> values.apply(annotation)));
+        }
+        return entries == null ? EMPTY : new AnnotationIndex(mask, entries);
+    }
+
+    public boolean has(SpringAnnotation annotation) {
+        return (mask & annotation.bit()) != 0;
+    }
+
+    public boolean hasAny(long annotations) {
+        return (mask & annotations) != 0;
+    }
+
+    /**
+     * The first annotation in declaration order that is in
+     * {@code annotations}, or null.
+     */
+    public SpringAnnotation first(long annotations) {
+        if (!hasAny(annotations)) {
+            return null;
+        }
+        for (Entry entry : entries) {
+            if ((entry.type.bit() & annotations) != 0) {
+                return entry.type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The values of the first {@code annotation}, or null if the element
+     * does not carry it.
+     */
+    public Map<String, ?> values(SpringAnnotation annotation) {
+        if (!has(annotation)) {
+            return null;
+        }
+        for (Entry entry : entries) {
+            if (entry.type == annotation) {
+                return entry.getValues();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The known annotations in declaration order, repeated ones included.
+     */
+    public List<Entry> entries() {
+        return entries;
+    }
+
+    public static final class Entry {
+        private final SpringAnnotation type;
+        private final Supplier<Map<String, ?>> source;
+        private Map<String, ?> values;
+
+        private Entry(SpringAnnotation type, Supplier<Map<String, ?>> source) {
+            this.type = type;
+            this.source = source;
+        }
+
+        public SpringAnnotation getType() {
+            return type;
+        }
+
+        public Map<String, ?> getValues() {
+            if (values == null) {
+                values = source.get();
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.autodoc.processor;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The user-configurable rules a {@link TypeClassifier} assigns roles by.
+ * Annotations are matched by simple name, packages by case-insensitive
+ * substring and type names by suffix.
+ *
+ * Rules can be loaded from a properties file whose keys are the names in
+ * {@link #toString()}, each a comma-separated list. A list replaces the
+ * default one, unless it starts with {@code +}, in which case it is added
+ * to it:
+ *
+ * <pre>
+ * component.annotations=+DomainService,UseCase
+ * model.packages=+api.view
+ * </pre>
+ */
+public class ClassificationRules {
+
+    private static final String CONTROLLER_ANNOTATIONS = "controller.annotations";
+    private static final String CONTROLLER_EXCLUDED_ANNOTATIONS = "controller.excludedAnnotations";
+    private static final String COMPONENT_ANNOTATIONS = "component.annotations";
+    private static final String COMPONENT_SUFFIXES = "component.suffixes";
+    private static final String MODEL_ANNOTATIONS = "model.annotations";
+    private static final String MODEL_PACKAGES = "model.packages";
+    private static final String MODEL_EXCLUDED_PACKAGES = "model.excludedPackages";
+    private static final String DEPENDENCY_SUFFIXES = "dependency.suffixes";
+    private static final String DEPENDENCY_KEYWORDS = "dependency.keywords";
+
+    private final Map<String, List<String>> rules = new LinkedHashMap<>();
+
+    private ClassificationRules() {
+    }
+
+    /**
+     * The built-in Spring conventions.
+     */
+    public static ClassificationRules defaults() {
+        ClassificationRules rules = new ClassificationRules();
+        rules.rules.put(CONTROLLER_ANNOTATIONS, names(SpringConventions.CONTROLLERS));
+        // Exception handlers have no endpoints
+        rules.rules.put(CONTROLLER_EXCLUDED_ANNOTATIONS, names(SpringAnnotation.CONTROLLER_ADVICE.bit()));
+        rules.rules.put(COMPONENT_ANNOTATIONS, names(SpringConventions.COMPONENTS));
+        rules.rules.put(COMPONENT_SUFFIXES, list("Service", "Repository", "Dao", "Controller"));
+        rules.rules.put(MODEL_ANNOTATIONS, names(SpringConventions.MODELS));
+        rules.rules.put(MODEL_PACKAGES, list("model", "dto", "entity", "domain"));
+        rules.rules.put(MODEL_EXCLUDED_PACKAGES,
+                list("service", "repository", "repo", "config", "controller", "util", "handler"));
+        rules.rules.put(DEPENDENCY_SUFFIXES,
+                list("Service", "Manager", "Processor", "Handler", "Delegate", "Provider", "Helper"));
+        rules.rules.put(DEPENDENCY_KEYWORDS, list("service", "repository"));
+        return rules;
+    }
+
+    /**
+     * The defaults, overridden by the lists in a properties file.
+     */
+    public static ClassificationRules load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+
+        ClassificationRules rules = defaults();
+        for (String key : properties.stringPropertyNames()) {
+            List<String> current = rules.rules.get(key);
+            if (current == null) {
+                throw new IllegalArgumentException("Unknown classification rule: " + key);
+            }
+
+            String value = properties.getProperty(key).trim();
+            List<String> values = new ArrayList<>();
+            if (value.startsWith("+")) {
+                values.addAll(current);
+                value = value.substring(1);
+            }
+            for (String item : value.split(",")) {
+                if (!item.trim().isEmpty()) {
+                    values.add(item.trim());
+                }
+            }
+            rules.rules.put(key, values);
+        }
+        return rules;
+    }
+
+    /**
+     * Annotations that make a class a controller.
+     */
+    public List<String> getControllerAnnotations() {
+        return rules.get(CONTROLLER_ANNOTATIONS);
+    }
+
+    /**
+     * Annotations that keep an otherwise matching class from being a
+     * controller.
+     */
+    public List<String> getControllerExcludedAnnotations() {
+        return rules.get(CONTROLLER_EXCLUDED_ANNOTATIONS);
+    }
+
+    public List<String> getComponentAnnotations() {
+        return rules.get(COMPONENT_ANNOTATIONS);
+    }
+
+    public List<String> getComponentSuffixes() {
+        return rules.get(COMPONENT_SUFFIXES);
+    }
+
+    public List<String> getModelAnnotations() {
+        return rules.get(MODEL_ANNOTATIONS);
+    }
+
+    public List<String> getModelPackages() {
+        return rules.get(MODEL_PACKAGES);
+    }
+
+    /**
+     * Packages whose classes are never models, whatever their annotations.
+     */
+    public List<String> getModelExcludedPackages() {
+        return rules.get(MODEL_EXCLUDED_PACKAGES);
+    }
+
+    /**
+     * Type or variable name suffixes that make a controller member a
+     * dependency.
+     */
+    public List<String> getDependencySuffixes() {
+        return rules.get(DEPENDENCY_SUFFIXES);
+    }
+
+    /**
+     * Words that make a controller member a dependency wherever they appear
+     * in its type or variable name, in any case.
+     */
+    public List<String> getDependencyKeywords() {
+        return rules.get(DEPENDENCY_KEYWORDS);
+    }
+
+    /**
+     * The rules in properties syntax, one per line; equal rules give equal
+     * strings.
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        rules.forEach((key, values) -> text.append(key).append('=').append(String.join(",", values)).append('\n'));
+        return text.toString();
+    }
+
+    private static List<String> names(long annotations) {
+        List<String> names = new ArrayList<>();
+        for (SpringAnnotation annotation : SpringAnnotation.values()) {
+            if ((annotations & annotation.bit()) != 0) {
+                names.add(annotation.getSimpleName());
+            }
+        }
+        return names;
+    }
+
+    private static List<String> list(String... values) {
+        return new ArrayList<>(Arrays.asList(values));
+    }
+}
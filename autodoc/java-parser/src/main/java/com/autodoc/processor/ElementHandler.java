@@ -0,0 +1,48 @@
+package com.autodoc.processor;
+
+import com.autodoc.model.ParsedProject;
+import spoon.reflect.code.CtInvocation;
+import spoon.reflect.declaration.*;
+
+/**
+ * Callback registered with a {@link ModelScanner}. The scanner walks the
+ * Spoon model once and hands every matching element to each handler, so an
+ * extractor only implements the callbacks it needs.
+ */
+public interface ElementHandler {
+
+    default void beforeScan(ParsedProject parsedProject) {
+    }
+
+    /**
+     * Called for every class in the model, including enums and records
+     * (they are classes in Spoon as well).
+     */
+    default void visitClass(CtClass<?> cls) {
+    }
+
+    default void visitEnum(CtEnum<?> enumCls) {
+    }
+
+    default void visitInterface(CtInterface<?> iface) {
+    }
+
+    /**
+     * Called for every field in the model, including enum values.
+     */
+    default void visitField(CtField<?> field) {
+    }
+
+    default void visitConstructor(CtConstructor<?> constructor) {
+    }
+
+    /**
+     * Called for every method invocation in the model, constructor calls
+     * such as {@code super(...)} included.
+     */
+    default void visitInvocation(CtInvocation<?> invocation) {
+    }
+
+    default void afterScan(ParsedProject parsedProject) {
+    }
+}
@@ -0,0 +1,125 @@
+package com.autodoc.processor;
+
+import com.autodoc.model.ParsedProject;
+import spoon.reflect.CtModel;
+import spoon.reflect.code.CtInvocation;
+import spoon.reflect.declaration.*;
+import spoon.reflect.visitor.CtScanner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Walks a Spoon model exactly once and dispatches types, fields,
+ * constructors and invocations to the registered {@link ElementHandler}s, in
+ * the same pre-order as {@code CtModel.getElements(new TypeFilter<>(...))}.
+ */
+public class ModelScanner extends CtScanner {
+
+    private final List<ElementHandler> handlers = new ArrayList<>();
+
+    public ModelScanner(ElementHandler... handlers) {
+        this.handlers.addAll(Arrays.asList(handlers));
+    }
+
+    public ModelScanner register(ElementHandler handler) {
+        handlers.add(handler);
+        return this;
+    }
+
+    public void scan(CtModel model, ParsedProject parsedProject) {
+        for (ElementHandler handler : handlers) {
+            handler.beforeScan(parsedProject);
+        }
+
+        for (CtModule module : model.getAllModules()) {
+            scan(module);
+        }
+
+        for (ElementHandler handler : handlers) {
+            handler.afterScan(parsedProject);
+        }
+    }
+
+    /**
+     * Scans a single subtree, typically one top-level type, so that
+     * independent parts of the model can be processed on separate threads.
+     */
+    public void scan(CtElement root, ParsedProject parsedProject) {
+        for (ElementHandler handler : handlers) {
+            handler.beforeScan(parsedProject);
+        }
+
+        scan(root);
+
+        for (ElementHandler handler : handlers) {
+            handler.afterScan(parsedProject);
+        }
+    }
+
+    @Override
+    public <T> void visitCtClass(CtClass<T> ctClass) {
+        for (ElementHandler handler : handlers) {
+            handler.visitClass(ctClass);
+        }
+        super.visitCtClass(ctClass);
+    }
+
+    @Override
+    public <T extends Enum<?>> void visitCtEnum(CtEnum<T> ctEnum) {
+        for (ElementHandler handler : handlers) {
+            handler.visitClass(ctEnum);
+            handler.visitEnum(ctEnum);
+        }
+        super.visitCtEnum(ctEnum);
+    }
+
+    @Override
+    public void visitCtRecord(CtRecord recordType) {
+        for (ElementHandler handler : handlers) {
+            handler.visitClass(recordType);
+        }
+        super.visitCtRecord(recordType);
+    }
+
+    @Override
+    public <T> void visitCtInterface(CtInterface<T> intrface) {
+        for (ElementHandler handler : handlers) {
+            handler.visitInterface(intrface);
+        }
+        super.visitCtInterface(intrface);
+    }
+
+    @Override
+    public <T> void visitCtField(CtField<T> f) {
+        for (ElementHandler handler : handlers) {
+            handler.visitField(f);
+        }
+        super.visitCtField(f);
+    }
+
+    @Override
+    public <T> void visitCtEnumValue(CtEnumValue<T> enumValue) {
+        for (ElementHandler handler : handlers) {
+            handler.visitField(enumValue);
+        }
+        super.visitCtEnumValue(enumValue);
+    }
+
+    @Override
+    public <T> void visitCtConstructor(CtConstructor<T> c) {
+        for (ElementHandler handler : handlers) {
+            handler.visitConstructor(c);
+        }
+        super.visitCtConstructor(c);
+    }
+
+    @Override
+    public <T> void visitCtInvocation(CtInvocation<T> invocation) {
+        for (ElementHandler handler : handlers) {
+            handler.visitInvocation(invocation);
+        }
+        super.visitCtInvocation(invocation);
+    }
+}
@@ -1,168 +1,246 @@
 package com.autodoc.processor;
 
+import com.autodoc.model.ParsedProject;
 import com.autodoc.model.Relationship;
 import spoon.reflect.CtModel;
+import spoon.reflect.code.CtExpression;
+import spoon.reflect.code.CtInvocation;
 import spoon.reflect.declaration.*;
+import spoon.reflect.reference.CtExecutableReference;
 import spoon.reflect.reference.CtTypeReference;
-import spoon.reflect.visitor.filter.TypeFilter;
 
 import java.util.*;
 
-public class RelationshipExtractor {
+public class RelationshipExtractor implements ElementHandler {
 
     public static final String RELATIONSHIP_INJECTS = "INJECTS";
     public static final String RELATIONSHIP_CALLS = "CALLS";
     public static final String RELATIONSHIP_EXTENDS = "EXTENDS";
     public static final String RELATIONSHIP_IMPLEMENTS = "IMPLEMENTS";
 
+    private final TypeClassifier classifier;
+    private final boolean calls;
+    private final List<Relationship> fieldInjections = new ArrayList<>();
+    private final List<Relationship> constructorInjections = new ArrayList<>();
+    private final List<Relationship> classInheritance = new ArrayList<>();
+    private final List<Relationship> interfaceInheritance = new ArrayList<>();
+    private final List<Relationship> methodCalls = new ArrayList<>();
+    private final Set<String> seenCalls = new HashSet<>();
+
+    // Invocations of a method are visited one after another, so whether it
+    // belongs to a component and its signature are only computed once
+    private CtMethod<?> caller;
+    private boolean callerComponent;
+    private String callerSignature;
+
+    public RelationshipExtractor() {
+        this(new TypeClassifier());
+    }
+
+    public RelationshipExtractor(TypeClassifier classifier) {
+        this(classifier, true);
+    }
+
+    /**
+     * @param calls whether to record CALLS relationships; resolving every
+     *              invocation in every method body is only worth it when
+     *              they are written
+     */
+    public RelationshipExtractor(TypeClassifier classifier, boolean calls) {
+        this.classifier = classifier;
+        this.calls = calls;
+    }
+
     public List<Relationship> extractRelationships(CtModel model) {
+        new ModelScanner(this).scan(model, new ParsedProject());
+        return getRelationships();
+    }
+
+    /**
+     * Returns the relationships collected by the last scan, grouped the same
+     * way as before: injections first, then inheritance, then calls.
+     */
+    public List<Relationship> getRelationships() {
         List<Relationship> relationships = new ArrayList<>();
 
         // Extract different types of relationships
-        relationships.addAll(extractDependencyInjections(model));
-        relationships.addAll(extractInheritanceRelationships(model));
+        relationships.addAll(fieldInjections);
+        relationships.addAll(constructorInjections);
+        relationships.addAll(classInheritance);
+        relationships.addAll(interfaceInheritance);
+        relationships.addAll(methodCalls);
 
         return relationships;
     }
 
-    private List<Relationship> extractDependencyInjections(CtModel model) {
-        List<Relationship> relationships = new ArrayList<>();
+    @Override
+    public void beforeScan(ParsedProject parsedProject) {
+        fieldInjections.clear();
+        constructorInjections.clear();
+        classInheritance.clear();
+        interfaceInheritance.clear();
+        methodCalls.clear();
+        seenCalls.clear();
+        caller = null;
+        callerComponent = false;
+        callerSignature = null;
+    }
 
+    @Override
+    public void visitField(CtField<?> field) {
         // Find all fields with dependency injection annotations
-        List<CtField<?>> fields = model.getElements(new TypeFilter<>(CtField.class));
+        boolean isDependency = AnnotationIndex.of(field).hasAny(SpringConventions.INJECTIONS);
 
-        for (CtField<?> field : fields) {
-            boolean isDependency = field.getAnnotations().stream()
-                    .anyMatch(a -> {
-                        String annoName = a.getAnnotationType().getSimpleName();
-                        return annoName.equals("Autowired") ||
-                                annoName.equals("Inject") ||
-                                annoName.equals("Resource");
-                    });
+        if (isDependency) {
+            CtType<?> declaringType = field.getDeclaringType();
 
-            if (isDependency) {
-                CtType<?> declaringType = field.getDeclaringType();
-
-                if (isComponent(declaringType) && isComponent(field.getType().getTypeDeclaration())) {
-                    Relationship relationship = new Relationship();
-                    relationship.setSourceClass(declaringType.getQualifiedName());
-                    relationship.setTargetClass(field.getType().getQualifiedName());
-                    relationship.setType(RELATIONSHIP_INJECTS);
-                    relationship.setName(field.getSimpleName());
-                    relationship.setInjectionType("field");
+            if (classifier.is(declaringType, TypeRole.COMPONENT)
+                    && classifier.is(field.getType(), TypeRole.COMPONENT)) {
+                Relationship relationship = new Relationship();
+                relationship.setSourceClass(declaringType.getQualifiedName());
+                relationship.setTargetClass(field.getType().getQualifiedName());
+                relationship.setType(RELATIONSHIP_INJECTS);
+                relationship.setName(field.getSimpleName());
+                relationship.setInjectionType("field");
 
-                    relationships.add(relationship);
-                }
+                fieldInjections.add(relationship);
             }
         }
+    }
 
-        // Find constructor injections
-        List<CtConstructor<?>> constructors = model.getElements(new TypeFilter<>(CtConstructor.class));
-
-        for (CtConstructor<?> constructor : constructors) {
-            CtType<?> declaringType = constructor.getDeclaringType();
+    @Override
+    public void visitConstructor(CtConstructor<?> constructor) {
+        CtType<?> declaringType = constructor.getDeclaringType();
 
-            // Skip if not a component
-            if (!isComponent(declaringType))
-                continue;
+        // Skip if not a component
+        if (!classifier.is(declaringType, TypeRole.COMPONENT))
+            return;
 
-            boolean isInjectionConstructor = constructor.getAnnotations().stream()
-                    .anyMatch(a -> a.getAnnotationType().getSimpleName().equals("Autowired"))
-                    || constructor.getParameters().size() > 0;
+        boolean isInjectionConstructor = AnnotationIndex.of(constructor).has(SpringAnnotation.AUTOWIRED)
+                || constructor.getParameters().size() > 0;
 
-            if (isInjectionConstructor) {
-                for (CtParameter<?> param : constructor.getParameters()) {
-                    if (isComponent(param.getType().getTypeDeclaration())) {
-                        Relationship relationship = new Relationship();
-                        relationship.setSourceClass(declaringType.getQualifiedName());
-                        relationship.setTargetClass(param.getType().getQualifiedName());
-                        relationship.setType(RELATIONSHIP_INJECTS);
-                        relationship.setName(param.getSimpleName());
-                        relationship.setInjectionType("constructor");
+        if (isInjectionConstructor) {
+            for (CtParameter<?> param : constructor.getParameters()) {
+                if (classifier.is(param.getType(), TypeRole.COMPONENT)) {
+                    Relationship relationship = new Relationship();
+                    relationship.setSourceClass(declaringType.getQualifiedName());
+                    relationship.setTargetClass(param.getType().getQualifiedName());
+                    relationship.setType(RELATIONSHIP_INJECTS);
+                    relationship.setName(param.getSimpleName());
+                    relationship.setInjectionType("constructor");
 
-                        relationships.add(relationship);
-                    }
+                    constructorInjections.add(relationship);
                 }
             }
         }
-
-        return relationships;
     }
 
-    private List<Relationship> extractInheritanceRelationships(CtModel model) {
-        List<Relationship> relationships = new ArrayList<>();
+    /**
+     * Records a CALLS relationship for each distinct method of another
+     * component a component's method invokes. The callee is the type of the
+     * receiver expression, e.g. the injected interface, rather than the class
+     * that happens to declare the method.
+     */
+    @Override
+    public void visitInvocation(CtInvocation<?> invocation) {
+        if (!calls) {
+            return;
+        }
+        CtExecutableReference<?> executable = invocation.getExecutable();
+        if (executable.isConstructor()) {
+            return;
+        }
 
-        // Process class inheritance
-        List<CtClass<?>> classes = model.getElements(new TypeFilter<>(CtClass.class));
+        // Invocations in a method that is not part of a component are
+        // dropped before their receiver type is resolved
+        CtMethod<?> method = invocation.getParent(CtMethod.class);
+        if (method == null) {
+            return;
+        }
+        if (method != caller) {
+            caller = method;
+            callerComponent = classifier.is(method.getDeclaringType(), TypeRole.COMPONENT);
+            callerSignature = null;
+        }
+        if (!callerComponent) {
+            return;
+        }
 
-        for (CtClass<?> cls : classes) {
-            // Skip anonymous and inner classes
-            if (cls.isAnonymous() || cls.isLocalType())
-                continue;
+        CtExpression<?> receiver = invocation.getTarget();
+        CtTypeReference<?> target = receiver != null ? receiver.getType() : null;
+        if (target == null) {
+            target = executable.getDeclaringType();
+        }
+        // Classification is cached by name, so this is a lookup after the
+        // first call on a type
+        if (target == null || !classifier.is(target, TypeRole.COMPONENT)) {
+            return;
+        }
 
-            // Process extends relationship
-            if (cls.getSuperclass() != null) {
-                CtTypeReference<?> superClass = cls.getSuperclass();
+        String sourceClass = method.getDeclaringType().getQualifiedName();
+        String targetClass = target.getQualifiedName();
+        if (sourceClass.equals(targetClass)) {
+            return;
+        }
 
-                Relationship relationship = new Relationship();
-                relationship.setSourceClass(cls.getQualifiedName());
-                relationship.setTargetClass(superClass.getQualifiedName());
-                relationship.setType(RELATIONSHIP_EXTENDS);
+        if (callerSignature == null) {
+            callerSignature = method.getSignature();
+        }
+        String targetMethod = executable.getSignature();
+        if (!seenCalls.add(sourceClass + "#" + callerSignature + "->" + targetClass + "#" + targetMethod)) {
+            return;
+        }
 
-                relationships.add(relationship);
-            }
+        Relationship relationship = new Relationship();
+        relationship.setSourceClass(sourceClass);
+        relationship.setSourceMethod(callerSignature);
+        relationship.setTargetClass(targetClass);
+        relationship.setTargetMethod(targetMethod);
+        relationship.setType(RELATIONSHIP_CALLS);
+        relationship.setName(executable.getSimpleName());
 
-            // Process implements relationships
-            for (CtTypeReference<?> iface : cls.getSuperInterfaces()) {
-                Relationship relationship = new Relationship();
-                relationship.setSourceClass(cls.getQualifiedName());
-                relationship.setTargetClass(iface.getQualifiedName());
-                relationship.setType(RELATIONSHIP_IMPLEMENTS);
+        methodCalls.add(relationship);
+    }
 
-                relationships.add(relationship);
-            }
-        }
+    @Override
+    public void visitClass(CtClass<?> cls) {
+        // Skip anonymous and inner classes
+        if (cls.isAnonymous() || cls.isLocalType())
+            return;
 
-        // Process interface extension
-        List<CtInterface<?>> interfaces = model.getElements(new TypeFilter<>(CtInterface.class));
+        // Process extends relationship
+        if (cls.getSuperclass() != null) {
+            CtTypeReference<?> superClass = cls.getSuperclass();
 
-        for (CtInterface<?> iface : interfaces) {
-            for (CtTypeReference<?> superIface : iface.getSuperInterfaces()) {
-                Relationship relationship = new Relationship();
-                relationship.setSourceClass(iface.getQualifiedName());
-                relationship.setTargetClass(superIface.getQualifiedName());
-                relationship.setType(RELATIONSHIP_EXTENDS);
+            Relationship relationship = new Relationship();
+            relationship.setSourceClass(cls.getQualifiedName());
+            relationship.setTargetClass(superClass.getQualifiedName());
+            relationship.setType(RELATIONSHIP_EXTENDS);
 
-                relationships.add(relationship);
-            }
+            classInheritance.add(relationship);
         }
 
-        return relationships;
+        // Process implements relationships
+        for (CtTypeReference<?> iface : cls.getSuperInterfaces()) {
+            Relationship relationship = new Relationship();
+            relationship.setSourceClass(cls.getQualifiedName());
+            relationship.setTargetClass(iface.getQualifiedName());
+            relationship.setType(RELATIONSHIP_IMPLEMENTS);
+
+            classInheritance.add(relationship);
+        }
     }
 
-    private boolean isComponent(CtType<?> type) {
-        if (type == null)
-            return false;
-
-        // Check component annotations
-        boolean hasComponentAnnotation = type.getAnnotations().stream()
-                .anyMatch(a -> {
-                    String annoName = a.getAnnotationType().getSimpleName();
-                    return annoName.equals("Component") ||
-                            annoName.equals("Service") ||
-                            annoName.equals("Repository") ||
-                            annoName.equals("Controller") ||
-                            annoName.equals("RestController");
-                });
-
-        if (hasComponentAnnotation)
-            return true;
-
-        // Check naming conventions
-        String name = type.getSimpleName();
-        return name.endsWith("Service") ||
-                name.endsWith("Repository") ||
-                name.endsWith("Dao") ||
-                name.endsWith("Controller");
+    @Override
+    public void visitInterface(CtInterface<?> iface) {
+        // Process interface extension
+        for (CtTypeReference<?> superIface : iface.getSuperInterfaces()) {
+            Relationship relationship = new Relationship();
+            relationship.setSourceClass(iface.getQualifiedName());
+            relationship.setTargetClass(superIface.getQualifiedName());
+            relationship.setType(RELATIONSHIP_EXTENDS);
+
+            interfaceInheritance.add(relationship);
+        }
     }
 }
\ No newline at end of file
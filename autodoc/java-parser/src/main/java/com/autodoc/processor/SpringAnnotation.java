@@ -0,0 +1,93 @@
+package com.autodoc.processor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The Spring, JPA, validation and documentation annotations the processors
+ * act on, identified by simple name. Each constant has one bit in a
+ * {@code long}, so a set of them is a mask and membership is a bit test.
+ */
+public enum SpringAnnotation {
+    REST_CONTROLLER("RestController"),
+    CONTROLLER("Controller"),
+    CONTROLLER_ADVICE("ControllerAdvice"),
+    REQUEST_MAPPING("RequestMapping"),
+    GET_MAPPING("GetMapping"),
+    POST_MAPPING("PostMapping"),
+    PUT_MAPPING("PutMapping"),
+    DELETE_MAPPING("DeleteMapping"),
+    PATCH_MAPPING("PatchMapping"),
+    TAG("Tag"),
+    OPERATION("Operation"),
+    PATH_VARIABLE("PathVariable"),
+    REQUEST_PARAM("RequestParam"),
+    REQUEST_BODY("RequestBody"),
+    AUTOWIRED("Autowired"),
+    INJECT("Inject"),
+    RESOURCE("Resource"),
+    // Spring's @Value and Lombok's @Value share the simple name
+    VALUE("Value"),
+    COMPONENT("Component"),
+    SERVICE("Service"),
+    REPOSITORY("Repository"),
+    ENTITY("Entity"),
+    DATA("Data"),
+    TABLE("Table"),
+    JSON_PROPERTY("JsonProperty"),
+    JSON_INCLUDE("JsonInclude"),
+    SCHEMA("Schema"),
+    API_MODEL("ApiModel"),
+    API_MODEL_PROPERTY("ApiModelProperty"),
+    DOCUMENT("Document"),
+    EMBEDDABLE("Embeddable"),
+    DEPRECATED("Deprecated"),
+    NOT_NULL("NotNull"),
+    NOT_BLANK("NotBlank"),
+    NOT_EMPTY("NotEmpty"),
+    SIZE("Size"),
+    MIN("Min"),
+    MAX("Max"),
+    PATTERN("Pattern"),
+    EMAIL("Email");
+
+    private static final Map<String, SpringAnnotation> BY_SIMPLE_NAME = new HashMap<>();
+
+    static {
+        for (SpringAnnotation annotation : values()) {
+            BY_SIMPLE_NAME.put(annotation.simpleName, annotation);
+        }
+    }
+
+    private final String simpleName;
+    private final long bit;
+
+    SpringAnnotation(String simpleName) {
+        this.simpleName = simpleName;
+        this.bit = 1L << ordinal();
+    }
+
+    public String getSimpleName() {
+        return simpleName;
+    }
+
+    public long bit() {
+        return bit;
+    }
+
+    /**
+     * The annotation with this simple name, or null if the processors do
+     * not know it.
+     */
+    public static SpringAnnotation fromSimpleName(String simpleName) {
+        return BY_SIMPLE_NAME.get(simpleName);
+    }
+
+    public static long mask(SpringAnnotation... annotations) {
+        long mask = 0;
+        for (SpringAnnotation annotation : annotations) {
+            mask |= annotation.bit;
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,293 @@
+package com.autodoc.processor;
+
+import com.autodoc.model.FieldData;
+import com.autodoc.model.ModelData;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The annotation and naming rules the processors apply, independent of the
+ * front-end that produced the syntax tree. Annotations are identified by
+ * their simple name as a {@link SpringAnnotation}, grouped into the masks
+ * below, and their values are read through {@code toString()},
+ * i.e. as the printed source expression, so a Spoon {@code CtExpression} and
+ * a JavaParser {@code Expression} are interpreted the same way.
+ */
+public final class SpringConventions {
+
+    public static final long CONTROLLERS = SpringAnnotation.mask(
+            SpringAnnotation.REST_CONTROLLER, SpringAnnotation.CONTROLLER);
+
+    public static final long MAPPINGS = SpringAnnotation.mask(
+            SpringAnnotation.GET_MAPPING, SpringAnnotation.POST_MAPPING, SpringAnnotation.PUT_MAPPING,
+            SpringAnnotation.DELETE_MAPPING, SpringAnnotation.PATCH_MAPPING, SpringAnnotation.REQUEST_MAPPING);
+
+    /**
+     * Annotations that make a controller field a dependency.
+     */
+    public static final long DEPENDENCIES = SpringAnnotation.mask(
+            SpringAnnotation.AUTOWIRED, SpringAnnotation.INJECT, SpringAnnotation.RESOURCE, SpringAnnotation.VALUE);
+
+    /**
+     * Annotations that mark a field for injection when extracting
+     * relationships; unlike {@link #DEPENDENCIES} this excludes
+     * {@code @Value}.
+     */
+    public static final long INJECTIONS = SpringAnnotation.mask(
+            SpringAnnotation.AUTOWIRED, SpringAnnotation.INJECT, SpringAnnotation.RESOURCE);
+
+    public static final long COMPONENTS = SpringAnnotation.mask(
+            SpringAnnotation.COMPONENT, SpringAnnotation.SERVICE, SpringAnnotation.REPOSITORY,
+            SpringAnnotation.CONTROLLER, SpringAnnotation.REST_CONTROLLER);
+
+    public static final long MODELS = SpringAnnotation.mask(
+            SpringAnnotation.ENTITY, SpringAnnotation.DATA, SpringAnnotation.TABLE, SpringAnnotation.JSON_PROPERTY,
+            SpringAnnotation.JSON_INCLUDE, SpringAnnotation.SCHEMA, SpringAnnotation.API_MODEL,
+            SpringAnnotation.DOCUMENT, SpringAnnotation.EMBEDDABLE, SpringAnnotation.VALUE);
+
+    private SpringConventions() {
+    }
+
+    public static void applyModelAnnotation(ModelData modelData, SpringAnnotation annotation, Map<String, ?> values) {
+        switch (annotation) {
+            case ENTITY:
+                // Handle @Entity annotation
+                modelData.getExtensions().put("isEntity", true);
+                break;
+            case TABLE:
+                // Extract table name if present
+                values.forEach((key, value) -> {
+                    if (key.equals("name")) {
+                        modelData.getExtensions().put("tableName", value.toString());
+                    }
+                });
+                break;
+            case API_MODEL:
+            case SCHEMA:
+                // Extract description from annotation
+                values.forEach((key, value) -> {
+                    if (key.equals("description")) {
+                        modelData.setDescription(value.toString().replace("\"", ""));
+                    } else if (key.equals("example")) {
+                        modelData.setExample(value.toString().replace("\"", ""));
+                    }
+                });
+                break;
+            case DEPRECATED:
+                modelData.setDeprecated(true);
+                // Extract since value if present
+                values.forEach((key, value) -> {
+                    if (key.equals("since")) {
+                        modelData.setSince(value.toString().replace("\"", ""));
+                    }
+                });
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Applies a field annotation's validation and documentation rules.
+     * Returns whether the annotation makes the field required.
+     */
+    public static boolean applyFieldAnnotation(FieldData fieldData, SpringAnnotation annotation, Map<String, ?> values) {
+        switch (annotation) {
+            case NOT_NULL:
+            case NOT_BLANK:
+            case NOT_EMPTY:
+                fieldData.getValidationRules().put("required", true);
+                return true;
+            case SIZE:
+                values.forEach((key, value) -> {
+                    if (key.equals("min")) {
+                        // Extract the integer value instead of the expression
+                        try {
+                            int minValue = Integer.parseInt(value.toString().replaceAll("[^0-9]", ""));
+                            fieldData.getValidationRules().put("minLength", minValue);
+                        } catch (NumberFormatException e) {
+                            // Handle parsing error
+                        }
+                    } else if (key.equals("max")) {
+                        try {
+                            int maxValue = Integer.parseInt(value.toString().replaceAll("[^0-9]", ""));
+                            fieldData.getValidationRules().put("maxLength", maxValue);
+                        } catch (NumberFormatException e) {
+                            // Handle parsing error
+                        }
+                    }
+                });
+                break;
+            case MIN:
+                values.forEach((key, value) -> {
+                    if (key.equals("value")) {
+                        try {
+                            double minValue = Double.parseDouble(value.toString().replaceAll("[^0-9.]", ""));
+                            fieldData.getValidationRules().put("minimum", minValue);
+                        } catch (NumberFormatException e) {
+                            // Handle parsing error
+                        }
+                    }
+                });
+                break;
+            case MAX:
+                values.forEach((key, value) -> {
+                    if (key.equals("value")) {
+                        try {
+                            double maxValue = Double.parseDouble(value.toString().replaceAll("[^0-9.]", ""));
+                            fieldData.getValidationRules().put("maximum", maxValue);
+                        } catch (NumberFormatException e) {
+                            // Handle parsing error
+                        }
+                    }
+                });
+                break;
+            case PATTERN:
+                values.forEach((key, value) -> {
+                    if (key.equals("regexp")) {
+                        // Extract string and clean it
+                        fieldData.getValidationRules().put("pattern", unquote(value.toString()));
+                    }
+                });
+                break;
+            case EMAIL:
+                fieldData.getValidationRules().put("format", "email");
+                break;
+            case DEPRECATED:
+                fieldData.setDeprecated(true);
+                break;
+            case SCHEMA:
+            case API_MODEL_PROPERTY:
+                values.forEach((key, value) -> {
+                    if (key.equals("description") || key.equals("value")) {
+                        fieldData.setDescription(unquote(value.toString()));
+                    } else if (key.equals("example")) {
+                        fieldData.setExample(unquote(value.toString()));
+                    } else if (key.equals("required")) {
+                        boolean isRequired = Boolean.parseBoolean(value.toString());
+                        fieldData.setRequired(isRequired);
+                        if (isRequired) {
+                            fieldData.getValidationRules().put("required", true);
+                        }
+                    }
+                });
+                break;
+            default:
+                break;
+        }
+        return false;
+    }
+
+    public static String extractPath(Map<String, ?> values) {
+        String path = "";
+
+        // Try to get from value or path attribute
+        for (String key : values.keySet()) {
+            if (key.equals("value") || key.equals("path")) {
+                path = values.get(key).toString().replace("\"", "");
+                break;
+            }
+        }
+
+        return path;
+    }
+
+    public static String deriveHttpMethod(SpringAnnotation mapping, Map<String, ?> values) {
+        switch (mapping) {
+            case GET_MAPPING:
+                return "GET";
+            case POST_MAPPING:
+                return "POST";
+            case PUT_MAPPING:
+                return "PUT";
+            case DELETE_MAPPING:
+                return "DELETE";
+            case PATCH_MAPPING:
+                return "PATCH";
+            case REQUEST_MAPPING:
+                // Check for method attribute
+                for (String key : values.keySet()) {
+                    if (key.equals("method")) {
+                        String methodExpr = values.get(key).toString();
+                        // Extract the method from RequestMethod.XXX
+                        if (methodExpr.contains(".")) {
+                            return methodExpr.substring(methodExpr.lastIndexOf('.') + 1);
+                        }
+                        return methodExpr;
+                    }
+                }
+                return "GET"; // Default to GET
+            default:
+                return "GET";
+        }
+    }
+
+    /**
+     * Tags named by a class-level {@code @Tag}.
+     */
+    public static void addTags(List<String> tags, Map<String, ?> values) {
+        values.forEach((key, value) -> {
+            if (key.equals("name") || key.equals("value")) {
+                tags.add(value.toString().replace("\"", ""));
+            }
+        });
+    }
+
+    /**
+     * Whether a {@code @RequestParam} is required; it is unless it says
+     * otherwise.
+     */
+    public static boolean isRequiredParam(Map<String, ?> values) {
+        boolean required = true;
+        for (String key : values.keySet()) {
+            if (key.equals("required")) {
+                required = Boolean.parseBoolean(values.get(key).toString());
+            }
+        }
+        return required;
+    }
+
+    /**
+     * An endpoint's summary or description: the method's Javadoc, else the
+     * member of its {@code @Operation}.
+     */
+    public static String operationMember(String javadoc, Map<String, ?> operation, String memberName) {
+        // Try to get from JavaDoc first
+        if (javadoc != null && !javadoc.trim().isEmpty()) {
+            return javadoc.trim();
+        }
+
+        // Try to get from @Operation annotation
+        if (operation != null) {
+            for (String key : operation.keySet()) {
+                if (key.equals(memberName)) {
+                    return operation.get(key).toString().replace("\"", "");
+                }
+            }
+        }
+
+        return "";
+    }
+
+    public static String combinePaths(String basePath, String methodPath) {
+        if (basePath.isEmpty()) return methodPath;
+        if (methodPath.isEmpty()) return basePath;
+
+        // Ensure there's a single slash between paths
+        if (basePath.endsWith("/") && methodPath.startsWith("/")) {
+            return basePath + methodPath.substring(1);
+        } else if (!basePath.endsWith("/") && !methodPath.startsWith("/")) {
+            return basePath + "/" + methodPath;
+        } else {
+            return basePath + methodPath;
+        }
+    }
+
+    private static String unquote(String value) {
+        if (value.startsWith("\"") && value.endsWith("\"")) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,243 @@
+package com.autodoc.processor;
+
+import spoon.reflect.declaration.CtClass;
+import spoon.reflect.declaration.CtPackage;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.factory.Factory;
+import spoon.reflect.reference.CtTypeParameterReference;
+import spoon.reflect.reference.CtTypeReference;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Assigns {@link TypeRole}s to types by a set of {@link ClassificationRules},
+ * once per qualified name. The rules are compiled up front: annotation names
+ * map to role bits, so a type's annotations are looked at in a single pass
+ * however many custom stereotypes there are, and package names are lowered
+ * and matched once per package.
+ *
+ * One classifier is shared by every processor of a parse, on every thread.
+ * It caches by qualified name, so it must not outlive the source tree it
+ * classified.
+ */
+public class TypeClassifier {
+
+    // Annotation flag that vetoes the controller role
+    private static final int NOT_CONTROLLER = 1 << 16;
+
+    private static final int MODEL_PACKAGE = 1;
+    private static final int NOT_MODEL_PACKAGE = 2;
+
+    private final Map<String, Integer> annotationFlags = new HashMap<>();
+    private final String[] componentSuffixes;
+    private final String[] modelPackages;
+    private final String[] modelExcludedPackages;
+    private final String[] dependencySuffixes;
+    private final String[] dependencyKeywords;
+
+    private final Map<String, Integer> packageFlags = new ConcurrentHashMap<>();
+    private final Map<String, Integer> roles = new ConcurrentHashMap<>();
+    // Names each model could not resolve, by the factory of the model
+    private final Map<Factory, Set<String>> unresolved = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public TypeClassifier() {
+        this(ClassificationRules.defaults());
+    }
+
+    public TypeClassifier(ClassificationRules rules) {
+        addAnnotationFlags(rules.getControllerAnnotations(), TypeRole.CONTROLLER.bit());
+        addAnnotationFlags(rules.getControllerExcludedAnnotations(), NOT_CONTROLLER);
+        addAnnotationFlags(rules.getComponentAnnotations(), TypeRole.COMPONENT.bit());
+        addAnnotationFlags(rules.getModelAnnotations(), TypeRole.MODEL.bit());
+
+        componentSuffixes = rules.getComponentSuffixes().toArray(new String[0]);
+        modelPackages = lowerCase(rules.getModelPackages());
+        modelExcludedPackages = lowerCase(rules.getModelExcludedPackages());
+        dependencySuffixes = rules.getDependencySuffixes().toArray(new String[0]);
+        dependencyKeywords = lowerCase(rules.getDependencyKeywords());
+    }
+
+    public boolean is(CtType<?> type, TypeRole role) {
+        return role.in(roles(type));
+    }
+
+    /**
+     * Whether a referenced type has a role; false if it cannot be resolved.
+     */
+    public boolean is(CtTypeReference<?> reference, TypeRole role) {
+        return role.in(roles(reference));
+    }
+
+    public int roles(CtType<?> type) {
+        return roles.computeIfAbsent(type.getQualifiedName(), name -> classify(type));
+    }
+
+    /**
+     * The roles of a referenced type. Its declaration is only looked up until
+     * it is classified, and once per model where it cannot be found: a model
+     * of another module or batch may still declare it, so a reference that
+     * does not resolve says nothing about the type.
+     */
+    public int roles(CtTypeReference<?> reference) {
+        if (reference instanceof CtTypeParameterReference) {
+            // A type variable's name does not identify it
+            return classifyDeclaration(reference);
+        }
+
+        String name = reference.getQualifiedName();
+        Integer cached = roles.get(name);
+        if (cached != null) {
+            return cached;
+        }
+        Set<String> unresolvedNames = unresolved.computeIfAbsent(reference.getFactory(),
+                factory -> ConcurrentHashMap.newKeySet());
+        if (unresolvedNames.contains(name)) {
+            return 0;
+        }
+        CtType<?> declaration = reference.getTypeDeclaration();
+        if (declaration == null) {
+            unresolvedNames.add(name);
+            return 0;
+        }
+        return roles(declaration);
+    }
+
+    /**
+     * The roles of the type named {@code qualifiedName}, computed by
+     * {@code classify} the first time, for front-ends other than Spoon.
+     */
+    public int roles(String qualifiedName, ToIntFunction<String> classify) {
+        return roles.computeIfAbsent(qualifiedName, classify::applyAsInt);
+    }
+
+    /**
+     * Applies the rules to a type described by its parts. Only concrete
+     * classes, enums and records included, can be models.
+     */
+    public <A> int classify(String simpleName, String packageName, boolean concreteClass, boolean isEnum,
+            List<A> annotations, Function<A, String> annotationName) {
+        int flags = 0;
+        for (A annotation : annotations) {
+            Integer annotationFlag = annotationFlags.get(annotationName.apply(annotation));
+            if (annotationFlag != null) {
+                flags |= annotationFlag;
+            }
+        }
+
+        int result = 0;
+        if (TypeRole.CONTROLLER.in(flags) && (flags & NOT_CONTROLLER) == 0) {
+            result |= TypeRole.CONTROLLER.bit();
+        }
+        if (TypeRole.COMPONENT.in(flags) || endsWithAny(simpleName, componentSuffixes)) {
+            result |= TypeRole.COMPONENT.bit();
+        }
+        if (concreteClass) {
+            int packageFlag = packageFlags.computeIfAbsent(packageName, this::classifyPackage);
+            if ((packageFlag & NOT_MODEL_PACKAGE) == 0
+                    && (TypeRole.MODEL.in(flags) || (packageFlag & MODEL_PACKAGE) != 0 || isEnum)) {
+                result |= TypeRole.MODEL.bit();
+            }
+        }
+        if (isEnum) {
+            result |= TypeRole.ENUM.bit();
+        }
+        return result;
+    }
+
+    /**
+     * Whether an annotation of this simple name can make a type a controller
+     * or a model, the types the IR is built from.
+     */
+    public boolean isRootAnnotation(String simpleName) {
+        Integer flags = annotationFlags.get(simpleName);
+        return flags != null && (flags & (TypeRole.CONTROLLER.bit() | TypeRole.MODEL.bit())) != 0;
+    }
+
+    /**
+     * Whether the package rules alone make the classes of a package models.
+     */
+    public boolean isModelPackage(String packageName) {
+        return packageFlags.computeIfAbsent(packageName, this::classifyPackage) == MODEL_PACKAGE;
+    }
+
+    /**
+     * Whether a controller member's type or variable name suggests a
+     * service it depends on.
+     */
+    public boolean isLikelyService(String name) {
+        if (endsWithAny(name, dependencySuffixes)) {
+            return true;
+        }
+        for (String keyword : dependencyKeywords) {
+            for (int i = 0; i + keyword.length() <= name.length(); i++) {
+                if (name.regionMatches(true, i, keyword, 0, keyword.length())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private int classifyDeclaration(CtTypeReference<?> reference) {
+        CtType<?> declaration = reference.getTypeDeclaration();
+        return declaration != null ? classify(declaration) : 0;
+    }
+
+    private int classify(CtType<?> type) {
+        CtPackage pkg = type.getPackage();
+        // Read the annotations directly: the type may belong to another
+        // thread's fragment, whose AnnotationIndex is not ours to store
+        return classify(type.getSimpleName(), pkg != null ? pkg.getQualifiedName() : "",
+                type instanceof CtClass && !type.isAbstract(), type.isEnum(),
+                type.getAnnotations(), a -> a.getAnnotationType().getSimpleName());
+    }
+
+    private int classifyPackage(String packageName) {
+        String pkg = packageName.toLowerCase(Locale.ROOT);
+        int flags = 0;
+        if (containsAny(pkg, modelPackages)) {
+            flags |= MODEL_PACKAGE;
+        }
+        if (containsAny(pkg, modelExcludedPackages)) {
+            flags |= NOT_MODEL_PACKAGE;
+        }
+        return flags;
+    }
+
+    private void addAnnotationFlags(List<String> annotations, int flag) {
+        for (String annotation : annotations) {
+            annotationFlags.merge(annotation, flag, (a, b) -> a | b);
+        }
+    }
+
+    private static boolean endsWithAny(String name, String[] suffixes) {
+        for (String suffix : suffixes) {
+            if (name.endsWith(suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsAny(String name, String[] parts) {
+        for (String part : parts) {
+            if (name.contains(part)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String[] lowerCase(List<String> values) {
+        return values.stream().map(value -> value.toLowerCase(Locale.ROOT)).toArray(String[]::new);
+    }
+}
@@ -0,0 +1,64 @@
+package com.autodoc.processor;
+
+import com.autodoc.model.EndpointData;
+import com.autodoc.model.ModelData;
+import com.autodoc.model.Relationship;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The IR produced by scanning a single top-level type. Fragments are
+ * extracted independently and merged into a {@code ParsedProject}.
+ */
+public class TypeFragment {
+    private String qualifiedName;
+    private List<ModelData> models = new ArrayList<>();
+    private List<EndpointData> endpoints = new ArrayList<>();
+    private List<Relationship> relationships = new ArrayList<>();
+
+    public TypeFragment() {
+    }
+
+    public TypeFragment(String qualifiedName,
+            List<ModelData> models,
+            List<EndpointData> endpoints,
+            List<Relationship> relationships) {
+        this.qualifiedName = qualifiedName;
+        this.models = models;
+        this.endpoints = endpoints;
+        this.relationships = relationships;
+    }
+
+    public String getQualifiedName() {
+        return qualifiedName;
+    }
+
+    public void setQualifiedName(String qualifiedName) {
+        this.qualifiedName = qualifiedName;
+    }
+
+    public List<ModelData> getModels() {
+        return models;
+    }
+
+    public void setModels(List<ModelData> models) {
+        this.models = models;
+    }
+
+    public List<EndpointData> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(List<EndpointData> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    public List<Relationship> getRelationships() {
+        return relationships;
+    }
+
+    public void setRelationships(List<Relationship> relationships) {
+        this.relationships = relationships;
+    }
+}
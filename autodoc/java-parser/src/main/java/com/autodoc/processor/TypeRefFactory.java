@@ -0,0 +1,33 @@
+package com.autodoc.processor;
+
+import com.autodoc.model.TypeRefData;
+import spoon.reflect.reference.CtTypeReference;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the {@link TypeRefData} for a Spoon type reference; shared by
+ * every processor so that they all describe a type the same way.
+ */
+public final class TypeRefFactory {
+
+    private TypeRefFactory() {
+    }
+
+    public static TypeRefData from(CtTypeReference<?> type) {
+        List<CtTypeReference<?>> typeArguments = type.getActualTypeArguments();
+        if (typeArguments.isEmpty()) {
+            return TypeRefData.of(type.getSimpleName());
+        }
+
+        // Process generic type arguments
+        List<TypeRefData> args = new ArrayList<>(typeArguments.size());
+        for (CtTypeReference<?> argType : typeArguments) {
+            if (!argType.getSimpleName().equals("?")) { // Skip wildcards
+                args.add(from(argType));
+            }
+        }
+        return TypeRefData.of(type.getSimpleName(), args);
+    }
+}
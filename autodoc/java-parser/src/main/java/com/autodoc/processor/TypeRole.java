@@ -0,0 +1,23 @@
+package com.autodoc.processor;
+
+/**
+ * What the processors treat a type as. A type can play several roles, e.g.
+ * a controller is also a component, so roles are combined as bits of an
+ * {@code int}; a type with none is of no interest.
+ */
+public enum TypeRole {
+    CONTROLLER,
+    COMPONENT,
+    MODEL,
+    ENUM;
+
+    private final int bit = 1 << ordinal();
+
+    public int bit() {
+        return bit;
+    }
+
+    public boolean in(int roles) {
+        return (roles & bit) != 0;
+    }
+}
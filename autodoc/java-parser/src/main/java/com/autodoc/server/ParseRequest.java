@@ -0,0 +1,49 @@
+package com.autodoc.server;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ParseRequest {
+    public static final String COMMAND_PARSE = "parse";
+    public static final String COMMAND_SHUTDOWN = "shutdown";
+
+    private long id;
+    private String command = COMMAND_PARSE;
+    private String source;
+    private List<String> args = new ArrayList<>(); // same flags as the command line
+
+    public ParseRequest() {
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getCommand() {
+        return command;
+    }
+
+    public void setCommand(String command) {
+        this.command = command;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public List<String> getArgs() {
+        return args;
+    }
+
+    public void setArgs(List<String> args) {
+        this.args = (args != null ? args : new ArrayList<>());
+    }
+}
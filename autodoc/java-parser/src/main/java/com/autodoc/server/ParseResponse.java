@@ -0,0 +1,42 @@
+package com.autodoc.server;
+
+import com.autodoc.model.ParsedProject;
+
+public class ParseResponse {
+    private long id;
+    private ParsedProject ir;
+    private String error;
+
+    public ParseResponse() {
+    }
+
+    public ParseResponse(long id, ParsedProject ir, String error) {
+        this.id = id;
+        this.ir = ir;
+        this.error = error;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public ParsedProject getIr() {
+        return ir;
+    }
+
+    public void setIr(ParsedProject ir) {
+        this.ir = ir;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,231 @@
+package com.autodoc.server;
+
+import com.autodoc.Parser;
+import com.autodoc.ParserOptions;
+import com.autodoc.model.ParsedProject;
+import com.autodoc.output.IrFormat;
+import com.autodoc.processor.ControllerProcessor;
+import com.autodoc.processor.ModelProcessor;
+import com.autodoc.processor.ModelScanner;
+import com.autodoc.processor.RelationshipExtractor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import spoon.Launcher;
+import spoon.support.compiler.VirtualFile;
+
+import java.io.*;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Long-running parser that keeps the JVM, Spoon and JDT warm between parses.
+ *
+ * The protocol is newline-delimited JSON: each line read is a
+ * {@link ParseRequest}, and each request is answered with one line holding a
+ * {@link ParseResponse}. It is served either on stdin/stdout or on a Unix
+ * domain socket, where every connection gets its own thread.
+ */
+public class ParserServer {
+
+    private static final String WARM_UP_SOURCE = "package warmup;\n"
+            + "@RestController @RequestMapping(\"/warmup\")\n"
+            + "public class WarmupController {\n"
+            + "  @Autowired private WarmupService service;\n"
+            + "  @GetMapping(\"/{id}\") public java.util.List<String> get(@PathVariable Long id) { return null; }\n"
+            + "}\n";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private volatile ServerSocketChannel server;
+
+    /**
+     * Serves requests from stdin and answers on stdout until stdin is closed
+     * or a shutdown request arrives.
+     */
+    public void serveStdio() throws IOException {
+        OutputStream out = new FileOutputStream(FileDescriptor.out);
+
+        // Anything else printing to stdout would corrupt the response stream
+        System.setOut(System.err);
+
+        warmUp();
+        serve(System.in, out);
+    }
+
+    /**
+     * Serves requests on a Unix domain socket until a shutdown request
+     * arrives. A stale socket file from a previous run is replaced.
+     */
+    public void serveSocket(Path socketPath) throws IOException {
+        System.setOut(System.err);
+        warmUp();
+
+        Files.deleteIfExists(socketPath);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try (ServerSocketChannel channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.bind(UnixDomainSocketAddress.of(socketPath));
+            server = channel;
+
+            while (channel.isOpen()) {
+                SocketChannel connection;
+                try {
+                    connection = channel.accept();
+                } catch (ClosedChannelException e) {
+                    break;
+                }
+
+                executor.submit(() -> {
+                    try (connection) {
+                        serve(Channels.newInputStream(connection), Channels.newOutputStream(connection));
+                    } catch (IOException e) {
+                        System.err.println("Connection failed: " + e.getMessage());
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            Files.deleteIfExists(socketPath);
+        }
+    }
+
+    void serve(InputStream in, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+
+            ParseRequest request;
+            try {
+                request = mapper.readValue(line, ParseRequest.class);
+            } catch (JsonProcessingException e) {
+                write(out, new ParseResponse(0, null, "Invalid request: " + e.getOriginalMessage()));
+                continue;
+            }
+
+            if (ParseRequest.COMMAND_SHUTDOWN.equals(request.getCommand())) {
+                write(out, new ParseResponse(request.getId(), null, null));
+                shutdown();
+                return;
+            }
+
+            write(out, handle(request));
+        }
+    }
+
+    private ParseResponse handle(ParseRequest request) {
+        if (!ParseRequest.COMMAND_PARSE.equals(request.getCommand())) {
+            return new ParseResponse(request.getId(), null, "Unknown command: " + request.getCommand());
+        }
+        if (request.getSource() == null) {
+            return new ParseResponse(request.getId(), null, "Missing source");
+        }
+        if (!Files.exists(Path.of(request.getSource()))) {
+            return new ParseResponse(request.getId(), null, "Source not found: " + request.getSource());
+        }
+
+        ParserOptions options;
+        try {
+            List<String> args = new ArrayList<>();
+            args.add(request.getSource());
+            args.addAll(request.getArgs());
+            options = ParserOptions.fromArgs(args.toArray(new String[0]));
+        } catch (IllegalArgumentException e) {
+            return new ParseResponse(request.getId(), null, e.getMessage());
+        }
+        String outputOption = outputOption(options);
+        if (outputOption != null) {
+            return new ParseResponse(request.getId(), null,
+                    outputOption + " is not supported by the server, which returns the IR in the response");
+        }
+
+        // A fresh Launcher per request keeps models isolated; the warm
+        // JVM is what makes repeated parses cheap
+        Parser parser = new Parser(options);
+        ParsedProject parsedProject;
+        try {
+            parsedProject = parser.parse(options.getSourcePath());
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            return new ParseResponse(request.getId(), null, e.getMessage() != null ? e.getMessage() : e.toString());
+        }
+
+        if (options.isMetrics()) {
+            try {
+                parser.getMetrics().report(options.getMetricsPath());
+            } catch (IOException e) {
+                e.printStackTrace();
+                return new ParseResponse(request.getId(), null, "Failed to write metrics: " + e);
+            }
+        }
+        return new ParseResponse(request.getId(), parsedProject, null);
+    }
+
+    /**
+     * Returns the first option of a request that only shapes how the command
+     * line writes the IR, or null if there is none.
+     */
+    private static String outputOption(ParserOptions options) {
+        if (options.getOutputPath() != null) {
+            return "Output path " + options.getOutputPath();
+        }
+        if (options.getFormat() != IrFormat.JSON) {
+            return "--format";
+        }
+        if (options.isStream()) {
+            return "--stream";
+        }
+        if (options.isPretty()) {
+            return "--pretty";
+        }
+        if (options.isTypeTable()) {
+            return "--type-table";
+        }
+        if (options.isControllerTable()) {
+            return "--controller-table";
+        }
+        return null;
+    }
+
+    private void write(OutputStream out, ParseResponse response) throws IOException {
+        synchronized (out) {
+            out.write(mapper.writeValueAsBytes(response));
+            out.write('\n');
+            out.flush();
+        }
+    }
+
+    private void shutdown() throws IOException {
+        ServerSocketChannel channel = server;
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Loads and JIT-compiles the Spoon/JDT and extraction paths on a tiny
+     * in-memory controller, so the first real request does not pay for it.
+     */
+    private void warmUp() {
+        Launcher launcher = new Launcher();
+        launcher.getEnvironment().setCommentEnabled(true);
+        launcher.addInputResource(new VirtualFile(WARM_UP_SOURCE, "WarmupController.java"));
+        launcher.buildModel();
+
+        new ModelScanner(new ModelProcessor(), new ControllerProcessor(), new RelationshipExtractor())
+                .scan(launcher.getModel(), new ParsedProject());
+        mapper.valueToTree(new ParsedProject());
+    }
+}
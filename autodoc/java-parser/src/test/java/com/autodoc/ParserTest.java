@@ -0,0 +1,165 @@
+package com.autodoc;
+
+import com.autodoc.output.IrFormat;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ParserTest extends TempDirTestCase {
+
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        write("com/shop/web/OrderController.java", "package com.shop.web;\n"
+                + "import com.shop.dto.OrderDto;\n"
+                + "import com.shop.service.OrderService;\n"
+                + "@RestController @RequestMapping(\"/orders\")\n"
+                + "public class OrderController {\n"
+                + "  @Autowired private OrderService orderService;\n"
+                + "  @GetMapping(\"/{id}\") public OrderDto get(@PathVariable Long id) { return orderService.get(id); }\n"
+                + "  @PostMapping public OrderDto create(@RequestBody OrderDto order) { return orderService.save(order); }\n"
+                + "}\n");
+        write("com/shop/web/admin/AdminController.java", "package com.shop.web.admin;\n"
+                + "import com.shop.service.OrderService;\n"
+                + "@RestController @RequestMapping(\"/admin\")\n"
+                + "public class AdminController {\n"
+                + "  @Autowired private OrderService orderService;\n"
+                + "  @DeleteMapping(\"/orders/{id}\") public void purge(@PathVariable Long id) { orderService.delete(id); }\n"
+                + "}\n");
+        write("com/shop/service/OrderService.java", "package com.shop.service;\n"
+                + "import com.shop.dto.OrderDto;\n"
+                + "@Service public class OrderService {\n"
+                + "  @Autowired private OrderRepository orderRepository;\n"
+                + "  public OrderDto get(Long id) { return orderRepository.find(id); }\n"
+                + "  public OrderDto save(OrderDto order) { return order; }\n"
+                + "  public void delete(Long id) { }\n"
+                + "}\n");
+        write("com/shop/service/OrderRepository.java", "package com.shop.service;\n"
+                + "import com.shop.dto.OrderDto;\n"
+                + "@Repository public class OrderRepository { public OrderDto find(Long id) { return null; } }\n");
+        write("com/shop/dto/OrderDto.java", "package com.shop.dto;\n"
+                + "/** An order. */\n"
+                + "public class OrderDto {\n"
+                + "  @NotNull private Long id;\n"
+                + "  private java.util.List<LineDto> lines;\n"
+                + "  private OrderStatus status;\n"
+                + "}\n");
+        write("com/shop/dto/LineDto.java", "package com.shop.dto;\n"
+                + "public class LineDto { private String sku; private int quantity; }\n");
+        write("com/shop/dto/OrderStatus.java", "package com.shop.dto;\n"
+                + "public enum OrderStatus { OPEN, SHIPPED }\n");
+    }
+
+    public void testParallelMatchesSequential() throws Exception {
+        String sequential = ir("--dependency-closure", "--calls");
+        assertTrue(sequential, sequential.contains("OrderRepository"));
+        assertEquals(sequential, ir("--dependency-closure", "--calls", "--parallel=4"));
+
+        String javaParser = ir("--engine=javaparser", "--dependency-closure");
+        assertEquals(javaParser, ir("--engine=javaparser", "--dependency-closure", "--parallel=4"));
+    }
+
+    public void testRejectsBadNumbers() {
+        try {
+            ParserOptions.fromArgs(new String[] {"src", "--parallel=four"});
+            fail("--parallel=four was accepted");
+        } catch (IllegalArgumentException e) {
+            assertEquals("--parallel requires a number, got four", e.getMessage());
+        }
+    }
+
+    public void testStreamMatchesParse() throws Exception {
+        String[][] variants = {
+                {},
+                {"--calls", "--prune-models"},
+                {"--controller-table", "--dependency-closure"},
+        };
+        for (String[] args : variants) {
+            assertEquals(String.join(" ", args), ir(args), streamedIr(args));
+        }
+        assertTrue(ir().startsWith("{\"schemaVersion\":" + IrFormat.SCHEMA_VERSION + ","));
+
+        // Streamed type ids are numbered in the order they are written
+        ObjectMapper mapper = new ObjectMapper();
+        String[] args = {"--type-table", "--controller-table", "--dependency-closure"};
+        JsonNode streamed = mapper.readTree(streamedIr(args));
+        assertTrue(streamed.has("types"));
+        assertEquals(resolveTypeTable(mapper.readTree(ir(args))), resolveTypeTable(streamed));
+    }
+
+    public void testFailedStreamLeavesNoOutput() throws Exception {
+        // The cache directory is a file, so parsing fails after the output
+        // was opened and the start of the IR written
+        Path cache = dir.resolve("cache");
+        Files.writeString(cache, "not a directory");
+        Path output = dir.resolve("ir.json");
+
+        try {
+            Parser.run(ParserOptions.fromArgs(new String[] {dir.resolve("com").toString(), output.toString(),
+                    "--stream", "--cache-dir=" + cache}));
+            fail("Parsing with a file as cache directory succeeded");
+        } catch (Exception expected) {
+            assertFalse(Files.exists(output));
+        }
+    }
+
+    /**
+     * Replaces the type ids of an IR with the types they stand for and drops
+     * its type table.
+     */
+    private static JsonNode resolveTypeTable(JsonNode ir) {
+        ObjectNode resolved = ir.deepCopy();
+        List<JsonNode> types = new ArrayList<>();
+        for (JsonNode entry : resolved.remove("types")) {
+            ObjectNode type = entry.deepCopy();
+            ArrayNode args = type.putArray("args");
+            for (JsonNode arg : entry.get("args")) {
+                args.add(types.get(arg.asInt()));
+            }
+            types.add(type);
+        }
+        resolveTypeIds(resolved, types);
+        return resolved;
+    }
+
+    private static void resolveTypeIds(JsonNode node, List<JsonNode> types) {
+        if (node.isObject()) {
+            ObjectNode object = (ObjectNode) node;
+            for (String key : List.of("type", "typeRef", "requestBodyType", "responseType")) {
+                if (object.path(key).isInt()) {
+                    object.set(key, types.get(object.get(key).asInt()));
+                }
+            }
+        }
+        for (JsonNode child : node) {
+            resolveTypeIds(child, types);
+        }
+    }
+
+    private String streamedIr(String... args) throws Exception {
+        Path output = dir.resolve("ir.json");
+        List<String> streamArgs = new ArrayList<>(List.of(dir.resolve("com").toString(), output.toString(), "--stream"));
+        streamArgs.addAll(Arrays.asList(args));
+        try {
+            Parser.run(ParserOptions.fromArgs(streamArgs.toArray(new String[0])));
+            return Files.readString(output);
+        } finally {
+            Files.delete(output);
+        }
+    }
+
+    private String ir(String... args) throws Exception {
+        ParserOptions options = ParserOptions.fromArgs(args);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Parser.write(new Parser(options).parse(dir.resolve("com").toString()), options, out);
+        return out.toString("UTF-8");
+    }
+}
@@ -0,0 +1,41 @@
+package com.autodoc;
+
+import junit.framework.TestCase;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Base for tests that work on files: every test gets a fresh temporary
+ * directory, which is deleted with everything in it afterwards.
+ */
+public abstract class TempDirTestCase extends TestCase {
+
+    protected Path dir;
+
+    protected void setUp() throws Exception {
+        dir = Files.createTempDirectory(getClass().getSimpleName());
+    }
+
+    protected void tearDown() throws Exception {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    /**
+     * Writes a file at a path relative to the test directory, creating its
+     * parent directories.
+     */
+    protected void write(String path, String source) throws Exception {
+        write(dir, path, source);
+    }
+
+    protected static void write(Path root, String path, String source) throws Exception {
+        Path file = root.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, source);
+    }
+}
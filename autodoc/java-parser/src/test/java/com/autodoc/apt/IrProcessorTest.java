@@ -0,0 +1,117 @@
+package com.autodoc.apt;
+
+import com.autodoc.Parser;
+import com.autodoc.ParserOptions;
+import com.autodoc.TempDirTestCase;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class IrProcessorTest extends TempDirTestCase {
+
+    private Path src;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        src = dir.resolve("src");
+
+        write(src, "com/shop/model/Item.java", "package com.shop.model;\n"
+                + "import java.util.*;\n"
+                + "import com.shop.annotations.*;\n"
+                + "/**\n * An item.\n * @see Status\n */\n"
+                + "@Schema(description = \"ignored\")\n"
+                + "public class Item extends Base implements java.io.Serializable {\n"
+                + "  /** The id */ @NotNull private Long id;\n"
+                + "  /** Sizes */ @Size(min = 1, max = 5) private List<String> tags;\n"
+                + "  private Map.Entry<String, ? extends Number> entry;\n"
+                + "  private static final int MAX = 3;\n"
+                + "  public static class Nested { private Status status; }\n"
+                + "}\n");
+        write(src, "com/shop/model/Base.java", "package com.shop.model;\n"
+                + "public abstract class Base { }\n");
+        write(src, "com/shop/model/Status.java", "package com.shop.model;\n"
+                + "/** Status */ public enum Status {\n  /** Open */ OPEN,\n  CLOSED;\n  private int rank;\n}\n");
+        write(src, "com/shop/service/ItemService.java", "package com.shop.service;\n"
+                + "import com.shop.annotations.*;\n"
+                + "@Service public class ItemService implements Lookup {\n"
+                + "  @Autowired private ItemRepository repository;\n"
+                + "  public int compareTo(Lookup other) { return 0; }\n"
+                + "}\n"
+                + "interface Lookup extends Comparable<Lookup> {}\n");
+        write(src, "com/shop/service/ItemRepository.java", "package com.shop.service;\n"
+                + "public interface ItemRepository {}\n");
+        write(src, "com/shop/web/ItemController.java", "package com.shop.web;\n"
+                + "import com.shop.annotations.*;\n"
+                + "import com.shop.model.*;\n"
+                + "import com.shop.service.ItemService;\n"
+                + "@RestController @RequestMapping(\"/items\") @Tag(name = \"items\")\n"
+                + "public class ItemController {\n"
+                + "  private final ItemService itemService;\n"
+                + "  public ItemController(ItemService itemService) { this.itemService = itemService; }\n"
+                + "  /** Finds one. */\n"
+                + "  @GetMapping(\"/{id}\") public Item get(@PathVariable Long id) { return null; }\n"
+                + "  @Operation(summary = \"Search\")\n"
+                + "  @GetMapping public java.util.List<Item> search(@RequestParam(required = false) String q,\n"
+                + "      int limit) { return null; }\n"
+                + "  @RequestMapping(value = \"/{id}\", method = RequestMethod.PUT)\n"
+                + "  public void put(@PathVariable Long id, @RequestBody Item... items) { }\n"
+                + "  @Deprecated @DeleteMapping(\"/{id}\") public void delete(@PathVariable Long id) { }\n"
+                + "}\n");
+
+        // Stand-ins for the Spring and validation annotations, which javac
+        // needs to resolve
+        write(src, "com/shop/annotations/RequestMethod.java", "package com.shop.annotations;\n"
+                + "public enum RequestMethod { GET, PUT }\n");
+        for (String name : List.of("Schema", "NotNull", "Size", "Service", "Autowired", "RestController",
+                "RequestMapping", "Tag", "GetMapping", "DeleteMapping", "Operation", "PathVariable",
+                "RequestParam", "RequestBody")) {
+            write(src, "com/shop/annotations/" + name + ".java", "package com.shop.annotations;\n"
+                    + "public @interface " + name + " {\n"
+                    + "  String[] value() default {}; String name() default \"\"; String description() default \"\";\n"
+                    + "  String summary() default \"\"; boolean required() default true;\n"
+                    + "  int min() default 0; int max() default 0; RequestMethod[] method() default {};\n"
+                    + "}\n");
+        }
+    }
+
+    public void testSameIrAsSpoon() throws Exception {
+        Path ir = dir.resolve("ir.json");
+        assertTrue(compile("-Aautodoc.ir=" + ir, "-Aautodoc.args=--pretty"));
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        Parser.write(new Parser().parse(src.toString()), new ParserOptions(), expected);
+        ObjectMapper mapper = new ObjectMapper();
+        assertEquals(mapper.readTree(expected.toByteArray()), mapper.readTree(ir.toFile()));
+    }
+
+    public void testRejectsOptionsForOtherFrontEnds() throws Exception {
+        assertFalse(compile("-Aautodoc.ir=" + dir.resolve("ir.json"), "-Aautodoc.args=--stream"));
+        assertFalse(Files.exists(dir.resolve("ir.json")));
+    }
+
+    private boolean compile(String... options) throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        Path classes = Files.createDirectories(dir.resolve("classes"));
+        List<String> args = new ArrayList<>(List.of("-d", classes.toString(), "-proc:only"));
+        args.addAll(List.of(options));
+
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+                Stream<Path> paths = Files.walk(src)) {
+            Iterable<? extends JavaFileObject> files = fileManager.getJavaFileObjectsFromPaths(
+                    paths.filter(path -> path.toString().endsWith(".java")).collect(Collectors.toList()));
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, args, null, files);
+            task.setProcessors(List.of(new IrProcessor()));
+            return task.call();
+        }
+    }
+}
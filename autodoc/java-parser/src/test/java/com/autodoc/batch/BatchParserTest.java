@@ -0,0 +1,101 @@
+package com.autodoc.batch;
+
+import com.autodoc.Parser;
+import com.autodoc.ParserOptions;
+import com.autodoc.TempDirTestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.util.List;
+
+public class BatchParserTest extends TempDirTestCase {
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        write("orders/com/shop/OrderController.java", "package com.shop;\n"
+                + "@RestController @RequestMapping(\"/orders\")\n"
+                + "public class OrderController {\n"
+                + "  @GetMapping(\"/{id}\") public Order get(@PathVariable Long id) { return null; }\n"
+                + "}\n"
+                + "class Order { private Long id; }\n"
+                + "class Unused { private String name; }\n");
+        write("users/com/shop/UserController.java", "package com.shop;\n"
+                + "@RestController public class UserController {\n"
+                + "  @PostMapping(\"/users\") public void create(@RequestBody User user) { }\n"
+                + "}\n"
+                + "class User { private String name; }\n");
+    }
+
+    public void testWritesOneIrPerProject() throws Exception {
+        write("manifest.txt", "# project  output  options\n"
+                + "\n"
+                + "orders   out/orders.json   --prune-models\n"
+                + "users    out/users.json\n");
+        Files.createDirectories(dir.resolve("out"));
+
+        BatchParser batch = BatchParser.fromManifest(dir.resolve("manifest.txt"), List.of("--pretty"));
+        assertEquals(2, batch.getProjects().size());
+        assertEquals(0, batch.run(2));
+
+        assertEquals(singleIr("orders", "--pretty", "--prune-models"), Files.readString(dir.resolve("out/orders.json")));
+        assertEquals(singleIr("users", "--pretty"), Files.readString(dir.resolve("out/users.json")));
+        assertFalse(Files.readString(dir.resolve("out/orders.json")).contains("Unused"));
+    }
+
+    public void testFailedProjectDoesNotStopTheOthers() throws Exception {
+        write("manifest.txt", "orders missing/orders.json --stream\nusers users.json\n");
+
+        assertEquals(1, BatchParser.fromManifest(dir.resolve("manifest.txt"), List.of()).run(1));
+        assertTrue(Files.exists(dir.resolve("users.json")));
+    }
+
+    public void testManifestErrorsNameTheLine() throws Exception {
+        write("manifest.txt", "orders orders.json\nusers orders.json\n");
+        assertManifestError("manifest.txt:2: output");
+
+        write("manifest.txt", "orders orders.json --socket=/tmp/parser.sock\n");
+        assertManifestError("manifest.txt:1: --socket is not allowed");
+
+        write("manifest.txt", "missing missing.json\n");
+        assertManifestError("manifest.txt:1: source not found");
+
+        write("manifest.txt", "orders --pretty\n");
+        assertManifestError("manifest.txt:1: expected a source directory");
+
+        write("manifest.txt", "orders orders.json --engine=kotlin\n");
+        assertManifestError("manifest.txt:1: Unknown parser engine");
+    }
+
+    public void testOptions() {
+        ParserOptions options = ParserOptions.fromArgs(new String[]{"--manifest=projects.txt", "--projects=3"});
+        assertEquals("projects.txt", options.getManifestPath());
+        assertEquals(3, options.getProjectParallelism());
+
+        for (String[] args : List.of(new String[]{"--manifest=projects.txt", "src"},
+                new String[]{"--manifest=projects.txt", "--cache-dir=cache"},
+                new String[]{"--projects=2", "src"})) {
+            try {
+                ParserOptions.fromArgs(args);
+                fail("Expected " + String.join(" ", args) + " to be rejected");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    private void assertManifestError(String message) throws Exception {
+        try {
+            BatchParser.fromManifest(dir.resolve("manifest.txt"), List.of());
+            fail("Expected a manifest error");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(message));
+        }
+    }
+
+    private String singleIr(String project, String... args) throws Exception {
+        ParserOptions options = ParserOptions.fromArgs(args);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Parser.write(new Parser(options).parse(dir.resolve(project).toString()), options, out);
+        return out.toString("UTF-8");
+    }
+}
@@ -0,0 +1,159 @@
+package com.autodoc.bytecode;
+
+import com.autodoc.Parser;
+import com.autodoc.ParserEngine;
+import com.autodoc.ParserOptions;
+import com.autodoc.TempDirTestCase;
+import com.autodoc.model.TypeRefData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+
+public class BytecodeEngineTest extends TempDirTestCase {
+
+    private Path src;
+    private Path classes;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        src = dir.resolve("src");
+        classes = dir.resolve("classes");
+
+        write(src, "com/shop/model/Item.java", "package com.shop.model;\n"
+                + "import java.util.*;\n"
+                + "import com.shop.annotations.*;\n"
+                + "/**\n * An item.\n * @see Status\n */\n"
+                + "@Schema(description = \"ignored\")\n"
+                + "public class Item extends Base implements java.io.Serializable {\n"
+                + "  /** The id */ @NotNull private Long id;\n"
+                + "  /** Sizes */ @Size(min = 1, max = 5) private List<String> tags;\n"
+                + "  private Map.Entry<String, ? extends Number> entry;\n"
+                + "  private int[] counts;\n"
+                + "  private static final int MAX = 3;\n"
+                + "  public static class Nested { private Status status; }\n"
+                + "}\n");
+        write(src, "com/shop/model/Base.java", "package com.shop.model;\n"
+                + "public abstract class Base { }\n");
+        write(src, "com/shop/model/Status.java", "package com.shop.model;\n"
+                + "/** Status */ public enum Status {\n  /** Open */ OPEN,\n  CLOSED;\n  private int rank;\n}\n");
+        write(src, "com/shop/service/ItemService.java", "package com.shop.service;\n"
+                + "import com.shop.annotations.*;\n"
+                + "@Service public class ItemService implements Lookup {\n"
+                + "  @Autowired private ItemRepository repository;\n"
+                + "  public int compareTo(Lookup other) { return 0; }\n"
+                + "}\n"
+                + "interface Lookup extends Comparable<Lookup> {}\n");
+        write(src, "com/shop/service/ItemRepository.java", "package com.shop.service;\n"
+                + "public interface ItemRepository {}\n");
+        write(src, "com/shop/web/ItemController.java", "package com.shop.web;\n"
+                + "import com.shop.annotations.*;\n"
+                + "import com.shop.model.*;\n"
+                + "import com.shop.service.ItemService;\n"
+                + "@RestController @RequestMapping(\"/items\") @Tag(name = \"items\")\n"
+                + "public class ItemController {\n"
+                + "  private final ItemService itemService;\n"
+                + "  public ItemController(ItemService itemService) { this.itemService = itemService; }\n"
+                + "  /** Finds one. */\n"
+                + "  @GetMapping(\"/{id}\") public Item get(@PathVariable Long id) { return null; }\n"
+                + "  @Operation(summary = \"Search\")\n"
+                + "  @GetMapping public java.util.List<Item> search(@RequestParam(required = false) String q,\n"
+                + "      long offset, int limit) { return null; }\n"
+                + "  @RequestMapping(value = \"/{id}\", method = RequestMethod.PUT)\n"
+                + "  public void put(@PathVariable Long id, @RequestBody Item... items) { }\n"
+                + "  @Deprecated @DeleteMapping(\"/{id}\") public void delete(@PathVariable Long id) { }\n"
+                + "}\n");
+
+        // Stand-ins for the Spring and validation annotations, kept in class
+        // files like the real ones
+        write(src, "com/shop/annotations/RequestMethod.java", "package com.shop.annotations;\n"
+                + "public enum RequestMethod { GET, PUT }\n");
+        for (String name : List.of("Schema", "NotNull", "Size", "Service", "Autowired", "RestController",
+                "RequestMapping", "Tag", "GetMapping", "DeleteMapping", "Operation", "PathVariable",
+                "RequestParam", "RequestBody")) {
+            write(src, "com/shop/annotations/" + name + ".java", "package com.shop.annotations;\n"
+                    + "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME)\n"
+                    + "public @interface " + name + " {\n"
+                    + "  String[] value() default {}; String name() default \"\"; String description() default \"\";\n"
+                    + "  String summary() default \"\"; boolean required() default true;\n"
+                    + "  int min() default 0; int max() default 0; RequestMethod[] method() default {};\n"
+                    + "}\n");
+        }
+        compile();
+    }
+
+    public void testSameIrAsSpoonWithJavadocSources() throws Exception {
+        assertEquals(spoonIr(), bytecodeIr(classes.toString(), src.toString()));
+    }
+
+    public void testReadsJars() throws Exception {
+        Path jar = dir.resolve("shop.jar");
+        try (OutputStream out = Files.newOutputStream(jar);
+                JarOutputStream jarOut = new JarOutputStream(out);
+                Stream<Path> paths = Files.walk(classes)) {
+            for (Path file : paths.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                jarOut.putNextEntry(new ZipEntry(classes.relativize(file).toString().replace(File.separatorChar, '/')));
+                jarOut.write(Files.readAllBytes(file));
+            }
+        }
+
+        // An empty directory first on the path changes nothing
+        Path empty = Files.createDirectories(dir.resolve("empty"));
+        assertEquals(spoonIr(), bytecodeIr(empty + File.pathSeparator + jar, src.toString()));
+    }
+
+    public void testDescriptionsNeedSources() throws Exception {
+        String ir = new ObjectMapper().writeValueAsString(bytecodeIr(classes.toString(), null));
+        assertFalse(ir.contains("An item."));
+        assertTrue(ir.contains("\"summary\":\"Search\""));
+    }
+
+    public void testSignatures() {
+        assertEquals(TypeRefData.of("Map", List.of(TypeRefData.of("String"),
+                TypeRefData.of("List", List.of(TypeRefData.of("T"))))),
+                Signatures.typeRef("Ljava/util/Map<Ljava/lang/String;Ljava/util/List<TT;>;>;"));
+        assertEquals(TypeRefData.of("Entry", List.of(TypeRefData.of("String"))),
+                Signatures.typeRef("Ljava/util/Map$Entry<Ljava/lang/String;+Ljava/lang/Number;>;"));
+        assertEquals(TypeRefData.of("Inner", List.of(TypeRefData.of("Long"))),
+                Signatures.typeRef("Lcom/shop/Outer<TT;>.Inner<Ljava/lang/Long;>;"));
+        assertEquals(TypeRefData.of("List[]"), Signatures.typeRef("[Ljava/util/List<*>;"));
+        assertEquals("com.shop.Outer$Inner[][]", Signatures.erasure("[[Lcom/shop/Outer$Inner;"));
+        assertEquals(List.of("TT;", "J", "[I"), Signatures.parameters("<T:Ljava/lang/Object;>(TT;J[I)V^TE;"));
+        assertEquals("Ljava/util/List<TT;>;", Signatures.returnType("<T:Ljava/lang/Object;>()Ljava/util/List<TT;>;"));
+        assertEquals(3, Signatures.parameterSlots("(JI)V", false)[1]);
+    }
+
+    private Object spoonIr() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        return mapper.readTree(mapper.writeValueAsString(new Parser().parse(src.toString())));
+    }
+
+    private Object bytecodeIr(String classPath, String javadocSources) throws Exception {
+        ParserOptions options = new ParserOptions();
+        options.setEngine(ParserEngine.BYTECODE);
+        options.setJavadocSources(javadocSources);
+        options.setParallelism(2);
+
+        ObjectMapper mapper = new ObjectMapper();
+        return mapper.readTree(mapper.writeValueAsString(new Parser(options).parse(classPath)));
+    }
+
+    private void compile() throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<String> args = new ArrayList<>(List.of("-g", "-proc:none", "-d", classes.toString()));
+        try (Stream<Path> paths = Files.walk(src)) {
+            paths.filter(path -> path.toString().endsWith(".java")).forEach(path -> args.add(path.toString()));
+        }
+        assertEquals(0, compiler.run(null, null, null, args.toArray(new String[0])));
+    }
+}
@@ -0,0 +1,114 @@
+package com.autodoc.cache;
+
+import com.autodoc.Parser;
+import com.autodoc.ParserOptions;
+import com.autodoc.TempDirTestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+public class IrCacheTest extends TempDirTestCase {
+
+    private IrCache cache;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        cache = new IrCache(dir);
+
+        cache.put(entry("a/UserController.java", "h1", List.of("UserController"), List.of("a/UserService.java")));
+        cache.put(entry("a/UserService.java", "h2", List.of("UserService"), List.of()));
+        cache.put(entry("a/UserDto.java", "h3", List.of("UserDto", "Address"), List.of()));
+        cache.save();
+
+        cache = new IrCache(dir);
+        cache.load();
+    }
+
+    public void testChangedAndRemovedFiles() {
+        Map<String, String> hashes = new TreeMap<>();
+        hashes.put("a/UserController.java", "h1");
+        hashes.put("a/UserService.java", "changed");
+        hashes.put("a/New.java", "h4");
+
+        assertEquals(Set.of("a/UserService.java", "a/New.java"), cache.changedFiles(hashes));
+        assertEquals(Set.of("a/UserDto.java"), cache.removedFiles(hashes));
+    }
+
+    public void testDependentsOf() {
+        assertEquals(Set.of("a/UserController.java"), cache.dependentsOf(Set.of("a/UserService.java")));
+        assertTrue(cache.dependentsOf(Set.of("a/UserDto.java")).isEmpty());
+    }
+
+    public void testReferencedFilesMatchesNestedTypeNames() {
+        Set<String> referenced = cache.referencedFiles(List.of("class X { Address a; UserService s; }"));
+
+        assertEquals(Set.of("a/UserDto.java", "a/UserService.java"), referenced);
+    }
+
+    public void testDeclaredTypes() {
+        assertEquals(Set.of("Outer", "Inner", "Kind"),
+                IrCache.declaredTypes("public class Outer { static class Inner {} enum Kind { A } String s = \"x\"; }"));
+    }
+
+    public void testIncrementalParseMatchesFullParse() throws Exception {
+        Path src = dir.resolve("src");
+        write(src, "com/shop/web/OrderController.java", "package com.shop.web;\n"
+                + "import com.shop.model.*;\nimport com.shop.service.*;\n"
+                + "@RestController @RequestMapping(\"/orders\")\n"
+                + "public class OrderController {\n"
+                + "  @Autowired private OrderService orderService;\n"
+                + "  @Autowired private AuditService auditService;\n"
+                + "  @GetMapping(\"/{id}\") public Order get(@PathVariable Long id) { return null; }\n"
+                + "}\n");
+        write(src, "com/shop/web/admin/AdminController.java", "package com.shop.web.admin;\n"
+                + "@RestController public class AdminController {\n"
+                + "  @PostMapping(\"/admin/reset\") public void reset() { }\n"
+                + "}\n");
+        write(src, "com/shop/service/OrderService.java", "package com.shop.service;\n"
+                + "@Service public class OrderService { }\n");
+        write(src, "com/shop/model/Order.java", "package com.shop.model;\n"
+                + "public class Order { private Long id; private Status status; }\n"
+                + "class Line { private int quantity; }\n");
+        write(src, "com/shop/model/Status.java", "package com.shop.model;\npublic enum Status { OPEN, CLOSED }\n");
+        write(src, "com/shop/model/Coupon.java", "package com.shop.model;\npublic class Coupon { private String code; }\n");
+        assertIncrementalMatchesFull(src);
+
+        // Edit
+        write(src, "com/shop/web/admin/AdminController.java", "package com.shop.web.admin;\n"
+                + "@RestController public class AdminController {\n"
+                + "  @PostMapping(\"/admin/flush\") public void flush() { }\n"
+                + "}\n");
+        assertIncrementalMatchesFull(src);
+
+        // Add a component the unchanged controller already mentions
+        write(src, "com/shop/service/AuditService.java", "package com.shop.service;\n"
+                + "@Service public class AuditService { }\n");
+        assertIncrementalMatchesFull(src);
+        assertTrue(ir(src, null).contains("com.shop.service.AuditService"));
+
+        // Delete
+        Files.delete(src.resolve("com/shop/model/Coupon.java"));
+        assertIncrementalMatchesFull(src);
+    }
+
+    private void assertIncrementalMatchesFull(Path src) throws Exception {
+        assertEquals(ir(src, null), ir(src, dir.resolve("cache").toString()));
+    }
+
+    private static String ir(Path src, String cacheDir) throws Exception {
+        ParserOptions options = new ParserOptions();
+        options.setCacheDir(cacheDir);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Parser.write(new Parser(options).parse(src.toString()), options, out);
+        return out.toString("UTF-8");
+    }
+
+    private static CachedFile entry(String path, String hash, List<String> types, List<String> dependencies) {
+        CachedFile file = new CachedFile(path, hash);
+        file.setDeclaredTypes(new ArrayList<>(types));
+        file.setDependencies(new ArrayList<>(dependencies));
+        return file;
+    }
+}
@@ -0,0 +1,115 @@
+package com.autodoc.discovery;
+
+import com.autodoc.Parser;
+import com.autodoc.ParserOptions;
+import com.autodoc.TempDirTestCase;
+import com.autodoc.processor.TypeClassifier;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SourceDiscoveryTest extends TempDirTestCase {
+
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        write("web/ItemController.java", "package com.shop.web;\n"
+                + "// @Entity in a comment is not a marker\n"
+                + "@org.springframework.web.bind.annotation.RestController\n"
+                + "public class ItemController { private ItemService itemService; }\n");
+        write("service/ItemService.java", "package com.shop.service;\n"
+                + "public class ItemService { private Audit audit; }\n");
+        write("service/Audit.java", "package com.shop.service;\npublic class Audit {}\n");
+        write("model/Item.java", "package com.shop.model;\npublic class Item {}\n");
+        write("util/Flags.java", "package com.shop.util;\npublic class Flags { enum Flag { ON } }\n");
+        write("util/Strings.java", "package com.shop.util;\n"
+                + "/** Not a model: \"@Entity\" */ public class Strings { String s = \"@Entity class X\"; }\n");
+    }
+
+    public void testKeepsRootsAndTheirReferences() {
+        SourceDiscovery discovery = new SourceDiscovery(new TypeClassifier(), 2);
+
+        // Audit is only mentioned by ItemService, which the controller mentions
+        assertEquals(List.of("model/Item.java", "service/Audit.java", "service/ItemService.java",
+                "util/Flags.java", "web/ItemController.java"), relative(discovery.discover(dir)));
+        assertEquals(6, discovery.getScannedCount());
+    }
+
+    public void testPrefilterKeepsInjectionChains() throws Exception {
+        write("chain/OrderController.java", "package com.shop.chain;\n"
+                + "@RestController @RequestMapping(\"/orders\")\n"
+                + "public class OrderController {\n"
+                + "  @Autowired private OrderService orderService;\n"
+                + "  @GetMapping public String list() { return orderService.find(); }\n"
+                + "}\n");
+        write("chain/OrderService.java", "package com.shop.chain;\n"
+                + "@Service public class OrderService {\n"
+                + "  @Autowired private OrderRepository orderRepository;\n"
+                + "  public String find() { return orderRepository.load(); }\n"
+                + "}\n");
+        write("chain/OrderRepository.java", "package com.shop.chain;\n"
+                + "@Repository public class OrderRepository extends BaseRepository {\n"
+                + "  public String load() { return null; }\n"
+                + "}\n");
+        write("chain/BaseRepository.java", "package com.shop.chain;\n"
+                + "@Repository public abstract class BaseRepository { @Autowired private Audit audit; }\n");
+
+        String full = ir("--dependency-closure");
+        assertTrue(full, full.contains("OrderRepository"));
+        assertEquals(full, ir("--dependency-closure", "--prefilter"));
+    }
+
+    public void testSplitsModulesAtBuildFiles() throws Exception {
+        write("api/pom.xml", "<project/>\n");
+        write("api/src/Item.java", "package com.shop.model;\npublic class Item {}\n");
+        write("api/src/ItemApi.java", "package com.shop.api;\n"
+                + "public class ItemApi { Item item; ItemService itemService; }\n");
+
+        List<SourceModule> modules = new SourceDiscovery(new TypeClassifier(), 1).discoverModules(dir, false);
+
+        assertEquals(2, modules.size());
+        SourceModule root = modules.get(0);
+        SourceModule api = modules.get(1);
+        assertEquals(dir.toAbsolutePath().normalize(), root.getDirectory());
+        assertEquals(6, root.getSources().size());
+        assertEquals(List.of("api/src/Item.java", "api/src/ItemApi.java"), relative(api.getSources()));
+        // The api module declares its own copy of Item
+        assertEquals(List.of("service/ItemService.java"), relative(api.getReferences()));
+    }
+
+    public void testBatchesWholePackagesInModelOrder() throws Exception {
+        write("web/admin/AdminController.java", "package com.shop.web.admin;\n"
+                + "public class AdminController { private ItemService itemService; }\n");
+
+        List<SourceModule> batches = new SourceDiscovery(new TypeClassifier(), 1).discoverBatches(dir, false, 1);
+
+        // One package per batch, sub-packages before their parent
+        List<List<String>> sources = new ArrayList<>();
+        for (SourceModule batch : batches) {
+            sources.add(relative(batch.getSources()));
+        }
+        assertEquals(List.of(List.of("model/Item.java"), List.of("service/Audit.java", "service/ItemService.java"),
+                List.of("util/Flags.java", "util/Strings.java"), List.of("web/admin/AdminController.java"),
+                List.of("web/ItemController.java")), sources);
+        assertEquals(List.of("service/ItemService.java"), relative(batches.get(3).getReferences()));
+
+        assertEquals(1, new SourceDiscovery(new TypeClassifier(), 1).discoverBatches(dir, false, 1 << 20).size());
+    }
+
+    private String ir(String... args) throws Exception {
+        ParserOptions options = ParserOptions.fromArgs(args);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Parser.write(new Parser(options).parse(dir.toString()), options, out);
+        return out.toString("UTF-8");
+    }
+
+    private List<String> relative(List<Path> files) {
+        List<String> paths = new ArrayList<>();
+        for (Path file : files) {
+            paths.add(dir.toAbsolutePath().normalize().relativize(file).toString().replace('\\', '/'));
+        }
+        return paths;
+    }
+}
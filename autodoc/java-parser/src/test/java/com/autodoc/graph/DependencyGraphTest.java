@@ -0,0 +1,81 @@
+package com.autodoc.graph;
+
+import com.autodoc.model.Relationship;
+import com.autodoc.processor.RelationshipExtractor;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DependencyGraphTest extends TestCase {
+
+    public void testFollowsInjectionsThroughInheritance() {
+        DependencyGraph graph = DependencyGraph.of(List.of(
+                injects("OrderController", "OrderService"),
+                relationship("OrderServiceImpl", "OrderService", RelationshipExtractor.RELATIONSHIP_IMPLEMENTS),
+                relationship("OrderServiceImpl", "BaseService", RelationshipExtractor.RELATIONSHIP_EXTENDS),
+                injects("OrderServiceImpl", "OrderRepository"),
+                injects("BaseService", "AuditLog"),
+                relationship("OrderController", "BaseController", RelationshipExtractor.RELATIONSHIP_EXTENDS),
+                injects("BaseController", "Metrics"),
+                injects("UserController", "UserService")));
+
+        // Implementations of what is injected count, supertypes of the
+        // controller only for their own injections
+        assertEquals(List.of("OrderService", "OrderServiceImpl", "Metrics", "OrderRepository", "AuditLog"),
+                graph.downstream("OrderController"));
+        assertEquals(List.of(), graph.downstream("OrderRepository"));
+        assertEquals(List.of(), graph.downstream("Unknown"));
+    }
+
+    public void testReachabilityAndCycles() {
+        DependencyGraph graph = DependencyGraph.of(List.of(
+                injects("A", "B"),
+                injects("B", "C"),
+                injects("C", "A"),
+                injects("C", "D"),
+                injects("E", "E"),
+                relationship("F", "D", RelationshipExtractor.RELATIONSHIP_EXTENDS)));
+
+        int a = graph.idOf("A");
+        assertEquals(6, graph.size());
+        assertEquals(6, graph.edgeCount());
+        assertEquals(List.of("B", "C", "D"), names(graph, graph.reachable(a, DependencyGraph.INJECTS, 0)));
+        assertEquals(List.of("B", "C", "D", "F"),
+                names(graph, graph.reachable(a, DependencyGraph.INJECTS, DependencyGraph.EXTENDS)));
+        assertEquals(List.of(List.of("A", "B", "C"), List.of("E")), graph.cycles(DependencyGraph.INJECTS));
+        assertEquals(List.of(), graph.cycles(DependencyGraph.EXTENDS));
+    }
+
+    public void testLongChainsDoNotRecurse() {
+        List<Relationship> relationships = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            relationships.add(injects("C" + i, "C" + (i + 1)));
+        }
+        relationships.add(injects("C100000", "C0"));
+        DependencyGraph graph = DependencyGraph.of(relationships);
+
+        assertEquals(100_000, graph.downstream("C0").size());
+        assertEquals(1, graph.cycles(DependencyGraph.INJECTS).size());
+    }
+
+    private static List<String> names(DependencyGraph graph, int[] ids) {
+        List<String> names = new ArrayList<>();
+        for (int id : ids) {
+            names.add(graph.nameOf(id));
+        }
+        return names;
+    }
+
+    private static Relationship injects(String source, String target) {
+        return relationship(source, target, RelationshipExtractor.RELATIONSHIP_INJECTS);
+    }
+
+    private static Relationship relationship(String source, String target, String type) {
+        Relationship relationship = new Relationship();
+        relationship.setSourceClass(source);
+        relationship.setTargetClass(target);
+        relationship.setType(type);
+        return relationship;
+    }
+}
@@ -0,0 +1,46 @@
+package com.autodoc.graph;
+
+import com.autodoc.model.EndpointData;
+import com.autodoc.model.FieldData;
+import com.autodoc.model.ModelData;
+import com.autodoc.model.ParameterData;
+import com.autodoc.model.TypeRefData;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ModelPrunerTest extends TestCase {
+
+    public void testKeepsModelsReachableFromEndpoints() {
+        EndpointData list = new EndpointData();
+        list.setResponseType(TypeRefData.of("ResponseEntity", List.of(
+                TypeRefData.of("Page", List.of(TypeRefData.of("UserDto"))))));
+        list.setParameters(List.of());
+        EndpointData find = new EndpointData();
+        find.setResponseType(TypeRefData.of("void"));
+        ParameterData filter = new ParameterData();
+        filter.setType(TypeRefData.of("com.shop.Filter"));
+        find.setParameters(List.of(filter));
+
+        ModelData page = model("Page", "content", TypeRefData.of("List", List.of(TypeRefData.of("T"))));
+        ModelData user = model("UserDto", "address", TypeRefData.of("Address"));
+        user.setExtendsList(List.of("com.shop.BaseDto"));
+        ModelData base = model("BaseDto", "id", TypeRefData.of("Long"));
+        ModelData address = model("Address", "street", TypeRefData.of("String"));
+        ModelData filterModel = model("Filter", "role", TypeRefData.of("Role"));
+        ModelData role = new ModelData("Role", "", new ArrayList<>());
+        role.setEnum(true);
+        ModelData unused = model("Unused", "user", TypeRefData.of("UserDto"));
+
+        List<ModelData> kept = ModelPruner.prune(List.of(list, find),
+                List.of(address, base, page, unused, user, filterModel, role));
+        assertEquals(List.of(address, base, page, user, filterModel, role), kept);
+    }
+
+    private static ModelData model(String name, String fieldName, TypeRefData fieldType) {
+        List<FieldData> fields = new ArrayList<>();
+        fields.add(new FieldData(fieldName, fieldType, false, ""));
+        return new ModelData(name, "", fields);
+    }
+}
@@ -0,0 +1,73 @@
+package com.autodoc.javaparser;
+
+import com.autodoc.Parser;
+import com.autodoc.ParserEngine;
+import com.autodoc.ParserOptions;
+import com.autodoc.TempDirTestCase;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class JavaParserEngineTest extends TempDirTestCase {
+
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        write("com/shop/model/Item.java", "package com.shop.model;\n"
+                + "import java.util.*;\n"
+                + "/**\n * An item.\n * @see Status\n */\n"
+                + "@Schema(description = \"ignored\")\n"
+                + "public class Item extends Base implements java.io.Serializable {\n"
+                + "  /** The id */ @NotNull private Long id;\n"
+                + "  /** Sizes */ @Size(min = 1, max = 5) private List<String> tags, aliases;\n"
+                + "  private Map.Entry<String, ? extends Number> entry;\n"
+                + "  private static final int MAX = 3;\n"
+                + "  public static class Nested { private Status status; }\n"
+                + "}\n");
+        write("com/shop/model/Status.java", "package com.shop.model;\n"
+                + "/** Status */ public enum Status {\n  /** Open */ OPEN,\n  CLOSED;\n  private int rank;\n}\n");
+        write("com/shop/service/ItemService.java", "package com.shop.service;\n"
+                + "@Service public class ItemService implements Lookup {\n"
+                + "  @Autowired private ItemRepository repository;\n"
+                + "}\n"
+                + "interface Lookup extends Comparable<Lookup> {}\n");
+        write("com/shop/service/ItemRepository.java", "package com.shop.service;\n"
+                + "public interface ItemRepository {}\n");
+        write("com/shop/web/ItemController.java", "package com.shop.web;\n"
+                + "import com.shop.model.*;\n"
+                + "import com.shop.service.ItemService;\n"
+                + "@RestController @RequestMapping(\"/items\") @Tag(name = \"items\")\n"
+                + "public class ItemController {\n"
+                + "  private final ItemService itemService;\n"
+                + "  public ItemController(ItemService itemService) { this.itemService = itemService; }\n"
+                + "  /** Finds one. */\n"
+                + "  @GetMapping(\"/{id}\") public Item get(@PathVariable Long id) { return null; }\n"
+                + "  @Operation(summary = \"Search\")\n"
+                + "  @GetMapping public java.util.List<Item> search(@RequestParam(required = false) String q,\n"
+                + "      int limit) { return null; }\n"
+                + "  @RequestMapping(value = \"/{id}\", method = RequestMethod.PUT)\n"
+                + "  public void put(@PathVariable Long id, @RequestBody Item... items) { }\n"
+                + "  @Deprecated @DeleteMapping(\"/{id}\") public void delete(@PathVariable Long id) { }\n"
+                + "}\n");
+    }
+
+    public void testSameIrAsSpoon() throws Exception {
+        assertEquals(parse(ParserEngine.SPOON, 1), parse(ParserEngine.JAVAPARSER, 1));
+    }
+
+    public void testParallelParsingKeepsOrder() throws Exception {
+        assertEquals(parse(ParserEngine.JAVAPARSER, 1), parse(ParserEngine.JAVAPARSER, 4));
+    }
+
+    public void testDocCommentsRenderLikeSpoon() {
+        assertEquals("Item payload\n", DocComments.render("/** Item payload */"));
+        assertEquals("", DocComments.render("/***/"));
+        assertEquals("Gets {@link Item} by id.\n\n@param id\n\t\tthe id\n@return the item\n",
+                DocComments.render("/**\n * Gets {@link   Item } by id.\n *\n * @param id the id\n * @return the item\n */"));
+    }
+
+    private String parse(ParserEngine engine, int parallelism) throws Exception {
+        ParserOptions options = new ParserOptions();
+        options.setEngine(engine);
+        options.setParallelism(parallelism);
+        return new ObjectMapper().writeValueAsString(new Parser(options).parse(dir.toString()));
+    }
+}
@@ -0,0 +1,65 @@
+package com.autodoc.model;
+
+import junit.framework.TestCase;
+
+import java.util.List;
+
+public class ParsedProjectTest extends TestCase {
+
+    public void testIndexesWhatIsAdded() {
+        ParsedProject project = new ParsedProject();
+        List<EndpointData> endpoints = project.getEndpoints();
+
+        EndpointData list = endpoint("GET", "/items", "ItemController");
+        EndpointData create = endpoint("POST", "/items", "ItemController");
+        EndpointData users = endpoint("GET", "/users", "UserController");
+        project.addEndpoint(list);
+        project.addEndpoint(create);
+        project.addEndpoint(users);
+        project.addModel(new ModelData("Item", "", List.of()));
+
+        // Views are live
+        assertEquals(List.of(list, create, users), endpoints);
+        assertEquals(List.of(list, create), project.findEndpoints("com.shop.ItemController"));
+        assertEquals(List.of(), project.findEndpoints("com.shop.OrderController"));
+        assertSame(create, project.findEndpoint("POST", "/items"));
+        assertNull(project.findEndpoint("DELETE", "/items"));
+        assertEquals("Item", project.findModels("Item").get(0).getName());
+
+        try {
+            endpoints.add(users);
+            fail("Views are read-only");
+        } catch (UnsupportedOperationException expected) {
+        }
+    }
+
+    public void testInternsTypeReferencesPerProject() {
+        ParsedProject project = new ParsedProject();
+        project.addModel(new ModelData("Item", "", List.of(
+                new FieldData("name", TypeRefData.of("String"), false, ""),
+                new FieldData("tags", TypeRefData.of("List", List.of(TypeRefData.of("String"))), false, ""))));
+        EndpointData endpoint = endpoint("GET", "/items", "ItemController");
+        endpoint.setResponseType(TypeRefData.of("List", List.of(TypeRefData.of("String"))));
+        project.addEndpoint(endpoint);
+
+        List<FieldData> fields = project.getModels().get(0).getFields();
+        TypeRefData string = fields.get(0).getTypeRef();
+        assertSame(string, fields.get(1).getTypeRef().getArgs().get(0));
+        assertSame(fields.get(1).getTypeRef(), endpoint.getResponseType());
+
+        // Another project does not see them
+        ParsedProject other = new ParsedProject();
+        other.addModel(new ModelData("Tag", "", List.of(new FieldData("name", TypeRefData.of("String"), false, ""))));
+        assertNotSame(string, other.getModels().get(0).getFields().get(0).getTypeRef());
+        assertEquals(string, other.getModels().get(0).getFields().get(0).getTypeRef());
+    }
+
+    private static EndpointData endpoint(String method, String path, String controllerName) {
+        EndpointData endpoint = new EndpointData();
+        endpoint.setMethod(method);
+        endpoint.setPath(path);
+        endpoint.setControllerName(controllerName);
+        endpoint.setControllerPackage("com.shop");
+        return endpoint;
+    }
+}
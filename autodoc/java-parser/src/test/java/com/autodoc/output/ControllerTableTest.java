@@ -0,0 +1,62 @@
+package com.autodoc.output;
+
+import com.autodoc.model.DependencyData;
+import com.autodoc.model.EndpointData;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import junit.framework.TestCase;
+
+import java.io.StringWriter;
+import java.util.List;
+
+public class ControllerTableTest extends TestCase {
+
+    public void testControllersAreWrittenOnce() throws Exception {
+        DependencyData service = new DependencyData();
+        service.setName("itemService");
+        service.setType("com.shop.ItemService");
+        service.setInjectionType("field");
+
+        ControllerTable table = new ControllerTable();
+        ObjectMapper mapper = new ObjectMapper();
+        table.install(mapper);
+
+        StringWriter out = new StringWriter();
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeObjectField("endpoints", List.of(
+                    endpoint("/items", "ItemController", List.of(service)),
+                    endpoint("/users", "UserController", List.of()),
+                    endpoint("/items/{id}", "ItemController", List.of(service))));
+            table.write(generator);
+            generator.writeEndObject();
+        }
+
+        JsonNode root = mapper.readTree(out.toString());
+        assertEquals(0, root.at("/endpoints/0/controller").intValue());
+        assertEquals(1, root.at("/endpoints/1/controller").intValue());
+        assertEquals(0, root.at("/endpoints/2/controller").intValue());
+        assertEquals("/items/{id}", root.at("/endpoints/2/path").textValue());
+        assertTrue(root.at("/endpoints/0/dependencies").isMissingNode());
+        assertTrue(root.at("/endpoints/0/controllerName").isMissingNode());
+
+        assertEquals(2, table.size());
+        assertEquals("ItemController", root.at("/controllers/0/name").textValue());
+        assertEquals("com.shop", root.at("/controllers/0/package").textValue());
+        assertEquals("items", root.at("/controllers/0/tags/0").textValue());
+        assertEquals("itemService", root.at("/controllers/0/dependencies/0/name").textValue());
+        assertEquals(0, root.at("/controllers/1/dependencies").size());
+    }
+
+    private static EndpointData endpoint(String path, String controllerName, List<DependencyData> dependencies) {
+        EndpointData endpoint = new EndpointData();
+        endpoint.setPath(path);
+        endpoint.setMethod("GET");
+        endpoint.setTags(List.of(controllerName.equals("ItemController") ? "items" : "users"));
+        endpoint.setControllerName(controllerName);
+        endpoint.setControllerPackage("com.shop");
+        endpoint.setDependencies(dependencies);
+        return endpoint;
+    }
+}
@@ -0,0 +1,44 @@
+package com.autodoc.output;
+
+import com.autodoc.model.FieldData;
+import com.autodoc.model.TypeRefData;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import junit.framework.TestCase;
+
+import java.io.StringWriter;
+import java.util.List;
+
+public class TypeTableTest extends TestCase {
+
+    public void testReferencesAreWrittenOnce() throws Exception {
+        TypeRefData string = TypeRefData.of("String");
+        TypeRefData list = TypeRefData.of("List", List.of(string));
+
+        TypeTable table = new TypeTable();
+        ObjectMapper mapper = new ObjectMapper();
+        table.install(mapper);
+
+        StringWriter out = new StringWriter();
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeObjectField("fields", List.of(
+                    new FieldData("names", list, false, ""),
+                    new FieldData("name", string, false, ""),
+                    new FieldData("aliases", list, false, "")));
+            table.write(generator);
+            generator.writeEndObject();
+        }
+
+        JsonNode root = mapper.readTree(out.toString());
+        assertEquals(1, root.at("/fields/0/typeRef").intValue());
+        assertEquals(0, root.at("/fields/1/typeRef").intValue());
+        assertEquals(1, root.at("/fields/2/typeRef").intValue());
+
+        assertEquals(2, table.size());
+        assertEquals("String", root.at("/types/0/base").textValue());
+        assertEquals("List", root.at("/types/1/base").textValue());
+        assertEquals(0, root.at("/types/1/args/0").intValue());
+    }
+}
@@ -0,0 +1,60 @@
+package com.autodoc.processor;
+
+import com.autodoc.model.Relationship;
+import junit.framework.TestCase;
+import spoon.Launcher;
+import spoon.support.compiler.VirtualFile;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RelationshipExtractorTest extends TestCase {
+
+    public void testCallsBetweenComponents() {
+        Launcher launcher = new Launcher();
+        launcher.getEnvironment().setNoClasspath(true);
+        launcher.addInputResource(new VirtualFile("package com.shop;\n"
+                + "@RestController public class ItemController {\n"
+                + "  private final ItemService items;\n"
+                + "  public ItemController(ItemService items) { this.items = items; }\n"
+                + "  @GetMapping public Object list(String q) {\n"
+                + "    items.find(q); items.find(q);\n"
+                + "    return java.util.List.of(items.count()).stream().map(c -> items.find(\"x\"));\n"
+                + "  }\n"
+                + "  private String helper() { return format(\"%s\"); }\n"
+                + "  private String format(String s) { return s.trim(); }\n"
+                + "}\n", "ItemController.java"));
+        launcher.addInputResource(new VirtualFile("package com.shop;\n"
+                + "@Service public class ItemService {\n"
+                + "  public Object find(String q) { return null; }\n"
+                + "  public long count() { return 0; }\n"
+                + "}\n", "ItemService.java"));
+        launcher.addInputResource(new VirtualFile("package com.shop;\n"
+                + "public class ItemReport {\n"
+                + "  private ItemService items;\n"
+                + "  public long total() { return items.count(); }\n"
+                + "}\n", "ItemReport.java"));
+        launcher.buildModel();
+
+        // Only recorded when asked for
+        for (Relationship relationship : new RelationshipExtractor(new TypeClassifier(), false)
+                .extractRelationships(launcher.getModel())) {
+            assertFalse(relationship.getType().equals(RelationshipExtractor.RELATIONSHIP_CALLS));
+        }
+
+        RelationshipExtractor extractor = new RelationshipExtractor();
+        List<String> calls = new ArrayList<>();
+        for (Relationship relationship : extractor.extractRelationships(launcher.getModel())) {
+            if (relationship.getType().equals(RelationshipExtractor.RELATIONSHIP_CALLS)) {
+                calls.add(relationship.getSourceClass() + "#" + relationship.getSourceMethod() + " -> "
+                        + relationship.getTargetClass() + "#" + relationship.getTargetMethod());
+            }
+        }
+
+        // Each distinct call once, lambdas included; calls within the class
+        // and to or from non-components are left out
+        assertEquals(List.of(
+                "com.shop.ItemController#list(java.lang.String) -> com.shop.ItemService#find(java.lang.String)",
+                "com.shop.ItemController#list(java.lang.String) -> com.shop.ItemService#count()"), calls);
+    }
+}
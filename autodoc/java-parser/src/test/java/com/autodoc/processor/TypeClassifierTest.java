@@ -0,0 +1,84 @@
+package com.autodoc.processor;
+
+import junit.framework.TestCase;
+import spoon.Launcher;
+import spoon.reflect.CtModel;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.reference.CtTypeReference;
+import spoon.support.compiler.VirtualFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Function;
+
+public class TypeClassifierTest extends TestCase {
+
+    public void testDefaultRules() {
+        TypeClassifier classifier = new TypeClassifier();
+
+        int controller = classify(classifier, "UserController", "com.shop.web", "RestController");
+        assertTrue(TypeRole.CONTROLLER.in(controller));
+        assertTrue(TypeRole.COMPONENT.in(controller));
+        assertFalse(TypeRole.MODEL.in(controller));
+
+        assertEquals(TypeRole.COMPONENT.bit(),
+                classify(classifier, "Errors", "com.shop.web", "RestController", "ControllerAdvice"));
+        assertEquals(TypeRole.MODEL.bit(), classify(classifier, "User", "com.shop.Dto"));
+        assertEquals(0, classify(classifier, "User", "com.shop.service.dto", "Entity"));
+        assertEquals(TypeRole.COMPONENT.bit(), classify(classifier, "UserDao", "com.shop"));
+
+        assertTrue(classifier.isLikelyService("userRepository"));
+        assertTrue(classifier.isLikelyService("AuditHelper"));
+        assertFalse(classifier.isLikelyService("String"));
+    }
+
+    public void testCustomRules() throws Exception {
+        Path file = Files.createTempFile("rules", ".properties");
+        try {
+            Files.writeString(file, "component.annotations=+UseCase\nmodel.packages=view\n");
+            TypeClassifier classifier = new TypeClassifier(ClassificationRules.load(file));
+
+            assertEquals(TypeRole.COMPONENT.bit(), classify(classifier, "Checkout", "com.shop", "UseCase"));
+            assertEquals(TypeRole.COMPONENT.bit(), classify(classifier, "Checkout", "com.shop", "Service"));
+            assertEquals(TypeRole.MODEL.bit(), classify(classifier, "Cart", "com.shop.view"));
+            assertEquals(0, classify(classifier, "Cart", "com.shop.model"));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    public void testRolesAreCachedByName() {
+        TypeClassifier classifier = new TypeClassifier();
+        assertEquals(TypeRole.ENUM.bit(), classifier.roles("com.shop.Status", name -> TypeRole.ENUM.bit()));
+        assertEquals(TypeRole.ENUM.bit(), classifier.roles("com.shop.Status", name -> 0));
+    }
+
+    public void testUnresolvedReferencesAreNotCached() {
+        TypeClassifier classifier = new TypeClassifier();
+
+        // One module only references the service, the next declares it
+        CtModel client = model("package com.shop.web;\n"
+                + "public class Client { private com.shop.service.Billing billing; }\n");
+        CtTypeReference<?> reference = client.getAllTypes().iterator().next().getField("billing").getType();
+        assertEquals(0, classifier.roles(reference));
+
+        CtModel service = model("package com.shop.service;\n@Service public class Billing { }\n");
+        CtType<?> billing = service.getAllTypes().iterator().next();
+        assertTrue(classifier.is(billing, TypeRole.COMPONENT));
+        assertTrue(classifier.is(reference, TypeRole.COMPONENT));
+    }
+
+    private static CtModel model(String source) {
+        Launcher launcher = new Launcher();
+        launcher.getEnvironment().setNoClasspath(true);
+        launcher.addInputResource(new VirtualFile(source));
+        launcher.buildModel();
+        return launcher.getModel();
+    }
+
+    private static int classify(TypeClassifier classifier, String simpleName, String packageName,
+            String... annotations) {
+        return classifier.classify(simpleName, packageName, true, false, List.of(annotations), Function.identity());
+    }
+}
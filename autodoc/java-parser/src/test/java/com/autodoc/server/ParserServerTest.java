@@ -0,0 +1,98 @@
+package com.autodoc.server;
+
+import com.autodoc.Parser;
+import com.autodoc.ParserOptions;
+import com.autodoc.TempDirTestCase;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+public class ParserServerTest extends TempDirTestCase {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        write("web/OrderController.java", "package com.shop.web;\n"
+                + "import com.shop.dto.OrderDto;\n"
+                + "@RestController @RequestMapping(\"/orders\")\n"
+                + "public class OrderController {\n"
+                + "  @Autowired private OrderService orderService;\n"
+                + "  @GetMapping(\"/{id}\") public OrderDto get(@PathVariable Long id) { return orderService.get(id); }\n"
+                + "}\n");
+        write("dto/OrderDto.java", "package com.shop.dto;\n"
+                + "public class OrderDto { @NotNull private Long id; private java.util.List<String> tags; }\n");
+    }
+
+    public void testRoundTrip() throws Exception {
+        String requests = request(Map.of("id", 1, "source", dir.toString(), "args", List.of("--calls")))
+                + "\n"
+                + request(Map.of("id", 2, "command", "parse", "source", dir.resolve("missing").toString()))
+                + "not json\n"
+                + request(Map.of("id", 3, "command", "shutdown"))
+                + request(Map.of("id", 4, "source", dir.toString()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new ParserServer().serve(new ByteArrayInputStream(requests.getBytes(StandardCharsets.UTF_8)), out);
+
+        // One line per request up to the shutdown; the blank line is skipped
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(4, lines.length);
+
+        JsonNode parsed = mapper.readTree(lines[0]);
+        assertEquals(1, parsed.get("id").asInt());
+        assertTrue(parsed.get("error").isNull());
+        ParserOptions options = ParserOptions.fromArgs(new String[] {dir.toString(), "--calls"});
+        assertEquals(mapper.valueToTree(new Parser(options).parse(dir.toString())), parsed.get("ir"));
+        assertTrue(lines[0], lines[0].contains("/orders/{id}"));
+
+        JsonNode missing = mapper.readTree(lines[1]);
+        assertEquals(2, missing.get("id").asInt());
+        assertTrue(missing.get("ir").isNull());
+        assertTrue(missing.get("error").asText().startsWith("Source not found"));
+
+        assertTrue(mapper.readTree(lines[2]).get("error").asText().startsWith("Invalid request"));
+
+        JsonNode shutdown = mapper.readTree(lines[3]);
+        assertEquals(3, shutdown.get("id").asInt());
+        assertTrue(shutdown.get("error").isNull());
+    }
+
+    public void testRejectsOutputOptions() throws Exception {
+        List<List<String>> rejected = List.of(
+                List.of(dir.resolve("ir.json").toString()),
+                List.of("--format=cbor"),
+                List.of("--stream"),
+                List.of("--pretty"),
+                List.of("--type-table"),
+                List.of("--controller-table"));
+        StringBuilder requests = new StringBuilder();
+        for (int i = 0; i < rejected.size(); i++) {
+            requests.append(request(Map.of("id", i, "source", dir.toString(), "args", rejected.get(i))));
+        }
+        requests.append(request(Map.of("id", rejected.size(), "source", dir.toString(), "args", List.of("--parallel=x"))));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new ParserServer().serve(new ByteArrayInputStream(requests.toString().getBytes(StandardCharsets.UTF_8)), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(rejected.size() + 1, lines.length);
+        for (int i = 0; i < rejected.size(); i++) {
+            JsonNode response = mapper.readTree(lines[i]);
+            assertTrue(response.get("ir").isNull());
+            assertTrue(lines[i], response.get("error").asText().endsWith("is not supported by the server, "
+                    + "which returns the IR in the response"));
+        }
+        assertEquals("--parallel requires a number, got x", mapper.readTree(lines[rejected.size()]).get("error").asText());
+    }
+
+    private String request(Map<String, Object> request) throws Exception {
+        return mapper.writeValueAsString(request) + "\n";
+    }
+}